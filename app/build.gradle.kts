@@ -25,19 +25,176 @@ android {
             )
         }
     }
+    buildFeatures {
+        // AppMetrics stamps its exports with the version and build type
+        buildConfig = true
+    }
+    testOptions {
+        // android.util.Log and friends return defaults in local unit tests instead of throwing
+        unitTests.isReturnDefaultValues = true
+        // Robolectric screen tests inflate the real layouts and copy the prebuilt database asset
+        unitTests.isIncludeAndroidResources = true
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
 }
 
+// Build-time only: SQLite JDBC driver used to produce the prebuilt database asset
+val seedDatabaseTool: Configuration by configurations.creating
+
 dependencies {
 
+    implementation(project(":quiz-core"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    implementation(libs.lifecycle.viewmodel)
     testImplementation(libs.junit)
+    testImplementation(testFixtures(project(":quiz-core")))
+    testImplementation(libs.robolectric)
+    testImplementation(libs.ext.junit)
+    androidTestImplementation(testFixtures(project(":quiz-core")))
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
-}
\ No newline at end of file
+    seedDatabaseTool(libs.sqlite.jdbc)
+}
+
+// Builds a ready-made, indexed QuizApp.db (plus its SHA-256) from src/main/seed and packages it
+// as assets/databases/ so the first launch copies it instead of running DatabaseHelper.onCreate.
+val buildSeedDatabase = tasks.register<BuildSeedDatabaseTask>("buildSeedDatabase") {
+    driverClasspath.from(seedDatabaseTool)
+    seedDir.set(layout.projectDirectory.dir("src/main/seed"))
+}
+
+androidComponents {
+    onVariants { variant ->
+        variant.sources.assets?.addGeneratedSourceDirectory(buildSeedDatabase, BuildSeedDatabaseTask::outputDir)
+    }
+}
+
+abstract class BuildSeedDatabaseTask : DefaultTask() {
+    @get:Classpath
+    abstract val driverClasspath: ConfigurableFileCollection
+
+    @get:InputDirectory
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val seedDir: DirectoryProperty
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    @TaskAction
+    fun build() {
+        val seed = seedDir.get().asFile
+        val out = outputDir.get().asFile.resolve("databases")
+        out.deleteRecursively()
+        out.mkdirs()
+        val dbFile = out.resolve("QuizApp.db")
+
+        val loader = java.net.URLClassLoader(
+            driverClasspath.files.map { it.toURI().toURL() }.toTypedArray(), javaClass.classLoader
+        )
+        val driver = Class.forName("org.sqlite.JDBC", true, loader)
+            .getDeclaredConstructor().newInstance() as java.sql.Driver
+
+        driver.connect("jdbc:sqlite:" + dbFile.absolutePath, java.util.Properties()).use { conn ->
+            conn.autoCommit = false
+            conn.createStatement().use { st -> sqlStatements(seed.resolve("schema.sql")).forEach { st.execute(it) } }
+            conn.prepareStatement("INSERT INTO categories(name, image_res_id) VALUES (?, ?)").use { ps ->
+                readCsv(seed.resolve("categories.csv")).forEach { row ->
+                    ps.setString(1, row[0])
+                    ps.setInt(2, row[1].trim().toInt())
+                    ps.addBatch()
+                }
+                ps.executeBatch()
+            }
+            conn.prepareStatement(
+                "INSERT INTO questions(question, option1, option2, option3, option4, answer_nr, category_id)" +
+                    " VALUES (?, ?, ?, ?, ?, ?, ?)"
+            ).use { ps ->
+                readCsv(seed.resolve("questions.csv")).forEach { row ->
+                    for (i in 0..4) ps.setString(i + 1, row[i])
+                    ps.setInt(6, row[5].trim().toInt())
+                    ps.setInt(7, row[6].trim().toInt())
+                    ps.addBatch()
+                }
+                ps.executeBatch()
+            }
+            conn.createStatement().use { st -> sqlStatements(seed.resolve("indexes.sql")).forEach { st.execute(it) } }
+            conn.commit()
+            conn.autoCommit = true
+            conn.createStatement().use { st ->
+                st.execute("ANALYZE")
+                st.execute("VACUUM")
+            }
+        }
+
+        val digest = java.security.MessageDigest.getInstance("SHA-256")
+        dbFile.inputStream().use { input ->
+            val buffer = ByteArray(64 * 1024)
+            while (true) {
+                val n = input.read(buffer)
+                if (n < 0) break
+                digest.update(buffer, 0, n)
+            }
+        }
+        out.resolve("QuizApp.db.sha256").writeText(digest.digest().joinToString("") { "%02x".format(it) })
+    }
+
+    // Statements end at ';', except inside a CREATE TRIGGER body, which runs up to its END
+    private fun sqlStatements(file: File): List<String> {
+        val statements = mutableListOf<String>()
+        val current = StringBuilder()
+        file.readLines()
+            .filterNot { it.trimStart().startsWith("--") }
+            .joinToString("\n")
+            .split(';')
+            .forEach { part ->
+                current.append(part)
+                val statement = current.toString().trim()
+                if (statement.startsWith("CREATE TRIGGER", ignoreCase = true) &&
+                    !statement.endsWith("END", ignoreCase = true)
+                ) {
+                    current.append(';')
+                } else {
+                    if (statement.isNotEmpty()) statements.add(statement)
+                    current.setLength(0)
+                }
+            }
+        return statements
+    }
+
+    // Same CSV dialect as QuestionImporter: optional quoting with "" escapes, header row skipped
+    private fun readCsv(file: File): List<List<String>> {
+        val rows = mutableListOf<List<String>>()
+        val text = file.readText()
+        var fields = mutableListOf<String>()
+        val field = StringBuilder()
+        var inQuotes = false
+        var i = 0
+        while (i < text.length) {
+            val c = text[i]
+            when {
+                inQuotes && c == '"' && i + 1 < text.length && text[i + 1] == '"' -> { field.append('"'); i++ }
+                c == '"' -> inQuotes = !inQuotes
+                !inQuotes && c == ',' -> { fields.add(field.toString()); field.setLength(0) }
+                !inQuotes && (c == '\n' || c == '\r') -> {
+                    if (c == '\r' && i + 1 < text.length && text[i + 1] == '\n') i++
+                    fields.add(field.toString()); field.setLength(0)
+                    if (fields.any { it.isNotEmpty() }) rows.add(fields)
+                    fields = mutableListOf()
+                }
+                else -> field.append(c)
+            }
+            i++
+        }
+        if (field.isNotEmpty() || fields.isNotEmpty()) {
+            fields.add(field.toString())
+            rows.add(fields)
+        }
+        return rows.drop(1)
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.quizapp;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.quizapp.models.Category;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Scrolls CategoriesActivity through 5,000 categories at a steady speed and records how long every
+ * frame took (FrameMetrics.TOTAL_DURATION). Percentiles and the share of frames over the 16.7 ms
+ * budget are written to logcat under the CategoryScroll tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CategoryScrollFrameTest {
+    private static final String TAG = "CategoryScroll";
+    private static final int CATEGORY_COUNT = 5_000;
+    private static final int SCROLL_FRAMES = 600;
+    private static final int SCROLL_PX_PER_FRAME = 60;
+    private static final long FRAME_BUDGET_NANOS = 16_666_667L;
+
+    @Test
+    public void scrollFiveThousandCategories() throws Exception {
+        try (ActivityScenario<CategoriesActivity> scenario = ActivityScenario.launch(CategoriesActivity.class)) {
+            awaitFirstLoad(scenario);
+
+            // Replace the database categories with a large synthetic list
+            List<Category> categories = new ArrayList<>(CATEGORY_COUNT);
+            for (int i = 1; i <= CATEGORY_COUNT; i++) {
+                Category category = new Category("Category " + i, 0);
+                category.setId(i);
+                categories.add(category);
+            }
+            CountDownLatch committed = new CountDownLatch(1);
+            scenario.onActivity(activity -> activity.getCategoryAdapter().submitList(categories, committed::countDown));
+            assertTrue(committed.await(10, TimeUnit.SECONDS));
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+            HandlerThread metricsThread = new HandlerThread("frame-metrics");
+            metricsThread.start();
+            long[] frames = new long[SCROLL_FRAMES * 2];
+            AtomicInteger frameCount = new AtomicInteger();
+            Window.OnFrameMetricsAvailableListener metricsListener = (window, metrics, dropped) -> {
+                int i = frameCount.getAndIncrement();
+                if (i < frames.length) {
+                    frames[i] = metrics.getMetric(FrameMetrics.TOTAL_DURATION);
+                }
+            };
+
+            CountDownLatch scrolled = new CountDownLatch(1);
+            scenario.onActivity(activity -> {
+                activity.getWindow().addOnFrameMetricsAvailableListener(metricsListener,
+                        new Handler(metricsThread.getLooper()));
+                RecyclerView list = activity.findViewById(R.id.rv_categories);
+                // Scroll a fixed distance on every vsync, like a steady drag
+                Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                    int remaining = SCROLL_FRAMES;
+
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        list.scrollBy(0, SCROLL_PX_PER_FRAME);
+                        if (--remaining > 0) {
+                            Choreographer.getInstance().postFrameCallback(this);
+                        } else {
+                            scrolled.countDown();
+                        }
+                    }
+                });
+            });
+            assertTrue(scrolled.await(60, TimeUnit.SECONDS));
+            SystemClock.sleep(200);
+            scenario.onActivity(activity -> activity.getWindow().removeOnFrameMetricsAvailableListener(metricsListener));
+            metricsThread.quitSafely();
+
+            int count = Math.min(frameCount.get(), frames.length);
+            assertTrue("no frames recorded", count > 0);
+            long[] sorted = Arrays.copyOf(frames, count);
+            Arrays.sort(sorted);
+            int janky = 0;
+            for (long duration : sorted) {
+                if (duration > FRAME_BUDGET_NANOS) {
+                    janky++;
+                }
+            }
+            Log.i(TAG, String.format("%d frames over %d categories: p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, "
+                            + "max %.1f ms, %.1f%% over budget", count, CATEGORY_COUNT,
+                    percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                    sorted[count - 1] / 1e6, 100.0 * janky / count));
+
+            scenario.onActivity(activity -> {
+                RecyclerView list = activity.findViewById(R.id.rv_categories);
+                assertEquals(CATEGORY_COUNT, list.getAdapter().getItemCount());
+            });
+        }
+    }
+
+    private static void awaitFirstLoad(ActivityScenario<CategoriesActivity> scenario) {
+        long deadline = SystemClock.elapsedRealtime() + 5000;
+        AtomicInteger count = new AtomicInteger();
+        do {
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+            scenario.onActivity(activity -> count.set(activity.getCategoryAdapter().getItemCount()));
+            if (count.get() > 0) {
+                return;
+            }
+            SystemClock.sleep(20);
+        } while (SystemClock.elapsedRealtime() < deadline);
+        fail("Categories did not load");
+    }
+
+    private static double percentile(long[] sorted, int percent) {
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percent / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
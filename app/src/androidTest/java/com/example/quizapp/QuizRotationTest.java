@@ -0,0 +1,89 @@
+package com.example.quizapp;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.SystemClock;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.quizapp.db.AsyncRepository;
+import com.example.quizapp.models.Question;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Recreates QuizActivity (as a rotation does) many times in the middle of a quiz and checks that the
+ * quiz carries on where it was without a single extra database operation.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QuizRotationTest {
+    private static final int RECREATIONS = 50;
+
+    @Test
+    public void recreatingMidQuizKeepsStateAndDoesNoQueries() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        Intent intent = new Intent(context, QuizActivity.class)
+                .putExtra("CATEGORY_ID", 2)
+                .putExtra("QUIZ_SEED", 42L);
+
+        try (ActivityScenario<QuizActivity> scenario = ActivityScenario.launch(intent)) {
+            awaitQuestion(scenario);
+
+            // Answer the first question and move on to the second one
+            scenario.onActivity(activity -> {
+                QuizViewModel viewModel = activity.getViewModel();
+                viewModel.answer(viewModel.getCurrentQuestion().getAnswerNr());
+                viewModel.nextQuestion();
+            });
+            awaitQuestion(scenario);
+
+            AtomicReference<QuizViewModel> viewModelBefore = new AtomicReference<>();
+            AtomicReference<Question> questionBefore = new AtomicReference<>();
+            scenario.onActivity(activity -> {
+                viewModelBefore.set(activity.getViewModel());
+                questionBefore.set(activity.getViewModel().getCurrentQuestion());
+            });
+            long timeLeftBefore = viewModelBefore.get().getTimeLeftInMillis();
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+            long submittedBefore = AsyncRepository.getSubmittedCount();
+
+            for (int i = 0; i < RECREATIONS; i++) {
+                scenario.recreate();
+            }
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+            assertEquals("no database work after recreation", submittedBefore, AsyncRepository.getSubmittedCount());
+            scenario.onActivity(activity -> {
+                QuizViewModel viewModel = activity.getViewModel();
+                assertSame(viewModelBefore.get(), viewModel);
+                assertSame(questionBefore.get(), viewModel.getCurrentQuestion());
+                assertEquals(2, viewModel.getQuestionNumber());
+                assertEquals(1, viewModel.getScore());
+                assertFalse(viewModel.isAnswered());
+                // The timer kept running instead of starting over
+                assertTrue(viewModel.getTimeLeftInMillis() <= timeLeftBefore);
+            });
+        }
+    }
+
+    private static void awaitQuestion(ActivityScenario<QuizActivity> scenario) {
+        long deadline = SystemClock.elapsedRealtime() + 5000;
+        AtomicReference<QuizViewModel.Status> status = new AtomicReference<>();
+        do {
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+            scenario.onActivity(activity -> status.set(activity.getViewModel().getStatus()));
+            if (status.get() == QuizViewModel.Status.QUESTION) {
+                return;
+            }
+            SystemClock.sleep(20);
+        } while (SystemClock.elapsedRealtime() < deadline);
+        fail("Quiz did not show a question, status " + status.get());
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.quizapp;
+
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Color;
+import android.os.SystemClock;
+import android.widget.Button;
+import android.widget.RadioButton;
+import android.widget.TextView;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the question countdown of QuizActivity on a fake clock and checks, to the millisecond, that
+ * running out of time submits whatever is selected (or nothing) exactly once.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QuizTimeoutTest {
+
+    // Clock and scheduler in one; time only moves in advance(), which must run on the main thread
+    private static final class FakeTime implements QuizTimer.Clock, QuizTimer.Scheduler {
+        long now;
+        Runnable task;
+        long taskTime;
+
+        @Override
+        public long now() {
+            return now;
+        }
+
+        @Override
+        public void scheduleAt(Runnable task, long time) {
+            this.task = task;
+            this.taskTime = time;
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            if (this.task == task) {
+                this.task = null;
+            }
+        }
+
+        void advance(long millis) {
+            long end = now + millis;
+            while (task != null && taskTime <= end) {
+                now = taskTime;
+                Runnable due = task;
+                task = null;
+                due.run();
+            }
+            now = end;
+        }
+    }
+
+    @Test
+    public void timeOutSubmitsTheSelectedAnswer() {
+        try (ActivityScenario<QuizActivity> scenario = ActivityScenario.launch(quizIntent())) {
+            awaitQuestion(scenario);
+            FakeTime time = new FakeTime();
+            scenario.onActivity(activity -> {
+                QuizViewModel viewModel = activity.getViewModel();
+                viewModel.setTimer(new QuizTimer(time, time));
+                // Select the right option but never confirm it
+                int[] options = {R.id.rb_option1, R.id.rb_option2, R.id.rb_option3, R.id.rb_option4};
+                RadioButton correct = activity.findViewById(options[viewModel.getCurrentQuestion().getAnswerNr() - 1]);
+                correct.setChecked(true);
+
+                // The question continues on the fake clock with the time it had left
+                long timeLeft = viewModel.getTimeLeftInMillis();
+                assertTrue(timeLeft > 0 && timeLeft <= QuizViewModel.COUNTDOWN_IN_MILLIS);
+                time.advance(timeLeft - 1);
+                TextView tvTimer = activity.findViewById(R.id.tv_timer);
+                assertEquals("00:01", tvTimer.getText().toString());
+                assertEquals(Color.RED, tvTimer.getCurrentTextColor());
+                assertFalse(viewModel.isAnswered());
+
+                time.advance(1);
+                assertEquals("00:00", tvTimer.getText().toString());
+                assertTrue(viewModel.isAnswered());
+                assertEquals(1, viewModel.getScore());
+                Button next = activity.findViewById(R.id.btn_confirm_next);
+                assertEquals("Next", next.getText().toString());
+
+                // Nothing more happens once the question has timed out
+                time.advance(QuizViewModel.COUNTDOWN_IN_MILLIS);
+                assertEquals(1, viewModel.getScore());
+            });
+        }
+    }
+
+    @Test
+    public void timeOutWithoutSelectionScoresNothing() {
+        try (ActivityScenario<QuizActivity> scenario = ActivityScenario.launch(quizIntent())) {
+            awaitQuestion(scenario);
+            FakeTime time = new FakeTime();
+            scenario.onActivity(activity -> {
+                QuizViewModel viewModel = activity.getViewModel();
+                viewModel.setTimer(new QuizTimer(time, time));
+                time.advance(QuizViewModel.COUNTDOWN_IN_MILLIS);
+                assertTrue(viewModel.isAnswered());
+                assertEquals(0, viewModel.getScore());
+                assertEquals(0, viewModel.getTimeLeftInMillis());
+            });
+        }
+    }
+
+    private static Intent quizIntent() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        return new Intent(context, QuizActivity.class)
+                .putExtra("CATEGORY_ID", 2)
+                .putExtra("QUIZ_SEED", 42L);
+    }
+
+    private static void awaitQuestion(ActivityScenario<QuizActivity> scenario) {
+        long deadline = SystemClock.elapsedRealtime() + 5000;
+        AtomicReference<QuizViewModel.Status> status = new AtomicReference<>();
+        do {
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+            scenario.onActivity(activity -> status.set(activity.getViewModel().getStatus()));
+            if (status.get() == QuizViewModel.Status.QUESTION) {
+                return;
+            }
+            SystemClock.sleep(20);
+        } while (SystemClock.elapsedRealtime() < deadline);
+        fail("Quiz did not show a question, status " + status.get());
+    }
+}
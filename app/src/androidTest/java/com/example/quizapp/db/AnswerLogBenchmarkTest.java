@@ -0,0 +1,124 @@
+package com.example.quizapp.db;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.quizapp.models.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the attempt history written by AnswerLog and compares it with writing every answer in its own
+ * auto-committed statement. Results are written to logcat under the AnswerLogBenchmark tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AnswerLogBenchmarkTest {
+    private static final String TAG = "AnswerLogBenchmark";
+    private static final String TEST_DB = "answer-log-benchmark.db";
+    private static final int EVENTS = 2_000;
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+        helper = new DatabaseHelper(context, TEST_DB);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void finishClosesAttemptAndUpdatesStats() {
+        long userId = helper.addUser(new User("bench", "pw"));
+
+        AnswerLog log = new AnswerLog(helper, userId, 1, 99L);
+        for (int i = 1; i <= 10; i++) {
+            log.record(i, i, 1, i % 2 == 0, 1000L * i);
+        }
+        log.flushNow();
+        long attemptId = log.getAttemptId();
+        assertTrue(attemptId > 0);
+        assertEquals(0, log.pending());
+
+        // A new log for the same seed, as after process death, continues the unfinished attempt
+        AnswerLog resumed = new AnswerLog(helper, userId, 1, 99L);
+        resumed.finish(5, 10);
+        resumed.flushNow();
+        assertEquals(attemptId, resumed.getAttemptId());
+
+        SQLiteDatabase db = helper.getReadableDatabase();
+        assertEquals(10, DatabaseUtils.queryNumEntries(db, DatabaseHelper.TABLE_QUIZ_ANSWERS));
+        assertEquals(1, DatabaseUtils.queryNumEntries(db, DatabaseHelper.TABLE_QUIZ_ATTEMPTS,
+                DatabaseHelper.KEY_ATTEMPT_FINISHED + " IS NOT NULL"));
+        assertEquals(5, helper.getCategoryDashboard(userId).get(0).getBestScore());
+    }
+
+    @Test
+    public void answersOutgrowingTheBufferWhileTheDatabaseIsBusyAreKept() {
+        int answers = AnswerLog.CAPACITY * 3;
+        AnswerLog log = new AnswerLog(helper, -1, 1, 5L);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        // The background writer waits for this transaction; recording must neither wait nor write inline
+        db.beginTransaction();
+        try {
+            for (int i = 1; i <= answers; i++) {
+                log.record(i, i, 1, true, 500);
+            }
+            assertEquals(answers, log.pending());
+        } finally {
+            db.endTransaction();
+        }
+        log.finish(answers, answers);
+        log.flushNow();
+
+        assertEquals(0, log.pending());
+        assertEquals(answers, DatabaseUtils.queryNumEntries(db, DatabaseHelper.TABLE_QUIZ_ANSWERS));
+    }
+
+    @Test
+    public void batchedVersusPerEventWrites() {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        QuizStatements statements = helper.statements();
+        long attemptId = statements.openAttempt(-1, 1, 1L, System.currentTimeMillis());
+
+        // Every answer in its own implicit transaction, one journal commit each
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            statements.insertAnswer(attemptId, i + 1, i, 1, true, 500, System.currentTimeMillis());
+        }
+        long perEventNanos = System.nanoTime() - start;
+
+        // The write-behind path: a drain per FLUSH_EVERY answers, done inline so it can be timed
+        AnswerLog log = new AnswerLog(helper, -1, 1, 2L);
+        start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            log.record(i + 1, i, 1, true, 500);
+            if (log.pending() >= AnswerLog.FLUSH_EVERY) {
+                log.flushNow();
+            }
+        }
+        log.finish(EVENTS, EVENTS);
+        log.flushNow();
+        long batchedNanos = System.nanoTime() - start;
+
+        assertEquals(2L * EVENTS, DatabaseUtils.queryNumEntries(db, DatabaseHelper.TABLE_QUIZ_ANSWERS));
+        Log.i(TAG, String.format("%d answers: per-event %.1f ms, batched %.1f ms (%.2fx)", EVENTS,
+                perEventNanos / 1e6, batchedNanos / 1e6, (double) perEventNanos / Math.max(1, batchedNanos)));
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.quizapp.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.quizapp.models.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that passwords are only ever stored hashed, that legacy plaintext rows and weaker hashes are
+ * upgraded, and measures login latency under the calibrated policy against the plaintext comparison
+ * it replaced. Results are written to logcat under the CredentialBenchmark tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CredentialBenchmarkTest {
+    private static final String TAG = "CredentialBenchmark";
+    private static final String TEST_DB = "credential-benchmark.db";
+    private static final int LOGINS = 20;
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+        helper = new DatabaseHelper(context, TEST_DB);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void passwordsAreStoredHashed() {
+        assertTrue(helper.addUser(new User("alice", "secret")) > 0);
+        assertNull(storedPlaintext("alice"));
+        assertTrue(storedIterations("alice") >= PasswordHasher.MIN_ITERATIONS);
+        assertTrue(helper.checkUser("ALICE", "secret"));
+        assertFalse(helper.checkUser("alice", "Secret"));
+        assertFalse(helper.checkUser("nobody", "secret"));
+
+        assertTrue(helper.updatePassword("alice", "changed"));
+        assertNull(storedPlaintext("alice"));
+        assertFalse(helper.checkUser("alice", "secret"));
+        assertTrue(helper.checkUser("alice", "changed"));
+    }
+
+    @Test
+    public void plaintextRowsAreMigrated() {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.execSQL("INSERT INTO users(username, password) VALUES ('legacy1', 'one'), ('legacy2', 'two')");
+
+        // A login upgrades its own row at once
+        assertTrue(helper.authenticate("legacy1", "one") > 0);
+        assertNull(storedPlaintext("legacy1"));
+        // The startup stage picks up everyone else
+        assertEquals(1, helper.migratePlaintextPasswords());
+        assertNull(storedPlaintext("legacy2"));
+        assertEquals(0, helper.migratePlaintextPasswords());
+        assertTrue(helper.checkUser("legacy2", "two"));
+        assertFalse(helper.checkUser("legacy2", "one"));
+    }
+
+    @Test
+    public void weakerHashIsUpgradedOnLogin() {
+        helper.setPasswordHasher(new PasswordHasher(PasswordHasher.MIN_ITERATIONS));
+        helper.addUser(new User("bob", "pw"));
+        assertEquals(PasswordHasher.MIN_ITERATIONS, storedIterations("bob"));
+
+        helper.setPasswordHasher(new PasswordHasher(PasswordHasher.MIN_ITERATIONS * 3));
+        assertFalse(helper.checkUser("bob", "wrong"));
+        assertEquals(PasswordHasher.MIN_ITERATIONS, storedIterations("bob"));
+        assertTrue(helper.checkUser("bob", "pw"));
+        assertEquals(PasswordHasher.MIN_ITERATIONS * 3, storedIterations("bob"));
+        assertTrue(helper.checkUser("bob", "pw"));
+    }
+
+    @Test
+    public void failedLoginsTakeAsLongWhateverTheAccount() {
+        helper.setPasswordHasher(new PasswordHasher(PasswordHasher.MIN_ITERATIONS * 4));
+        helper.addUser(new User("hashed", "pw"));
+        helper.getWritableDatabase().execSQL("INSERT INTO users(username, password) VALUES ('legacy', 'pw')");
+
+        // Fastest of several tries, so a busy device only ever makes a path look slower
+        long hashed = fastestFailedLogin("hashed");
+        long missing = fastestFailedLogin("nobody");
+        long plaintext = fastestFailedLogin("legacy");
+        Log.i(TAG, String.format("Failed login: hashed %.1f ms, unknown user %.1f ms, plaintext row %.1f ms",
+                hashed / 1e6, missing / 1e6, plaintext / 1e6));
+        assertTrue(missing > hashed / 2);
+        assertTrue(plaintext > hashed / 2);
+        // A failed login leaves the legacy row as it was
+        assertEquals("pw", storedPlaintext("legacy"));
+    }
+
+    private long fastestFailedLogin(String username) {
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long t = System.nanoTime();
+            assertEquals(-1, helper.authenticate(username, "wrong"));
+            fastest = Math.min(fastest, System.nanoTime() - t);
+        }
+        return fastest;
+    }
+
+    @Test
+    public void loginLatencyUnderCalibratedPolicy() {
+        long start = System.nanoTime();
+        int iterations = PasswordHasher.calibrate(PasswordHasher.TARGET_MILLIS);
+        long calibrationNanos = System.nanoTime() - start;
+        helper.setPasswordHasher(new PasswordHasher(iterations));
+        helper.addUser(new User("carol", "correct horse"));
+        helper.authenticate("carol", "correct horse");
+
+        long[] hit = new long[LOGINS];
+        long[] miss = new long[LOGINS];
+        for (int i = 0; i < LOGINS; i++) {
+            long t = System.nanoTime();
+            assertTrue(helper.authenticate("carol", "correct horse") > 0);
+            hit[i] = System.nanoTime() - t;
+            t = System.nanoTime();
+            assertEquals(-1, helper.authenticate(i % 2 == 0 ? "carol" : "nobody", "battery staple"));
+            miss[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(hit);
+        Arrays.sort(miss);
+
+        // The query the hash replaced: plaintext equality in SQL
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.execSQL("INSERT INTO users(username, password) VALUES ('dave', 'pw')");
+        long plainStart = System.nanoTime();
+        for (int i = 0; i < LOGINS; i++) {
+            try (Cursor cursor = db.rawQuery("SELECT id FROM users WHERE username = ? COLLATE NOCASE"
+                    + " AND password = ?", new String[]{"dave", "pw"})) {
+                assertTrue(cursor.moveToFirst());
+            }
+        }
+        double plainMillis = (System.nanoTime() - plainStart) / 1e6 / LOGINS;
+
+        Log.i(TAG, String.format("Calibrated to %d iterations in %.0f ms; login p50 %.1f ms, max %.1f ms;"
+                        + " rejected p50 %.1f ms; plaintext query %.2f ms", iterations, calibrationNanos / 1e6,
+                hit[LOGINS / 2] / 1e6, hit[LOGINS - 1] / 1e6, miss[LOGINS / 2] / 1e6, plainMillis));
+        // Unless the floor applies, a login costs about the target; unknown users cost the same as known ones
+        if (iterations > PasswordHasher.MIN_ITERATIONS) {
+            assertTrue(hit[LOGINS / 2] / 1e6 < PasswordHasher.TARGET_MILLIS * 3);
+        }
+        assertTrue(miss[LOGINS / 2] > hit[LOGINS / 2] / 2);
+    }
+
+    private String storedPlaintext(String username) {
+        try (Cursor cursor = helper.getReadableDatabase().rawQuery("SELECT password FROM users"
+                + " WHERE username = ?", new String[]{username})) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getString(0);
+        }
+    }
+
+    private int storedIterations(String username) {
+        try (Cursor cursor = helper.getReadableDatabase().rawQuery("SELECT password_iterations FROM users"
+                + " WHERE username = ?", new String[]{username})) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getInt(0);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.quizapp.db;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that every caller shares one DatabaseHelper and that it never holds more than one connection.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseProviderTest {
+
+    @After
+    public void tearDown() {
+        DatabaseProvider.close();
+    }
+
+    @Test
+    public void sharesOneHelperAndOneConnection() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+        DatabaseHelper first = DatabaseProvider.get(context);
+        DatabaseHelper second = DatabaseProvider.get(context);
+        assertSame(first, second);
+
+        first.getReadableDatabase();
+        second.getWritableDatabase();
+        first.getAllCategories();
+        assertEquals(1, DatabaseProvider.getOpenConnectionCount());
+
+        DatabaseProvider.close();
+        assertEquals(0, DatabaseProvider.getOpenConnectionCount());
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.quizapp.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.quizapp.core.EloRating;
+import com.example.quizapp.core.ReviewScheduler;
+import com.example.quizapp.models.Category;
+import com.example.quizapp.models.LeaderboardEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Upgrades a hand-built v2 database and checks that data survives and the hot queries use the new indexes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+    private static final String TEST_DB = "migration-test.db";
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+        createVersion2Database();
+        helper = new DatabaseHelper(context, TEST_DB);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void upgradeKeepsUsersAndQuestions() {
+        assertTrue(helper.checkUser("alice", "secret"));
+        assertTrue(helper.checkUserExists("ALICE"));
+        // The case-insensitive duplicate was renamed, not deleted
+        assertTrue(helper.checkUserExists("Alice_2"));
+        assertEquals(2, helper.getQuestionsByCategory(1).size());
+        assertEquals(DatabaseHelper.DATABASE_VERSION, helper.getReadableDatabase().getVersion());
+    }
+
+    @Test
+    public void renamedDuplicatesNeverTakeAnExistingName() {
+        assertTrue(helper.checkUser("bob", "b1"));
+        assertTrue(helper.checkUser("bob_4", "b3"));
+        assertTrue(helper.checkUser("BOB_4_2", "b2"));
+        assertTrue(helper.checkUser("USER_6", "n2"));
+        assertTrue(helper.checkUser("user_6_2", "n1"));
+    }
+
+    @Test
+    public void hotQueriesUseIndexes() {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        assertPlanUses(db, "SELECT * FROM questions WHERE category_id = 1",
+                DatabaseHelper.INDEX_QUESTIONS_CATEGORY);
+        assertPlanUses(db, "SELECT id FROM users WHERE username = 'alice' COLLATE NOCASE AND password = 'x'",
+                DatabaseHelper.INDEX_USERS_USERNAME);
+        assertPlanUses(db, "SELECT id FROM users WHERE username = 'alice' COLLATE NOCASE",
+                DatabaseHelper.INDEX_USERS_USERNAME);
+        assertPlanUses(db, "SELECT COUNT(*) FROM review_state WHERE user_id = 1 AND due_at <= 1000",
+                DatabaseHelper.INDEX_REVIEW_STATE_DUE);
+        assertPlanUses(db, "SELECT id FROM users WHERE rated_answers > 0 ORDER BY rating DESC LIMIT 5",
+                DatabaseHelper.INDEX_USERS_RATING);
+        assertPlanUses(db, "SELECT id FROM questions WHERE category_id = 1 AND difficulty >= 1500"
+                + " ORDER BY difficulty LIMIT 10", DatabaseHelper.INDEX_QUESTIONS_DIFFICULTY);
+    }
+
+    @Test
+    public void answersMoveRatingsAndTheLeaderboard() {
+        long alice = helper.authenticate("alice", "secret");
+        long[] ids = helper.sampleQuestionIds(1, 2, 1L);
+        AnswerLog log = new AnswerLog(helper, alice, 1, 7L);
+        log.record(1, ids[0], 1, true, 3000);
+        log.record(2, ids[1], 2, false, 3000);
+        log.finish(1, 2);
+        log.flushNow();
+        assertFalse(AnswerLog.hasPendingResults());
+
+        // Each answer moved the user and its question from their values before it
+        double start = EloRating.INITIAL_RATING;
+        double afterFirst = EloRating.nextRating(start, 0, start, true);
+        LeaderboardEntry standing = helper.getUserStanding(alice);
+        assertEquals(1, standing.getRank());
+        assertEquals(2, standing.getRatedAnswers());
+        assertEquals(EloRating.nextRating(afterFirst, 1, start, false), standing.getRating(), 1e-6);
+
+        // Users without a rated answer are not ranked
+        long other = helper.authenticate("Alice_2", "other");
+        assertFalse(helper.getUserStanding(other).isRanked());
+        List<LeaderboardEntry> leaderboard = helper.getLeaderboard(10);
+        assertEquals(1, leaderboard.size());
+        assertEquals("alice", leaderboard.get(0).getUsername());
+
+        // The question answered correctly became easier, the missed one harder
+        assertArrayEquals(new long[]{ids[0]}, helper.sampleQuestionIdsNear(1, 0, 1, 1L));
+        assertArrayEquals(new long[]{ids[1]}, helper.sampleQuestionIdsNear(1, 3000, 1, 1L));
+        assertEquals(2, helper.sampleQuestionIdsNear(1, start, 10, 1L).length);
+        assertEquals(0, helper.sampleQuestionIdsNear(1, start, 0, 1L).length);
+        assertEquals(0, helper.sampleQuestionIdsNear(1, start, -1, 1L).length);
+    }
+
+    @Test
+    public void openAttemptsAreOnlyResumedByTheirOwnUser() {
+        long alice = helper.authenticate("alice", "secret");
+        long other = helper.authenticate("Alice_2", "other");
+        long[] ids = helper.sampleQuestionIds(1, 2, 1L);
+        // Both play the same category with the same fixed seed and leave it unfinished
+        AnswerLog aliceLog = new AnswerLog(helper, alice, 1, 99L);
+        aliceLog.record(1, ids[0], 1, true, 3000);
+        aliceLog.flushNow();
+        AnswerLog otherLog = new AnswerLog(helper, other, 1, 99L);
+        otherLog.record(1, ids[0], 2, false, 3000);
+        otherLog.flushNow();
+        assertNotEquals(aliceLog.getAttemptId(), otherLog.getAttemptId());
+        assertEquals(other, attemptUser(otherLog.getAttemptId()));
+
+        // A resumed quiz (same seed, new log) continues the user's own attempt
+        AnswerLog resumed = new AnswerLog(helper, alice, 1, 99L);
+        resumed.record(2, ids[1], 1, true, 3000);
+        resumed.flushNow();
+        assertEquals(aliceLog.getAttemptId(), resumed.getAttemptId());
+        assertEquals(alice, attemptUser(resumed.getAttemptId()));
+    }
+
+    private long attemptUser(long attemptId) {
+        try (Cursor cursor = helper.getReadableDatabase().rawQuery(
+                "SELECT user_id FROM quiz_attempts WHERE id = " + attemptId, null)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+
+    @Test
+    public void reviewStateFollowsAnswersAndDeletedQuestions() {
+        long alice = helper.authenticate("alice", "secret");
+        ReviewScheduler reviews = helper.loadReviewScheduler(alice, 1, 42L);
+        assertEquals(2, reviews.size());
+        long[] quiz = reviews.next(10, 0);
+        assertEquals(2, quiz.length);
+        assertTrue(reviews.isNew(quiz[0]));
+
+        // The answer log stores the updated state with the answer
+        reviews.record(quiz[0], 1, 1000L);
+        AnswerLog log = new AnswerLog(helper, alice, 1, 42L);
+        log.record(1, quiz[0], 2, false, 5000, reviews);
+        log.flushNow();
+
+        ReviewScheduler reloaded = helper.loadReviewScheduler(alice, 1, 42L);
+        assertFalse(reloaded.isNew(quiz[0]));
+        assertEquals(reviews.getDueAt(quiz[0]), reloaded.getDueAt(quiz[0]));
+        assertEquals(reviews.getEase(quiz[0]), reloaded.getEase(quiz[0]), 1e-9);
+        assertEquals(1, helper.countDueReviews(alice, reviews.getDueAt(quiz[0])));
+        assertEquals(0, helper.countDueReviews(alice, 1000L));
+
+        helper.getWritableDatabase().execSQL("DELETE FROM questions WHERE id = " + quiz[0]);
+        assertEquals(0, helper.countDueReviews(alice, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void foreignKeysAreEnforced() {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        try {
+            db.execSQL("INSERT INTO questions(question, answer_nr, category_id) VALUES ('orphan', 1, 999)");
+            fail("Insert into a missing category should violate the foreign key");
+        } catch (android.database.SQLException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void dashboardSummaryIsBackfilledAndMaintained() {
+        long alice = helper.authenticate("alice", "secret");
+        assertTrue(alice > 0);
+
+        // Backfilled by the v5 step: the orphan question was dropped by v3, two remain
+        Category general = helper.getCategoryDashboard(alice).get(0);
+        assertEquals(2, general.getQuestionCount());
+        assertFalse(general.hasBeenPlayed());
+
+        // Triggers keep the count current on insert, move and delete
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.execSQL("INSERT INTO categories(name, image_res_id) VALUES ('Science', 0)");
+        db.execSQL("INSERT INTO questions(question, answer_nr, category_id) VALUES ('Q3', 1, 1), ('Q4', 1, 2)");
+        db.execSQL("UPDATE questions SET category_id = 2 WHERE question = 'Q1'");
+        db.execSQL("DELETE FROM questions WHERE question = 'Q2'");
+        List<Category> dashboard = helper.getCategoryDashboard(alice);
+        assertEquals(1, dashboard.get(0).getQuestionCount());
+        assertEquals(2, dashboard.get(1).getQuestionCount());
+
+        // Best score is compared as a fraction; attempts and last play always advance
+        helper.recordQuizResult(alice, 1, 3, 4, 1000L);
+        helper.recordQuizResult(alice, 1, 5, 10, 2000L);
+        general = helper.getCategoryDashboard(alice).get(0);
+        assertEquals(3, general.getBestScore());
+        assertEquals(4, general.getBestTotal());
+        assertEquals(2000L, general.getLastPlayedAt());
+
+        // Stats are per user
+        long other = helper.authenticate("Alice_2", "other");
+        assertFalse(helper.getCategoryDashboard(other).get(0).hasBeenPlayed());
+    }
+
+    private void assertPlanUses(SQLiteDatabase db, String sql, String index) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, null)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        assertTrue("Plan does not use " + index + ":\n" + plan, plan.toString().contains(index));
+    }
+
+    // Schema and data exactly as DATABASE_VERSION 2 shipped them
+    private void createVersion2Database() {
+        File file = context.getDatabasePath(TEST_DB);
+        file.getParentFile().mkdirs();
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(file, null);
+        db.execSQL("CREATE TABLE users(id INTEGER PRIMARY KEY AUTOINCREMENT,username TEXT,password TEXT)");
+        db.execSQL("CREATE TABLE categories(id INTEGER PRIMARY KEY AUTOINCREMENT,name TEXT,image_res_id INTEGER)");
+        db.execSQL("CREATE TABLE questions(id INTEGER PRIMARY KEY AUTOINCREMENT,question TEXT,option1 TEXT,"
+                + "option2 TEXT,option3 TEXT,option4 TEXT,answer_nr INTEGER,category_id INTEGER)");
+        db.execSQL("INSERT INTO users(username, password) VALUES ('alice', 'secret'), ('Alice', 'other')");
+        // Renaming BOB (id 4) to BOB_4 and the nameless id 6 to user_6 would collide with existing accounts
+        db.execSQL("INSERT INTO users(username, password) VALUES ('bob', 'b1'), ('BOB', 'b2'), ('bob_4', 'b3'),"
+                + " (NULL, 'n1'), ('USER_6', 'n2')");
+        db.execSQL("INSERT INTO categories(name, image_res_id) VALUES ('General Knowledge', 0)");
+        db.execSQL("INSERT INTO questions(question, option1, option2, option3, option4, answer_nr, category_id)"
+                + " VALUES ('Q1', 'a', 'b', 'c', 'd', 1, 1), ('Q2', 'a', 'b', 'c', 'd', 2, 1),"
+                + " ('Orphan', 'a', 'b', 'c', 'd', 3, 42)");
+        db.setVersion(2);
+        db.close();
+    }
+}
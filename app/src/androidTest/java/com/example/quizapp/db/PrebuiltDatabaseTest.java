@@ -0,0 +1,143 @@
+package com.example.quizapp.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the packaged QuizApp.db asset against the schema DatabaseHelper.onCreate builds (the v3 tables plus
+ * every SchemaMigrations step), down to the text of each trigger, and that a corrupt copy is rejected so the
+ * app falls back to onCreate seeding.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PrebuiltDatabaseTest {
+    private static final String TAG = "PrebuiltDatabaseTest";
+    private static final String PREBUILT_DB = "prebuilt-test.db";
+    private static final String CREATED_DB = "created-test.db";
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(PREBUILT_DB);
+        context.deleteDatabase(CREATED_DB);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(PREBUILT_DB);
+        context.deleteDatabase(CREATED_DB);
+    }
+
+    @Test
+    public void prebuiltSchemaMatchesOnCreate() throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        DatabaseHelper prebuilt = new DatabaseHelper(context, PREBUILT_DB);
+        assertEquals(3, prebuilt.getAllCategories().size());
+        long prebuiltMillis = SystemClock.elapsedRealtime() - start;
+
+        // An empty file skips the asset copy, so this helper goes through onCreate
+        File created = context.getDatabasePath(CREATED_DB);
+        created.getParentFile().mkdirs();
+        assertTrue(created.createNewFile());
+        start = SystemClock.elapsedRealtime();
+        DatabaseHelper fromOnCreate = new DatabaseHelper(context, CREATED_DB);
+        assertEquals(3, fromOnCreate.getAllCategories().size());
+        long onCreateMillis = SystemClock.elapsedRealtime() - start;
+
+        Log.i(TAG, "First open: prebuilt asset " + prebuiltMillis + " ms, onCreate seeding " + onCreateMillis + " ms");
+        try {
+            assertEquals(describeSchema(fromOnCreate.getReadableDatabase()),
+                    describeSchema(prebuilt.getReadableDatabase()));
+            assertEquals(fromOnCreate.getQuestionsByCategory(2).size(), prebuilt.getQuestionsByCategory(2).size());
+        } finally {
+            prebuilt.close();
+            fromOnCreate.close();
+        }
+    }
+
+    @Test
+    public void prebuiltAssetIsAtTheCurrentVersion() {
+        // Read the copied file directly: opening it through DatabaseHelper would migrate it first
+        assertTrue(PrebuiltDatabaseInstaller.installIfNeeded(context, PREBUILT_DB));
+        SQLiteDatabase db = SQLiteDatabase.openDatabase(context.getDatabasePath(PREBUILT_DB).getPath(), null,
+                SQLiteDatabase.OPEN_READONLY);
+        try {
+            assertEquals(DatabaseHelper.DATABASE_VERSION, db.getVersion());
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void corruptCopyIsRejected() throws IOException {
+        File target = context.getDatabasePath(PREBUILT_DB);
+        byte[] notADatabase = "definitely not sqlite".getBytes();
+        assertFalse(PrebuiltDatabaseInstaller.install(new ByteArrayInputStream(notADatabase), "00", target));
+        assertFalse(target.exists());
+    }
+
+    // Tables, columns, foreign keys, indexes and every object's CREATE statement, so a trigger whose body
+    // drifted from its migration step shows up too
+    private static String describeSchema(SQLiteDatabase db) {
+        TreeMap<String, String> schema = new TreeMap<>();
+        try (Cursor objects = db.rawQuery("SELECT type, name, tbl_name, sql FROM sqlite_master"
+                + " WHERE name NOT LIKE 'sqlite_%' AND name != 'android_metadata'", null)) {
+            while (objects.moveToNext()) {
+                String type = objects.getString(0);
+                String name = objects.getString(1);
+                StringBuilder description = new StringBuilder(type).append(" on ").append(objects.getString(2))
+                        .append(": ").append(normalize(objects.getString(3)));
+                if ("table".equals(type)) {
+                    appendRows(db, "PRAGMA table_info(" + name + ")", description);
+                    appendRows(db, "PRAGMA foreign_key_list(" + name + ")", description);
+                } else if ("index".equals(type)) {
+                    appendRows(db, "PRAGMA index_xinfo(" + name + ")", description);
+                }
+                schema.put(type + " " + name, description.toString());
+            }
+        }
+        return schema.toString();
+    }
+
+    // The statement without the quoting, case and whitespace that differ between one written out in
+    // schema.sql and one assembled by a migration step (ALTER TABLE appends its column to the stored text)
+    private static String normalize(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        return sql.replace("\"", "").toLowerCase(Locale.ROOT).replaceAll("\\s+", " ")
+                .replaceAll(" ?([(),;=<>]) ?", "$1").trim();
+    }
+
+    private static void appendRows(SQLiteDatabase db, String pragma, StringBuilder out) {
+        try (Cursor cursor = db.rawQuery(pragma, null)) {
+            while (cursor.moveToNext()) {
+                out.append(" [");
+                for (int i = 0; i < cursor.getColumnCount(); i++) {
+                    out.append(cursor.getString(i)).append(',');
+                }
+                out.append(']');
+            }
+        }
+    }
+}
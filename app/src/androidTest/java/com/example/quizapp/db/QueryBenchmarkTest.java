@@ -0,0 +1,196 @@
+package com.example.quizapp.db;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.quizapp.models.Question;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Before/after benchmark for the compiled-statement query layer at 100k questions.
+ * The "legacy" methods below are verbatim copies of the pre-statement-layer code paths.
+ * Results are written to logcat under the QueryBenchmark tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryBenchmarkTest {
+    private static final String TAG = "QueryBenchmark";
+    private static final String TEST_DB = "query-benchmark.db";
+    private static final int QUESTION_COUNT = 100_000;
+    private static final int CATEGORY_COUNT = 10;
+    private static final int USER_COUNT = 1_000;
+    private static final int LOOKUPS = 2_000;
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+        helper = new DatabaseHelper(context, TEST_DB);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        QuizStatements statements = new QuizStatements(db);
+        db.beginTransaction();
+        try {
+            for (int c = 0; c < CATEGORY_COUNT; c++) {
+                statements.insertCategory("Bench " + c, 0);
+            }
+            // Seeded categories 1-3 already exist, benchmark categories follow them
+            for (int i = 0; i < QUESTION_COUNT; i++) {
+                statements.insertQuestion(new Question("Question " + i, "A" + i, "B" + i, "C" + i, "D" + i,
+                        1 + (i % 4), 4 + (i % CATEGORY_COUNT)));
+            }
+            // One hash shared by every user: only the lookups are measured here
+            PasswordHasher.Credentials credentials = new PasswordHasher(PasswordHasher.MIN_ITERATIONS).hash("pw");
+            for (int u = 0; u < USER_COUNT; u++) {
+                statements.insertUser("user" + u, credentials);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statements.close();
+        }
+        db.execSQL("ANALYZE");
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void existenceChecks() {
+        // Warm both paths once so statement compilation is not counted
+        legacyCheckUserExists("user1");
+        helper.checkUserExists("user1");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            assertTrue(legacyCheckUserExists("user" + (i % USER_COUNT)));
+        }
+        long legacyNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            assertTrue(helper.checkUserExists("user" + (i % USER_COUNT)));
+        }
+        long compiledNanos = System.nanoTime() - start;
+
+        report("checkUserExists x" + LOOKUPS, legacyNanos, compiledNanos);
+    }
+
+    @Test
+    public void categoryLoad() {
+        int categoryId = 4;
+        legacyGetQuestionsByCategory(categoryId);
+        helper.getQuestionsByCategory(categoryId);
+
+        long start = System.nanoTime();
+        int legacySize = legacyGetQuestionsByCategory(categoryId).size();
+        long legacyNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int mappedSize = helper.getQuestionsByCategory(categoryId).size();
+        long mappedNanos = System.nanoTime() - start;
+
+        assertEquals(QUESTION_COUNT / CATEGORY_COUNT, legacySize);
+        assertEquals(legacySize, mappedSize);
+        report("getQuestionsByCategory (" + mappedSize + " rows)", legacyNanos, mappedNanos);
+    }
+
+    @Test
+    public void inserts() {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        int rows = 10_000;
+
+        db.beginTransaction();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < rows; i++) {
+                ContentValues cv = new ContentValues();
+                cv.put(DatabaseHelper.KEY_QUES_TEXT, "Legacy " + i);
+                cv.put(DatabaseHelper.KEY_QUES_OP1, "a");
+                cv.put(DatabaseHelper.KEY_QUES_OP2, "b");
+                cv.put(DatabaseHelper.KEY_QUES_OP3, "c");
+                cv.put(DatabaseHelper.KEY_QUES_OP4, "d");
+                cv.put(DatabaseHelper.KEY_QUES_ANS, 1);
+                cv.put(DatabaseHelper.KEY_QUES_CAT_ID, 4);
+                db.insert(DatabaseHelper.TABLE_QUESTIONS, null, cv);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        long legacyNanos = System.nanoTime() - start;
+
+        QuizStatements statements = new QuizStatements(db);
+        db.beginTransaction();
+        start = System.nanoTime();
+        try {
+            for (int i = 0; i < rows; i++) {
+                statements.insertQuestion(new Question("Compiled " + i, "a", "b", "c", "d", 1, 4));
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statements.close();
+        }
+        long compiledNanos = System.nanoTime() - start;
+
+        report("insert x" + rows, legacyNanos, compiledNanos);
+    }
+
+    private static void report(String name, long legacyNanos, long newNanos) {
+        Log.i(TAG, String.format("%s: before %.1f ms, after %.1f ms (%.2fx)", name,
+                legacyNanos / 1e6, newNanos / 1e6, (double) legacyNanos / Math.max(1, newNanos)));
+    }
+
+    // Pre-statement-layer existence check: full Cursor + getCount
+    private boolean legacyCheckUserExists(String username) {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        Cursor cursor = db.query(DatabaseHelper.TABLE_USERS, new String[]{DatabaseHelper.KEY_USER_ID},
+                DatabaseHelper.KEY_USER_NAME + " = ? COLLATE NOCASE", new String[]{username}, null, null, null);
+        int count = cursor.getCount();
+        cursor.close();
+        return count > 0;
+    }
+
+    // Pre-statement-layer getQuestionsByCategory: getColumnIndexOrThrow for every column of every row
+    private ArrayList<Question> legacyGetQuestionsByCategory(int categoryId) {
+        ArrayList<Question> questionList = new ArrayList<>();
+        SQLiteDatabase db = helper.getReadableDatabase();
+        Cursor cursor = db.query(DatabaseHelper.TABLE_QUESTIONS, null, DatabaseHelper.KEY_QUES_CAT_ID + " = ?",
+                new String[]{String.valueOf(categoryId)}, null, null, null);
+        if (cursor.moveToFirst()) {
+            do {
+                Question question = new Question();
+                question.setId(cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_ID)));
+                question.setQuestion(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_TEXT)));
+                question.setOption1(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_OP1)));
+                question.setOption2(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_OP2)));
+                question.setOption3(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_OP3)));
+                question.setOption4(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_OP4)));
+                question.setAnswerNr(cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_ANS)));
+                question.setCategoryId(cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_CAT_ID)));
+                questionList.add(question);
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        return questionList;
+    }
+}
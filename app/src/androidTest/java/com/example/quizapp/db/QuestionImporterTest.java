@@ -0,0 +1,98 @@
+package com.example.quizapp.db;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Imports a generated 100k-question CSV bank, and checks an interrupted import resumes without duplicates.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QuestionImporterTest {
+    private static final String TAG = "QuestionImporterTest";
+    private static final String TEST_DB = "importer-test.db";
+    private static final int QUESTION_COUNT = 100_000;
+    private static final int SEED_QUESTIONS = 12;
+
+    private Context context;
+    private DatabaseHelper helper;
+    private File bank;
+
+    @Before
+    public void setUp() throws IOException {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+        helper = new DatabaseHelper(context, TEST_DB);
+        bank = new File(context.getCacheDir(), "bank.csv");
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(bank))) {
+            out.write("question,option1,option2,option3,option4,answer_nr,category_id\n");
+            for (int i = 0; i < QUESTION_COUNT; i++) {
+                out.write("\"Question " + i + ", generated\",A,B,C,D," + (1 + i % 4) + "," + (1 + i % 3) + "\n");
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(TEST_DB);
+        bank.delete();
+    }
+
+    @Test
+    public void imports100kQuestionsInBatches() throws IOException {
+        long start = System.nanoTime();
+        QuestionImporter.Result result = new QuestionImporter(helper)
+                .importQuestions(QuestionImporter.Source.fromFile(bank), null);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        Log.i(TAG, "Imported " + result.inserted + " questions in " + millis + " ms");
+
+        assertEquals(QUESTION_COUNT, result.inserted);
+        assertEquals(SEED_QUESTIONS + QUESTION_COUNT, questionRows());
+
+        // A second run of the same source is a no-op
+        assertTrue(new QuestionImporter(helper).importQuestions(QuestionImporter.Source.fromFile(bank), null)
+                .alreadyComplete);
+        assertEquals(SEED_QUESTIONS + QUESTION_COUNT, questionRows());
+    }
+
+    @Test
+    public void resumesAfterInterruption() throws IOException {
+        QuestionImporter.Source source = QuestionImporter.Source.fromFile(bank);
+        try {
+            new QuestionImporter(helper, 1000).importQuestions(source, (records, bytesRead, totalBytes) -> {
+                if (records >= 5000) {
+                    throw new IllegalStateException("simulated interruption");
+                }
+            });
+            fail("Import should have been interrupted");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        assertEquals(SEED_QUESTIONS + 5000, questionRows());
+
+        QuestionImporter.Result result = new QuestionImporter(helper, 1000).importQuestions(source, null);
+        assertEquals(5000, result.resumedFrom);
+        assertEquals(QUESTION_COUNT - 5000, result.inserted);
+        assertEquals(SEED_QUESTIONS + QUESTION_COUNT, questionRows());
+    }
+
+    private long questionRows() {
+        return DatabaseUtils.queryNumEntries(helper.getReadableDatabase(), DatabaseHelper.TABLE_QUESTIONS);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.quizapp.db;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.quizapp.core.QuizEngine;
+import com.example.quizapp.data.QuestionPack;
+import com.example.quizapp.models.Question;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares a QuestionPack exported from the database with DatabaseHelper at 100k questions: loading
+ * a whole category, loading one quiz window by id, and the bytes each takes on disk.
+ * Results are written to logcat under the QuestionPackBenchmark tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QuestionPackBenchmarkTest {
+    private static final String TAG = "QuestionPackBenchmark";
+    private static final String TEST_DB = "pack-benchmark.db";
+    private static final int QUESTION_COUNT = 100_000;
+    private static final int CATEGORY_COUNT = 10;
+    private static final int FIRST_CATEGORY = 4; // after the seeded categories 1-3
+    private static final int WINDOW = 10;
+    private static final int ROUNDS = 200;
+
+    private Context context;
+    private DatabaseHelper helper;
+    private File packFile;
+    private QuestionPack pack;
+
+    @Before
+    public void setUp() throws IOException {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+        helper = new DatabaseHelper(context, TEST_DB);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        QuizStatements statements = new QuizStatements(db);
+        db.beginTransaction();
+        try {
+            for (int c = 0; c < CATEGORY_COUNT; c++) {
+                statements.insertCategory("Bench " + c, 0);
+            }
+            // Options repeat across questions, as true/false and multiple-choice banks do
+            for (int i = 0; i < QUESTION_COUNT; i++) {
+                statements.insertQuestion(new Question("Question " + i + " of the benchmark bank?", "True",
+                        "False", "Option " + (i % 50), "Option " + (i % 70), 1 + (i % 4),
+                        FIRST_CATEGORY + (i % CATEGORY_COUNT)));
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statements.close();
+        }
+
+        packFile = new File(context.getCacheDir(), "benchmark.qpak");
+        long start = System.nanoTime();
+        QuestionPackExporter.Result result = QuestionPackExporter.export(helper, packFile);
+        Log.i(TAG, String.format("Exported %d questions, %d strings, %d bytes in %.0f ms (database file %d bytes)",
+                result.questions, result.strings, result.bytes, (System.nanoTime() - start) / 1e6,
+                context.getDatabasePath(TEST_DB).length()));
+        pack = QuestionPack.open(packFile);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(TEST_DB);
+        packFile.delete();
+    }
+
+    @Test
+    public void packMatchesTheDatabase() {
+        assertEquals(QUESTION_COUNT, pack.getQuestionCount());
+        assertEquals(helper.getAllCategories().size(), pack.getCategoryCount());
+        List<Question> fromDatabase = helper.getQuestionsByCategory(FIRST_CATEGORY);
+        List<Question> fromPack = pack.getQuestionsByCategory(FIRST_CATEGORY);
+        assertEquals(fromDatabase.size(), fromPack.size());
+        for (int i = 0; i < fromPack.size(); i += 97) {
+            Question expected = fromDatabase.get(i);
+            Question actual = fromPack.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getQuestion(), actual.getQuestion());
+            assertEquals(expected.getOption4(), actual.getOption4());
+            assertEquals(expected.getAnswerNr(), actual.getAnswerNr());
+        }
+    }
+
+    @Test
+    public void categoryLoad() {
+        helper.getQuestionsByCategory(FIRST_CATEGORY);
+        pack.getQuestionsByCategory(FIRST_CATEGORY);
+
+        long start = System.nanoTime();
+        int databaseSize = helper.getQuestionsByCategory(FIRST_CATEGORY + 1).size();
+        long databaseNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int packSize = pack.getQuestionsByCategory(FIRST_CATEGORY + 1).size();
+        long packNanos = System.nanoTime() - start;
+
+        assertEquals(databaseSize, packSize);
+        report("getQuestionsByCategory (" + packSize + " rows)", databaseNanos, packNanos);
+    }
+
+    // A quiz as QuestionWindow loads it: WINDOW sampled ids, decoded in sample order
+    @Test
+    public void quizWindow() {
+        int categoryId = FIRST_CATEGORY + 2;
+        long[] ids = pack.getQuestionIds(categoryId);
+
+        long databaseNanos = 0;
+        long packNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] sample = QuizEngine.sample(ids, WINDOW, round);
+            // Measure the query, not the question cache
+            helper.getQuestionCache().evictAll();
+            long start = System.nanoTime();
+            int databaseSize = helper.getQuestionsByIds(categoryId, sample, 0, WINDOW).size();
+            databaseNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int packSize = pack.getQuestionsByIds(categoryId, sample, 0, WINDOW).size();
+            packNanos += System.nanoTime() - start;
+            assertEquals(databaseSize, packSize);
+        }
+        report("getQuestionsByIds (" + WINDOW + " of " + ids.length + ") x" + ROUNDS, databaseNanos, packNanos);
+    }
+
+    private static void report(String name, long databaseNanos, long packNanos) {
+        Log.i(TAG, String.format("%s: database %.1f ms, pack %.1f ms (%.2fx)", name,
+                databaseNanos / 1e6, packNanos / 1e6, (double) databaseNanos / Math.max(1, packNanos)));
+    }
+}
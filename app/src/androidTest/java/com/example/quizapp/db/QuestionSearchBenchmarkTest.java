@@ -0,0 +1,213 @@
+package com.example.quizapp.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.quizapp.models.Question;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the full-text index follows every write to questions, and measures search latency
+ * over 500k questions against a LIKE scan. Results are written to logcat under the QuestionSearch tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QuestionSearchBenchmarkTest {
+    private static final String TAG = "QuestionSearch";
+    private static final String TEST_DB = "question-search.db";
+    private static final int QUESTION_COUNT = 500_000;
+    private static final int VOCABULARY_SIZE = 5_000;
+    private static final int QUERIES = 300;
+    private static final int LIKE_QUERIES = 5;
+    private static final int PAGE_SIZE = 30;
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+        helper = new DatabaseHelper(context, TEST_DB);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void indexFollowsInsertUpdateAndDelete() {
+        // Seeded questions were indexed by the v7 step
+        assertEquals("Who was the first man to step on the moon?",
+                helper.searchQuestions("moon", 0, 10, null).get(0).getQuestion());
+        assertEquals("In which year did WWII end?", helper.searchQuestions("wwii", 0, 10, null).get(0).getQuestion());
+        // Partial word in an option
+        assertEquals(1, helper.searchQuestions("Armstr", 0, 10, null).size());
+        assertTrue(helper.searchQuestions("a", 0, 10, null).isEmpty());
+
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.execSQL("INSERT INTO questions(question, option1, option2, option3, option4, answer_nr, category_id)"
+                + " VALUES ('Which moon orbits Mars?', 'Phobos', 'Io', 'Titan', 'Europa', 1, 2)");
+        assertEquals(2, helper.searchQuestions("moon", 0, 10, null).size());
+        assertEquals(1, helper.searchQuestions("phobos", 0, 10, null).size());
+
+        db.execSQL("UPDATE questions SET option1 = 'Deimos' WHERE option1 = 'Phobos'");
+        assertTrue(helper.searchQuestions("phobos", 0, 10, null).isEmpty());
+        assertEquals(1, helper.searchQuestions("deimos", 0, 10, null).size());
+
+        db.execSQL("DELETE FROM questions WHERE question = 'Which moon orbits Mars?'");
+        assertEquals(1, helper.searchQuestions("moon", 0, 10, null).size());
+        assertTrue(helper.searchQuestions("deimos", 0, 10, null).isEmpty());
+    }
+
+    @Test
+    public void bestMatchIsFoundAmongMoreMatchesThanCanBeListed() {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        QuizStatements statements = new QuizStatements(db);
+        db.beginTransaction();
+        try {
+            // Weak matches first (lowest docids): the term once, in a long option
+            for (int i = 0; i < DatabaseHelper.MAX_SEARCH_RESULTS + 100; i++) {
+                statements.insertQuestion(new Question("Question number " + i, "one", "two", "three",
+                        "a long option that mentions a zebra among many other words", 1, 1));
+            }
+            // The best match comes last, after every one of them
+            statements.insertQuestion(new Question("Zebra", "Zebra", "Zebra", "Zebra", "Zebra", 1, 1));
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statements.close();
+        }
+
+        assertEquals("Zebra", helper.searchQuestions("zebra", 0, PAGE_SIZE, null).get(0).getQuestion());
+        assertEquals(PAGE_SIZE, helper.searchQuestions("zeb", PAGE_SIZE, PAGE_SIZE, null).size());
+        assertTrue(helper.searchQuestions("zebra", DatabaseHelper.MAX_SEARCH_RESULTS, PAGE_SIZE, null).isEmpty());
+    }
+
+    @Test
+    public void searchLatencyAtHalfAMillionQuestions() {
+        Random random = new Random(7);
+        String[] vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            vocabulary[i] = word(random);
+        }
+        SQLiteDatabase db = helper.getWritableDatabase();
+        QuizStatements statements = new QuizStatements(db);
+        long start = System.nanoTime();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < QUESTION_COUNT; i++) {
+                // Zipf-like: low vocabulary indexes are far more common, like real text
+                statements.insertQuestion(new Question(sentence(random, vocabulary, 8), sentence(random, vocabulary, 2),
+                        sentence(random, vocabulary, 2), sentence(random, vocabulary, 2),
+                        sentence(random, vocabulary, 2), 1, 1 + (i % 3)));
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statements.close();
+        }
+        db.execSQL("INSERT INTO questions_fts(questions_fts) VALUES ('optimize')");
+        Log.i(TAG, String.format("Inserted and indexed %d questions in %.1f s", QUESTION_COUNT,
+                (System.nanoTime() - start) / 1e9));
+
+        // Whole words, partial words as typed, and two-word queries
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String word = vocabulary[pick(random)];
+            switch (i % 3) {
+                case 0:
+                    queries[i] = word;
+                    break;
+                case 1:
+                    queries[i] = word.substring(0, Math.min(3, word.length()));
+                    break;
+                default:
+                    queries[i] = word + " " + vocabulary[pick(random)];
+                    break;
+            }
+        }
+        helper.searchQuestions(queries[0], 0, PAGE_SIZE, null);
+
+        long[] nanos = new long[QUERIES];
+        int withResults = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            long t = System.nanoTime();
+            List<Question> page = helper.searchQuestions(queries[i], 0, PAGE_SIZE, null);
+            nanos[i] = System.nanoTime() - t;
+            assertTrue(page.size() <= PAGE_SIZE);
+            if (!page.isEmpty()) {
+                withResults++;
+            }
+        }
+        Arrays.sort(nanos);
+        Log.i(TAG, String.format("FTS x%d (%d with results): p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms",
+                QUERIES, withResults, percentile(nanos, 50), percentile(nanos, 95), percentile(nanos, 99),
+                nanos[QUERIES - 1] / 1e6));
+        assertTrue(withResults > QUERIES / 2);
+
+        long likeNanos = 0;
+        for (int i = 0; i < LIKE_QUERIES; i++) {
+            long t = System.nanoTime();
+            likeSearch(db, queries[i * 3]);
+            likeNanos += System.nanoTime() - t;
+        }
+        Log.i(TAG, String.format("LIKE '%%x%%' x%d: mean %.1f ms", LIKE_QUERIES, likeNanos / 1e6 / LIKE_QUERIES));
+    }
+
+    // The scan the index replaces: every column of every row
+    private static int likeSearch(SQLiteDatabase db, String word) {
+        String pattern = "%" + word + "%";
+        try (Cursor cursor = db.rawQuery("SELECT id FROM questions WHERE question LIKE ?1 OR option1 LIKE ?1"
+                + " OR option2 LIKE ?1 OR option3 LIKE ?1 OR option4 LIKE ?1 LIMIT " + PAGE_SIZE,
+                new String[]{pattern})) {
+            return cursor.getCount();
+        }
+    }
+
+    private static int pick(Random random) {
+        double u = random.nextDouble();
+        return (int) (VOCABULARY_SIZE * u * u * u);
+    }
+
+    private static String sentence(Random random, String[] vocabulary, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(vocabulary[pick(random)]);
+        }
+        return sentence.toString();
+    }
+
+    private static String word(Random random) {
+        int length = 3 + random.nextInt(7);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private static double percentile(long[] sorted, int percent) {
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percent / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.quizapp.db;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.quizapp.data.QuizRepository;
+import com.example.quizapp.data.QuizRepositoryContract;
+import com.example.quizapp.models.Category;
+import com.example.quizapp.models.Question;
+
+import org.junit.After;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+/**
+ * Runs the QuizRepository contract against DatabaseHelper. The seeded bank is replaced by the
+ * contract's; latency results are written to logcat under the RepositoryContract tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SqliteQuizRepositoryTest extends QuizRepositoryContract {
+    private static final String TAG = "RepositoryContract";
+    private static final String TEST_DB = "quiz-repository-contract.db";
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Override
+    protected QuizRepository createRepository(List<Category> categories, List<Question> questions) {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+        helper = new DatabaseHelper(context, TEST_DB);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(DatabaseHelper.TABLE_QUESTIONS, null, null);
+            db.delete(DatabaseHelper.TABLE_CATEGORIES, null, null);
+            for (Category category : categories) {
+                ContentValues values = new ContentValues();
+                values.put(DatabaseHelper.KEY_CAT_ID, category.getId());
+                values.put(DatabaseHelper.KEY_CAT_NAME, category.getName());
+                values.put(DatabaseHelper.KEY_CAT_IMAGE, category.getImageResId());
+                db.insertOrThrow(DatabaseHelper.TABLE_CATEGORIES, null, values);
+            }
+            for (Question question : questions) {
+                ContentValues values = new ContentValues();
+                values.put(DatabaseHelper.KEY_QUES_ID, question.getId());
+                values.put(DatabaseHelper.KEY_QUES_TEXT, question.getQuestion());
+                values.put(DatabaseHelper.KEY_QUES_OP1, question.getOption1());
+                values.put(DatabaseHelper.KEY_QUES_OP2, question.getOption2());
+                values.put(DatabaseHelper.KEY_QUES_OP3, question.getOption3());
+                values.put(DatabaseHelper.KEY_QUES_OP4, question.getOption4());
+                values.put(DatabaseHelper.KEY_QUES_ANS, question.getAnswerNr());
+                values.put(DatabaseHelper.KEY_QUES_CAT_ID, question.getCategoryId());
+                db.insertOrThrow(DatabaseHelper.TABLE_QUESTIONS, null, values);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return helper;
+    }
+
+    @Override
+    protected void report(String line) {
+        Log.i(TAG, line);
+    }
+
+    @After
+    public void tearDown() {
+        if (helper != null) {
+            helper.close();
+            context.deleteDatabase(TEST_DB);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.quizapp.db;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.quizapp.data.UserRepository;
+import com.example.quizapp.data.UserRepositoryContract;
+
+import org.junit.After;
+import org.junit.runner.RunWith;
+
+/**
+ * Runs the UserRepository contract against DatabaseHelper, with the cheapest password policy so
+ * the lookups are what gets measured; results are written to logcat under the RepositoryContract tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SqliteUserRepositoryTest extends UserRepositoryContract {
+    private static final String TAG = "RepositoryContract";
+    private static final String TEST_DB = "user-repository-contract.db";
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Override
+    protected UserRepository createRepository() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+        helper = new DatabaseHelper(context, TEST_DB);
+        helper.setPasswordHasher(new PasswordHasher(PasswordHasher.MIN_ITERATIONS));
+        return helper;
+    }
+
+    @Override
+    protected void report(String line) {
+        Log.i(TAG, line);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+}
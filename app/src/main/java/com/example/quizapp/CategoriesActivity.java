@@ -1,12 +1,18 @@
 package com.example.quizapp;
 
+import android.content.Intent;
 import android.os.Bundle;
+import android.view.View;
+import android.widget.ProgressBar;
+import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.quizapp.adapters.CategoryAdapter;
+import com.example.quizapp.db.AsyncRepository;
 import com.example.quizapp.db.DatabaseHelper;
+import com.example.quizapp.db.DatabaseProvider;
 import com.example.quizapp.models.Category;
 
 import java.util.List;
@@ -18,8 +24,16 @@ import java.util.List;
 public class CategoriesActivity extends AppCompatActivity {
 
     private RecyclerView rvCategories;
+    private ProgressBar progressBar;
     private CategoryAdapter categoryAdapter;
     private DatabaseHelper databaseHelper;
+    private AsyncRepository repository;
+    private long userId;
+
+    // Rows kept around off-screen: a couple beyond the prefetched ones, and enough recycled
+    // holders to refill a screen after a fling without inflating
+    private static final int ITEM_VIEW_CACHE_SIZE = 4;
+    private static final int MAX_RECYCLED_VIEWS = 12;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -28,17 +42,75 @@ public class CategoriesActivity extends AppCompatActivity {
 
         // Initialize RecyclerView
         rvCategories = findViewById(R.id.rv_categories);
-        // Set LayoutManager (Linear default for vertical list)
-        rvCategories.setLayoutManager(new LinearLayoutManager(this));
-
-        // Initialize Database Helper
-        databaseHelper = new DatabaseHelper(this);
-        
-        // Fetch all categories from the database
-        List<Category> categoryList = databaseHelper.getAllCategories();
+        // Set LayoutManager (Linear default for vertical list); it prefetches the next row while idle
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        layoutManager.setItemPrefetchEnabled(true);
+        rvCategories.setLayoutManager(layoutManager);
+        // The list is match_parent, so content changes never need a full relayout of the RecyclerView
+        rvCategories.setHasFixedSize(true);
+        rvCategories.setItemViewCacheSize(ITEM_VIEW_CACHE_SIZE);
+        rvCategories.getRecycledViewPool().setMaxRecycledViews(0, MAX_RECYCLED_VIEWS);
 
-        // Initialize Adapter with the category list and set it to RecyclerView
-        categoryAdapter = new CategoryAdapter(this, categoryList);
+        // One adapter for the lifetime of the screen; reloads are diffed against what is shown
+        userId = getIntent().getLongExtra("USER_ID", -1);
+        categoryAdapter = new CategoryAdapter(this, userId);
         rvCategories.setAdapter(categoryAdapter);
+
+        progressBar = findViewById(R.id.pb_categories);
+
+        // Search the whole question bank
+        findViewById(R.id.btn_search).setOnClickListener(v ->
+                startActivity(new Intent(CategoriesActivity.this, SearchActivity.class)));
+
+        // Get the shared Database Helper
+        databaseHelper = DatabaseProvider.get(this);
+        repository = new AsyncRepository(databaseHelper);
+    }
+
+    // Reload whenever the screen comes back (e.g. after an import); unchanged rows are not rebound
+    @Override
+    protected void onStart() {
+        super.onStart();
+        loadCategories();
+    }
+
+    // Fetch all categories with their statistics (one query) in the background,
+    // showing a spinner on the first load
+    private void loadCategories() {
+        boolean firstLoad = categoryAdapter.getItemCount() == 0;
+        if (firstLoad) {
+            progressBar.setVisibility(View.VISIBLE);
+        }
+        repository.getCategoryDashboard(userId, new AsyncRepository.Callback<List<Category>>() {
+            @Override
+            public void onResult(List<Category> categoryList) {
+                progressBar.setVisibility(View.GONE);
+                // Diffed off the main thread; only changed rows are touched once it is applied
+                categoryAdapter.submitList(categoryList, () -> {
+                    if (firstLoad) {
+                        // Marks "time to first categories frame" in logcat (ActivityTaskManager: Fully drawn)
+                        reportFullyDrawn();
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                progressBar.setVisibility(View.GONE);
+                Toast.makeText(CategoriesActivity.this, "Could not load categories", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // The adapter showing the categories
+    CategoryAdapter getCategoryAdapter() {
+        return categoryAdapter;
+    }
+
+    // Drop any pending database callbacks for this screen
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        repository.cancelAll();
     }
 }
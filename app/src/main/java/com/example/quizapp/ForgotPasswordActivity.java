@@ -2,18 +2,24 @@ package com.example.quizapp;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.ProgressBar;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.quizapp.db.AsyncRepository;
 import com.example.quizapp.db.DatabaseHelper;
+import com.example.quizapp.db.DatabaseProvider;
 
 public class ForgotPasswordActivity extends AppCompatActivity {
 
     private EditText etUsername;
     private Button btnCheck;
+    private ProgressBar progressBar;
     private DatabaseHelper databaseHelper;
+    private AsyncRepository repository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -22,7 +28,9 @@ public class ForgotPasswordActivity extends AppCompatActivity {
 
         etUsername = findViewById(R.id.et_forgot_username);
         btnCheck = findViewById(R.id.btn_forgot_check);
-        databaseHelper = new DatabaseHelper(this);
+        progressBar = findViewById(R.id.pb_forgot);
+        databaseHelper = DatabaseProvider.get(this);
+        repository = new AsyncRepository(databaseHelper);
 
         btnCheck.setOnClickListener(v -> {
             String username = etUsername.getText().toString().trim();
@@ -30,16 +38,41 @@ public class ForgotPasswordActivity extends AppCompatActivity {
             if (username.isEmpty()) {
                 Toast.makeText(this, "Please enter your username", Toast.LENGTH_SHORT).show();
             } else {
-                if (databaseHelper.checkUserExists(username)) {
-                    // Navigate to Reset Password Activity
-                    Intent intent = new Intent(ForgotPasswordActivity.this, ResetPasswordActivity.class);
-                    intent.putExtra("USERNAME", username);
-                    startActivity(intent);
-                    finish();
-                } else {
-                    Toast.makeText(this, "User not found", Toast.LENGTH_SHORT).show();
-                }
+                setLoading(true);
+                repository.checkUserExists(username, new AsyncRepository.Callback<Boolean>() {
+                    @Override
+                    public void onResult(Boolean exists) {
+                        setLoading(false);
+                        if (exists) {
+                            // Navigate to Reset Password Activity
+                            Intent intent = new Intent(ForgotPasswordActivity.this, ResetPasswordActivity.class);
+                            intent.putExtra("USERNAME", username);
+                            startActivity(intent);
+                            finish();
+                        } else {
+                            Toast.makeText(ForgotPasswordActivity.this, "User not found", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        setLoading(false);
+                        Toast.makeText(ForgotPasswordActivity.this, "Something went wrong, please try again",
+                                Toast.LENGTH_SHORT).show();
+                    }
+                });
             }
         });
     }
+
+    private void setLoading(boolean loading) {
+        progressBar.setVisibility(loading ? View.VISIBLE : View.GONE);
+        btnCheck.setEnabled(!loading);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        repository.cancelAll();
+    }
 }
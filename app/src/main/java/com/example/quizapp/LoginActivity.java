@@ -2,13 +2,17 @@ package com.example.quizapp;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.quizapp.db.AsyncRepository;
 import com.example.quizapp.db.DatabaseHelper;
+import com.example.quizapp.db.DatabaseProvider;
 
 /**
  * LoginActivity handles the user login process.
@@ -20,23 +24,27 @@ public class LoginActivity extends AppCompatActivity {
     private EditText etUsername, etPassword;
     private Button btnLogin;
     private TextView tvRegisterLink;
+    private ProgressBar progressBar;
     
-    // Database Helper
+    // Database Helper and its background wrapper
     private DatabaseHelper databaseHelper;
+    private AsyncRepository repository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_login); // Set the layout file
 
-        // Initialize Database Helper
-        databaseHelper = new DatabaseHelper(this);
+        // Get the shared Database Helper
+        databaseHelper = DatabaseProvider.get(this);
+        repository = new AsyncRepository(databaseHelper);
 
         // Link UI components
         etUsername = findViewById(R.id.et_login_username);
         etPassword = findViewById(R.id.et_login_password);
         btnLogin = findViewById(R.id.btn_login);
         tvRegisterLink = findViewById(R.id.tv_register_link);
+        progressBar = findViewById(R.id.pb_login);
 
         // Handle Login Button Click
         btnLogin.setOnClickListener(v -> {
@@ -46,17 +54,30 @@ public class LoginActivity extends AppCompatActivity {
             if (username.isEmpty() || password.isEmpty()) {
                 Toast.makeText(LoginActivity.this, "Please enter all fields", Toast.LENGTH_SHORT).show();
             } else {
-                // Check credentials in database
-                boolean checkUser = databaseHelper.checkUser(username, password);
-                if (checkUser) {
-                    Toast.makeText(LoginActivity.this, "Login Successful", Toast.LENGTH_SHORT).show();
-                    // Navigate to Categories Screen
-                    Intent intent = new Intent(LoginActivity.this, CategoriesActivity.class);
-                    startActivity(intent);
-                    finish(); // Close LoginActivity
-                } else {
-                    Toast.makeText(LoginActivity.this, "Invalid Credentials", Toast.LENGTH_SHORT).show();
-                }
+                // Check credentials in database on a background thread
+                setLoading(true);
+                repository.authenticate(username, password, new AsyncRepository.Callback<Long>() {
+                    @Override
+                    public void onResult(Long userId) {
+                        setLoading(false);
+                        if (userId >= 0) {
+                            Toast.makeText(LoginActivity.this, "Login Successful", Toast.LENGTH_SHORT).show();
+                            // Navigate to Categories Screen; the user id follows every screen that records results
+                            Intent intent = new Intent(LoginActivity.this, CategoriesActivity.class);
+                            intent.putExtra("USER_ID", userId);
+                            startActivity(intent);
+                            finish(); // Close LoginActivity
+                        } else {
+                            Toast.makeText(LoginActivity.this, "Invalid Credentials", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        setLoading(false);
+                        Toast.makeText(LoginActivity.this, "Login failed, please try again", Toast.LENGTH_SHORT).show();
+                    }
+                });
             }
         });
 
@@ -74,4 +95,17 @@ public class LoginActivity extends AppCompatActivity {
             startActivity(intent);
         });
     }
+
+    // Show the progress indicator and block the button while the database is busy
+    private void setLoading(boolean loading) {
+        progressBar.setVisibility(loading ? View.VISIBLE : View.GONE);
+        btnLogin.setEnabled(!loading);
+    }
+
+    // Drop any pending database callbacks for this screen
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        repository.cancelAll();
+    }
 }
@@ -1,27 +1,35 @@
 package com.example.quizapp;
 
+import android.content.Context;
 import android.content.Intent;
 import android.content.res.ColorStateList;
 import android.graphics.Color;
 import android.os.Bundle;
-import android.os.CountDownTimer;
+import android.view.View;
 import android.widget.Button;
+import android.widget.ProgressBar;
 import android.widget.RadioButton;
 import android.widget.RadioGroup;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
-
-import com.example.quizapp.db.DatabaseHelper;
+import androidx.lifecycle.ViewModelProvider;
+
+import com.example.quizapp.core.QuizEngine;
+import com.example.quizapp.db.AsyncRepository;
+import com.example.quizapp.db.DatabaseProvider;
+import com.example.quizapp.db.SessionJournal;
+import com.example.quizapp.host.QuizHostServer;
+import com.example.quizapp.metrics.AppMetrics;
 import com.example.quizapp.models.Question;
 
-import java.util.Collections;
-import java.util.List;
+import java.io.File;
 import java.util.Locale;
 
 /**
  * QuizActivity handles the main quiz logic.
  * It displays questions, handles the timer, checks answers, and calculates the score.
+ * Started with HOST_MODE, it also hosts the quiz for participants on the local network.
  */
 public class QuizActivity extends AppCompatActivity {
 
@@ -30,20 +38,19 @@ public class QuizActivity extends AppCompatActivity {
     private RadioGroup rbGroup;
     private RadioButton rb1, rb2, rb3, rb4;
     private Button btnConfirmNext;
+    private View quizContent;
+    private ProgressBar progressBar;
 
-    // Quiz Data
-    private List<Question> questionList;
-    private int questionCounter;
-    private int questionCountTotal;
-    private Question currentQuestion;
-    private int score;
-    private boolean answered;
+    // Quiz state (question order, index, score, answered flag, deadline) lives in the ViewModel
+    // so it survives rotation; this Activity only binds it to the views
+    private QuizViewModel viewModel;
 
-    // Timer Variables
+    // Timer Variables: every label the countdown can show is formatted once, so a tick allocates nothing
+    // and the color is only touched when the warning threshold is crossed
+    private static final int WARNING_SECONDS = 10;
     private ColorStateList textColorDefaultRb;
-    private CountDownTimer countDownTimer;
-    private long timeLeftInMillis;
-    private static final long COUNTDOWN_IN_MILLIS = 30000; // 30 seconds per question
+    private String[] timerLabels;
+    private boolean timerWarning;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -61,34 +68,37 @@ public class QuizActivity extends AppCompatActivity {
         rb3 = findViewById(R.id.rb_option3);
         rb4 = findViewById(R.id.rb_option4);
         btnConfirmNext = findViewById(R.id.btn_confirm_next);
+        quizContent = findViewById(R.id.quiz_content);
+        progressBar = findViewById(R.id.pb_quiz);
 
         // Save default text color of radio buttons to restore later
         textColorDefaultRb = rb1.getTextColors();
 
+        timerLabels = new String[(int) (QuizViewModel.COUNTDOWN_IN_MILLIS / 1000) + 1];
+        for (int seconds = 0; seconds < timerLabels.length; seconds++) {
+            timerLabels[seconds] = formatTime(seconds);
+        }
+        tvTimer.setTextColor(Color.BLACK);
+
         // Get Category ID passed from CategoriesActivity
         int categoryId = getIntent().getIntExtra("CATEGORY_ID", 0);
-
-        // Initialize Database Helper and fetch questions for the selected category
-        DatabaseHelper dbHelper = new DatabaseHelper(this);
-        questionList = dbHelper.getQuestionsByCategory(categoryId);
-        questionCountTotal = questionList.size();
-
-        // Check if questions exist
-        if (questionList.isEmpty()) {
-            Toast.makeText(this, "No questions found for this category.", Toast.LENGTH_LONG).show();
-            finish();
-            return;
+        long userId = getIntent().getLongExtra("USER_ID", -1);
+
+        // A fixed seed (e.g. from tests) reproduces the same sample and order
+        long seed = getIntent().getLongExtra("QUIZ_SEED", System.nanoTime());
+
+        // Sample this quiz's questions off the main thread; a recreated Activity reuses the running quiz,
+        // and one restored after process death resumes it from the session journal
+        viewModel = new ViewModelProvider(this).get(QuizViewModel.class);
+        SessionJournal journal = new SessionJournal(new File(getFilesDir(), SessionJournal.FILE_NAME));
+        viewModel.start(DatabaseProvider.get(this), journal, userId, categoryId, seed, savedInstanceState != null);
+        if (getIntent().getBooleanExtra("HOST_MODE", false)) {
+            startHosting();
         }
 
-        // Shuffle questions to make the quiz random
-        Collections.shuffle(questionList);
-
-        // Start the quiz
-        showNextQuestion();
-
         // Handle Next/Confirm Button logic
         btnConfirmNext.setOnClickListener(v -> {
-            if (!answered) {
+            if (!viewModel.isAnswered()) {
                 // If answer is not locked in, check if an option is selected
                 if (rb1.isChecked() || rb2.isChecked() || rb3.isChecked() || rb4.isChecked()) {
                     checkAnswer();
@@ -100,20 +110,97 @@ public class QuizActivity extends AppCompatActivity {
                 showNextQuestion();
             }
         });
+
+        viewModel.setTimerListener(new QuizTimer.Listener() {
+            @Override
+            public void onSecondsLeftChanged(int secondsLeft) {
+                updateCountDownText(secondsLeft);
+            }
+
+            @Override
+            public void onFinish() {
+                checkAnswer(); // Auto-submit when time runs out
+            }
+        });
+        viewModel.setListener(this::onStatusChanged);
+    }
+
+    // The server is started once per quiz; the application context outlives a rotation before it is up
+    private void startHosting() {
+        Context appContext = getApplicationContext();
+        viewModel.startHosting(QuizHostServer.DEFAULT_PORT, new AsyncRepository.Callback<Integer>() {
+            @Override
+            public void onResult(Integer port) {
+                Toast.makeText(appContext, "Hosting this quiz on port " + port, Toast.LENGTH_LONG).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                AsyncRepository.Callback.super.onError(e);
+                Toast.makeText(appContext, "Could not start host mode.", Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    // Called for every quiz state change, and once with the current state after (re)creation
+    private void onStatusChanged(QuizViewModel.Status status) {
+        switch (status) {
+            case LOADING:
+                showLoading(true);
+                break;
+            case QUESTION:
+                showLoading(false);
+                displayQuestion();
+                break;
+            case EMPTY:
+                Toast.makeText(this, "No questions found for this category.", Toast.LENGTH_LONG).show();
+                finish();
+                break;
+            case FAILED:
+                Toast.makeText(this, "Could not load questions.", Toast.LENGTH_LONG).show();
+                finish();
+                break;
+            case FINISHED:
+                finishQuiz();
+                break;
+        }
+    }
+
+    // The ViewModel owning this screen's quiz
+    QuizViewModel getViewModel() {
+        return viewModel;
+    }
+
+    // Hide the quiz while questions are loading
+    private void showLoading(boolean loading) {
+        progressBar.setVisibility(loading ? View.VISIBLE : View.GONE);
+        quizContent.setVisibility(loading ? View.INVISIBLE : View.VISIBLE);
+        btnConfirmNext.setEnabled(!loading);
     }
 
     // Display the next question
     private void showNextQuestion() {
-        // Reset radio buttons color and selection
-        rb1.setTextColor(textColorDefaultRb);
-        rb2.setTextColor(textColorDefaultRb);
-        rb3.setTextColor(textColorDefaultRb);
-        rb4.setTextColor(textColorDefaultRb);
-        rbGroup.clearCheck();
+        long started = AppMetrics.QUIZ_SHOW_NEXT_QUESTION.begin();
+        try {
+            // Reset radio buttons selection; colors are reset when the question is bound
+            rbGroup.clearCheck();
+            viewModel.nextQuestion();
+        } finally {
+            AppMetrics.QUIZ_SHOW_NEXT_QUESTION.end(started);
+        }
+    }
 
-        if (questionCounter < questionCountTotal) {
-            // Get current question from list
-            currentQuestion = questionList.get(questionCounter);
+    // Bind the current question to the views; also used to rebind after a configuration change
+    private void displayQuestion() {
+        long started = AppMetrics.QUIZ_DISPLAY_QUESTION.begin();
+        try {
+            Question currentQuestion = viewModel.getCurrentQuestion();
+
+            // Reset radio buttons color
+            rb1.setTextColor(textColorDefaultRb);
+            rb2.setTextColor(textColorDefaultRb);
+            rb3.setTextColor(textColorDefaultRb);
+            rb4.setTextColor(textColorDefaultRb);
 
             // Set text for question and options
             tvQuestion.setText(currentQuestion.getQuestion());
@@ -122,72 +209,59 @@ public class QuizActivity extends AppCompatActivity {
             rb3.setText(currentQuestion.getOption3());
             rb4.setText(currentQuestion.getOption4());
 
-            questionCounter++;
-            tvQuestionCount.setText("Question: " + questionCounter + "/" + questionCountTotal);
-            answered = false;
-            btnConfirmNext.setText("Confirm"); // Button says "Confirm" until answer is checked
-
-            // Reset and start timer
-            timeLeftInMillis = COUNTDOWN_IN_MILLIS;
-            startCountDown();
-
-        } else {
-            // No more questions, finish quiz
-            finishQuiz();
-        }
-    }
-
-    // Timer Logic
-    private void startCountDown() {
-        countDownTimer = new CountDownTimer(timeLeftInMillis, 1000) {
-            @Override
-            public void onTick(long millisUntilFinished) {
-                timeLeftInMillis = millisUntilFinished;
-                updateCountDownText();
-            }
+            tvScore.setText("Score: " + viewModel.getScore());
+            tvQuestionCount.setText("Question: " + viewModel.getQuestionNumber() + "/"
+                    + viewModel.getQuestionCountTotal());
 
-            @Override
-            public void onFinish() {
-                timeLeftInMillis = 0;
-                updateCountDownText();
-                checkAnswer(); // Auto-submit when time runs out
+            if (viewModel.isAnswered()) {
+                showSolution();
+                return;
             }
-        }.start();
+            btnConfirmNext.setText("Confirm"); // Button says "Confirm" until answer is checked
+            // The countdown itself runs in the ViewModel; it keeps its time left across rotation
+        } finally {
+            AppMetrics.QUIZ_DISPLAY_QUESTION.end(started);
+        }
     }
 
-    private void updateCountDownText() {
-        int minutes = (int) (timeLeftInMillis / 1000) / 60;
-        int seconds = (int) (timeLeftInMillis / 1000) % 60;
-        String timeFormatted = String.format(Locale.getDefault(), "%02d:%02d", minutes, seconds);
-        tvTimer.setText(timeFormatted);
+    // Timer Logic: called only when the whole seconds left change
+    private void updateCountDownText(int secondsLeft) {
+        tvTimer.setText(secondsLeft < timerLabels.length ? timerLabels[secondsLeft] : formatTime(secondsLeft));
 
         // Change timer color to RED if less than 10 seconds remain
-        if (timeLeftInMillis < 10000) {
-            tvTimer.setTextColor(Color.RED);
-        } else {
-            tvTimer.setTextColor(Color.BLACK);
+        boolean warning = secondsLeft < WARNING_SECONDS;
+        if (warning != timerWarning) {
+            timerWarning = warning;
+            tvTimer.setTextColor(warning ? Color.RED : Color.BLACK);
         }
     }
 
-    // Check selected answer
-    private void checkAnswer() {
-        answered = true;
-        countDownTimer.cancel(); // Stop timer
+    private static String formatTime(int totalSeconds) {
+        return String.format(Locale.getDefault(), "%02d:%02d", totalSeconds / 60, totalSeconds % 60);
+    }
 
-        RadioButton rbSelected = findViewById(rbGroup.getCheckedRadioButtonId());
-        // Calculate index of selected child (0-3), add 1 to match answerNr (1-4)
-        int answerNr = rbGroup.indexOfChild(rbSelected) + 1;
+    // Check selected answer; locking it in also stops the timer
+    private void checkAnswer() {
+        long started = AppMetrics.QUIZ_CHECK_ANSWER.begin();
+        try {
+            RadioButton rbSelected = findViewById(rbGroup.getCheckedRadioButtonId());
+            // Index of the selected child (0-3) to answerNr (1-4); nothing selected (time ran out) is 0
+            int answerNr = QuizEngine.answerNrForOption(rbGroup.indexOfChild(rbSelected));
+
+            if (viewModel.answer(answerNr)) {
+                tvScore.setText("Score: " + viewModel.getScore());
+            }
 
-        if (answerNr == currentQuestion.getAnswerNr()) {
-            score++;
-            tvScore.setText("Score: " + score);
+            showSolution();
+        } finally {
+            AppMetrics.QUIZ_CHECK_ANSWER.end(started);
         }
-
-        showSolution();
     }
 
     // Highlight the correct answer
     private void showSolution() {
+        Question currentQuestion = viewModel.getCurrentQuestion();
+
         // Set all to red initially (indicating incorrect)
         rb1.setTextColor(Color.RED);
         rb2.setTextColor(Color.RED);
@@ -215,7 +289,7 @@ public class QuizActivity extends AppCompatActivity {
         }
 
         // Change button text based on whether it's the last question
-        if (questionCounter < questionCountTotal) {
+        if (!viewModel.isLastQuestion()) {
             btnConfirmNext.setText("Next");
         } else {
             btnConfirmNext.setText("Finish");
@@ -225,18 +299,39 @@ public class QuizActivity extends AppCompatActivity {
     // Finish Quiz and navigate to Result Activity
     private void finishQuiz() {
         Intent resultIntent = new Intent(QuizActivity.this, ResultActivity.class);
-        resultIntent.putExtra("SCORE", score);
-        resultIntent.putExtra("TOTAL_QUESTIONS", questionCountTotal);
+        resultIntent.putExtra("SCORE", viewModel.getScore());
+        resultIntent.putExtra("TOTAL_QUESTIONS", viewModel.getQuestionCountTotal());
+        resultIntent.putExtra("USER_ID", viewModel.getUserId());
         startActivity(resultIntent);
         finish();
     }
 
-    // Prevent memory leaks by cancelling timer if activity is destroyed
+    // The question's time only runs while the quiz is in the foreground
+    @Override
+    protected void onResume() {
+        super.onResume();
+        viewModel.resumeTimer();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        viewModel.pauseTimer();
+    }
+
+    // The process may be killed any time after this: get the last answers onto disk
+    @Override
+    protected void onStop() {
+        super.onStop();
+        viewModel.persistProgress();
+    }
+
+    // Prevent memory leaks by detaching from the ViewModel and its timer if activity is destroyed.
+    // Pending loads and the (paused) countdown belong to the ViewModel and survive a configuration change.
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-        }
+        viewModel.setListener(null);
+        viewModel.setTimerListener(null);
     }
 }
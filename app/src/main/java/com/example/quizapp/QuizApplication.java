@@ -0,0 +1,79 @@
+package com.example.quizapp;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import com.example.quizapp.db.DatabaseHelper;
+import com.example.quizapp.db.DatabaseProvider;
+import com.example.quizapp.metrics.ActivityStartupTracker;
+import com.example.quizapp.metrics.MainThreadIoGuard;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * QuizApplication is the process-wide entry point.
+ * It starts the startup pipeline as soon as the process starts: the prebuilt database is installed
+ * and opened (the critical path the splash waits for) while the question cache is warmed. The category
+ * dashboard is not preloaded: it is per user, and the user is only known after login.
+ */
+public class QuizApplication extends Application {
+    private static final int STARTUP_THREADS = 2;
+    private static final long STARTUP_THREAD_IDLE_SECONDS = 5;
+
+    private StartupCoordinator startup;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        if (BuildConfig.DEBUG) {
+            MainThreadIoGuard.install();
+        }
+        // Time to first frame of every activity; also exports the metrics when the app is backgrounded
+        registerActivityLifecycleCallbacks(new ActivityStartupTracker());
+        startup = buildStartup(DatabaseProvider.get(this));
+        // Measured from process start, so the timeline includes the time before onCreate
+        startup.start(Process.getStartUptimeMillis());
+    }
+
+    public StartupCoordinator getStartupCoordinator() {
+        return startup;
+    }
+
+    // Copy the prebuilt database, open (create/upgrade) it, then warm the caches and hash any legacy
+    // plaintext passwords in parallel
+    private static StartupCoordinator buildStartup(DatabaseHelper helper) {
+        AtomicInteger threadCount = new AtomicInteger();
+        // The startup threads exit on their own once every stage is done
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(STARTUP_THREADS, STARTUP_THREADS,
+                STARTUP_THREAD_IDLE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "startup-" + threadCount.incrementAndGet()));
+        workers.allowCoreThreadTimeOut(true);
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        StartupCoordinator startup = new StartupCoordinator(workers, mainHandler::post);
+        startup.addStage("asset-install", true, helper::installPrebuiltDatabase)
+                .addStage("database-open", true, helper::getWritableDatabase, "asset-install")
+                .addStage("question-cache", false, helper::warmQuestionCache, "database-open")
+                // Also calibrates password hashing on first launch, before anyone signs up or logs in
+                .addStage("credential-migration", false, helper::migratePlaintextPasswords, "database-open");
+        return startup;
+    }
+
+    // Give memory back when the app goes to the background or the device runs low
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        DatabaseProvider.trimMemory(level);
+    }
+
+    // Only called on emulated processes, but keeps the shutdown path explicit
+    @Override
+    public void onTerminate() {
+        DatabaseProvider.close();
+        super.onTerminate();
+    }
+}
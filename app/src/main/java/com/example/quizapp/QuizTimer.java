@@ -0,0 +1,184 @@
+package com.example.quizapp;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * QuizTimer counts down the time for the current question; one instance serves the whole quiz.
+ * It runs on a monotonic clock and wakes up only when the whole number of seconds left changes, at
+ * times computed from the deadline rather than from the previous tick, so it never drifts.
+ * Listeners hear about a new number of seconds only when it changes, and about the end exactly once.
+ * pause() freezes the time left (e.g. while the screen is not in the foreground) and resume()
+ * continues from it; a question started while paused waits for resume().
+ * All methods must be called on the scheduler's thread (the main thread for onMainThread()).
+ */
+public final class QuizTimer {
+
+    // Monotonic time in milliseconds
+    public interface Clock {
+        long now();
+    }
+
+    // Runs tasks at a given Clock time
+    public interface Scheduler {
+        void scheduleAt(Runnable task, long time);
+
+        void cancel(Runnable task);
+    }
+
+    public interface Listener {
+        // Whole seconds left, rounded up: 30 for the first second of a 30 second countdown, 0 at the end
+        void onSecondsLeftChanged(int secondsLeft);
+
+        // The countdown reached zero
+        void onFinish();
+    }
+
+    private enum State { IDLE, RUNNING, STOPPED, FINISHED }
+
+    private final Clock clock;
+    private final Scheduler scheduler;
+    private final Runnable tick = this::tick;
+
+    private Listener listener;
+    private State state = State.IDLE;
+    private boolean paused;
+    private long deadline;  // clock time the countdown ends; valid while running and not paused
+    private long remaining; // time left while paused, stopped or finished
+    private int secondsLeft = -1;
+    private boolean finishPending;
+
+    public QuizTimer(Clock clock, Scheduler scheduler) {
+        this.clock = clock;
+        this.scheduler = scheduler;
+    }
+
+    // Timer on the main thread, on the uptime clock that Handler.postAtTime uses
+    public static QuizTimer onMainThread() {
+        Handler handler = new Handler(Looper.getMainLooper());
+        return new QuizTimer(SystemClock::uptimeMillis, new Scheduler() {
+            @Override
+            public void scheduleAt(Runnable task, long time) {
+                handler.postAtTime(task, time);
+            }
+
+            @Override
+            public void cancel(Runnable task) {
+                handler.removeCallbacks(task);
+            }
+        });
+    }
+
+    // The current seconds left are delivered at once, and a finish nobody has heard of yet
+    public void setListener(Listener listener) {
+        this.listener = listener;
+        if (listener == null) {
+            return;
+        }
+        if (secondsLeft >= 0) {
+            listener.onSecondsLeftChanged(secondsLeft);
+        }
+        if (finishPending) {
+            finishPending = false;
+            listener.onFinish();
+        }
+    }
+
+    // Start a new countdown, replacing any current one
+    public void start(long durationMillis) {
+        scheduler.cancel(tick);
+        state = State.RUNNING;
+        remaining = durationMillis;
+        finishPending = false;
+        if (paused) {
+            publish(secondsOf(durationMillis));
+        } else {
+            deadline = clock.now() + durationMillis;
+            tick();
+        }
+    }
+
+    // Stop counting and keep the time left, e.g. once the question is answered
+    public void stop() {
+        if (state != State.RUNNING) {
+            return;
+        }
+        remaining = getTimeLeftMillis();
+        scheduler.cancel(tick);
+        state = State.STOPPED;
+    }
+
+    public void pause() {
+        if (paused) {
+            return;
+        }
+        if (state == State.RUNNING) {
+            remaining = getTimeLeftMillis();
+            scheduler.cancel(tick);
+        }
+        paused = true;
+    }
+
+    public void resume() {
+        if (!paused) {
+            return;
+        }
+        paused = false;
+        if (state == State.RUNNING) {
+            deadline = clock.now() + remaining;
+            tick();
+        }
+    }
+
+    public long getTimeLeftMillis() {
+        if (state == State.RUNNING && !paused) {
+            return Math.max(0, deadline - clock.now());
+        }
+        return remaining;
+    }
+
+    public boolean isRunning() {
+        return state == State.RUNNING && !paused;
+    }
+
+    public boolean isFinished() {
+        return state == State.FINISHED;
+    }
+
+    private void tick() {
+        if (state != State.RUNNING || paused) {
+            return;
+        }
+        long left = deadline - clock.now();
+        if (left <= 0) {
+            state = State.FINISHED;
+            remaining = 0;
+            publish(0);
+            if (listener != null) {
+                listener.onFinish();
+            } else {
+                finishPending = true;
+            }
+            return;
+        }
+        int seconds = secondsOf(left);
+        publish(seconds);
+        // The displayed second changes next when exactly seconds - 1 whole seconds are left
+        scheduler.scheduleAt(tick, deadline - (seconds - 1) * 1000L);
+    }
+
+    private static int secondsOf(long millis) {
+        return (int) ((millis + 999) / 1000);
+    }
+
+    private void publish(int seconds) {
+        if (seconds == secondsLeft) {
+            return;
+        }
+        secondsLeft = seconds;
+        if (listener != null) {
+            listener.onSecondsLeftChanged(seconds);
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.example.quizapp;
+
+import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.ViewModel;
+
+import com.example.quizapp.core.QuizSession;
+import com.example.quizapp.core.ReviewScheduler;
+import com.example.quizapp.db.AnswerLog;
+import com.example.quizapp.db.AsyncRepository;
+import com.example.quizapp.db.DatabaseHelper;
+import com.example.quizapp.db.QuestionWindow;
+import com.example.quizapp.db.SessionJournal;
+import com.example.quizapp.host.QuizHostServer;
+import com.example.quizapp.models.Question;
+
+import java.net.InetSocketAddress;
+
+/**
+ * QuizViewModel holds the state of one quiz run outside QuizActivity: a QuizSession (the sampled question
+ * order, current question, score and answered flag; the rules themselves live in quiz-core) and the
+ * current question's timer.
+ * It survives configuration changes, so a rotated QuizActivity only rebinds its views: no query,
+ * no new sample and no timer reset. Database work started here is cancelled in onCleared.
+ * Every step is also written to a SessionJournal, so a quiz whose process was killed in the
+ * background resumes at the same question with the same score when the Activity is restored.
+ * Answers are stored in the attempts history through an AnswerLog, off the answer path.
+ * A logged-in user's quiz is picked by their spaced-repetition schedule (ReviewScheduler): due
+ * reviews first, then unseen questions. Every answer updates the schedule in memory and is stored
+ * with the answer. Guests get a uniform random sample.
+ * In host mode the same questions are also pushed to participants on the local network through a
+ * QuizHostServer: each question when it is shown, the countdown every second, its answer once the host has
+ * answered (or the time ran out), and everyone's score at the end.
+ * All methods must be called on the main thread.
+ */
+public class QuizViewModel extends ViewModel {
+    static final int QUESTIONS_PER_QUIZ = 10;
+    static final long COUNTDOWN_IN_MILLIS = 30000; // 30 seconds per question
+
+    public enum Status { LOADING, QUESTION, EMPTY, FAILED, FINISHED }
+
+    // Receives every status change; the latest one is replayed when a listener is attached
+    public interface Listener {
+        void onStatusChanged(Status status);
+    }
+
+    private DatabaseHelper databaseHelper;
+    private AsyncRepository repository;
+    private SessionJournal journal;
+    private AnswerLog answerLog;
+    private QuestionWindow questionWindow;
+    private ReviewScheduler reviews; // null for guests
+    private long userId;
+    private int categoryId;
+    private Listener listener;
+    private Status status = Status.LOADING;
+
+    private QuizSession session;
+    private int restoredScore;
+
+    // One countdown for the whole quiz, restarted for every question and paused with the screen
+    private QuizTimer timer = QuizTimer.onMainThread();
+    private QuizTimer.Listener timerListener;
+
+    // Host mode: set by startHosting, ready once the server is listening
+    private QuizHostServer host;
+    private boolean hostReady;
+
+    // Installed on the timer while the screen listens: forwards to it and keeps participants' countdowns in sync
+    private final QuizTimer.Listener timerRelay = new QuizTimer.Listener() {
+        @Override
+        public void onSecondsLeftChanged(int secondsLeft) {
+            if (hostReady && getCurrentQuestion() != null && !isAnswered()) {
+                host.broadcastTimer(getQuestionNumber(), timer.getTimeLeftMillis());
+            }
+            timerListener.onSecondsLeftChanged(secondsLeft);
+        }
+
+        @Override
+        public void onFinish() {
+            timerListener.onFinish();
+        }
+    };
+
+    // Sample the quiz once; later calls (from a recreated Activity) are ignored.
+    // With resume set (the Activity is being restored, e.g. after process death) the journaled
+    // session for this category is restored instead of sampling a new one.
+    public void start(DatabaseHelper databaseHelper, SessionJournal journal, long userId, int categoryId, long seed,
+                      boolean resume) {
+        if (repository != null) {
+            return;
+        }
+        this.databaseHelper = databaseHelper;
+        repository = new AsyncRepository(databaseHelper);
+        this.journal = journal;
+        this.userId = userId;
+        this.categoryId = categoryId;
+        if (userId < 0) {
+            begin(categoryId, seed, resume);
+            return;
+        }
+        repository.loadReviewScheduler(userId, categoryId, seed, new AsyncRepository.Callback<ReviewScheduler>() {
+            @Override
+            public void onResult(ReviewScheduler scheduler) {
+                reviews = scheduler;
+                begin(categoryId, seed, resume);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // Still playable: a uniform sample, without spaced repetition
+                AsyncRepository.Callback.super.onError(e);
+                begin(categoryId, seed, resume);
+            }
+        });
+    }
+
+    // Also serve this quiz to participants on port (0 for any free one); callback gets the port it listens on.
+    // Later calls, e.g. from a recreated Activity, are ignored.
+    public void startHosting(int port, AsyncRepository.Callback<Integer> callback) {
+        if (host != null || repository == null) {
+            return;
+        }
+        QuizHostServer server = new QuizHostServer(new InetSocketAddress(port), null);
+        host = server;
+        repository.submit(() -> {
+            server.start();
+            return server.getPort();
+        }, new AsyncRepository.Callback<Integer>() {
+            @Override
+            public void onResult(Integer boundPort) {
+                hostReady = true;
+                // Participants catch up on a question that is already showing
+                if (status == Status.QUESTION) {
+                    broadcastCurrentQuestion();
+                    if (isAnswered()) {
+                        host.reveal(getQuestionNumber());
+                    }
+                }
+                callback.onResult(boundPort);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                server.close();
+                host = null;
+                callback.onError(e);
+            }
+        });
+    }
+
+    private void broadcastCurrentQuestion() {
+        host.broadcastQuestion(getQuestionNumber(), getQuestionCountTotal(), getCurrentQuestion(),
+                timer.getTimeLeftMillis());
+    }
+
+    private void begin(int categoryId, long seed, boolean resume) {
+        if (!resume) {
+            sample(categoryId, seed);
+            return;
+        }
+        repository.submit(journal::replay, new AsyncRepository.Callback<SessionJournal.Session>() {
+            @Override
+            public void onResult(SessionJournal.Session session) {
+                if (session != null && session.categoryId == categoryId
+                        && session.answeredCount < session.questionIds.length) {
+                    restoredScore = session.score;
+                    startQuiz(categoryId, session.seed, session.questionIds, session.answeredCount);
+                } else {
+                    sample(categoryId, seed);
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                AsyncRepository.Callback.super.onError(e);
+                sample(categoryId, seed);
+            }
+        });
+    }
+
+    private void sample(int categoryId, long seed) {
+        if (reviews != null) {
+            // Picked from memory: O(log n) per question, no query
+            long[] questionIds = reviews.next(QUESTIONS_PER_QUIZ, System.currentTimeMillis());
+            if (questionIds.length == 0) {
+                setStatus(Status.EMPTY);
+                return;
+            }
+            journal.begin(categoryId, seed, questionIds);
+            startQuiz(categoryId, seed, questionIds, 0);
+            return;
+        }
+        repository.sampleQuestionIds(categoryId, QUESTIONS_PER_QUIZ, seed, new AsyncRepository.Callback<long[]>() {
+            @Override
+            public void onResult(long[] questionIds) {
+                if (questionIds.length == 0) {
+                    setStatus(Status.EMPTY);
+                    return;
+                }
+                journal.begin(categoryId, seed, questionIds);
+                startQuiz(categoryId, seed, questionIds, 0);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                AsyncRepository.Callback.super.onError(e);
+                setStatus(Status.FAILED);
+            }
+        });
+    }
+
+    // The sample is already in random order; bodies are fetched window by window
+    private void startQuiz(int categoryId, long seed, long[] questionIds, int firstIndex) {
+        // A resumed quiz continues the attempt row of the same seed
+        answerLog = new AnswerLog(databaseHelper, userId, categoryId, seed);
+        questionWindow = new QuestionWindow(repository, categoryId, questionIds, firstIndex);
+        session = new QuizSession(questionIds, firstIndex, restoredScore);
+        nextQuestion();
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+        if (listener != null) {
+            listener.onStatusChanged(status);
+        }
+    }
+
+    // Move on to the next question, or finish the quiz after the last one
+    public void nextQuestion() {
+        if (!session.hasMoreQuestions()) {
+            answerLog.finish(session.getScore(), session.getQuestionCount());
+            journal.finish();
+            if (hostReady) {
+                host.finish();
+            }
+            setStatus(Status.FINISHED);
+            return;
+        }
+        // Usually answered straight from memory; only waits if the next window is still loading
+        int index = session.getNextIndex();
+        if (questionWindow.peek(index) == null) {
+            setStatus(Status.LOADING);
+        }
+        questionWindow.get(index, new AsyncRepository.Callback<Question>() {
+            @Override
+            public void onResult(Question question) {
+                if (question == null) {
+                    // Deleted since the quiz was sampled: skip it
+                    session.skip();
+                    nextQuestion();
+                    return;
+                }
+                session.present(question);
+                timer.start(COUNTDOWN_IN_MILLIS);
+                if (hostReady) {
+                    broadcastCurrentQuestion();
+                }
+                setStatus(Status.QUESTION);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                AsyncRepository.Callback.super.onError(e);
+                setStatus(Status.FAILED);
+            }
+        });
+    }
+
+    // Lock in an answer (0 when the time ran out); returns true if it was correct
+    public boolean answer(int answerNr) {
+        if (session == null || session.getCurrentQuestion() == null || session.isAnswered()) {
+            return false;
+        }
+        timer.stop();
+        long responseTime = COUNTDOWN_IN_MILLIS - getTimeLeftInMillis();
+        boolean correct = session.answer(answerNr, responseTime);
+        int number = session.getQuestionNumber();
+        long questionId = session.getCurrentQuestion().getId();
+        journal.recordAnswer(number, questionId, answerNr, correct);
+        if (hostReady) {
+            host.reveal(number);
+        }
+        if (reviews != null && reviews.contains(questionId)) {
+            reviews.record(questionId, ReviewScheduler.grade(correct, responseTime, COUNTDOWN_IN_MILLIS),
+                    System.currentTimeMillis());
+            answerLog.record(number, questionId, answerNr, correct, responseTime, reviews);
+        } else {
+            answerLog.record(number, questionId, answerNr, correct, responseTime);
+        }
+        return correct;
+    }
+
+    private void setStatus(Status status) {
+        this.status = status;
+        if (listener != null) {
+            listener.onStatusChanged(status);
+        }
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Question getCurrentQuestion() {
+        return session == null ? null : session.getCurrentQuestion();
+    }
+
+    // 1-based number of the current question
+    public int getQuestionNumber() {
+        return session == null ? 0 : session.getQuestionNumber();
+    }
+
+    public int getQuestionCountTotal() {
+        return session == null ? 0 : session.getQuestionCount();
+    }
+
+    public boolean isLastQuestion() {
+        return session != null && !session.hasMoreQuestions();
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public int getScore() {
+        return session == null ? restoredScore : session.getScore();
+    }
+
+    public boolean isAnswered() {
+        return session != null && session.isAnswered();
+    }
+
+    // Time left for the current question; frozen while the screen is paused and once it is answered
+    public long getTimeLeftInMillis() {
+        return timer.getTimeLeftMillis();
+    }
+
+    // Receives the seconds left on the current question and its time-out; replayed when set
+    public void setTimerListener(QuizTimer.Listener timerListener) {
+        this.timerListener = timerListener;
+        timer.setListener(timerListener == null ? null : timerRelay);
+    }
+
+    // Follow the screen's lifecycle: no time passes for a question while the quiz is not visible
+    public void pauseTimer() {
+        timer.pause();
+    }
+
+    public void resumeTimer() {
+        timer.resume();
+    }
+
+    // Replace the countdown, e.g. with one on a fake clock in tests; an unanswered question
+    // continues on it with the time it has left
+    @VisibleForTesting
+    void setTimer(QuizTimer newTimer) {
+        long timeLeft = timer.getTimeLeftMillis();
+        boolean counting = status == Status.QUESTION && !isAnswered() && !timer.isFinished();
+        timer.setListener(null);
+        timer.stop();
+        timer = newTimer;
+        if (counting) {
+            timer.start(timeLeft);
+        }
+        timer.setListener(timerListener == null ? null : timerRelay);
+    }
+
+    // Make sure every answer so far is on disk, e.g. when the quiz goes to the background
+    public void persistProgress() {
+        if (journal != null) {
+            journal.sync();
+        }
+        if (answerLog != null) {
+            answerLog.flush();
+        }
+    }
+
+    // Only called when the quiz screen is finished for good: an abandoned quiz is not resumed later
+    @Override
+    protected void onCleared() {
+        listener = null;
+        timer.setListener(null);
+        timer.stop();
+        if (host != null) {
+            host.close();
+        }
+        if (repository != null) {
+            repository.cancelAll();
+            journal.finish();
+        }
+    }
+}
@@ -2,18 +2,24 @@ package com.example.quizapp;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.ProgressBar;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.quizapp.db.AsyncRepository;
 import com.example.quizapp.db.DatabaseHelper;
+import com.example.quizapp.db.DatabaseProvider;
 
 public class ResetPasswordActivity extends AppCompatActivity {
 
     private EditText etNewPassword, etConfirmPassword;
     private Button btnConfirm;
+    private ProgressBar progressBar;
     private DatabaseHelper databaseHelper;
+    private AsyncRepository repository;
     private String username;
 
     @Override
@@ -24,7 +30,9 @@ public class ResetPasswordActivity extends AppCompatActivity {
         etNewPassword = findViewById(R.id.et_new_password);
         etConfirmPassword = findViewById(R.id.et_confirm_password);
         btnConfirm = findViewById(R.id.btn_reset_confirm);
-        databaseHelper = new DatabaseHelper(this);
+        progressBar = findViewById(R.id.pb_reset);
+        databaseHelper = DatabaseProvider.get(this);
+        repository = new AsyncRepository(databaseHelper);
 
         // Get username passed from ForgotPasswordActivity
         Intent intent = getIntent();
@@ -42,21 +50,47 @@ public class ResetPasswordActivity extends AppCompatActivity {
                 Toast.makeText(this, "Passwords do not match", Toast.LENGTH_SHORT).show();
             } else {
                 if (username != null) {
-                    boolean isUpdated = databaseHelper.updatePassword(username, newPass);
-                    if (isUpdated) {
-                        Toast.makeText(this, "Password Updated Successfully", Toast.LENGTH_SHORT).show();
-                        // Navigate back to Login
-                        Intent loginIntent = new Intent(ResetPasswordActivity.this, LoginActivity.class);
-                        // Clear stack so user can't go back to reset page
-                        loginIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-                        startActivity(loginIntent);
-                    } else {
-                        Toast.makeText(this, "Error updating password", Toast.LENGTH_SHORT).show();
-                    }
+                    setLoading(true);
+                    repository.updatePassword(username, newPass, new AsyncRepository.Callback<Boolean>() {
+                        @Override
+                        public void onResult(Boolean isUpdated) {
+                            setLoading(false);
+                            if (isUpdated) {
+                                Toast.makeText(ResetPasswordActivity.this, "Password Updated Successfully",
+                                        Toast.LENGTH_SHORT).show();
+                                // Navigate back to Login
+                                Intent loginIntent = new Intent(ResetPasswordActivity.this, LoginActivity.class);
+                                // Clear stack so user can't go back to reset page
+                                loginIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+                                startActivity(loginIntent);
+                            } else {
+                                Toast.makeText(ResetPasswordActivity.this, "Error updating password",
+                                        Toast.LENGTH_SHORT).show();
+                            }
+                        }
+
+                        @Override
+                        public void onError(Exception e) {
+                            setLoading(false);
+                            Toast.makeText(ResetPasswordActivity.this, "Error updating password",
+                                    Toast.LENGTH_SHORT).show();
+                        }
+                    });
                 } else {
                     Toast.makeText(this, "Error: User not identified", Toast.LENGTH_SHORT).show();
                 }
             }
         });
     }
+
+    private void setLoading(boolean loading) {
+        progressBar.setVisibility(loading ? View.VISIBLE : View.GONE);
+        btnConfirm.setEnabled(!loading);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        repository.cancelAll();
+    }
 }
@@ -2,14 +2,27 @@ package com.example.quizapp;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.quizapp.db.AsyncRepository;
+import com.example.quizapp.db.DatabaseProvider;
+import com.example.quizapp.models.LeaderboardEntry;
+
+import java.util.List;
+
+/**
+ * ResultActivity shows the score of the quiz that just finished and, for a logged-in user, their
+ * rating and rank after it together with the top of the leaderboard.
+ */
 public class ResultActivity extends AppCompatActivity {
+    private static final int LEADERBOARD_SIZE = 5;
 
-    private TextView tvFinalScore;
+    private TextView tvFinalScore, tvAccuracy, tvRating, tvLeaderboard;
     private Button btnRetry, btnHome;
+    private AsyncRepository repository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -17,27 +30,75 @@ public class ResultActivity extends AppCompatActivity {
         setContentView(R.layout.activity_result);
 
         tvFinalScore = findViewById(R.id.tv_final_score);
+        tvAccuracy = findViewById(R.id.tv_accuracy);
+        tvRating = findViewById(R.id.tv_rating);
+        tvLeaderboard = findViewById(R.id.tv_leaderboard);
         btnRetry = findViewById(R.id.btn_retry);
         btnHome = findViewById(R.id.btn_home);
 
         int score = getIntent().getIntExtra("SCORE", 0);
         int totalQuestions = getIntent().getIntExtra("TOTAL_QUESTIONS", 0);
+        long userId = getIntent().getLongExtra("USER_ID", -1);
 
         tvFinalScore.setText("Your Score: " + score + " / " + totalQuestions);
+        int accuracy = totalQuestions > 0 ? Math.round(100f * score / totalQuestions) : 0;
+        tvAccuracy.setText(getString(R.string.final_accuracy, accuracy));
+
+        repository = new AsyncRepository(DatabaseProvider.get(this));
+        if (userId >= 0) {
+            loadStanding(userId);
+        }
 
         btnRetry.setOnClickListener(v -> {
             // Restart the app from Categories to try again (or maybe just restart last
             // category?)
             // For simplicity, go to Categories
             Intent intent = new Intent(ResultActivity.this, CategoriesActivity.class);
+            intent.putExtra("USER_ID", userId);
             startActivity(intent);
             finish();
         });
 
         btnHome.setOnClickListener(v -> {
             Intent intent = new Intent(ResultActivity.this, CategoriesActivity.class);
+            intent.putExtra("USER_ID", userId);
             startActivity(intent);
             finish();
         });
     }
+
+    // Rating and rank after this quiz, then the top of the leaderboard; both wait for its answers to be
+    // written. A failure only leaves them hidden, the score is already shown.
+    private void loadStanding(long userId) {
+        repository.getUserStanding(userId, standing -> {
+            if (standing != null && standing.isRanked()) {
+                tvRating.setText(getString(R.string.rating_rank, Math.round(standing.getRating()),
+                        standing.getRank()));
+                tvRating.setVisibility(View.VISIBLE);
+            }
+        });
+        repository.getLeaderboard(LEADERBOARD_SIZE, entries -> {
+            if (entries.isEmpty()) {
+                return;
+            }
+            tvLeaderboard.setText(formatLeaderboard(entries));
+            tvLeaderboard.setVisibility(View.VISIBLE);
+        });
+    }
+
+    private String formatLeaderboard(List<LeaderboardEntry> entries) {
+        StringBuilder text = new StringBuilder(getString(R.string.leaderboard_title));
+        for (LeaderboardEntry entry : entries) {
+            text.append('\n').append(getString(R.string.leaderboard_row, entry.getRank(), entry.getUsername(),
+                    Math.round(entry.getRating())));
+        }
+        return text.toString();
+    }
+
+    // Drop any pending database callbacks for this screen
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        repository.cancelAll();
+    }
 }
@@ -0,0 +1,168 @@
+package com.example.quizapp;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.View;
+import android.widget.EditText;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.quizapp.adapters.QuestionSearchAdapter;
+import com.example.quizapp.db.AsyncRepository;
+import com.example.quizapp.db.DatabaseProvider;
+import com.example.quizapp.models.Question;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SearchActivity searches the question bank as the user types.
+ * A query only starts once typing pauses for DEBOUNCE_MILLIS, and any query still running for an
+ * older text is cancelled, so results never arrive out of order. Further pages of the ranked results
+ * are loaded when the list is scrolled near its end.
+ */
+public class SearchActivity extends AppCompatActivity {
+
+    private static final long DEBOUNCE_MILLIS = 250;
+    private static final int PAGE_SIZE = 30;
+    // Start loading the next page when this many rows are left below the last visible one
+    private static final int LOAD_MORE_THRESHOLD = 5;
+
+    private EditText etSearch;
+    private RecyclerView rvResults;
+    private TextView tvEmpty;
+    private ProgressBar progressBar;
+    private QuestionSearchAdapter adapter;
+    private LinearLayoutManager layoutManager;
+    private AsyncRepository repository;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable searchRunnable = this::search;
+    private String query = "";
+    private AsyncRepository.Task<List<Question>> currentTask;
+    private boolean endReached;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_search);
+
+        etSearch = findViewById(R.id.et_search);
+        rvResults = findViewById(R.id.rv_search_results);
+        tvEmpty = findViewById(R.id.tv_search_empty);
+        progressBar = findViewById(R.id.pb_search);
+
+        layoutManager = new LinearLayoutManager(this);
+        rvResults.setLayoutManager(layoutManager);
+        rvResults.setHasFixedSize(true);
+        adapter = new QuestionSearchAdapter();
+        rvResults.setAdapter(adapter);
+
+        repository = new AsyncRepository(DatabaseProvider.get(this));
+
+        // Restart the debounce on every keystroke; whatever is in flight is for a stale text now
+        etSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                handler.removeCallbacks(searchRunnable);
+                cancelCurrentTask();
+                query = s.toString().trim();
+                handler.postDelayed(searchRunnable, DEBOUNCE_MILLIS);
+            }
+        });
+
+        rvResults.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0 && !endReached && currentTask == null
+                        && layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    loadMore();
+                }
+            }
+        });
+    }
+
+    // First page for the current text
+    private void search() {
+        endReached = false;
+        if (query.isEmpty()) {
+            progressBar.setVisibility(View.GONE);
+            tvEmpty.setVisibility(View.GONE);
+            adapter.submitList(null);
+            return;
+        }
+        progressBar.setVisibility(View.VISIBLE);
+        currentTask = repository.searchQuestions(query, 0, PAGE_SIZE, new AsyncRepository.Callback<List<Question>>() {
+            @Override
+            public void onResult(List<Question> results) {
+                currentTask = null;
+                progressBar.setVisibility(View.GONE);
+                endReached = results.size() < PAGE_SIZE;
+                tvEmpty.setVisibility(results.isEmpty() ? View.VISIBLE : View.GONE);
+                // Back at the top for a new text; the diff keeps rows that are still ranked the same
+                adapter.submitList(results, () -> rvResults.scrollToPosition(0));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                currentTask = null;
+                progressBar.setVisibility(View.GONE);
+                Toast.makeText(SearchActivity.this, "Search failed", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // Append the next page of the same ranking
+    private void loadMore() {
+        List<Question> shown = adapter.getCurrentList();
+        currentTask = repository.searchQuestions(query, shown.size(), PAGE_SIZE,
+                new AsyncRepository.Callback<List<Question>>() {
+                    @Override
+                    public void onResult(List<Question> results) {
+                        currentTask = null;
+                        endReached = results.size() < PAGE_SIZE;
+                        List<Question> combined = new ArrayList<>(shown.size() + results.size());
+                        combined.addAll(shown);
+                        combined.addAll(results);
+                        adapter.submitList(combined);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        currentTask = null;
+                        endReached = true;
+                        Toast.makeText(SearchActivity.this, "Could not load more results", Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
+
+    private void cancelCurrentTask() {
+        if (currentTask != null) {
+            currentTask.cancel();
+            currentTask = null;
+        }
+    }
+
+    // Drop the pending search and any callbacks for this screen
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        handler.removeCallbacks(searchRunnable);
+        repository.cancelAll();
+    }
+}
@@ -2,13 +2,17 @@ package com.example.quizapp;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.quizapp.db.AsyncRepository;
 import com.example.quizapp.db.DatabaseHelper;
+import com.example.quizapp.db.DatabaseProvider;
 import com.example.quizapp.models.User;
 
 /**
@@ -21,17 +25,20 @@ public class SignupActivity extends AppCompatActivity {
     private EditText etUsername, etPassword, etConfirmPassword;
     private Button btnSignup;
     private TextView tvLoginLink;
+    private ProgressBar progressBar;
     
-    // Database Helper for user operations
+    // Database Helper for user operations and its background wrapper
     private DatabaseHelper databaseHelper;
+    private AsyncRepository repository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_signup); // Set the XML layout
 
-        // Initialize Database Helper
-        databaseHelper = new DatabaseHelper(this);
+        // Get the shared Database Helper
+        databaseHelper = DatabaseProvider.get(this);
+        repository = new AsyncRepository(databaseHelper);
 
         // Link UI components with XML IDs
         etUsername = findViewById(R.id.et_signup_username);
@@ -39,6 +46,7 @@ public class SignupActivity extends AppCompatActivity {
         etConfirmPassword = findViewById(R.id.et_signup_confirm_password);
         btnSignup = findViewById(R.id.btn_signup);
         tvLoginLink = findViewById(R.id.tv_login_link);
+        progressBar = findViewById(R.id.pb_signup);
 
         // Handle Signup Button Click
         btnSignup.setOnClickListener(v -> {
@@ -54,23 +62,25 @@ public class SignupActivity extends AppCompatActivity {
                 Toast.makeText(SignupActivity.this, "Passwords do not match", Toast.LENGTH_SHORT).show();
             } else {
                 // Check if user already exists in the database
-                if (databaseHelper.checkUserExists(username)) {
-                    Toast.makeText(SignupActivity.this, "User already exists", Toast.LENGTH_SHORT).show();
-                } else {
-                    // Create new user and add to database
-                    User newUser = new User(username, password);
-                    long res = databaseHelper.addUser(newUser);
-                    
-                    if (res > 0) {
-                        Toast.makeText(SignupActivity.this, "Registration Successful", Toast.LENGTH_SHORT).show();
-                        // Redirect to Login Screen
-                        Intent intent = new Intent(SignupActivity.this, LoginActivity.class);
-                        startActivity(intent);
-                        finish(); // Close SignupActivity so user can't go back to it
-                    } else {
+                setLoading(true);
+                repository.checkUserExists(username, new AsyncRepository.Callback<Boolean>() {
+                    @Override
+                    public void onResult(Boolean exists) {
+                        if (exists) {
+                            setLoading(false);
+                            Toast.makeText(SignupActivity.this, "User already exists", Toast.LENGTH_SHORT).show();
+                        } else {
+                            // Create new user and add to database
+                            registerUser(new User(username, password));
+                        }
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        setLoading(false);
                         Toast.makeText(SignupActivity.this, "Registration Failed", Toast.LENGTH_SHORT).show();
                     }
-                }
+                });
             }
         });
 
@@ -79,4 +89,42 @@ public class SignupActivity extends AppCompatActivity {
             finish(); // Simply close this activity to return to the previous one (Login)
         });
     }
+
+    // Insert the new user in the background and move to Login once it is stored
+    private void registerUser(User newUser) {
+        repository.addUser(newUser, new AsyncRepository.Callback<Long>() {
+            @Override
+            public void onResult(Long res) {
+                setLoading(false);
+                if (res > 0) {
+                    Toast.makeText(SignupActivity.this, "Registration Successful", Toast.LENGTH_SHORT).show();
+                    // Redirect to Login Screen
+                    Intent intent = new Intent(SignupActivity.this, LoginActivity.class);
+                    startActivity(intent);
+                    finish(); // Close SignupActivity so user can't go back to it
+                } else {
+                    Toast.makeText(SignupActivity.this, "Registration Failed", Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                setLoading(false);
+                Toast.makeText(SignupActivity.this, "Registration Failed", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // Show the progress indicator and block the button while the database is busy
+    private void setLoading(boolean loading) {
+        progressBar.setVisibility(loading ? View.VISIBLE : View.GONE);
+        btnSignup.setEnabled(!loading);
+    }
+
+    // Drop any pending database callbacks for this screen
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        repository.cancelAll();
+    }
 }
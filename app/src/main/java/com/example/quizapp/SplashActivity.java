@@ -3,20 +3,56 @@ package com.example.quizapp;
 import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
 import androidx.appcompat.app.AppCompatActivity;
 
+/**
+ * SplashActivity stays up until the startup critical path (the database being ready) is done,
+ * but at least splash_min_display_millis, then moves on to Login.
+ */
 public class SplashActivity extends AppCompatActivity {
+    private static final String TAG = "StartupTimeline";
+
+    // Only the first splash of the process is a cold start
+    private static boolean coldStartReported;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable openLogin = this::openLogin;
+    private long shownAt;
+    private boolean coldStart;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_splash);
 
-        // Delay for 2 seconds then move to Login
-        new Handler().postDelayed(() -> {
-            Intent intent = new Intent(SplashActivity.this, LoginActivity.class);
-            startActivity(intent);
-            finish();
-        }, 2000);
+        shownAt = SystemClock.uptimeMillis();
+        coldStart = !coldStartReported;
+        coldStartReported = true;
+
+        long minDisplay = getResources().getInteger(R.integer.splash_min_display_millis);
+        StartupCoordinator startup = ((QuizApplication) getApplication()).getStartupCoordinator();
+        // Called on the main thread, right away if the critical path already finished
+        startup.whenCriticalPathDone(() -> {
+            if (!isFinishing() && !isDestroyed()) {
+                handler.postAtTime(openLogin, Math.max(shownAt + minDisplay, SystemClock.uptimeMillis()));
+            }
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        handler.removeCallbacks(openLogin);
+        super.onDestroy();
+    }
+
+    private void openLogin() {
+        Log.i(TAG, String.format("%s start: splash shown for %d ms", coldStart ? "Cold" : "Warm",
+                SystemClock.uptimeMillis() - shownAt));
+        Intent intent = new Intent(SplashActivity.this, LoginActivity.class);
+        startActivity(intent);
+        finish();
     }
 }
@@ -0,0 +1,244 @@
+package com.example.quizapp;
+
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * StartupCoordinator runs the app's warm-up stages in parallel as soon as the process starts.
+ * Every stage names the stages it depends on and is started on the worker executor the moment they
+ * have all finished. Critical stages are the ones the first screen after the splash needs: the splash
+ * moves on once they are done, while the other stages carry on in the background. A stage that fails
+ * is logged and its dependents are skipped; the critical path still completes so the app never hangs
+ * on the splash (the screens report database errors themselves).
+ * The start offset, duration and thread of every stage are recorded and logged under the
+ * StartupTimeline tag once all stages are done, so cold start regressions show up stage by stage.
+ */
+public final class StartupCoordinator {
+    private static final String TAG = "StartupTimeline";
+
+    // One recorded stage; offsets are milliseconds since the timeline origin
+    public static final class StageTiming {
+        public final String name;
+        public final boolean critical;
+        public final long startOffset;
+        public final long duration;
+        public final String thread;
+        public final String outcome; // "ok", "failed" or "skipped"
+
+        StageTiming(String name, boolean critical, long startOffset, long duration, String thread, String outcome) {
+            this.name = name;
+            this.critical = critical;
+            this.startOffset = startOffset;
+            this.duration = duration;
+            this.thread = thread;
+            this.outcome = outcome;
+        }
+    }
+
+    private static final class Stage {
+        final String name;
+        final boolean critical;
+        final Runnable work;
+        final String[] dependsOn;
+        final List<Stage> dependents = new ArrayList<>();
+        int waitingFor;
+        long startedAt = -1;
+        long finishedAt = -1;
+        String thread = "-";
+        String outcome;
+
+        Stage(String name, boolean critical, Runnable work, String[] dependsOn) {
+            this.name = name;
+            this.critical = critical;
+            this.work = work;
+            this.dependsOn = dependsOn;
+        }
+    }
+
+    private final Executor workers;
+    private final Executor callbacks;
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+    private final List<Runnable> criticalPathListeners = new ArrayList<>();
+
+    private boolean started;
+    private long origin;
+    private int criticalRemaining;
+    private int remaining;
+    private long criticalPathDoneAt = -1;
+    private long allDoneAt = -1;
+
+    // Stages run on workers; critical path listeners are invoked on callbacks (the main thread in the app)
+    public StartupCoordinator(Executor workers, Executor callbacks) {
+        this.workers = workers;
+        this.callbacks = callbacks;
+    }
+
+    // Register a stage; all of them must be added before start(). A critical stage should only depend
+    // on critical stages, or the critical path waits for the non-critical ones too.
+    public synchronized StartupCoordinator addStage(String name, boolean critical, Runnable work, String... dependsOn) {
+        if (started) {
+            throw new IllegalStateException("Startup already started");
+        }
+        if (stages.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate stage " + name);
+        }
+        stages.put(name, new Stage(name, critical, work, dependsOn));
+        return this;
+    }
+
+    // Start every stage without dependencies. origin is the uptime the timeline is measured from,
+    // e.g. the process start time.
+    public void start(long origin) {
+        List<Stage> ready = new ArrayList<>();
+        synchronized (this) {
+            if (started) {
+                return;
+            }
+            started = true;
+            this.origin = origin;
+            for (Stage stage : stages.values()) {
+                for (String dependency : stage.dependsOn) {
+                    Stage required = stages.get(dependency);
+                    if (required == null) {
+                        throw new IllegalArgumentException(stage.name + " depends on unknown stage " + dependency);
+                    }
+                    required.dependents.add(stage);
+                    stage.waitingFor++;
+                }
+                if (stage.critical) {
+                    criticalRemaining++;
+                }
+                if (stage.waitingFor == 0) {
+                    ready.add(stage);
+                }
+            }
+            remaining = stages.size();
+            if (criticalRemaining == 0) {
+                criticalPathDone();
+            }
+        }
+        for (Stage stage : ready) {
+            submit(stage);
+        }
+    }
+
+    // Run the callback (on the callback executor) once the critical path is done, or at once if it is
+    public void whenCriticalPathDone(Runnable callback) {
+        synchronized (this) {
+            if (criticalPathDoneAt < 0) {
+                criticalPathListeners.add(callback);
+                return;
+            }
+        }
+        callbacks.execute(callback);
+    }
+
+    public synchronized boolean isCriticalPathDone() {
+        return criticalPathDoneAt >= 0;
+    }
+
+    public synchronized boolean isDone() {
+        return allDoneAt >= 0;
+    }
+
+    // Offset of the end of the critical path from the origin, or -1 while it is still running
+    public synchronized long getCriticalPathMillis() {
+        return criticalPathDoneAt < 0 ? -1 : criticalPathDoneAt - origin;
+    }
+
+    // Stages finished so far, in registration order
+    public synchronized List<StageTiming> getTimeline() {
+        List<StageTiming> timeline = new ArrayList<>();
+        for (Stage stage : stages.values()) {
+            if (stage.outcome != null) {
+                long startOffset = stage.startedAt < 0 ? -1 : stage.startedAt - origin;
+                long duration = stage.startedAt < 0 ? 0 : stage.finishedAt - stage.startedAt;
+                timeline.add(new StageTiming(stage.name, stage.critical, startOffset, duration, stage.thread,
+                        stage.outcome));
+            }
+        }
+        return Collections.unmodifiableList(timeline);
+    }
+
+    private void submit(Stage stage) {
+        workers.execute(() -> run(stage));
+    }
+
+    private void run(Stage stage) {
+        String outcome = "ok";
+        long startedAt = SystemClock.uptimeMillis();
+        Trace.beginSection("startup:" + stage.name);
+        try {
+            stage.work.run();
+        } catch (RuntimeException e) {
+            outcome = "failed";
+            Log.e(TAG, "Startup stage " + stage.name + " failed", e);
+        } finally {
+            Trace.endSection();
+        }
+        long finishedAt = SystemClock.uptimeMillis();
+
+        List<Stage> ready = new ArrayList<>();
+        synchronized (this) {
+            stage.startedAt = startedAt;
+            stage.finishedAt = finishedAt;
+            stage.thread = Thread.currentThread().getName();
+            finished(stage, outcome, ready);
+        }
+        for (Stage next : ready) {
+            submit(next);
+        }
+    }
+
+    // Record the outcome and collect the dependents that can start now; a failed or skipped stage
+    // skips everything that depends on it
+    private void finished(Stage stage, String outcome, List<Stage> ready) {
+        stage.outcome = outcome;
+        remaining--;
+        if (stage.critical && --criticalRemaining == 0) {
+            criticalPathDone();
+        }
+        for (Stage dependent : stage.dependents) {
+            if (dependent.outcome != null) {
+                continue;
+            }
+            if (!"ok".equals(outcome)) {
+                finished(dependent, "skipped", ready);
+            } else if (--dependent.waitingFor == 0) {
+                ready.add(dependent);
+            }
+        }
+        if (remaining == 0) {
+            allDoneAt = SystemClock.uptimeMillis();
+            Log.i(TAG, describe());
+        }
+    }
+
+    private void criticalPathDone() {
+        criticalPathDoneAt = SystemClock.uptimeMillis();
+        for (Runnable listener : criticalPathListeners) {
+            callbacks.execute(listener);
+        }
+        criticalPathListeners.clear();
+    }
+
+    // e.g. "critical path 84 ms, all stages 131 ms" followed by one line per stage
+    private String describe() {
+        StringBuilder out = new StringBuilder(String.format(Locale.US, "critical path %d ms, all stages %d ms",
+                criticalPathDoneAt - origin, allDoneAt - origin));
+        for (StageTiming timing : getTimeline()) {
+            out.append(String.format(Locale.US, "%n  %-22s %s +%5d ms %5d ms  %-7s %s", timing.name,
+                    timing.critical ? "*" : " ", timing.startOffset, timing.duration, timing.outcome, timing.thread));
+        }
+        return out.toString();
+    }
+}
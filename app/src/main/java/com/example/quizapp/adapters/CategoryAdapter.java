@@ -2,12 +2,15 @@ package com.example.quizapp.adapters;
 
 import android.content.Context;
 import android.content.Intent;
+import android.text.format.DateUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.quizapp.QuizActivity;
@@ -15,20 +18,65 @@ import com.example.quizapp.R;
 import com.example.quizapp.models.Category;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * CategoryAdapter binds the category data to the RecyclerView.
- * It handles the creation of view holders and binding of data to individual items.
+ * New lists are handed in with submitList(): the difference to the current list is computed on a
+ * background thread and only the rows that changed are rebound, partially where possible.
+ * Rows have stable ids (the category id) and every ViewHolder owns a single click listener, plus a
+ * long-click one that hosts the quiz for participants on the local network.
  */
-public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.CategoryViewHolder> {
+public class CategoryAdapter extends ListAdapter<Category, CategoryAdapter.CategoryViewHolder> {
 
-    private Context context;
-    private List<Category> categoryList;
+    // Payloads for a row where only the name, or only the statistics line, changed
+    static final Object PAYLOAD_NAME = new Object();
+    static final Object PAYLOAD_STATS = new Object();
 
-    // Constructor to pass context and data list
-    public CategoryAdapter(Context context, List<Category> categoryList) {
+    private final Context context;
+    private final long userId;
+
+    // Compares categories by id, then by the fields shown in the row
+    static final DiffUtil.ItemCallback<Category> DIFF_CALLBACK = new DiffUtil.ItemCallback<Category>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Category oldItem, @NonNull Category newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Category oldItem, @NonNull Category newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && oldItem.getImageResId() == newItem.getImageResId()
+                    && sameStats(oldItem, newItem);
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Category oldItem, @NonNull Category newItem) {
+            // Only one part differs: rebind just that part instead of the whole row
+            if (oldItem.getImageResId() != newItem.getImageResId()) {
+                return null;
+            }
+            boolean sameName = Objects.equals(oldItem.getName(), newItem.getName());
+            if (!sameName && sameStats(oldItem, newItem)) {
+                return PAYLOAD_NAME;
+            }
+            return sameName ? PAYLOAD_STATS : null;
+        }
+
+        private boolean sameStats(Category oldItem, Category newItem) {
+            return oldItem.getQuestionCount() == newItem.getQuestionCount()
+                    && oldItem.getBestScore() == newItem.getBestScore()
+                    && oldItem.getBestTotal() == newItem.getBestTotal()
+                    && oldItem.getLastPlayedAt() == newItem.getLastPlayedAt();
+        }
+    };
+
+    // Constructor: the list itself is provided later through submitList()
+    public CategoryAdapter(Context context, long userId) {
+        super(DIFF_CALLBACK);
         this.context = context;
-        this.categoryList = categoryList;
+        this.userId = userId;
+        setHasStableIds(true);
     }
 
     // Called when RecyclerView needs a new ViewHolder of the given type to represent an item
@@ -37,40 +85,85 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
     public CategoryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         // Inflate the item layout (xml)
         View view = LayoutInflater.from(context).inflate(R.layout.item_category, parent, false);
-        return new CategoryViewHolder(view);
+        CategoryViewHolder holder = new CategoryViewHolder(view);
+
+        // Handle Item Click -> Start Quiz for the category currently bound to this holder
+        view.setOnClickListener(v -> startQuiz(holder, false));
+        // Long click -> host the same quiz
+        view.setOnLongClickListener(v -> startQuiz(holder, true));
+        return holder;
+    }
+
+    // Returns false if the holder is no longer bound to a category
+    private boolean startQuiz(CategoryViewHolder holder, boolean hostMode) {
+        int position = holder.getBindingAdapterPosition();
+        if (position == RecyclerView.NO_POSITION) {
+            return false;
+        }
+        Intent intent = new Intent(context, QuizActivity.class);
+        intent.putExtra("CATEGORY_ID", getItem(position).getId()); // Pass category ID to QuizActivity
+        intent.putExtra("USER_ID", userId);
+        intent.putExtra("HOST_MODE", hostMode);
+        context.startActivity(intent);
+        return true;
     }
 
     // Called by RecyclerView to display the data at the specified position
     @Override
     public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position) {
-        // Get the category object at the current position
-        Category category = categoryList.get(position);
-        
-        // Set the data to the views
+        // Get the category object at the current position and set the data to the views
+        Category category = getItem(position);
         holder.tvName.setText(category.getName());
+        bindStats(holder, category);
+    }
+
+    // Partial rebind: apply only what the payloads say changed
+    @Override
+    public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        Category category = getItem(position);
+        for (Object payload : payloads) {
+            if (payload == PAYLOAD_NAME) {
+                holder.tvName.setText(category.getName());
+            } else if (payload == PAYLOAD_STATS) {
+                bindStats(holder, category);
+            }
+        }
+    }
 
-        // Handle Item Click -> Start Quiz for this category
-        holder.itemView.setOnClickListener(v -> {
-            Intent intent = new Intent(context, QuizActivity.class);
-            intent.putExtra("CATEGORY_ID", category.getId()); // Pass category ID to QuizActivity
-            context.startActivity(intent);
-        });
+    // e.g. "12 questions - Best 7/10 - 2 days ago"
+    private static void bindStats(CategoryViewHolder holder, Category category) {
+        StringBuilder stats = new StringBuilder();
+        stats.append(category.getQuestionCount()).append(category.getQuestionCount() == 1 ? " question" : " questions");
+        if (category.hasBeenPlayed()) {
+            stats.append(" - Best ").append(category.getBestScore()).append('/').append(category.getBestTotal())
+                    .append(" - ").append(DateUtils.getRelativeTimeSpanString(category.getLastPlayedAt(),
+                            System.currentTimeMillis(), DateUtils.MINUTE_IN_MILLIS));
+        } else {
+            stats.append(" - Not played yet");
+        }
+        holder.tvStats.setText(stats);
     }
 
-    // Returns the total number of items in the data set held by the adapter
+    // The category id is unique and never reused, so it doubles as the stable item id
     @Override
-    public int getItemCount() {
-        return categoryList.size();
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
 
     // Inner class for the ViewHolder
     public static class CategoryViewHolder extends RecyclerView.ViewHolder {
-        TextView tvName;
+        final TextView tvName;
+        final TextView tvStats;
 
         public CategoryViewHolder(@NonNull View itemView) {
             super(itemView);
             // Initialize views from the item_category.xml layout
             tvName = itemView.findViewById(R.id.tv_category_name);
+            tvStats = itemView.findViewById(R.id.tv_category_stats);
         }
     }
 }
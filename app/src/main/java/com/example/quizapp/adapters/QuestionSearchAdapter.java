@@ -0,0 +1,78 @@
+package com.example.quizapp.adapters;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.quizapp.R;
+import com.example.quizapp.models.Question;
+
+import java.util.Objects;
+
+/**
+ * QuestionSearchAdapter shows ranked search results: the question text and its four options.
+ * Like CategoryAdapter, new result lists are diffed in the background, so typing another letter
+ * only rebinds the rows that actually changed.
+ */
+public class QuestionSearchAdapter extends ListAdapter<Question, QuestionSearchAdapter.ResultViewHolder> {
+
+    // Compares questions by id, then by the text shown in the row
+    static final DiffUtil.ItemCallback<Question> DIFF_CALLBACK = new DiffUtil.ItemCallback<Question>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Question oldItem, @NonNull Question newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Question oldItem, @NonNull Question newItem) {
+            return Objects.equals(oldItem.getQuestion(), newItem.getQuestion())
+                    && Objects.equals(oldItem.getOption1(), newItem.getOption1())
+                    && Objects.equals(oldItem.getOption2(), newItem.getOption2())
+                    && Objects.equals(oldItem.getOption3(), newItem.getOption3())
+                    && Objects.equals(oldItem.getOption4(), newItem.getOption4());
+        }
+    };
+
+    public QuestionSearchAdapter() {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
+    }
+
+    @NonNull
+    @Override
+    public ResultViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_search_result, parent, false);
+        return new ResultViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ResultViewHolder holder, int position) {
+        Question question = getItem(position);
+        holder.tvQuestion.setText(question.getQuestion());
+        holder.tvOptions.setText(question.getOption1() + " / " + question.getOption2() + " / "
+                + question.getOption3() + " / " + question.getOption4());
+    }
+
+    // The question id doubles as the stable item id
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
+    }
+
+    public static class ResultViewHolder extends RecyclerView.ViewHolder {
+        final TextView tvQuestion;
+        final TextView tvOptions;
+
+        public ResultViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvQuestion = itemView.findViewById(R.id.tv_result_question);
+            tvOptions = itemView.findViewById(R.id.tv_result_options);
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.quizapp.db;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.example.quizapp.core.EloRating;
+import com.example.quizapp.core.ReviewScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AnswerLog records one quiz attempt and every answer given in it, write-behind.
+ * record() only copies the event into a preallocated ring buffer, so confirming an answer never
+ * touches the disk. A background writer drains the buffer in a single transaction every FLUSH_EVERY
+ * events, when flush() is called and when the quiz finishes; the final drain also closes the attempt
+ * and updates the user's category stats in the same transaction. If the writer falls behind, the buffer
+ * grows instead of writing on the caller's thread; a drain that fails is retried after a back-off.
+ * The attempt row is created by the first drain, or found again by its seed if the quiz was resumed
+ * after process death.
+ * For a logged-in user each answer can also carry the question's new spaced-repetition state, which
+ * is stored in review_state by the same drain, and each answer moves the user's rating and the
+ * question's difficulty (see EloRating) in that transaction too.
+ */
+public class AnswerLog {
+    private static final String TAG = "AnswerLog";
+
+    static final int CAPACITY = 64; // initial; doubled whenever the writer falls that far behind
+    static final int FLUSH_EVERY = 8;
+    // Retries of a failed drain (e.g. the database is locked or full), RETRY_DELAY_MILLIS doubling each time
+    static final int MAX_RETRIES = 5;
+    static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final DatabaseHelper databaseHelper;
+    private final long userId;
+    private final int categoryId;
+    private final long seed;
+    private final long startedAt;
+
+    // Ring buffer of pending events; guarded by this
+    private Events events = new Events(CAPACITY);
+    private int head;
+    private int size;
+    private boolean flushScheduled;
+    private int failedDrains; // in a row, reset by a drain that commits
+
+    // Final result, set by finish(); guarded by this
+    private boolean finished;
+    private int finalScore;
+    private int finalTotal;
+    private long finishedAt;
+
+    // Set by finish() until the final drain has run; guarded by this
+    private boolean resultPending;
+
+    // Writer state; guarded by writeLock
+    private final Object writeLock = new Object();
+    private long attemptId = -1;
+    private boolean attemptClosed;
+    private final double[] userRating = new double[2];
+    private final double[] questionRating = new double[2];
+
+    // Final drains queued or running in this process, and the work waiting for them (see whenResultsWritten)
+    private static final Object RESULTS_LOCK = new Object();
+    private static int pendingResults; // guarded by RESULTS_LOCK
+    private static final List<Runnable> RESULT_WAITERS = new ArrayList<>(); // guarded by RESULTS_LOCK
+
+    // userId is -1 if nobody is logged in; the attempt is then stored without a user
+    public AnswerLog(DatabaseHelper databaseHelper, long userId, int categoryId, long seed) {
+        this.databaseHelper = databaseHelper;
+        this.userId = userId;
+        this.categoryId = categoryId;
+        this.seed = seed;
+        this.startedAt = System.currentTimeMillis();
+    }
+
+    // Queue one answer (selectedOption 0 when the time ran out); no I/O on the calling thread
+    public void record(int questionNumber, long questionId, int selectedOption, boolean isCorrect,
+                       long responseTimeMs) {
+        record(questionNumber, questionId, selectedOption, isCorrect, responseTimeMs, null);
+    }
+
+    // Same, also queueing the question's current state in reviews (already updated for this answer);
+    // reviews is null for a quiz without spaced repetition
+    public void record(int questionNumber, long questionId, int selectedOption, boolean isCorrect,
+                       long responseTimeMs, ReviewScheduler reviews) {
+        synchronized (this) {
+            if (size == events.capacity()) {
+                // The writer cannot keep up (e.g. the database is locked): keep everything in memory
+                Log.w(TAG, "Answer buffer full, growing it to " + events.capacity() * 2);
+                events = events.grow(head, size);
+                head = 0;
+            }
+            Events e = events;
+            int slot = (head + size) % e.capacity();
+            e.questionNumbers[slot] = questionNumber;
+            e.questionIds[slot] = questionId;
+            e.selectedOptions[slot] = (byte) selectedOption;
+            e.correct[slot] = isCorrect;
+            e.responseTimes[slot] = responseTimeMs;
+            e.answeredAt[slot] = System.currentTimeMillis();
+            e.hasReview[slot] = reviews != null && userId >= 0;
+            if (e.hasReview[slot]) {
+                e.reviewEase[slot] = reviews.getEase(questionId);
+                e.reviewIntervals[slot] = reviews.getIntervalMillis(questionId);
+                e.reviewDueAt[slot] = reviews.getDueAt(questionId);
+                e.reviewRepetitions[slot] = reviews.getRepetitions(questionId);
+                e.reviewLapses[slot] = reviews.getLapses(questionId);
+            }
+            size++;
+        }
+        if (pending() >= FLUSH_EVERY) {
+            flush();
+        }
+    }
+
+    // Write the pending events in the background, e.g. when the quiz goes to the background
+    public void flush() {
+        synchronized (this) {
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        if (!AsyncRepository.execute(this::flushNow)) {
+            drainFailed();
+        }
+    }
+
+    // Close the attempt with its result; the last answers, the attempt and the stats commit together
+    public void finish(int score, int total) {
+        synchronized (this) {
+            finished = true;
+            finalScore = score;
+            finalTotal = total;
+            finishedAt = System.currentTimeMillis();
+            // The final drain gets its full set of retries, even after earlier drains gave up
+            failedDrains = 0;
+            if (!resultPending) {
+                resultPending = true;
+                synchronized (RESULTS_LOCK) {
+                    pendingResults++;
+                }
+            }
+        }
+        flush();
+    }
+
+    // Run action once every quiz finished in this process has had its final drain, so a reader of ratings
+    // or stats (e.g. the result screen) sees the quiz it follows. Nothing waits: the action runs at once on
+    // the calling thread if no drain is pending, otherwise on the database worker that ran the last one,
+    // so it should only hand the read off (e.g. submit it), not do it.
+    static void whenResultsWritten(Runnable action) {
+        synchronized (RESULTS_LOCK) {
+            if (pendingResults > 0) {
+                RESULT_WAITERS.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    static boolean hasPendingResults() {
+        synchronized (RESULTS_LOCK) {
+            return pendingResults > 0;
+        }
+    }
+
+    synchronized int pending() {
+        return size;
+    }
+
+    // Drain everything pending in one transaction; runs on the database executor (or in tests directly)
+    void flushNow() {
+        synchronized (writeLock) {
+            int count;
+            int first;
+            Events e;
+            boolean finishing;
+            synchronized (this) {
+                flushScheduled = false;
+                count = size;
+                first = head;
+                e = events;
+                finishing = finished && !attemptClosed;
+            }
+            if (count == 0 && !finishing) {
+                return;
+            }
+
+            SQLiteDatabase db = databaseHelper.getWritableDatabase();
+            QuizStatements statements = databaseHelper.statements();
+            long knownAttemptId = attemptId;
+            db.beginTransaction();
+            try {
+                if (attemptId < 0) {
+                    attemptId = statements.openAttempt(userId, categoryId, seed, startedAt);
+                }
+                for (int i = 0; i < count; i++) {
+                    int slot = (first + i) % e.capacity();
+                    // Slots are only reused after size is reduced below, and a grown buffer is a copy, so
+                    // reading them unlocked is safe
+                    statements.insertAnswer(attemptId, e.questionNumbers[slot], e.questionIds[slot],
+                            e.selectedOptions[slot], e.correct[slot], e.responseTimes[slot], e.answeredAt[slot]);
+                    if (userId >= 0) {
+                        rate(statements, e.questionIds[slot], e.correct[slot]);
+                    }
+                    if (e.hasReview[slot]) {
+                        statements.putReviewState(userId, e.questionIds[slot], e.reviewEase[slot],
+                                e.reviewIntervals[slot], e.reviewDueAt[slot], e.reviewRepetitions[slot],
+                                e.reviewLapses[slot]);
+                    }
+                }
+                if (finishing) {
+                    statements.finishAttempt(attemptId, finalScore, finalTotal, finishedAt);
+                    if (userId >= 0) {
+                        statements.upsertCategoryStats(userId, categoryId, finalScore, finalTotal, finishedAt);
+                    }
+                }
+                db.setTransactionSuccessful();
+            } catch (RuntimeException ex) {
+                // Keep the events buffered (and forget an attempt row that was rolled back) for the retry
+                attemptId = knownAttemptId;
+                Log.e(TAG, "Could not write " + count + " answers", ex);
+                drainFailed();
+                return;
+            } finally {
+                db.endTransaction();
+            }
+
+            synchronized (this) {
+                // The oldest count events were written, wherever a grown buffer has moved them
+                head = (head + count) % events.capacity();
+                size -= count;
+                failedDrains = 0;
+                if (finishing) {
+                    attemptClosed = true;
+                }
+            }
+            if (finishing) {
+                releaseResult();
+            }
+        }
+    }
+
+    // Move the user's rating and the question's difficulty by one answer, both from their values before it;
+    // skipped if either row is gone (e.g. a question deleted by an import during the quiz)
+    private void rate(QuizStatements statements, long questionId, boolean isCorrect) {
+        if (!statements.readUserRating(userId, userRating)
+                || !statements.readQuestionDifficulty(questionId, questionRating)) {
+            return;
+        }
+        double rating = userRating[0];
+        double difficulty = questionRating[0];
+        statements.updateUserRating(userId,
+                EloRating.nextRating(rating, (long) userRating[1], difficulty, isCorrect));
+        statements.updateQuestionDifficulty(questionId,
+                EloRating.nextDifficulty(difficulty, (long) questionRating[1], rating, isCorrect));
+    }
+
+    // Try again later, with a growing delay. Readers waiting for this quiz's result keep waiting (up to their
+    // own timeout) until the retries are used up; the events stay buffered for any later flush either way.
+    private void drainFailed() {
+        long delay;
+        synchronized (this) {
+            flushScheduled = false;
+            failedDrains++;
+            if (failedDrains > MAX_RETRIES) {
+                delay = -1;
+            } else {
+                delay = RETRY_DELAY_MILLIS << (failedDrains - 1);
+            }
+        }
+        if (delay < 0) {
+            Log.e(TAG, "Giving up on writing answers after " + MAX_RETRIES + " retries");
+            releaseResult();
+            return;
+        }
+        AsyncRepository.executeLater(this::flush, delay);
+    }
+
+    // The final drain has committed, or will not be retried again
+    private void releaseResult() {
+        synchronized (this) {
+            if (!resultPending) {
+                return;
+            }
+            resultPending = false;
+        }
+        List<Runnable> waiters;
+        synchronized (RESULTS_LOCK) {
+            pendingResults--;
+            if (pendingResults > 0 || RESULT_WAITERS.isEmpty()) {
+                return;
+            }
+            waiters = new ArrayList<>(RESULT_WAITERS);
+            RESULT_WAITERS.clear();
+        }
+        for (Runnable waiter : waiters) {
+            waiter.run();
+        }
+    }
+
+    // Id of the attempt row, or -1 before the first flush
+    long getAttemptId() {
+        synchronized (writeLock) {
+            return attemptId;
+        }
+    }
+
+    // Pending events, one array per field
+    private static final class Events {
+        final int[] questionNumbers;
+        final long[] questionIds;
+        final byte[] selectedOptions;
+        final boolean[] correct;
+        final long[] responseTimes;
+        final long[] answeredAt;
+        final boolean[] hasReview;
+        final double[] reviewEase;
+        final long[] reviewIntervals;
+        final long[] reviewDueAt;
+        final int[] reviewRepetitions;
+        final int[] reviewLapses;
+
+        Events(int capacity) {
+            questionNumbers = new int[capacity];
+            questionIds = new long[capacity];
+            selectedOptions = new byte[capacity];
+            correct = new boolean[capacity];
+            responseTimes = new long[capacity];
+            answeredAt = new long[capacity];
+            hasReview = new boolean[capacity];
+            reviewEase = new double[capacity];
+            reviewIntervals = new long[capacity];
+            reviewDueAt = new long[capacity];
+            reviewRepetitions = new int[capacity];
+            reviewLapses = new int[capacity];
+        }
+
+        int capacity() {
+            return questionNumbers.length;
+        }
+
+        // A copy twice the size with the size events from head at the start, oldest first
+        Events grow(int head, int size) {
+            Events grown = new Events(capacity() * 2);
+            for (int i = 0; i < size; i++) {
+                int from = (head + i) % capacity();
+                grown.questionNumbers[i] = questionNumbers[from];
+                grown.questionIds[i] = questionIds[from];
+                grown.selectedOptions[i] = selectedOptions[from];
+                grown.correct[i] = correct[from];
+                grown.responseTimes[i] = responseTimes[from];
+                grown.answeredAt[i] = answeredAt[from];
+                grown.hasReview[i] = hasReview[from];
+                grown.reviewEase[i] = reviewEase[from];
+                grown.reviewIntervals[i] = reviewIntervals[from];
+                grown.reviewDueAt[i] = reviewDueAt[from];
+                grown.reviewRepetitions[i] = reviewRepetitions[from];
+                grown.reviewLapses[i] = reviewLapses[from];
+            }
+            return grown;
+        }
+    }
+}
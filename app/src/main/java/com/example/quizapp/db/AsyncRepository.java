@@ -0,0 +1,385 @@
+package com.example.quizapp.db;
+
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.quizapp.core.ReviewScheduler;
+import com.example.quizapp.data.QuizRepository;
+import com.example.quizapp.data.UserRepository;
+import com.example.quizapp.models.Category;
+import com.example.quizapp.models.LeaderboardEntry;
+import com.example.quizapp.models.Question;
+import com.example.quizapp.models.User;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AsyncRepository runs DatabaseHelper operations on a small background executor
+ * (password hashing on a dedicated one) and delivers the results back on the main thread.
+ * Account and question bank operations go through the UserRepository and QuizRepository it was
+ * given, so a screen can be pointed at another backend (e.g. a QuestionPack) without changes.
+ * Each Activity owns one instance and calls cancelAll() in onDestroy so no callback
+ * ever reaches a destroyed screen.
+ */
+public class AsyncRepository {
+    private static final String TAG = "AsyncRepository";
+
+    // Bounded executor shared by every screen: two workers and a fixed-size queue
+    private static final int POOL_SIZE = 2;
+    private static final int QUEUE_CAPACITY = 64;
+    // How long a read of results waits for the final write of a quiz that has just finished, at most
+    private static final long RESULT_WAIT_MILLIS = 2000;
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+    // Password hashing takes a quarter of a second by design, so it gets its own single worker instead
+    // of holding up one of the two database workers (e.g. question loading) while it runs
+    private static final ThreadPoolExecutor CREDENTIAL_EXECUTOR = createCredentialExecutor();
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    // Operations submitted by any repository in this process; every query goes through submit()
+    private static final AtomicLong SUBMITTED_COUNT = new AtomicLong();
+
+    private final DatabaseHelper databaseHelper;
+    private final QuizRepository quizRepository;
+    private final UserRepository userRepository;
+    private final Set<Task<?>> pendingTasks = new HashSet<>();
+    private boolean cancelled;
+
+    // Result callback, always invoked on the main thread
+    public interface Callback<T> {
+        void onResult(T result);
+
+        // Called instead of onResult when the operation throws or is rejected
+        default void onError(Exception e) {
+            Log.e(TAG, "Database operation failed", e);
+        }
+    }
+
+    // Constructor: wraps the given DatabaseHelper, which also serves as both repositories
+    public AsyncRepository(DatabaseHelper databaseHelper) {
+        this(databaseHelper, databaseHelper, databaseHelper);
+    }
+
+    // Constructor: serves accounts and the question bank from other backends; everything else
+    // (authenticate, stats, sampling, search, import) still runs on the DatabaseHelper
+    public AsyncRepository(DatabaseHelper databaseHelper, QuizRepository quizRepository,
+                           UserRepository userRepository) {
+        this.databaseHelper = databaseHelper;
+        this.quizRepository = quizRepository;
+        this.userRepository = userRepository;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // USER OPERATIONS
+    // ---------------------------------------------------------------------------------------------
+
+    // Operations that hash a password run on the credential executor
+
+    public Task<Long> addUser(User user, Callback<Long> callback) {
+        return submit(CREDENTIAL_EXECUTOR, () -> userRepository.addUser(user), callback);
+    }
+
+    public Task<Boolean> checkUser(String username, String password, Callback<Boolean> callback) {
+        return submit(CREDENTIAL_EXECUTOR, () -> userRepository.checkUser(username, password), callback);
+    }
+
+    // Result is the user's id, or -1 if the credentials do not match
+    public Task<Long> authenticate(String username, String password, Callback<Long> callback) {
+        return submit(CREDENTIAL_EXECUTOR, () -> databaseHelper.authenticate(username, password), callback);
+    }
+
+    public Task<Boolean> checkUserExists(String username, Callback<Boolean> callback) {
+        return submit(() -> userRepository.checkUserExists(username), callback);
+    }
+
+    public Task<Boolean> updatePassword(String username, String newPassword, Callback<Boolean> callback) {
+        return submit(CREDENTIAL_EXECUTOR, () -> userRepository.updatePassword(username, newPassword), callback);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // CATEGORY / QUESTION OPERATIONS
+    // ---------------------------------------------------------------------------------------------
+
+    public Task<List<Category>> getAllCategories(Callback<List<Category>> callback) {
+        return submit(quizRepository::getAllCategories, callback);
+    }
+
+    public Task<List<Category>> getCategoryDashboard(long userId, Callback<List<Category>> callback) {
+        return submit(() -> databaseHelper.getCategoryDashboard(userId), callback);
+    }
+
+    // The user's rating and rank, once the quiz they just finished (if any) has been written
+    public Task<LeaderboardEntry> getUserStanding(long userId, Callback<LeaderboardEntry> callback) {
+        return submitAfterResults(() -> databaseHelper.getUserStanding(userId), callback);
+    }
+
+    public Task<List<LeaderboardEntry>> getLeaderboard(int limit, Callback<List<LeaderboardEntry>> callback) {
+        return submitAfterResults(() -> databaseHelper.getLeaderboard(limit), callback);
+    }
+
+    public Task<List<Question>> getQuestionsByCategory(int categoryId, Callback<List<Question>> callback) {
+        return submit(() -> quizRepository.getQuestionsByCategory(categoryId), callback);
+    }
+
+    public Task<long[]> sampleQuestionIds(int categoryId, int sampleSize, long seed, Callback<long[]> callback) {
+        return submit(() -> databaseHelper.sampleQuestionIds(categoryId, sampleSize, seed), callback);
+    }
+
+    // Questions whose difficulty is closest to rating, e.g. the user's from getUserStanding
+    public Task<long[]> sampleQuestionIdsNear(int categoryId, double rating, int sampleSize, long seed,
+                                              Callback<long[]> callback) {
+        return submit(() -> databaseHelper.sampleQuestionIdsNear(categoryId, rating, sampleSize, seed), callback);
+    }
+
+    // The user's spaced-repetition schedule for a category; hand it to one thread (the main thread) only
+    public Task<ReviewScheduler> loadReviewScheduler(long userId, int categoryId, long seed,
+                                                     Callback<ReviewScheduler> callback) {
+        return submit(() -> databaseHelper.loadReviewScheduler(userId, categoryId, seed), callback);
+    }
+
+    public Task<List<Question>> getQuestionsByIds(int categoryId, long[] ids, int from, int to,
+                                                  Callback<List<Question>> callback) {
+        return submit(() -> databaseHelper.getQuestionsByIds(categoryId, ids, from, to), callback);
+    }
+
+    // Ranked full-text search; cancelling the task also aborts the query if it is already running
+    public Task<List<Question>> searchQuestions(String query, int offset, int limit,
+                                                Callback<List<Question>> callback) {
+        CancellationSignal signal = new CancellationSignal();
+        Task<List<Question>> task = submit(() -> databaseHelper.searchQuestions(query, offset, limit, signal),
+                callback);
+        task.setOnCancel(signal::cancel);
+        return task;
+    }
+
+    // Bulk import a question bank; progress and the result are both delivered on the main thread
+    public Task<QuestionImporter.Result> importQuestions(QuestionImporter.Source source,
+                                                         QuestionImporter.ProgressListener progress,
+                                                         Callback<QuestionImporter.Result> callback) {
+        QuestionImporter importer = new QuestionImporter(databaseHelper);
+        QuestionImporter.ProgressListener mainThreadProgress = progress == null ? null
+                : (records, bytesRead, totalBytes) ->
+                        MAIN_HANDLER.post(() -> progress.onProgress(records, bytesRead, totalBytes));
+        return submit(() -> importer.importQuestions(source, mainThreadProgress), callback);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // TASK MANAGEMENT
+    // ---------------------------------------------------------------------------------------------
+
+    // Run any database work in the background and post its result to the main thread
+    public <T> Task<T> submit(Callable<T> work, Callback<T> callback) {
+        return submit(EXECUTOR, work, callback);
+    }
+
+    private <T> Task<T> submit(ThreadPoolExecutor executor, Callable<T> work, Callback<T> callback) {
+        Task<T> task = newTask(work, callback);
+        if (!task.isCancelled()) {
+            start(executor, task);
+        }
+        return task;
+    }
+
+    // Like submit(), but the work is only queued once the quiz that has just finished (if any) is written,
+    // or after RESULT_WAIT_MILLIS if its write never comes; no worker is held up waiting for it, so the
+    // write itself can always run
+    private <T> Task<T> submitAfterResults(Callable<T> work, Callback<T> callback) {
+        Task<T> task = newTask(work, callback);
+        if (task.isCancelled()) {
+            return task;
+        }
+        AtomicBoolean started = new AtomicBoolean();
+        Runnable startOnce = () -> {
+            if (started.compareAndSet(false, true) && !task.isCancelled()) {
+                start(EXECUTOR, task);
+            }
+        };
+        AnswerLog.whenResultsWritten(startOnce);
+        if (!started.get()) {
+            MAIN_HANDLER.postDelayed(startOnce, RESULT_WAIT_MILLIS);
+        }
+        return task;
+    }
+
+    // A task tracked for cancelAll(), already cancelled if this repository was
+    private <T> Task<T> newTask(Callable<T> work, Callback<T> callback) {
+        SUBMITTED_COUNT.incrementAndGet();
+        Task<T> task = new Task<>(work, callback);
+        synchronized (pendingTasks) {
+            if (cancelled) {
+                task.cancel();
+                return task;
+            }
+            pendingTasks.add(task);
+        }
+        return task;
+    }
+
+    private static void start(ThreadPoolExecutor executor, Task<?> task) {
+        try {
+            task.future = executor.submit(task::run);
+        } catch (RejectedExecutionException e) {
+            // Queue is full: report it like any other failure instead of blocking the caller
+            task.deliverError(e);
+        }
+    }
+
+    // Cancel every task started through this repository; pending callbacks are dropped
+    public void cancelAll() {
+        List<Task<?>> tasks;
+        synchronized (pendingTasks) {
+            cancelled = true;
+            tasks = new ArrayList<>(pendingTasks);
+            pendingTasks.clear();
+        }
+        for (Task<?> task : tasks) {
+            task.cancel();
+        }
+    }
+
+    // Number of operations submitted so far, e.g. to check that a screen did not query again
+    public static long getSubmittedCount() {
+        return SUBMITTED_COUNT.get();
+    }
+
+    // Fire-and-forget background work on the shared database executor (e.g. warm-up); false if it was rejected
+    static boolean execute(Runnable work) {
+        try {
+            EXECUTOR.execute(work);
+            return true;
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Background work rejected", e);
+            return false;
+        }
+    }
+
+    // Run work on the main thread after delayMillis, e.g. to retry a failed write; work itself should only
+    // hand anything slow to execute()
+    static void executeLater(Runnable work, long delayMillis) {
+        MAIN_HANDLER.postDelayed(work, delayMillis);
+    }
+
+    private void finished(Task<?> task) {
+        synchronized (pendingTasks) {
+            pendingTasks.remove(task);
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        ThreadFactory threadFactory = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "quiz-db-" + count.incrementAndGet());
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadPoolExecutor createCredentialExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> new Thread(r, "quiz-credentials"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Handle for a single background operation. Cancelling it interrupts the work if it has
+     * not started yet and guarantees the callback is never invoked.
+     */
+    public final class Task<T> {
+        private final Callable<T> work;
+        private final Callback<T> callback;
+        private volatile boolean cancelled;
+        private volatile Future<?> future;
+        private Runnable onCancel;
+
+        private Task(Callable<T> work, Callback<T> callback) {
+            this.work = work;
+            this.callback = callback;
+        }
+
+        private void run() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                T result = work.call();
+                MAIN_HANDLER.post(() -> {
+                    finished(this);
+                    if (!cancelled && callback != null) {
+                        callback.onResult(result);
+                    }
+                });
+            } catch (Exception e) {
+                deliverError(e);
+            }
+        }
+
+        private void deliverError(Exception e) {
+            MAIN_HANDLER.post(() -> {
+                finished(this);
+                if (!cancelled && callback != null) {
+                    callback.onError(e);
+                }
+            });
+        }
+
+        public void cancel() {
+            cancelled = true;
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+            runOnCancel();
+            finished(this);
+        }
+
+        // Extra work to stop the operation when the task is cancelled, e.g. a CancellationSignal;
+        // runs at once if the task already was
+        void setOnCancel(Runnable action) {
+            synchronized (this) {
+                onCancel = action;
+            }
+            if (cancelled) {
+                runOnCancel();
+            }
+        }
+
+        private void runOnCancel() {
+            Runnable action;
+            synchronized (this) {
+                action = onCancel;
+                onCancel = null;
+            }
+            if (action != null) {
+                action.run();
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
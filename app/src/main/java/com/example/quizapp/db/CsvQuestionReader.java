@@ -0,0 +1,145 @@
+package com.example.quizapp.db;
+
+import com.example.quizapp.models.Question;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming CSV reader for question banks.
+ * Expected columns: question,option1,option2,option3,option4,answer_nr,category_id
+ * Fields may be quoted ("...") to contain commas, quotes ("") or line breaks. A first line
+ * starting with "question" is treated as a header and skipped.
+ */
+final class CsvQuestionReader implements QuestionRecordReader {
+    private static final int COLUMN_COUNT = 7;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+
+    // Reused for every record so parsing does not allocate per field beyond the field Strings
+    private final StringBuilder field = new StringBuilder(128);
+    private final List<String> fields = new ArrayList<>(COLUMN_COUNT);
+    private boolean headerChecked;
+    private int lineNumber;
+
+    CsvQuestionReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean next(Question into) throws IOException {
+        while (true) {
+            if (!readRecord()) {
+                return false;
+            }
+            lineNumber++;
+            if (!headerChecked) {
+                headerChecked = true;
+                if (!fields.isEmpty() && "question".equalsIgnoreCase(fields.get(0).trim())) {
+                    continue;
+                }
+            }
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue; // blank line
+            }
+            if (fields.size() != COLUMN_COUNT) {
+                throw new MalformedRecordException("Record " + lineNumber + ": expected " + COLUMN_COUNT
+                        + " columns, found " + fields.size());
+            }
+            try {
+                into.setId(0);
+                into.setQuestion(fields.get(0));
+                into.setOption1(fields.get(1));
+                into.setOption2(fields.get(2));
+                into.setOption3(fields.get(3));
+                into.setOption4(fields.get(4));
+                into.setAnswerNr(Integer.parseInt(fields.get(5).trim()));
+                into.setCategoryId(Integer.parseInt(fields.get(6).trim()));
+            } catch (NumberFormatException e) {
+                throw new MalformedRecordException("Record " + lineNumber + ": " + e.getMessage());
+            }
+            return true;
+        }
+    }
+
+    // Parse one record into fields; returns false at end of input
+    private boolean readRecord() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        boolean inQuotes = false;
+        boolean sawAnything = false;
+
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (!sawAnything) {
+                    return false;
+                }
+                fields.add(field.toString());
+                return true;
+            }
+            sawAnything = true;
+            char ch = (char) c;
+            if (inQuotes) {
+                if (ch == '"') {
+                    int next = peek();
+                    if (next == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                inQuotes = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n' || ch == '\r') {
+                if (ch == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(field.toString());
+                return true;
+            } else {
+                field.append(ch);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n = reader.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
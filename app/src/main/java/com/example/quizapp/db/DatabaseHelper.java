@@ -1,213 +1,579 @@
 package com.example.quizapp.db;
 
-import android.content.ContentValues;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.os.CancellationSignal;
+import android.util.Log;
 
+import androidx.annotation.VisibleForTesting;
+
+import com.example.quizapp.core.QuizEngine;
+import com.example.quizapp.core.ReviewScheduler;
+import com.example.quizapp.data.QuizRepository;
+import com.example.quizapp.data.UserRepository;
+import com.example.quizapp.metrics.AppMetrics;
 import com.example.quizapp.models.Category;
+import com.example.quizapp.models.LeaderboardEntry;
 import com.example.quizapp.models.Question;
 import com.example.quizapp.models.User;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * DatabaseHelper class manages the SQLite database creation and version management.
- * It also handles all CRUD (Create, Read, Update, Delete) operations for Users, Categories, and Questions.
+ * It also handles all CRUD (Create, Read, Update, Delete) operations for Users, Categories, and Questions,
+ * and is the SQLite backend of QuizRepository and UserRepository.
  */
-public class DatabaseHelper extends SQLiteOpenHelper {
+public class DatabaseHelper extends SQLiteOpenHelper implements QuizRepository, UserRepository {
+    private static final String TAG = "DatabaseHelper";
+
     // Database Name and Version
-    private static final String DATABASE_NAME = "QuizApp.db";
-    private static final int DATABASE_VERSION = 2;
+    static final String DATABASE_NAME = "QuizApp.db";
+    static final int DATABASE_VERSION = 10;
+
+    // onCreate builds this schema version directly and then applies the later migration steps
+    private static final int BASE_SCHEMA_VERSION = 3;
 
     // Table Names
-    private static final String TABLE_USERS = "users";
-    private static final String TABLE_CATEGORIES = "categories";
-    private static final String TABLE_QUESTIONS = "questions";
+    static final String TABLE_USERS = "users";
+    static final String TABLE_CATEGORIES = "categories";
+    static final String TABLE_QUESTIONS = "questions";
+    static final String TABLE_CATEGORY_SUMMARY = "category_summary";
+    static final String TABLE_USER_CATEGORY_STATS = "user_category_stats";
+    static final String TABLE_QUIZ_ATTEMPTS = "quiz_attempts";
+    static final String TABLE_QUIZ_ANSWERS = "quiz_answers";
+    static final String TABLE_QUESTIONS_FTS = "questions_fts"; // FTS4 index over questions, see MIGRATION_6_7
+    static final String TABLE_REVIEW_STATE = "review_state";
 
     // User Table Columns
-    private static final String KEY_USER_ID = "id";
-    private static final String KEY_USER_NAME = "username";
-    private static final String KEY_USER_PASSWORD = "password";
+    static final String KEY_USER_ID = "id";
+    static final String KEY_USER_NAME = "username";
+    static final String KEY_USER_PASSWORD = "password"; // legacy plaintext, NULL once hashed (see MIGRATION_7_8)
+    static final String KEY_USER_PASSWORD_ALGORITHM = "password_algorithm";
+    static final String KEY_USER_PASSWORD_ITERATIONS = "password_iterations";
+    static final String KEY_USER_PASSWORD_SALT = "password_salt";
+    static final String KEY_USER_PASSWORD_HASH = "password_hash";
+    static final String KEY_USER_RATING = "rating"; // Elo skill rating, see MIGRATION_9_10
+    static final String KEY_USER_RATED_ANSWERS = "rated_answers";
 
     // Category Table Columns
-    private static final String KEY_CAT_ID = "id";
-    private static final String KEY_CAT_NAME = "name";
-    private static final String KEY_CAT_IMAGE = "image_res_id"; // Storing resource ID for simplicity in this project
+    static final String KEY_CAT_ID = "id";
+    static final String KEY_CAT_NAME = "name";
+    static final String KEY_CAT_IMAGE = "image_res_id"; // Storing resource ID for simplicity in this project
 
     // Question Table Columns
-    private static final String KEY_QUES_ID = "id";
-    private static final String KEY_QUES_TEXT = "question";
-    private static final String KEY_QUES_OP1 = "option1";
-    private static final String KEY_QUES_OP2 = "option2";
-    private static final String KEY_QUES_OP3 = "option3";
-    private static final String KEY_QUES_OP4 = "option4";
-    private static final String KEY_QUES_ANS = "answer_nr"; // Stores the number of the correct option (1-4)
-    private static final String KEY_QUES_CAT_ID = "category_id"; // Foreign key linking to Category table
+    static final String KEY_QUES_ID = "id";
+    static final String KEY_QUES_TEXT = "question";
+    static final String KEY_QUES_OP1 = "option1";
+    static final String KEY_QUES_OP2 = "option2";
+    static final String KEY_QUES_OP3 = "option3";
+    static final String KEY_QUES_OP4 = "option4";
+    static final String KEY_QUES_ANS = "answer_nr"; // Stores the number of the correct option (1-4)
+    static final String KEY_QUES_CAT_ID = "category_id"; // Foreign key linking to Category table
+    static final String KEY_QUES_DIFFICULTY = "difficulty"; // Elo difficulty rating, see MIGRATION_9_10
+    static final String KEY_QUES_RATED_ANSWERS = "rated_answers";
+
+    // Summary Table Columns (category_summary is maintained by triggers, see SchemaMigrations.MIGRATION_4_5)
+    static final String KEY_SUMMARY_CAT_ID = "category_id";
+    static final String KEY_SUMMARY_QUESTION_COUNT = "question_count";
+
+    // User Category Stats Columns (maintained by recordQuizResult)
+    static final String KEY_STATS_USER_ID = "user_id";
+    static final String KEY_STATS_CAT_ID = "category_id";
+    static final String KEY_STATS_BEST_SCORE = "best_score";
+    static final String KEY_STATS_BEST_TOTAL = "best_total";
+    static final String KEY_STATS_ATTEMPTS = "attempts";
+    static final String KEY_STATS_LAST_PLAYED = "last_played_at";
+
+    // Quiz Attempt Columns
+    static final String KEY_ATTEMPT_ID = "id";
+    static final String KEY_ATTEMPT_USER_ID = "user_id";
+    static final String KEY_ATTEMPT_CAT_ID = "category_id";
+    static final String KEY_ATTEMPT_SEED = "seed";
+    static final String KEY_ATTEMPT_STARTED = "started_at";
+    static final String KEY_ATTEMPT_FINISHED = "finished_at";
+    static final String KEY_ATTEMPT_SCORE = "score";
+    static final String KEY_ATTEMPT_TOTAL = "total";
+
+    // Quiz Answer Columns (one row per answered question, written by AnswerLog)
+    static final String KEY_ANSWER_ATTEMPT_ID = "attempt_id";
+    static final String KEY_ANSWER_NUMBER = "question_number";
+    static final String KEY_ANSWER_QUESTION_ID = "question_id";
+    static final String KEY_ANSWER_SELECTED = "selected_option";
+    static final String KEY_ANSWER_CORRECT = "correct";
+    static final String KEY_ANSWER_RESPONSE_MS = "response_time_ms";
+    static final String KEY_ANSWER_AT = "answered_at";
+
+    // Review State Columns (spaced-repetition memory per user and question, written by AnswerLog)
+    static final String KEY_REVIEW_USER_ID = "user_id";
+    static final String KEY_REVIEW_QUESTION_ID = "question_id";
+    static final String KEY_REVIEW_EASE = "ease";
+    static final String KEY_REVIEW_INTERVAL_MS = "interval_ms";
+    static final String KEY_REVIEW_DUE_AT = "due_at";
+    static final String KEY_REVIEW_REPETITIONS = "repetitions";
+    static final String KEY_REVIEW_LAPSES = "lapses";
+
+    // Indexes
+    static final String INDEX_USERS_USERNAME = "idx_users_username";
+    static final String INDEX_QUESTIONS_CATEGORY = "idx_questions_category";
+    static final String INDEX_REVIEW_STATE_DUE = "idx_review_state_user_due";
+    static final String INDEX_USERS_RATING = "idx_users_rating";
+    static final String INDEX_QUESTIONS_DIFFICULTY = "idx_questions_category_difficulty";
+
+    // Full-text search: every match is scored, but only this many ranks can be paged through, which
+    // bounds the heap of best hits however common the term is
+    static final int MAX_SEARCH_RESULTS = 5000;
+
+    // Number of SQLiteDatabase connections currently opened by any DatabaseHelper in this process
+    private static final AtomicInteger OPEN_CONNECTIONS = new AtomicInteger();
+
+    private boolean connectionOpen;
+
+    // Precompiled statements for the hot paths, bound to the currently open connection
+    private QuizStatements statements;
+
+    private final Context appContext;
+    private final String databaseName;
+    private volatile boolean prebuiltChecked;
+
+    // Password hashing policy, calibrated once per install and kept in CREDENTIAL_PREFS
+    private static final String CREDENTIAL_PREFS = "credential_policy";
+    private static final String PREF_ITERATIONS = "pbkdf2_sha256_iterations";
+    private volatile PasswordHasher passwordHasher;
+    // Verified against when a username does not exist, so a miss costs as much as a wrong password
+    private volatile PasswordHasher.Credentials dummyCredentials;
+
+    // Decoded questions per category, shared by every screen through this helper
+    private final QuestionCache questionCache = new QuestionCache(QuestionCache.defaultMaxBytes());
+
+    // Constructor: Initializes the database helper.
+    // Use DatabaseProvider.get() instead of calling this directly so the whole app shares one helper.
+    DatabaseHelper(Context context) {
+        this(context, DATABASE_NAME);
+    }
 
-    private SQLiteDatabase db;
+    // Constructor used by tests to open a database file other than the app's own
+    DatabaseHelper(Context context, String name) {
+        super(context.getApplicationContext(), name, null, DATABASE_VERSION);
+        this.appContext = context.getApplicationContext();
+        this.databaseName = name;
+    }
+
+    // Before the first open, put the prebuilt database from assets in place (if packaged and no file
+    // exists yet) so onCreate and its seeding only run when the asset is missing or fails verification
+    @Override
+    public SQLiteDatabase getWritableDatabase() {
+        installPrebuiltDatabase();
+        return super.getWritableDatabase();
+    }
+
+    @Override
+    public SQLiteDatabase getReadableDatabase() {
+        installPrebuiltDatabase();
+        return super.getReadableDatabase();
+    }
+
+    // Put the prebuilt database in place if needed; the startup pipeline runs this as its own stage,
+    // every other caller gets it implicitly through getWritableDatabase/getReadableDatabase
+    public void installPrebuiltDatabase() {
+        if (prebuiltChecked) {
+            return;
+        }
+        synchronized (this) {
+            if (!prebuiltChecked) {
+                PrebuiltDatabaseInstaller.installIfNeeded(appContext, databaseName);
+                prebuiltChecked = true;
+            }
+        }
+    }
 
-    // Constructor: Initializes the database helper
-    public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    // onConfigure: Called before onCreate/onUpgrade/onOpen; enables foreign key enforcement
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        db.setForeignKeyConstraintsEnabled(true);
     }
 
     // onCreate: Called when the database is created for the first time.
-    // We execute SQL queries here to create our tables.
+    // We execute SQL queries here to create the v3 tables, then run the newer migration steps on top.
     @Override
     public void onCreate(SQLiteDatabase db) {
-        this.db = db;
-
-        // SQL query to create Users table
-        final String CREATE_USERS_TABLE = "CREATE TABLE " + TABLE_USERS + "("
-                + KEY_USER_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
-                + KEY_USER_NAME + " TEXT,"
-                + KEY_USER_PASSWORD + " TEXT" + ")";
-        db.execSQL(CREATE_USERS_TABLE);
-
-        // SQL query to create Categories table
-        final String CREATE_CATEGORIES_TABLE = "CREATE TABLE " + TABLE_CATEGORIES + "("
-                + KEY_CAT_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
-                + KEY_CAT_NAME + " TEXT,"
-                + KEY_CAT_IMAGE + " INTEGER" + ")";
-        db.execSQL(CREATE_CATEGORIES_TABLE);
-
-        // SQL query to create Questions table with a foreign key reference to Categories (conceptual)
-        final String CREATE_QUESTIONS_TABLE = "CREATE TABLE " + TABLE_QUESTIONS + "("
-                + KEY_QUES_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
-                + KEY_QUES_TEXT + " TEXT,"
-                + KEY_QUES_OP1 + " TEXT,"
-                + KEY_QUES_OP2 + " TEXT,"
-                + KEY_QUES_OP3 + " TEXT,"
-                + KEY_QUES_OP4 + " TEXT,"
-                + KEY_QUES_ANS + " INTEGER,"
-                + KEY_QUES_CAT_ID + " INTEGER" + ")";
-        db.execSQL(CREATE_QUESTIONS_TABLE);
-
-        // Populate tables with initial dummy data
-        fillCategories();
-        fillQuestions();
+        long started = AppMetrics.DB_ON_CREATE.begin();
+        try {
+            // SQL query to create Users table
+            final String CREATE_USERS_TABLE = "CREATE TABLE " + TABLE_USERS + "("
+                    + KEY_USER_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
+                    + KEY_USER_NAME + " TEXT NOT NULL,"
+                    + KEY_USER_PASSWORD + " TEXT" + ")";
+            db.execSQL(CREATE_USERS_TABLE);
+
+            // SQL query to create Categories table
+            final String CREATE_CATEGORIES_TABLE = "CREATE TABLE " + TABLE_CATEGORIES + "("
+                    + KEY_CAT_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
+                    + KEY_CAT_NAME + " TEXT,"
+                    + KEY_CAT_IMAGE + " INTEGER" + ")";
+            db.execSQL(CREATE_CATEGORIES_TABLE);
+
+            // SQL query to create Questions table with a real foreign key reference to Categories
+            final String CREATE_QUESTIONS_TABLE = "CREATE TABLE " + TABLE_QUESTIONS + "("
+                    + KEY_QUES_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
+                    + KEY_QUES_TEXT + " TEXT,"
+                    + KEY_QUES_OP1 + " TEXT,"
+                    + KEY_QUES_OP2 + " TEXT,"
+                    + KEY_QUES_OP3 + " TEXT,"
+                    + KEY_QUES_OP4 + " TEXT,"
+                    + KEY_QUES_ANS + " INTEGER,"
+                    + KEY_QUES_CAT_ID + " INTEGER NOT NULL REFERENCES " + TABLE_CATEGORIES + "(" + KEY_CAT_ID + ")"
+                    + " ON DELETE CASCADE" + ")";
+            db.execSQL(CREATE_QUESTIONS_TABLE);
+
+            // Indexes: case-insensitive unique usernames and question lookup by category
+            db.execSQL("CREATE UNIQUE INDEX " + INDEX_USERS_USERNAME + " ON " + TABLE_USERS
+                    + "(" + KEY_USER_NAME + " COLLATE NOCASE)");
+            db.execSQL("CREATE INDEX " + INDEX_QUESTIONS_CATEGORY + " ON " + TABLE_QUESTIONS
+                    + "(" + KEY_QUES_CAT_ID + ")");
+
+            // Populate tables with initial dummy data through one set of compiled inserts
+            QuizStatements seedStatements = new QuizStatements(db);
+            try {
+                fillCategories(seedStatements);
+                fillQuestions(seedStatements);
+            } finally {
+                seedStatements.close();
+            }
+
+            // Bring the fresh v3 schema up to date; this also runs ANALYZE for the new indexes
+            SchemaMigrations.migrate(db, BASE_SCHEMA_VERSION, DATABASE_VERSION);
+            questionCache.invalidateAll();
+        } finally {
+            AppMetrics.DB_ON_CREATE.end(started);
+        }
     }
 
     // onUpgrade: Called when the database needs to be upgraded (e.g., version change).
-    // Here we simply drop the old tables and recreate them.
+    // Each version step is applied in order so existing users and questions are kept.
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_CATEGORIES);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_QUESTIONS);
-        onCreate(db);
+        long started = AppMetrics.DB_ON_UPGRADE.begin();
+        try {
+            if (SchemaMigrations.canMigrate(oldVersion, newVersion)) {
+                SchemaMigrations.migrate(db, oldVersion, newVersion);
+                questionCache.invalidateAll();
+                return;
+            }
+
+            // No migration path from this (pre-v2) schema: fall back to rebuilding it from scratch
+            Log.w(TAG, "No migration path from v" + oldVersion + " to v" + newVersion + ", recreating database");
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_QUESTIONS);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_CATEGORIES);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
+            onCreate(db);
+        } finally {
+            AppMetrics.DB_ON_UPGRADE.end(started);
+        }
+    }
+
+    // onOpen: Called every time the helper opens a connection; used to track open connections
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        synchronized (this) {
+            if (!connectionOpen) {
+                connectionOpen = true;
+                OPEN_CONNECTIONS.incrementAndGet();
+            }
+        }
+    }
+
+    // Close the underlying connection and update the open connection count
+    @Override
+    public synchronized void close() {
+        if (statements != null) {
+            statements.close();
+            statements = null;
+        }
+        super.close();
+        if (connectionOpen) {
+            connectionOpen = false;
+            OPEN_CONNECTIONS.decrementAndGet();
+        }
+    }
+
+    // Number of connections currently held open across all helpers (should never exceed 1)
+    public static int getOpenConnectionCount() {
+        return OPEN_CONNECTIONS.get();
+    }
+
+    // In-memory question cache; anything writing to the questions table must invalidate it
+    public QuestionCache getQuestionCache() {
+        return questionCache;
+    }
+
+    // Release cached questions when the system is short of memory (see ComponentCallbacks2.onTrimMemory)
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            questionCache.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            // Includes TRIM_MEMORY_UI_HIDDEN: keep the most recent categories for a quick return
+            questionCache.trimToSize(questionCache.maxBytes() / 2);
+        }
+        Log.d(TAG, "trimMemory(" + level + "): " + questionCache);
+    }
+
+    // Statements compiled against the open writable connection, recompiled if it was reopened
+    synchronized QuizStatements statements() {
+        SQLiteDatabase db = getWritableDatabase();
+        if (statements == null || !statements.isBoundTo(db)) {
+            if (statements != null) {
+                statements.close();
+            }
+            statements = new QuizStatements(db);
+        }
+        return statements;
     }
 
     // Helper method to add default categories
-    private void fillCategories() {
+    private void fillCategories(QuizStatements db) {
         // Image resource IDs are placeholders (0). In a real app, you would use R.drawable.image_name
-        addCategory(new Category("General Knowledge", 0));
-        addCategory(new Category("Science", 0));
-        addCategory(new Category("History", 0));
+        addCategory(db, new Category("General Knowledge", 0));
+        addCategory(db, new Category("Science", 0));
+        addCategory(db, new Category("History", 0));
     }
 
     // Insert a category into the database
-    private void addCategory(Category category) {
-        ContentValues cv = new ContentValues();
-        cv.put(KEY_CAT_NAME, category.getName());
-        cv.put(KEY_CAT_IMAGE, category.getImageResId());
-        db.insert(TABLE_CATEGORIES, null, cv);
+    private void addCategory(QuizStatements db, Category category) {
+        db.insertCategory(category.getName(), category.getImageResId());
     }
 
     // Helper method to add default questions
-    private void fillQuestions() {
+    private void fillQuestions(QuizStatements db) {
         // General Knowledge (Category 1)
-        addQuestion(new Question("What is the capital of France?", "Berlin", "Madrid", "Paris", "Rome", 3, 1));
-        addQuestion(new Question("Who wrote 'Hamlet'?", "Charles Dickens", "William Shakespeare", "Mark Twain",
+        addQuestion(db, new Question("What is the capital of France?", "Berlin", "Madrid", "Paris", "Rome", 3, 1));
+        addQuestion(db, new Question("Who wrote 'Hamlet'?", "Charles Dickens", "William Shakespeare", "Mark Twain",
                 "Leo Tolstoy", 2, 1));
-        addQuestion(new Question("Which is the largest animal in the world?", "Blue Whale", "Elephant", "Giraffe", "Shark", 1, 1));
-        addQuestion(new Question("Which country is known as the Land of the Rising Sun?", "China", "Japan", "India", "Thailand", 2, 1));
+        addQuestion(db, new Question("Which is the largest animal in the world?", "Blue Whale", "Elephant", "Giraffe", "Shark", 1, 1));
+        addQuestion(db, new Question("Which country is known as the Land of the Rising Sun?", "China", "Japan", "India", "Thailand", 2, 1));
 
         // Science (Category 2)
-        addQuestion(new Question("What is the chemical symbol for Gold?", "Au", "Ag", "Fe", "Pb", 1, 2));
-        addQuestion(
+        addQuestion(db, new Question("What is the chemical symbol for Gold?", "Au", "Ag", "Fe", "Pb", 1, 2));
+        addQuestion(db,
                 new Question("Which planet is known as the Red Planet?", "Earth", "Jupiter", "Mars", "Venus", 3, 2));
-        addQuestion(new Question("What is the hardest natural substance on Earth?", "Gold", "Iron", "Diamond", "Platinum", 3, 2));
-        addQuestion(new Question("What is the main gas found in the air we breathe?", "Oxygen", "Nitrogen", "Carbon Dioxide", "Hydrogen", 2, 2));
+        addQuestion(db, new Question("What is the hardest natural substance on Earth?", "Gold", "Iron", "Diamond", "Platinum", 3, 2));
+        addQuestion(db, new Question("What is the main gas found in the air we breathe?", "Oxygen", "Nitrogen", "Carbon Dioxide", "Hydrogen", 2, 2));
 
         // History (Category 3)
-        addQuestion(new Question("Who was the first President of USA?", "Abraham Lincoln", "Thomas Jefferson",
+        addQuestion(db, new Question("Who was the first President of USA?", "Abraham Lincoln", "Thomas Jefferson",
                 "George Washington", "John Adams", 3, 3));
-        addQuestion(new Question("In which year did WWII end?", "1940", "1945", "1950", "1939", 2, 3));
-        addQuestion(new Question("Who was the first man to step on the moon?", "Yuri Gagarin", "Neil Armstrong", "Buzz Aldrin", "Michael Collins", 2, 3));
-        addQuestion(new Question("The Great Wall of China was built to keep out whom?", "Mongols", "Romans", "Egyptians", "Greeks", 1, 3));
+        addQuestion(db, new Question("In which year did WWII end?", "1940", "1945", "1950", "1939", 2, 3));
+        addQuestion(db, new Question("Who was the first man to step on the moon?", "Yuri Gagarin", "Neil Armstrong", "Buzz Aldrin", "Michael Collins", 2, 3));
+        addQuestion(db, new Question("The Great Wall of China was built to keep out whom?", "Mongols", "Romans", "Egyptians", "Greeks", 1, 3));
     }
 
     // Insert a question into the database
-    private void addQuestion(Question question) {
-        ContentValues cv = new ContentValues();
-        cv.put(KEY_QUES_TEXT, question.getQuestion());
-        cv.put(KEY_QUES_OP1, question.getOption1());
-        cv.put(KEY_QUES_OP2, question.getOption2());
-        cv.put(KEY_QUES_OP3, question.getOption3());
-        cv.put(KEY_QUES_OP4, question.getOption4());
-        cv.put(KEY_QUES_ANS, question.getAnswerNr());
-        cv.put(KEY_QUES_CAT_ID, question.getCategoryId());
-        db.insert(TABLE_QUESTIONS, null, cv);
+    private void addQuestion(QuizStatements db, Question question) {
+        db.insertQuestion(question);
     }
 
     // ---------------------------------------------------------------------------------------------
     // USER OPERATIONS
     // ---------------------------------------------------------------------------------------------
 
-    // Add a new user (Signup)
+    // Add a new user (Signup); the password is stored as a salted hash. Slow: hashes the password.
+    @Override
     public long addUser(User user) {
-        SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues cv = new ContentValues();
-        cv.put(KEY_USER_NAME, user.getUsername());
-        cv.put(KEY_USER_PASSWORD, user.getPassword());
-        // insert returns the row ID of the newly inserted row, or -1 if an error occurred
-        return db.insert(TABLE_USERS, null, cv);
+        long started = AppMetrics.DB_ADD_USER.begin();
+        try {
+            PasswordHasher.Credentials credentials = passwordHasher().hash(user.getPassword());
+            // returns the row ID of the newly inserted row, or -1 if an error occurred (e.g. username taken)
+            return statements().insertUser(user.getUsername(), credentials);
+        } finally {
+            AppMetrics.DB_ADD_USER.end(started);
+        }
     }
 
-    // Check if a user exists with the given username and password (Login)
+    // Check if a user exists with the given username and password (Login). Slow: hashes the password.
+    @Override
     public boolean checkUser(String username, String password) {
-        String[] columns = { KEY_USER_ID };
-        SQLiteDatabase db = this.getReadableDatabase();
-        String selection = KEY_USER_NAME + " = ?" + " AND " + KEY_USER_PASSWORD + " = ?";
-        String[] selectionArgs = { username, password };
-        
-        // Query the database
-        Cursor cursor = db.query(TABLE_USERS, columns, selection, selectionArgs, null, null, null);
-        int count = cursor.getCount();
-        cursor.close();
-        
-        // If count > 0, a record exists
-        return count > 0;
+        long started = AppMetrics.DB_CHECK_USER.begin();
+        try {
+            return authenticate(username, password) >= 0;
+        } finally {
+            AppMetrics.DB_CHECK_USER.end(started);
+        }
+    }
+
+    // Look up the id of the user with the given username and password (Login); -1 if they do not match.
+    // A stored hash weaker than the current policy, or a legacy plaintext password, is replaced by a
+    // fresh hash while the password is at hand. Slow: hashes the password once, twice when upgrading.
+    public long authenticate(String username, String password) {
+        long started = AppMetrics.DB_AUTHENTICATE.begin();
+        try {
+            PasswordHasher hasher = passwordHasher();
+            long userId = -1;
+            String plaintext = null;
+            PasswordHasher.Credentials stored = null;
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor = db.rawQuery("SELECT " + KEY_USER_ID + ", " + KEY_USER_PASSWORD + ", "
+                    + KEY_USER_PASSWORD_ALGORITHM + ", " + KEY_USER_PASSWORD_ITERATIONS + ", " + KEY_USER_PASSWORD_SALT
+                    + ", " + KEY_USER_PASSWORD_HASH + " FROM " + TABLE_USERS
+                    + " WHERE " + KEY_USER_NAME + " = ? COLLATE NOCASE", new String[]{username});
+            try {
+                if (cursor.moveToFirst()) {
+                    userId = cursor.getLong(0);
+                    plaintext = cursor.getString(1);
+                    stored = readCredentials(cursor, 2);
+                }
+            } finally {
+                cursor.close();
+            }
+
+            // One derivation on every path, so the time taken does not tell a missing account, or one whose
+            // password is still in plaintext, from a hashed one
+            boolean matches;
+            if (stored != null) {
+                matches = hasher.verify(password, stored);
+            } else {
+                hasher.verify(password, dummyCredentials(hasher));
+                matches = plaintext != null && constantTimeEquals(plaintext, password);
+            }
+            if (!matches) {
+                return -1;
+            }
+            if (stored == null || hasher.needsRehash(stored)) {
+                statements().rehashUser(userId, hasher.hash(password));
+            }
+            return userId;
+        } finally {
+            AppMetrics.DB_AUTHENTICATE.end(started);
+        }
     }
 
     // Check if a username is already taken (Signup Validation)
+    @Override
     public boolean checkUserExists(String username) {
-        String[] columns = { KEY_USER_ID };
-        SQLiteDatabase db = this.getReadableDatabase();
-        String selection = KEY_USER_NAME + " = ?";
-        String[] selectionArgs = { username };
-        
-        Cursor cursor = db.query(TABLE_USERS, columns, selection, selectionArgs, null, null, null);
-        int count = cursor.getCount();
-        cursor.close();
-        return count > 0;
+        long started = AppMetrics.DB_CHECK_USER_EXISTS.begin();
+        try {
+            return statements().userExists(username);
+        } finally {
+            AppMetrics.DB_CHECK_USER_EXISTS.end(started);
+        }
     }
 
-    // Update password for a specific user
+    // Update password for a specific user. Slow: hashes the password.
+    @Override
     public boolean updatePassword(String username, String newPassword) {
-        SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues cv = new ContentValues();
-        cv.put(KEY_USER_PASSWORD, newPassword);
-        
-        String selection = KEY_USER_NAME + " = ?";
-        String[] selectionArgs = { username };
-        
-        int rowsAffected = db.update(TABLE_USERS, cv, selection, selectionArgs);
-        return rowsAffected > 0;
+        long started = AppMetrics.DB_UPDATE_PASSWORD.begin();
+        try {
+            int rowsAffected = statements().updatePassword(username, passwordHasher().hash(newPassword));
+            return rowsAffected > 0;
+        } finally {
+            AppMetrics.DB_UPDATE_PASSWORD.end(started);
+        }
+    }
+
+    // Hash every password still stored in plaintext (rows from before MIGRATION_7_8 whose user has not
+    // logged in since). Runs once per install as a startup stage; each row is its own short update, so
+    // logins are never blocked for long. Returns the number of rows hashed.
+    public int migratePlaintextPasswords() {
+        long started = AppMetrics.DB_MIGRATE_PLAINTEXT_PASSWORDS.begin();
+        try {
+            PasswordHasher hasher = passwordHasher();
+            List<Long> ids = new ArrayList<>();
+            List<String> passwords = new ArrayList<>();
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor = db.rawQuery("SELECT " + KEY_USER_ID + ", " + KEY_USER_PASSWORD + " FROM " + TABLE_USERS
+                    + " WHERE " + KEY_USER_PASSWORD_HASH + " IS NULL AND " + KEY_USER_PASSWORD + " IS NOT NULL", null);
+            try {
+                while (cursor.moveToNext()) {
+                    ids.add(cursor.getLong(0));
+                    passwords.add(cursor.getString(1));
+                }
+            } finally {
+                cursor.close();
+            }
+            int migrated = 0;
+            for (int i = 0; i < ids.size(); i++) {
+                migrated += statements().rehashUser(ids.get(i), hasher.hash(passwords.get(i)));
+            }
+            if (migrated > 0) {
+                Log.i(TAG, "Hashed " + migrated + " plaintext passwords");
+            }
+            return migrated;
+        } finally {
+            AppMetrics.DB_MIGRATE_PLAINTEXT_PASSWORDS.end(started);
+        }
+    }
+
+    // The hashing policy: calibrated on this device on first use, then read back from preferences
+    PasswordHasher passwordHasher() {
+        PasswordHasher hasher = passwordHasher;
+        if (hasher == null) {
+            synchronized (this) {
+                hasher = passwordHasher;
+                if (hasher == null) {
+                    SharedPreferences prefs = appContext.getSharedPreferences(CREDENTIAL_PREFS, Context.MODE_PRIVATE);
+                    int iterations = prefs.getInt(PREF_ITERATIONS, 0);
+                    if (iterations <= 0) {
+                        long start = System.nanoTime();
+                        iterations = PasswordHasher.calibrate(PasswordHasher.TARGET_MILLIS);
+                        Log.i(TAG, String.format("Calibrated PBKDF2 to %d iterations for %d ms in %.0f ms", iterations,
+                                PasswordHasher.TARGET_MILLIS, (System.nanoTime() - start) / 1e6));
+                        prefs.edit().putInt(PREF_ITERATIONS, iterations).apply();
+                    }
+                    hasher = new PasswordHasher(iterations);
+                    passwordHasher = hasher;
+                }
+            }
+        }
+        return hasher;
+    }
+
+    // Replace the calibrated policy, e.g. to raise it in a test
+    @VisibleForTesting
+    void setPasswordHasher(PasswordHasher hasher) {
+        passwordHasher = hasher;
+        dummyCredentials = null;
+    }
+
+    private PasswordHasher.Credentials dummyCredentials(PasswordHasher hasher) {
+        PasswordHasher.Credentials dummy = dummyCredentials;
+        if (dummy == null) {
+            dummy = hasher.hash("");
+            dummyCredentials = dummy;
+        }
+        return dummy;
+    }
+
+    // Compared through fixed-length digests, so neither the contents nor the length of either side leak
+    private static boolean constantTimeEquals(String a, String b) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] digestA = sha256.digest(a.getBytes(StandardCharsets.UTF_8));
+            byte[] digestB = sha256.digest(b.getBytes(StandardCharsets.UTF_8));
+            return MessageDigest.isEqual(digestA, digestB);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Algorithm, iterations, salt and hash from four consecutive columns, or null if there is no hash
+    private static PasswordHasher.Credentials readCredentials(Cursor cursor, int index) {
+        if (cursor.isNull(index + 3)) {
+            return null;
+        }
+        return new PasswordHasher.Credentials(cursor.getString(index), cursor.getInt(index + 1),
+                cursor.getBlob(index + 2), cursor.getBlob(index + 3));
     }
 
     // ---------------------------------------------------------------------------------------------
@@ -215,55 +581,512 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     // ---------------------------------------------------------------------------------------------
 
     // Get all categories to display in the CategoriesActivity
+    @Override
     public List<Category> getAllCategories() {
-        List<Category> categoryList = new ArrayList<>();
-        String selectQuery = "SELECT * FROM " + TABLE_CATEGORIES;
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery(selectQuery, null);
+        long started = AppMetrics.DB_GET_ALL_CATEGORIES.begin();
+        try {
+            List<Category> categoryList = new ArrayList<>();
+            String selectQuery = "SELECT " + KEY_CAT_ID + ", " + KEY_CAT_NAME + ", " + KEY_CAT_IMAGE
+                    + " FROM " + TABLE_CATEGORIES + " ORDER BY " + KEY_CAT_ID;
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor = db.rawQuery(selectQuery, null);
 
-        // Loop through all rows and add to list
-        if (cursor.moveToFirst()) {
-            do {
-                Category category = new Category();
-                category.setId(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_CAT_ID)));
-                category.setName(cursor.getString(cursor.getColumnIndexOrThrow(KEY_CAT_NAME)));
-                category.setImageResId(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_CAT_IMAGE)));
-                categoryList.add(category);
-            } while (cursor.moveToNext());
+            // Loop through all rows and add to list; column indexes are resolved once, not per row
+            try {
+                int idIndex = cursor.getColumnIndexOrThrow(KEY_CAT_ID);
+                int nameIndex = cursor.getColumnIndexOrThrow(KEY_CAT_NAME);
+                int imageIndex = cursor.getColumnIndexOrThrow(KEY_CAT_IMAGE);
+                while (cursor.moveToNext()) {
+                    Category category = new Category();
+                    category.setId(cursor.getInt(idIndex));
+                    category.setName(cursor.getString(nameIndex));
+                    category.setImageResId(cursor.getInt(imageIndex));
+                    categoryList.add(category);
+                }
+            } finally {
+                cursor.close();
+            }
+            return categoryList;
+        } finally {
+            AppMetrics.DB_GET_ALL_CATEGORIES.end(started);
+        }
+    }
+
+    // Every category together with its question count and the given user's best score and last play,
+    // in one pass: each row joins two primary-key lookups into the summary tables, nothing is aggregated
+    public List<Category> getCategoryDashboard(long userId) {
+        long started = AppMetrics.DB_GET_CATEGORY_DASHBOARD.begin();
+        try {
+            List<Category> categoryList = new ArrayList<>();
+            String selectQuery = "SELECT c." + KEY_CAT_ID + ", c." + KEY_CAT_NAME + ", c." + KEY_CAT_IMAGE
+                    + ", s." + KEY_SUMMARY_QUESTION_COUNT
+                    + ", u." + KEY_STATS_BEST_SCORE + ", u." + KEY_STATS_BEST_TOTAL + ", u." + KEY_STATS_LAST_PLAYED
+                    + " FROM " + TABLE_CATEGORIES + " c"
+                    + " LEFT JOIN " + TABLE_CATEGORY_SUMMARY + " s ON s." + KEY_SUMMARY_CAT_ID + " = c." + KEY_CAT_ID
+                    + " LEFT JOIN " + TABLE_USER_CATEGORY_STATS + " u ON u." + KEY_STATS_CAT_ID + " = c." + KEY_CAT_ID
+                    + " AND u." + KEY_STATS_USER_ID + " = ?"
+                    + " ORDER BY c." + KEY_CAT_ID;
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor = db.rawQuery(selectQuery, new String[]{String.valueOf(userId)});
+            try {
+                while (cursor.moveToNext()) {
+                    Category category = new Category();
+                    category.setId(cursor.getInt(0));
+                    category.setName(cursor.getString(1));
+                    category.setImageResId(cursor.getInt(2));
+                    category.setQuestionCount(cursor.getInt(3));
+                    if (!cursor.isNull(4)) {
+                        category.setBestScore(cursor.getInt(4));
+                        category.setBestTotal(cursor.getInt(5));
+                        category.setLastPlayedAt(cursor.getLong(6));
+                    }
+                    categoryList.add(category);
+                }
+            } finally {
+                cursor.close();
+            }
+            return categoryList;
+        } finally {
+            AppMetrics.DB_GET_CATEGORY_DASHBOARD.end(started);
+        }
+    }
+
+    // Fold a finished quiz into the user's stats for the category. The stats row is updated in the
+    // same transaction as the result is recorded, so the dashboard never needs the attempts history.
+    public void recordQuizResult(long userId, int categoryId, int score, int total, long playedAt) {
+        long started = AppMetrics.DB_RECORD_QUIZ_RESULT.begin();
+        try {
+            SQLiteDatabase db = getWritableDatabase();
+            QuizStatements statements = statements();
+            db.beginTransaction();
+            try {
+                statements.upsertCategoryStats(userId, categoryId, score, total, playedAt);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } finally {
+            AppMetrics.DB_RECORD_QUIZ_RESULT.end(started);
+        }
+    }
+
+    // The best-rated limit users with at least one rated answer, best first. Read from the top of
+    // idx_users_rating, so the cost depends on limit and not on the number of users.
+    public List<LeaderboardEntry> getLeaderboard(int limit) {
+        long started = AppMetrics.DB_GET_LEADERBOARD.begin();
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor = db.rawQuery("SELECT " + KEY_USER_ID + ", " + KEY_USER_NAME + ", " + KEY_USER_RATING + ", "
+                    + KEY_USER_RATED_ANSWERS + " FROM " + TABLE_USERS + " WHERE " + KEY_USER_RATED_ANSWERS + " > 0"
+                    + " ORDER BY " + KEY_USER_RATING + " DESC LIMIT " + limit, null);
+            try {
+                List<LeaderboardEntry> entries = new ArrayList<>(cursor.getCount());
+                int rank = 0;
+                double previous = Double.NaN;
+                while (cursor.moveToNext()) {
+                    double rating = cursor.getDouble(2);
+                    // Equal ratings share a rank, as in getUserStanding
+                    if (rating != previous) {
+                        rank = entries.size() + 1;
+                        previous = rating;
+                    }
+                    entries.add(new LeaderboardEntry(rank, cursor.getLong(0), cursor.getString(1), rating,
+                            cursor.getInt(3)));
+                }
+                return entries;
+            } finally {
+                cursor.close();
+            }
+        } finally {
+            AppMetrics.DB_GET_LEADERBOARD.end(started);
+        }
+    }
+
+    // The user's own rating and rank, or null if there is no such user. The rank counts the rated users
+    // above them along idx_users_rating, so it costs O(rank); 0 until the user has a rated answer.
+    public LeaderboardEntry getUserStanding(long userId) {
+        long started = AppMetrics.DB_GET_USER_STANDING.begin();
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor = db.rawQuery("SELECT u." + KEY_USER_NAME + ", u." + KEY_USER_RATING + ", u."
+                    + KEY_USER_RATED_ANSWERS + ", (SELECT COUNT(*) FROM " + TABLE_USERS + " o WHERE o."
+                    + KEY_USER_RATED_ANSWERS + " > 0 AND o." + KEY_USER_RATING + " > u." + KEY_USER_RATING + ")"
+                    + " FROM " + TABLE_USERS + " u WHERE u." + KEY_USER_ID + " = ?",
+                    new String[]{String.valueOf(userId)});
+            try {
+                if (!cursor.moveToFirst()) {
+                    return null;
+                }
+                int ratedAnswers = cursor.getInt(2);
+                int rank = ratedAnswers > 0 ? cursor.getInt(3) + 1 : 0;
+                return new LeaderboardEntry(rank, userId, cursor.getString(0), cursor.getDouble(1), ratedAnswers);
+            } finally {
+                cursor.close();
+            }
+        } finally {
+            AppMetrics.DB_GET_USER_STANDING.end(started);
         }
-        cursor.close();
-        return categoryList;
     }
 
     // ---------------------------------------------------------------------------------------------
     // QUESTION OPERATIONS
     // ---------------------------------------------------------------------------------------------
 
-    // Get questions specific to a category
+    // Get questions specific to a category, in id order (the order idx_questions_category already holds)
+    @Override
     public ArrayList<Question> getQuestionsByCategory(int categoryId) {
-        ArrayList<Question> questionList = new ArrayList<>();
+        long started = AppMetrics.DB_GET_QUESTIONS_BY_CATEGORY.begin();
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+
+            String selection = KEY_QUES_CAT_ID + " = ?";
+            String[] selectionArgs = { String.valueOf(categoryId) };
+
+            Cursor cursor = db.query(TABLE_QUESTIONS, QuestionCursorMapper.COLUMNS, selection, selectionArgs,
+                    null, null, KEY_QUES_ID);
+            try {
+                ArrayList<Question> questionList = new ArrayList<>(cursor.getCount());
+                QuestionCursorMapper mapper = new QuestionCursorMapper(cursor);
+                while (cursor.moveToNext()) {
+                    questionList.add(mapper.map(cursor));
+                }
+                return questionList;
+            } finally {
+                cursor.close();
+            }
+        } finally {
+            AppMetrics.DB_GET_QUESTIONS_BY_CATEGORY.end(started);
+        }
+    }
+
+    // Pick a random sample of question ids from a category without loading any question bodies.
+    // The category's id list comes from the question cache, or else from its range of
+    // idx_questions_category (the index already holds the ids), and the same seed over the same
+    // data always gives the same ids in the same order.
+    public long[] sampleQuestionIds(int categoryId, int sampleSize, long seed) {
+        long started = AppMetrics.DB_SAMPLE_QUESTION_IDS.begin();
+        try {
+            long[] ids = questionCache.getIds(categoryId);
+            if (ids == null) {
+                long generation = questionCache.generation();
+                ids = queryQuestionIds(categoryId);
+                questionCache.putIds(categoryId, ids, generation);
+            }
+            return QuizEngine.sample(ids, sampleSize, seed);
+        } finally {
+            AppMetrics.DB_SAMPLE_QUESTION_IDS.end(started);
+        }
+    }
+
+    // Difficulty-targeted sampling: the sampleSize questions of a category whose difficulty is closest to
+    // rating (e.g. the user's), in an order shuffled by seed. Two seeks into idx_questions_category_difficulty
+    // read outwards from rating, at most sampleSize rows each, however large the category is.
+    public long[] sampleQuestionIdsNear(int categoryId, double rating, int sampleSize, long seed) {
+        if (sampleSize <= 0) {
+            return new long[0];
+        }
+        long started = AppMetrics.DB_SAMPLE_QUESTION_IDS_NEAR.begin();
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            String[] args = {String.valueOf(categoryId), String.valueOf(rating)};
+            String select = "SELECT " + KEY_QUES_ID + ", " + KEY_QUES_DIFFICULTY + " FROM " + TABLE_QUESTIONS
+                    + " WHERE " + KEY_QUES_CAT_ID + " = ? AND " + KEY_QUES_DIFFICULTY;
+            long[] aboveIds = new long[sampleSize];
+            double[] aboveGaps = new double[sampleSize];
+            int above = readNearest(db.rawQuery(select + " >= ? ORDER BY " + KEY_QUES_DIFFICULTY
+                    + " LIMIT " + sampleSize, args), rating, aboveIds, aboveGaps);
+            long[] belowIds = new long[sampleSize];
+            double[] belowGaps = new double[sampleSize];
+            int below = readNearest(db.rawQuery(select + " < ? ORDER BY " + KEY_QUES_DIFFICULTY
+                    + " DESC LIMIT " + sampleSize, args), rating, belowIds, belowGaps);
+
+            // Both runs are ordered by distance from rating: merge them up to sampleSize
+            long[] ids = new long[Math.min(sampleSize, above + below)];
+            int a = 0;
+            int b = 0;
+            for (int n = 0; n < ids.length; n++) {
+                ids[n] = b == below || (a < above && aboveGaps[a] <= belowGaps[b]) ? aboveIds[a++] : belowIds[b++];
+            }
+            QuizEngine.shuffle(ids, seed);
+            return ids;
+        } finally {
+            AppMetrics.DB_SAMPLE_QUESTION_IDS_NEAR.end(started);
+        }
+    }
+
+    // The spaced-repetition schedule of one user over one category: every question the user has
+    // answered with its stored state, and the rest as unseen questions in an order shuffled by seed.
+    // One pass over idx_questions_category with a primary-key lookup into review_state per question.
+    public ReviewScheduler loadReviewScheduler(long userId, int categoryId, long seed) {
+        long started = AppMetrics.DB_LOAD_REVIEW_SCHEDULER.begin();
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor = db.rawQuery("SELECT q." + KEY_QUES_ID + ", r." + KEY_REVIEW_EASE + ", r."
+                    + KEY_REVIEW_INTERVAL_MS + ", r." + KEY_REVIEW_DUE_AT + ", r." + KEY_REVIEW_REPETITIONS + ", r."
+                    + KEY_REVIEW_LAPSES + " FROM " + TABLE_QUESTIONS + " q LEFT JOIN " + TABLE_REVIEW_STATE + " r"
+                    + " ON r." + KEY_REVIEW_USER_ID + " = ? AND r." + KEY_REVIEW_QUESTION_ID + " = q." + KEY_QUES_ID
+                    + " WHERE q." + KEY_QUES_CAT_ID + " = ? ORDER BY q." + KEY_QUES_ID,
+                    new String[]{String.valueOf(userId), String.valueOf(categoryId)});
+            try {
+                ReviewScheduler scheduler = new ReviewScheduler(cursor.getCount());
+                long[] unseen = new long[cursor.getCount()];
+                int unseenCount = 0;
+                while (cursor.moveToNext()) {
+                    long questionId = cursor.getLong(0);
+                    if (cursor.isNull(1)) {
+                        unseen[unseenCount++] = questionId;
+                    } else {
+                        scheduler.add(questionId, cursor.getDouble(1), cursor.getLong(2), cursor.getLong(3),
+                                cursor.getInt(4), cursor.getInt(5));
+                    }
+                }
+                unseen = Arrays.copyOf(unseen, unseenCount);
+                QuizEngine.shuffle(unseen, seed);
+                for (long questionId : unseen) {
+                    scheduler.addNew(questionId);
+                }
+                return scheduler;
+            } finally {
+                cursor.close();
+            }
+        } finally {
+            AppMetrics.DB_LOAD_REVIEW_SCHEDULER.end(started);
+        }
+    }
+
+    // Number of questions, over all categories, whose review is due for the user at time now;
+    // answered from idx_review_state_user_due alone
+    public int countDueReviews(long userId, long now) {
+        long started = AppMetrics.DB_COUNT_DUE_REVIEWS.begin();
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM " + TABLE_REVIEW_STATE + " WHERE "
+                    + KEY_REVIEW_USER_ID + " = ? AND " + KEY_REVIEW_DUE_AT + " <= ?",
+                    new String[]{String.valueOf(userId), String.valueOf(now)});
+            try {
+                return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+            } finally {
+                cursor.close();
+            }
+        } finally {
+            AppMetrics.DB_COUNT_DUE_REVIEWS.end(started);
+        }
+    }
+
+    // Load the question id lists of every category into the cache in one pass over idx_questions_category,
+    // so the first quiz of any category samples from memory. Stops once half the cache budget is used,
+    // leaving room for question bodies. Returns the number of categories warmed.
+    public int warmQuestionCache() {
+        long started = AppMetrics.DB_WARM_QUESTION_CACHE.begin();
+        try {
+            long generation = questionCache.generation();
+            long budget = questionCache.maxBytes() / 2;
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor = db.rawQuery("SELECT " + KEY_QUES_CAT_ID + ", " + KEY_QUES_ID + " FROM " + TABLE_QUESTIONS
+                    + " ORDER BY " + KEY_QUES_CAT_ID + ", " + KEY_QUES_ID, null);
+            int warmed = 0;
+            try {
+                long[] ids = new long[256];
+                int n = 0;
+                int categoryId = -1;
+                boolean more = cursor.moveToNext();
+                while (more) {
+                    int rowCategory = cursor.getInt(0);
+                    if (rowCategory != categoryId && n > 0) {
+                        questionCache.putIds(categoryId, Arrays.copyOf(ids, n), generation);
+                        warmed++;
+                        n = 0;
+                        if (questionCache.sizeBytes() >= budget) {
+                            return warmed;
+                        }
+                    }
+                    categoryId = rowCategory;
+                    if (n == ids.length) {
+                        ids = Arrays.copyOf(ids, n * 2);
+                    }
+                    ids[n++] = cursor.getLong(1);
+                    more = cursor.moveToNext();
+                }
+                if (n > 0) {
+                    questionCache.putIds(categoryId, Arrays.copyOf(ids, n), generation);
+                    warmed++;
+                }
+            } finally {
+                cursor.close();
+            }
+            return warmed;
+        } finally {
+            AppMetrics.DB_WARM_QUESTION_CACHE.end(started);
+        }
+    }
+
+    // Every question id of a category, in id order
+    private long[] queryQuestionIds(int categoryId) {
         SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT " + KEY_QUES_ID + " FROM " + TABLE_QUESTIONS
+                + " WHERE " + KEY_QUES_CAT_ID + " = ? ORDER BY " + KEY_QUES_ID,
+                new String[]{String.valueOf(categoryId)});
+        try {
+            long[] ids = new long[cursor.getCount()];
+            int n = 0;
+            while (cursor.moveToNext()) {
+                ids[n++] = cursor.getLong(0);
+            }
+            return n == ids.length ? ids : Arrays.copyOf(ids, n);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    // Read (id, difficulty) rows into ids and their distance from rating into gaps; closes the cursor
+    private static int readNearest(Cursor cursor, double rating, long[] ids, double[] gaps) {
+        try {
+            int n = 0;
+            while (n < ids.length && cursor.moveToNext()) {
+                ids[n] = cursor.getLong(0);
+                gaps[n] = Math.abs(cursor.getDouble(1) - rating);
+                n++;
+            }
+            return n;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    // Load the questions of a category for ids[from..to), returned in the same order as the ids.
+    // Cached questions are served from memory; only the rest are queried (and then cached).
+    public List<Question> getQuestionsByIds(int categoryId, long[] ids, int from, int to) {
+        long started = AppMetrics.DB_GET_QUESTIONS_BY_IDS.begin();
+        try {
+            int count = to - from;
+            List<Question> result = new ArrayList<>(count);
+            if (count <= 0) {
+                return result;
+            }
+
+            Question[] ordered = new Question[count];
+            int missing = 0;
+            for (int i = 0; i < count; i++) {
+                ordered[i] = questionCache.getQuestion(categoryId, ids[from + i]);
+                if (ordered[i] == null) {
+                    missing++;
+                }
+            }
+
+            if (missing > 0) {
+                long generation = questionCache.generation();
+                StringBuilder selection = new StringBuilder(KEY_QUES_ID).append(" IN (");
+                String[] selectionArgs = new String[missing];
+                int arg = 0;
+                for (int i = 0; i < count; i++) {
+                    if (ordered[i] == null) {
+                        selection.append(arg == 0 ? "?" : ",?");
+                        selectionArgs[arg++] = String.valueOf(ids[from + i]);
+                    }
+                }
+                selection.append(')');
 
-        String selection = KEY_QUES_CAT_ID + " = ?";
-        String[] selectionArgs = { String.valueOf(categoryId) };
-
-        Cursor cursor = db.query(TABLE_QUESTIONS, null, selection, selectionArgs, null, null, null);
-
-        if (cursor.moveToFirst()) {
-            do {
-                Question question = new Question();
-                question.setId(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_QUES_ID)));
-                question.setQuestion(cursor.getString(cursor.getColumnIndexOrThrow(KEY_QUES_TEXT)));
-                question.setOption1(cursor.getString(cursor.getColumnIndexOrThrow(KEY_QUES_OP1)));
-                question.setOption2(cursor.getString(cursor.getColumnIndexOrThrow(KEY_QUES_OP2)));
-                question.setOption3(cursor.getString(cursor.getColumnIndexOrThrow(KEY_QUES_OP3)));
-                question.setOption4(cursor.getString(cursor.getColumnIndexOrThrow(KEY_QUES_OP4)));
-                question.setAnswerNr(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_QUES_ANS)));
-                question.setCategoryId(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_QUES_CAT_ID)));
-                questionList.add(question);
-            } while (cursor.moveToNext());
-        }
-        cursor.close();
-        return questionList;
+                SQLiteDatabase db = this.getReadableDatabase();
+                Cursor cursor = db.query(TABLE_QUESTIONS, QuestionCursorMapper.COLUMNS, selection.toString(),
+                        selectionArgs, null, null, null);
+                List<Question> loaded = new ArrayList<>(missing);
+                try {
+                    QuestionCursorMapper mapper = new QuestionCursorMapper(cursor);
+                    while (cursor.moveToNext()) {
+                        Question question = mapper.map(cursor);
+                        loaded.add(question);
+                        for (int i = 0; i < count; i++) {
+                            if (ids[from + i] == question.getId() && ordered[i] == null) {
+                                ordered[i] = question;
+                                break;
+                            }
+                        }
+                    }
+                } finally {
+                    cursor.close();
+                }
+                questionCache.putQuestions(categoryId, loaded, generation);
+            }
+
+            for (Question question : ordered) {
+                // A question deleted since sampling is simply left out
+                if (question != null) {
+                    result.add(question);
+                }
+            }
+            return result;
+        } finally {
+            AppMetrics.DB_GET_QUESTIONS_BY_IDS.end(started);
+        }
+    }
+
+    // Full-text search over the question text and all four options, best matches first.
+    // Every word typed is matched as a prefix ("moo" finds "moon"); all of them must occur somewhere in
+    // the question. Returns the questions ranked offset..offset+limit, or an empty list if nothing
+    // searchable was typed. Cancelling the signal aborts the query with OperationCanceledException.
+    public List<Question> searchQuestions(String query, int offset, int limit, CancellationSignal signal) {
+        long started = AppMetrics.DB_SEARCH_QUESTIONS.begin();
+        try {
+            String match = QuestionSearch.toMatchQuery(query);
+            if (match == null || limit <= 0 || offset >= MAX_SEARCH_RESULTS) {
+                return new ArrayList<>();
+            }
+
+            // Rank on the index alone; only the page that is returned reads the questions table.
+            // Every match is scored: FTS4 returns them in docid order, so any LIMIT here would drop
+            // matches by age rather than by rank.
+            QuestionSearch.TopHits top = new QuestionSearch.TopHits(Math.min(offset + limit, MAX_SEARCH_RESULTS));
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor = db.rawQuery("SELECT docid, matchinfo(" + TABLE_QUESTIONS_FTS + ", '"
+                    + QuestionSearch.MATCHINFO_FORMAT + "') FROM " + TABLE_QUESTIONS_FTS
+                    + " WHERE " + TABLE_QUESTIONS_FTS + " MATCH ?",
+                    new String[]{match}, signal);
+            try {
+                while (cursor.moveToNext()) {
+                    top.offer(cursor.getLong(0), QuestionSearch.score(cursor.getBlob(1)));
+                }
+            } finally {
+                cursor.close();
+            }
+            long[] ids = top.drainRanked(offset);
+            if (ids.length == 0) {
+                return new ArrayList<>();
+            }
+
+            StringBuilder selection = new StringBuilder(KEY_QUES_ID).append(" IN (");
+            String[] selectionArgs = new String[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                selection.append(i == 0 ? "?" : ",?");
+                selectionArgs[i] = String.valueOf(ids[i]);
+            }
+            selection.append(')');
+            Question[] ranked = new Question[ids.length];
+            cursor = db.query(TABLE_QUESTIONS, QuestionCursorMapper.COLUMNS, selection.toString(), selectionArgs,
+                    null, null, null);
+            try {
+                QuestionCursorMapper mapper = new QuestionCursorMapper(cursor);
+                while (cursor.moveToNext()) {
+                    Question question = mapper.map(cursor);
+                    for (int i = 0; i < ids.length; i++) {
+                        if (ids[i] == question.getId()) {
+                            ranked[i] = question;
+                            break;
+                        }
+                    }
+                }
+            } finally {
+                cursor.close();
+            }
+
+            List<Question> result = new ArrayList<>(ids.length);
+            for (Question question : ranked) {
+                if (question != null) {
+                    result.add(question);
+                }
+            }
+            return result;
+        } finally {
+            AppMetrics.DB_SEARCH_QUESTIONS.end(started);
+        }
     }
 }
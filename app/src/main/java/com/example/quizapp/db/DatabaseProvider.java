@@ -0,0 +1,55 @@
+package com.example.quizapp.db;
+
+import android.content.Context;
+
+/**
+ * DatabaseProvider owns the single DatabaseHelper shared by the whole process.
+ * The helper is built from the Application context so no Activity is ever retained,
+ * opened once (warmed up by the startup pipeline in QuizApplication) and closed through close().
+ */
+public final class DatabaseProvider {
+    private static volatile DatabaseHelper instance;
+
+    private DatabaseProvider() {
+    }
+
+    // Get the shared helper, creating it from the application context on first use
+    public static DatabaseHelper get(Context context) {
+        DatabaseHelper helper = instance;
+        if (helper == null) {
+            synchronized (DatabaseProvider.class) {
+                helper = instance;
+                if (helper == null) {
+                    helper = new DatabaseHelper(context.getApplicationContext());
+                    instance = helper;
+                }
+            }
+        }
+        return helper;
+    }
+
+    // Close the shared connection; the next get() call reopens a fresh helper
+    public static void close() {
+        DatabaseHelper helper;
+        synchronized (DatabaseProvider.class) {
+            helper = instance;
+            instance = null;
+        }
+        if (helper != null) {
+            helper.close();
+        }
+    }
+
+    // Forward onTrimMemory to the shared helper (if one was created) so it can drop cached questions
+    public static void trimMemory(int level) {
+        DatabaseHelper helper = instance;
+        if (helper != null) {
+            helper.trimMemory(level);
+        }
+    }
+
+    // Number of open SQLite connections in this process; anything above 1 means a leak
+    public static int getOpenConnectionCount() {
+        return DatabaseHelper.getOpenConnectionCount();
+    }
+}
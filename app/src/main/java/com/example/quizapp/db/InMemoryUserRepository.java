@@ -0,0 +1,95 @@
+package com.example.quizapp.db;
+
+import com.example.quizapp.data.UserRepository;
+import com.example.quizapp.models.User;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * InMemoryUserRepository keeps accounts in a map keyed by the case-folded username, for tests and
+ * benchmarks that should not open a database. Passwords are hashed with the given PasswordHasher
+ * exactly as DatabaseHelper stores them, so only the storage differs between the two.
+ * Safe to use from several threads; hashing happens outside the lock.
+ */
+public final class InMemoryUserRepository implements UserRepository {
+
+    private static final class Account {
+        final long id;
+        volatile PasswordHasher.Credentials credentials;
+
+        Account(long id, PasswordHasher.Credentials credentials) {
+            this.id = id;
+            this.credentials = credentials;
+        }
+    }
+
+    private final PasswordHasher hasher;
+    private final Map<String, Account> accounts = new HashMap<>();
+    private long nextId = 1;
+
+    // The cheapest policy PasswordHasher allows: tests care about behaviour, not hash strength
+    public InMemoryUserRepository() {
+        this(new PasswordHasher(PasswordHasher.MIN_ITERATIONS));
+    }
+
+    InMemoryUserRepository(PasswordHasher hasher) {
+        this.hasher = hasher;
+    }
+
+    @Override
+    public long addUser(User user) {
+        PasswordHasher.Credentials credentials = hasher.hash(user.getPassword());
+        String key = key(user.getUsername());
+        synchronized (accounts) {
+            if (accounts.containsKey(key)) {
+                return -1;
+            }
+            Account account = new Account(nextId++, credentials);
+            accounts.put(key, account);
+            return account.id;
+        }
+    }
+
+    @Override
+    public boolean checkUser(String username, String password) {
+        Account account = find(username);
+        if (account == null) {
+            return false;
+        }
+        return hasher.verify(password, account.credentials);
+    }
+
+    @Override
+    public boolean checkUserExists(String username) {
+        return find(username) != null;
+    }
+
+    @Override
+    public boolean updatePassword(String username, String newPassword) {
+        Account account = find(username);
+        if (account == null) {
+            return false;
+        }
+        account.credentials = hasher.hash(newPassword);
+        return true;
+    }
+
+    private Account find(String username) {
+        String key = key(username);
+        synchronized (accounts) {
+            return accounts.get(key);
+        }
+    }
+
+    // SQLite's NOCASE folds ASCII letters only, so this does too
+    private static String key(String username) {
+        char[] chars = username.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] = (char) (chars[i] + ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.quizapp.db;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.example.quizapp.models.Question;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming JSON reader for question banks: a top-level array of objects such as
+ * {"question": "...", "option1": "...", ..., "option4": "...", "answer_nr": 3, "category_id": 1}.
+ * Objects are pulled one at a time with android.util.JsonReader; unknown keys are ignored.
+ */
+final class JsonQuestionReader implements QuestionRecordReader {
+    private final JsonReader reader;
+    private boolean started;
+    private int recordNumber;
+
+    JsonQuestionReader(Reader reader) {
+        this.reader = new JsonReader(reader);
+    }
+
+    @Override
+    public boolean next(Question into) throws IOException {
+        if (!started) {
+            reader.beginArray();
+            started = true;
+        }
+        if (!reader.hasNext()) {
+            return false;
+        }
+        recordNumber++;
+
+        into.setId(0);
+        into.setQuestion(null);
+        into.setOption1(null);
+        into.setOption2(null);
+        into.setOption3(null);
+        into.setOption4(null);
+        into.setAnswerNr(0);
+        into.setCategoryId(0);
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "question":
+                    into.setQuestion(reader.nextString());
+                    break;
+                case "option1":
+                    into.setOption1(reader.nextString());
+                    break;
+                case "option2":
+                    into.setOption2(reader.nextString());
+                    break;
+                case "option3":
+                    into.setOption3(reader.nextString());
+                    break;
+                case "option4":
+                    into.setOption4(reader.nextString());
+                    break;
+                case "answer_nr":
+                    into.setAnswerNr(reader.nextInt());
+                    break;
+                case "category_id":
+                    into.setCategoryId(reader.nextInt());
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (into.getQuestion() == null) {
+            throw new MalformedRecordException("Record " + recordNumber + ": missing question text");
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
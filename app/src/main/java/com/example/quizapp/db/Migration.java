@@ -0,0 +1,20 @@
+package com.example.quizapp.db;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Migration describes one schema step from startVersion to endVersion.
+ * Steps must keep existing rows; they run inside the transaction SQLiteOpenHelper opens for onUpgrade.
+ */
+abstract class Migration {
+    final int startVersion;
+    final int endVersion;
+
+    Migration(int startVersion, int endVersion) {
+        this.startVersion = startVersion;
+        this.endVersion = endVersion;
+    }
+
+    // Apply this step's schema and data changes
+    abstract void migrate(SQLiteDatabase db);
+}
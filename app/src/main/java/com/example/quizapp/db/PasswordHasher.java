@@ -0,0 +1,163 @@
+package com.example.quizapp.db;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * PasswordHasher turns passwords into salted PBKDF2-HMAC-SHA256 hashes and checks them.
+ * The iteration count is the current policy: calibrate() measures this device and picks the count
+ * that takes about TARGET_MILLIS per hash. Stored hashes keep their own parameters, so the policy can
+ * grow without invalidating anyone; needsRehash() tells when a stored hash is weaker than the policy.
+ * Hashing is deliberately slow: only call it off the main thread (AsyncRepository runs it on its
+ * credential executor).
+ */
+final class PasswordHasher {
+    static final String ALGORITHM = "pbkdf2-sha256";
+    static final int SALT_BYTES = 16;
+    static final int HASH_BYTES = 32;
+    static final int MIN_ITERATIONS = 10_000;
+    static final int MAX_ITERATIONS = 2_000_000;
+    static final long TARGET_MILLIS = 250;
+
+    private static final int PROBE_ITERATIONS = 5_000;
+    private static final int PROBES = 3;
+    private static final String JCA_ALGORITHM = "PBKDF2WithHmacSHA256"; // API 26+
+    private static final boolean HAS_JCA_PBKDF2 = hasJcaPbkdf2();
+
+    // Salt, parameters and hash of one password, as stored in the users table
+    static final class Credentials {
+        final String algorithm;
+        final int iterations;
+        final byte[] salt;
+        final byte[] hash;
+
+        Credentials(String algorithm, int iterations, byte[] salt, byte[] hash) {
+            this.algorithm = algorithm;
+            this.iterations = iterations;
+            this.salt = salt;
+            this.hash = hash;
+        }
+    }
+
+    private final SecureRandom random = new SecureRandom();
+    private final int iterations;
+
+    PasswordHasher(int iterations) {
+        this.iterations = Math.max(MIN_ITERATIONS, iterations);
+    }
+
+    int getIterations() {
+        return iterations;
+    }
+
+    // A new random salt and the hash of the password under the current policy
+    Credentials hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return new Credentials(ALGORITHM, iterations, salt, pbkdf2(password, salt, iterations, HASH_BYTES));
+    }
+
+    // Recompute the hash with the stored parameters and compare in constant time. Parameters that cannot
+    // be verified still cost one derivation under the current policy, so they take as long as a mismatch.
+    boolean verify(String password, Credentials stored) {
+        if (!ALGORITHM.equals(stored.algorithm) || stored.iterations <= 0 || stored.hash.length == 0) {
+            pbkdf2(password, new byte[SALT_BYTES], iterations, HASH_BYTES);
+            return false;
+        }
+        byte[] actual = pbkdf2(password, stored.salt, stored.iterations, stored.hash.length);
+        return MessageDigest.isEqual(actual, stored.hash);
+    }
+
+    // True if the stored hash is weaker than what hash() produces today
+    boolean needsRehash(Credentials stored) {
+        return !ALGORITHM.equals(stored.algorithm) || stored.iterations < iterations
+                || stored.salt.length < SALT_BYTES || stored.hash.length < HASH_BYTES;
+    }
+
+    // Measure this device and return the iteration count that takes about targetMillis per hash.
+    // The fastest of a few probes is used, so a busy CPU during startup does not weaken the policy.
+    static int calibrate(long targetMillis) {
+        byte[] salt = new byte[SALT_BYTES];
+        pbkdf2("calibration", salt, PROBE_ITERATIONS, HASH_BYTES); // JIT and provider warm-up
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < PROBES; i++) {
+            long start = System.nanoTime();
+            pbkdf2("calibration", salt, PROBE_ITERATIONS, HASH_BYTES);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return iterationsFor(PROBE_ITERATIONS, fastest, targetMillis);
+    }
+
+    // Scale a measured probe to the target, rounded down to a thousand and kept within the policy bounds
+    static int iterationsFor(int probeIterations, long probeNanos, long targetMillis) {
+        double perIteration = (double) Math.max(1, probeNanos) / probeIterations;
+        double scaled = targetMillis * 1_000_000.0 / perIteration;
+        long rounded = (long) (scaled / 1000) * 1000;
+        return (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, rounded));
+    }
+
+    // PBKDF2-HMAC-SHA256 (RFC 8018) over the UTF-8 bytes of the password. The platform implementation
+    // is native and much faster where it exists; older devices use the Mac-based loop below, which
+    // produces the same bytes.
+    static byte[] pbkdf2(String password, byte[] salt, int iterations, int length) {
+        try {
+            if (HAS_JCA_PBKDF2) {
+                PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, length * 8);
+                try {
+                    return SecretKeyFactory.getInstance(JCA_ALGORITHM).generateSecret(spec).getEncoded();
+                } finally {
+                    spec.clearPassword();
+                }
+            }
+            return pbkdf2WithMac(password.getBytes(StandardCharsets.UTF_8), salt, iterations, length);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 unavailable", e);
+        }
+    }
+
+    static byte[] pbkdf2WithMac(byte[] password, byte[] salt, int iterations, int length)
+            throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        // SecretKeySpec rejects an empty key; HMAC zero-pads keys to the block size, so one zero byte
+        // is the same key as no bytes at all
+        mac.init(new SecretKeySpec(password.length == 0 ? new byte[1] : password, "HmacSHA256"));
+        int blockSize = mac.getMacLength();
+        byte[] out = new byte[length];
+        byte[] u = new byte[blockSize];
+        byte[] block = new byte[blockSize];
+        for (int blockIndex = 1, offset = 0; offset < length; blockIndex++, offset += blockSize) {
+            // U1 = PRF(P, S || INT(i)); Uj = PRF(P, Uj-1); block = U1 ^ U2 ^ ... ^ Uc
+            mac.update(salt);
+            mac.update(new byte[]{(byte) (blockIndex >>> 24), (byte) (blockIndex >>> 16),
+                    (byte) (blockIndex >>> 8), (byte) blockIndex});
+            mac.doFinal(u, 0);
+            System.arraycopy(u, 0, block, 0, blockSize);
+            for (int j = 1; j < iterations; j++) {
+                mac.update(u);
+                mac.doFinal(u, 0);
+                for (int k = 0; k < blockSize; k++) {
+                    block[k] ^= u[k];
+                }
+            }
+            System.arraycopy(block, 0, out, offset, Math.min(blockSize, length - offset));
+        }
+        return out;
+    }
+
+    private static boolean hasJcaPbkdf2() {
+        try {
+            SecretKeyFactory.getInstance(JCA_ALGORITHM);
+            return true;
+        } catch (NoSuchAlgorithmException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.quizapp.db;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * PrebuiltDatabaseInstaller copies the ready-made, pre-indexed QuizApp.db that the buildSeedDatabase
+ * Gradle task packages in assets/databases/ into place before SQLiteOpenHelper opens the file.
+ * The copy is streamed through SHA-256 and only moved into place if it matches the packaged checksum.
+ * If the asset is missing or corrupt nothing is installed and DatabaseHelper.onCreate seeds as before.
+ */
+final class PrebuiltDatabaseInstaller {
+    private static final String TAG = "PrebuiltDbInstaller";
+
+    static final String ASSET_DATABASE = "databases/" + DatabaseHelper.DATABASE_NAME;
+    static final String ASSET_CHECKSUM = ASSET_DATABASE + ".sha256";
+
+    private PrebuiltDatabaseInstaller() {
+    }
+
+    // Install the packaged database if no database file exists yet; returns true if it was installed
+    static boolean installIfNeeded(Context context, String databaseName) {
+        File target = context.getDatabasePath(databaseName);
+        if (target.exists()) {
+            return false;
+        }
+
+        long start = SystemClock.elapsedRealtime();
+        String expectedChecksum;
+        try {
+            expectedChecksum = readChecksum(context.getAssets().open(ASSET_CHECKSUM));
+        } catch (IOException e) {
+            Log.i(TAG, "No prebuilt database packaged, falling back to onCreate seeding");
+            return false;
+        }
+
+        try (InputStream input = context.getAssets().open(ASSET_DATABASE)) {
+            boolean installed = install(input, expectedChecksum, target);
+            Log.i(TAG, (installed ? "Installed" : "Rejected") + " prebuilt database in "
+                    + (SystemClock.elapsedRealtime() - start) + " ms");
+            return installed;
+        } catch (IOException e) {
+            Log.w(TAG, "Could not copy prebuilt database, falling back to onCreate seeding", e);
+            return false;
+        }
+    }
+
+    // Stream the database into a temp file next to the target, verify it and rename it into place
+    static boolean install(InputStream input, String expectedChecksum, File target) throws IOException {
+        File parent = target.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        File temp = new File(parent, target.getName() + ".tmp");
+
+        MessageDigest digest = sha256();
+        try (FileOutputStream output = new FileOutputStream(temp)) {
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+                output.write(buffer, 0, n);
+            }
+            output.getFD().sync();
+        }
+
+        String actual = toHex(digest.digest());
+        if (!actual.equalsIgnoreCase(expectedChecksum)) {
+            Log.w(TAG, "Prebuilt database checksum mismatch: expected " + expectedChecksum + ", got " + actual);
+            temp.delete();
+            return false;
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Cannot move prebuilt database into " + target);
+        }
+        return true;
+    }
+
+    private static String readChecksum(InputStream input) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.US_ASCII))) {
+            String line = reader.readLine();
+            if (line == null || line.trim().isEmpty()) {
+                throw new IOException("Empty checksum file");
+            }
+            return line.trim();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        final char[] digits = "0123456789abcdef".toCharArray();
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = digits[(bytes[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = digits[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.quizapp.db;
+
+import com.example.quizapp.models.Question;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * QuestionCache keeps decoded questions in memory, grouped per category, so re-entering a category
+ * (e.g. retrying it from ResultActivity) samples and displays its questions without touching SQLite.
+ * For every category it holds the full id list (used for sampling) and the question bodies loaded so far.
+ * The cache is bounded by an estimate of the bytes it holds, and whole categories are evicted in
+ * least-recently-used order. Writes to the questions table must invalidate it; a query that started
+ * before an invalidation cannot put its (possibly stale) result back, see generation().
+ * Thread-safe.
+ */
+public final class QuestionCache {
+    // Rough heap cost of the objects around the payload (headers, references, boxed keys, map nodes)
+    private static final int ENTRY_OVERHEAD = 64;
+    private static final int QUESTION_OVERHEAD = 48 + 48;
+    private static final int STRING_OVERHEAD = 40;
+
+    private final LinkedHashMap<Integer, CategoryEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxBytes;
+    private long sizeBytes;
+    private long generation;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public QuestionCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    // A budget of 1/32 of the heap: a few thousand questions on a typical device
+    static long defaultMaxBytes() {
+        return Runtime.getRuntime().maxMemory() / 32;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // LOOKUPS
+    // ---------------------------------------------------------------------------------------------
+
+    // Every question id of the category in id order, or null if it is not cached
+    public synchronized long[] getIds(int categoryId) {
+        CategoryEntry entry = entries.get(categoryId);
+        if (entry == null || entry.ids == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.ids;
+    }
+
+    // The decoded question, or null if it is not cached
+    public synchronized Question getQuestion(int categoryId, long questionId) {
+        CategoryEntry entry = entries.get(categoryId);
+        Question question = entry == null ? null : entry.questions.get(questionId);
+        if (question == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return question;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // UPDATES
+    // ---------------------------------------------------------------------------------------------
+
+    // Invalidation counter; read it before querying and pass it to the put methods
+    public synchronized long generation() {
+        return generation;
+    }
+
+    // Store a category's id list; ignored if the cache was invalidated since queryGeneration
+    public synchronized void putIds(int categoryId, long[] ids, long queryGeneration) {
+        if (queryGeneration != generation) {
+            return;
+        }
+        CategoryEntry entry = entryFor(categoryId);
+        if (entry.ids != null) {
+            resize(entry, -sizeOfIds(entry.ids));
+        }
+        entry.ids = ids;
+        resize(entry, sizeOfIds(ids));
+        trimToSize(maxBytes);
+    }
+
+    // Store decoded questions of a category; ignored if the cache was invalidated since queryGeneration
+    public synchronized void putQuestions(int categoryId, List<Question> questions, long queryGeneration) {
+        if (queryGeneration != generation || questions.isEmpty()) {
+            return;
+        }
+        CategoryEntry entry = entryFor(categoryId);
+        for (Question question : questions) {
+            Question previous = entry.questions.put((long) question.getId(), question);
+            if (previous != null) {
+                resize(entry, -sizeOf(previous));
+            }
+            resize(entry, sizeOf(question));
+        }
+        trimToSize(maxBytes);
+    }
+
+    // Drop one category after its questions changed
+    public synchronized void invalidate(int categoryId) {
+        generation++;
+        CategoryEntry entry = entries.remove(categoryId);
+        if (entry != null) {
+            sizeBytes -= entry.bytes;
+        }
+    }
+
+    // Drop everything, e.g. after a migration or an import touching many categories
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        sizeBytes = 0;
+    }
+
+    // Evict least-recently-used categories until at most maxSize bytes are held
+    public synchronized void trimToSize(long maxSize) {
+        Iterator<CategoryEntry> iterator = entries.values().iterator();
+        while (sizeBytes > maxSize && iterator.hasNext()) {
+            CategoryEntry eldest = iterator.next();
+            iterator.remove();
+            sizeBytes -= eldest.bytes;
+            evictionCount++;
+        }
+    }
+
+    public synchronized void evictAll() {
+        trimToSize(-1);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // STATISTICS
+    // ---------------------------------------------------------------------------------------------
+
+    public synchronized long sizeBytes() {
+        return sizeBytes;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long hitCount() {
+        return hitCount;
+    }
+
+    public synchronized long missCount() {
+        return missCount;
+    }
+
+    public synchronized long evictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long lookups = hitCount + missCount;
+        int hitPercent = lookups == 0 ? 0 : (int) (100 * hitCount / lookups);
+        return "QuestionCache[categories=" + entries.size() + ", bytes=" + sizeBytes + "/" + maxBytes
+                + ", hits=" + hitCount + ", misses=" + missCount + " (" + hitPercent + "% hit)"
+                + ", evictions=" + evictionCount + "]";
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // SIZING
+    // ---------------------------------------------------------------------------------------------
+
+    private CategoryEntry entryFor(int categoryId) {
+        CategoryEntry entry = entries.get(categoryId);
+        if (entry == null) {
+            entry = new CategoryEntry();
+            entries.put(categoryId, entry);
+            resize(entry, ENTRY_OVERHEAD);
+        }
+        return entry;
+    }
+
+    private void resize(CategoryEntry entry, long delta) {
+        entry.bytes += delta;
+        sizeBytes += delta;
+    }
+
+    private static long sizeOfIds(long[] ids) {
+        return 16 + 8L * ids.length;
+    }
+
+    static long sizeOf(Question question) {
+        return QUESTION_OVERHEAD
+                + sizeOf(question.getQuestion())
+                + sizeOf(question.getOption1())
+                + sizeOf(question.getOption2())
+                + sizeOf(question.getOption3())
+                + sizeOf(question.getOption4());
+    }
+
+    private static long sizeOf(String value) {
+        return value == null ? 0 : STRING_OVERHEAD + 2L * value.length();
+    }
+
+    private static final class CategoryEntry {
+        long[] ids;
+        final Map<Long, Question> questions = new HashMap<>();
+        long bytes;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.quizapp.db;
+
+import android.database.Cursor;
+
+import com.example.quizapp.models.Question;
+
+/**
+ * QuestionCursorMapper turns question rows into Question objects.
+ * Column indexes are looked up once when the mapper is created for a cursor,
+ * so mapping a row is just the column reads and one Question allocation.
+ */
+final class QuestionCursorMapper {
+    // Projection to use for any query mapped by this class
+    static final String[] COLUMNS = {
+            DatabaseHelper.KEY_QUES_ID,
+            DatabaseHelper.KEY_QUES_TEXT,
+            DatabaseHelper.KEY_QUES_OP1,
+            DatabaseHelper.KEY_QUES_OP2,
+            DatabaseHelper.KEY_QUES_OP3,
+            DatabaseHelper.KEY_QUES_OP4,
+            DatabaseHelper.KEY_QUES_ANS,
+            DatabaseHelper.KEY_QUES_CAT_ID,
+    };
+
+    private final int idIndex;
+    private final int textIndex;
+    private final int option1Index;
+    private final int option2Index;
+    private final int option3Index;
+    private final int option4Index;
+    private final int answerIndex;
+    private final int categoryIndex;
+
+    QuestionCursorMapper(Cursor cursor) {
+        idIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_ID);
+        textIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_TEXT);
+        option1Index = cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_OP1);
+        option2Index = cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_OP2);
+        option3Index = cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_OP3);
+        option4Index = cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_OP4);
+        answerIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_ANS);
+        categoryIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.KEY_QUES_CAT_ID);
+    }
+
+    // Map the row the cursor is currently positioned on
+    Question map(Cursor cursor) {
+        Question question = new Question();
+        question.setId(cursor.getInt(idIndex));
+        question.setQuestion(cursor.getString(textIndex));
+        question.setOption1(cursor.getString(option1Index));
+        question.setOption2(cursor.getString(option2Index));
+        question.setOption3(cursor.getString(option3Index));
+        question.setOption4(cursor.getString(option4Index));
+        question.setAnswerNr(cursor.getInt(answerIndex));
+        question.setCategoryId(cursor.getInt(categoryIndex));
+        return question;
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.quizapp.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import com.example.quizapp.models.Question;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * QuestionImporter bulk-loads a question bank (CSV or JSON) into the questions table.
+ * The file is parsed as a stream, rows go through one compiled INSERT, and rows are committed in
+ * batches of BATCH_SIZE per transaction instead of one auto-commit (and fsync) per row.
+ * After each batch the number of records consumed is stored in import_progress inside the same
+ * transaction, so an interrupted import resumes exactly where the last commit left off.
+ * Must be called on a background thread.
+ */
+public class QuestionImporter {
+    private static final String TAG = "QuestionImporter";
+
+    static final String TABLE_IMPORT_PROGRESS = "import_progress";
+    private static final String KEY_SOURCE_ID = "source_id";
+    private static final String KEY_RECORDS_DONE = "records_done";
+    private static final String KEY_COMPLETED = "completed";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final DatabaseHelper databaseHelper;
+    private final int batchSize;
+
+    // Receives progress after every committed batch (on the importing thread)
+    public interface ProgressListener {
+        void onProgress(long recordsProcessed, long bytesRead, long totalBytes);
+    }
+
+    public QuestionImporter(DatabaseHelper databaseHelper) {
+        this(databaseHelper, BATCH_SIZE);
+    }
+
+    QuestionImporter(DatabaseHelper databaseHelper, int batchSize) {
+        this.databaseHelper = databaseHelper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import every record of the source that has not been imported yet.
+     * Re-running the same source after an interruption (crash, process death, exception) continues
+     * from the last committed batch; re-running a completed source does nothing.
+     */
+    public Result importQuestions(Source source, ProgressListener listener) throws IOException {
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        long alreadyDone = readCheckpoint(db, source.id);
+        if (alreadyDone < 0) {
+            Log.i(TAG, "Source " + source.id + " already imported");
+            return new Result(0, 0, 0, true);
+        }
+
+        QuizStatements statements = databaseHelper.statements();
+        SQLiteStatement saveCheckpoint = db.compileStatement("INSERT OR REPLACE INTO " + TABLE_IMPORT_PROGRESS
+                + "(" + KEY_SOURCE_ID + ", " + KEY_RECORDS_DONE + ", " + KEY_COMPLETED + ") VALUES (?, ?, ?)");
+        CountingInputStream input = new CountingInputStream(source.open());
+        Question record = new Question();
+        long recordsSeen = 0;
+        long inserted = 0;
+        long skipped = 0;
+        Set<Integer> touchedCategories = new HashSet<>();
+
+        try (QuestionRecordReader reader = source.reader(input)) {
+            // Skip (parse only) the records committed by a previous run
+            while (recordsSeen < alreadyDone && advance(reader, record) != Advance.END) {
+                recordsSeen++;
+            }
+
+            boolean more = true;
+            while (more) {
+                db.beginTransaction();
+                try {
+                    int inBatch = 0;
+                    while (inBatch < batchSize) {
+                        Advance advance = advance(reader, record);
+                        if (advance == Advance.END) {
+                            more = false;
+                            break;
+                        }
+                        recordsSeen++;
+                        inBatch++;
+                        if (advance == Advance.MALFORMED || !isValid(record)) {
+                            skipped++;
+                            continue;
+                        }
+                        try {
+                            statements.insertQuestion(record);
+                            touchedCategories.add(record.getCategoryId());
+                            inserted++;
+                        } catch (SQLiteConstraintException e) {
+                            // e.g. category_id does not exist
+                            skipped++;
+                        }
+                    }
+                    saveCheckpoint.bindString(1, source.id);
+                    saveCheckpoint.bindLong(2, recordsSeen);
+                    saveCheckpoint.bindLong(3, more ? 0 : 1);
+                    saveCheckpoint.executeInsert();
+                    saveCheckpoint.clearBindings();
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                    // Committed or rolled back, cached id lists of these categories may be stale now
+                    invalidateCache(touchedCategories);
+                }
+                if (listener != null) {
+                    listener.onProgress(recordsSeen, input.count, source.length);
+                }
+            }
+        } finally {
+            saveCheckpoint.close();
+        }
+
+        if (inserted > 0) {
+            db.execSQL("ANALYZE " + DatabaseHelper.TABLE_QUESTIONS);
+            // The triggers wrote one small full-text segment per batch; merge them so searches read one
+            db.execSQL("INSERT INTO " + DatabaseHelper.TABLE_QUESTIONS_FTS + "(" + DatabaseHelper.TABLE_QUESTIONS_FTS
+                    + ") VALUES ('optimize')");
+        }
+        Log.i(TAG, "Imported " + inserted + " questions from " + source.id + " (" + skipped + " skipped, resumed at "
+                + alreadyDone + ")");
+        return new Result(inserted, skipped, alreadyDone, false);
+    }
+
+    private void invalidateCache(Set<Integer> categoryIds) {
+        QuestionCache cache = databaseHelper.getQuestionCache();
+        for (int categoryId : categoryIds) {
+            cache.invalidate(categoryId);
+        }
+        categoryIds.clear();
+    }
+
+    // Forget the checkpoint for a source so it will be imported again from the start
+    public void reset(String sourceId) {
+        databaseHelper.getWritableDatabase().delete(TABLE_IMPORT_PROGRESS, KEY_SOURCE_ID + " = ?",
+                new String[]{sourceId});
+    }
+
+    // Records already committed for this source, or -1 if the source finished importing
+    private static long readCheckpoint(SQLiteDatabase db, String sourceId) {
+        Cursor cursor = db.query(TABLE_IMPORT_PROGRESS, new String[]{KEY_RECORDS_DONE, KEY_COMPLETED},
+                KEY_SOURCE_ID + " = ?", new String[]{sourceId}, null, null, null);
+        try {
+            if (!cursor.moveToFirst()) {
+                return 0;
+            }
+            return cursor.getInt(1) != 0 ? -1 : cursor.getLong(0);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private enum Advance { RECORD, MALFORMED, END }
+
+    private static Advance advance(QuestionRecordReader reader, Question into) throws IOException {
+        try {
+            return reader.next(into) ? Advance.RECORD : Advance.END;
+        } catch (QuestionRecordReader.MalformedRecordException e) {
+            Log.w(TAG, e.getMessage());
+            return Advance.MALFORMED;
+        }
+    }
+
+    private static boolean isValid(Question question) {
+        return question.getQuestion() != null
+                && question.getAnswerNr() >= 1 && question.getAnswerNr() <= 4
+                && question.getCategoryId() > 0;
+    }
+
+    /**
+     * Outcome of one importQuestions call.
+     */
+    public static final class Result {
+        public final long inserted;
+        public final long skipped;
+        public final long resumedFrom;
+        public final boolean alreadyComplete;
+
+        Result(long inserted, long skipped, long resumedFrom, boolean alreadyComplete) {
+            this.inserted = inserted;
+            this.skipped = skipped;
+            this.resumedFrom = resumedFrom;
+            this.alreadyComplete = alreadyComplete;
+        }
+    }
+
+    /**
+     * An import file. The id identifies it in import_progress, so it must change if the content changes.
+     */
+    public abstract static class Source {
+        public enum Format { CSV, JSON }
+
+        final String id;
+        final Format format;
+        final long length;
+
+        Source(String id, Format format, long length) {
+            this.id = id;
+            this.format = format;
+            this.length = length;
+        }
+
+        abstract InputStream open() throws IOException;
+
+        QuestionRecordReader reader(InputStream input) {
+            Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+            return format == Format.JSON ? new JsonQuestionReader(reader) : new CsvQuestionReader(reader);
+        }
+
+        // A file bundled in assets/, e.g. "questions/bank.csv"
+        public static Source fromAsset(Context context, String assetPath) {
+            Context appContext = context.getApplicationContext();
+            return new Source("asset:" + assetPath, formatOf(assetPath), -1) {
+                @Override
+                InputStream open() throws IOException {
+                    return appContext.getAssets().open(assetPath);
+                }
+            };
+        }
+
+        // A local file; size and modification time are part of the id so an edited file is re-imported
+        public static Source fromFile(File file) {
+            String id = "file:" + file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+            return new Source(id, formatOf(file.getName()), file.length()) {
+                @Override
+                InputStream open() throws IOException {
+                    return new FileInputStream(file);
+                }
+            };
+        }
+
+        private static Format formatOf(String name) {
+            return name.toLowerCase().endsWith(".json") ? Format.JSON : Format.CSV;
+        }
+    }
+
+    // Buffers the source and counts bytes consumed for progress reporting
+    private static final class CountingInputStream extends BufferedInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in, 64 * 1024);
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
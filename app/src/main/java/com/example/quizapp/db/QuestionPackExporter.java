@@ -0,0 +1,84 @@
+package com.example.quizapp.db;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.example.quizapp.data.QuestionPackWriter;
+import com.example.quizapp.models.Category;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * QuestionPackExporter converts the categories and questions tables into a QuestionPack file.
+ * Questions are streamed in category and id order (the order of idx_questions_category), so the
+ * writer never has to sort and the rows are never all held as Question objects.
+ * The tables are read in one transaction, which keeps writers out until the export is done.
+ * Must be called on a background thread.
+ */
+public final class QuestionPackExporter {
+    private static final String TAG = "QuestionPackExporter";
+
+    // What one export wrote
+    public static final class Result {
+        public final int categories;
+        public final int questions;
+        public final int strings;
+        public final long bytes;
+
+        Result(int categories, int questions, int strings, long bytes) {
+            this.categories = categories;
+            this.questions = questions;
+            this.strings = strings;
+            this.bytes = bytes;
+        }
+    }
+
+    private QuestionPackExporter() {
+    }
+
+    // Write the question bank to file, replacing it only once the new pack is complete
+    public static Result export(DatabaseHelper databaseHelper, File file) throws IOException {
+        long start = System.nanoTime();
+        QuestionPackWriter writer = new QuestionPackWriter();
+        int categoryCount = 0;
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        db.beginTransactionNonExclusive();
+        try {
+            try (Cursor cursor = db.rawQuery("SELECT " + DatabaseHelper.KEY_CAT_ID + ", " + DatabaseHelper.KEY_CAT_NAME
+                    + ", " + DatabaseHelper.KEY_CAT_IMAGE + " FROM " + DatabaseHelper.TABLE_CATEGORIES, null)) {
+                while (cursor.moveToNext()) {
+                    Category category = new Category(cursor.getString(1), cursor.getInt(2));
+                    category.setId(cursor.getInt(0));
+                    writer.addCategory(category);
+                    categoryCount++;
+                }
+            }
+            try (Cursor cursor = db.query(DatabaseHelper.TABLE_QUESTIONS, QuestionCursorMapper.COLUMNS, null, null,
+                    null, null, DatabaseHelper.KEY_QUES_CAT_ID + ", " + DatabaseHelper.KEY_QUES_ID)) {
+                QuestionCursorMapper mapper = new QuestionCursorMapper(cursor);
+                while (cursor.moveToNext()) {
+                    writer.addQuestion(mapper.map(cursor));
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            writer.writeTo(temp);
+            if (!temp.renameTo(file)) {
+                throw new IOException("Could not replace " + file);
+            }
+        } finally {
+            temp.delete();
+        }
+        Result result = new Result(categoryCount, writer.getQuestionCount(), writer.getStringCount(), file.length());
+        Log.i(TAG, String.format("Exported %d questions in %d categories (%d distinct strings, %d bytes) in %.0f ms",
+                result.questions, result.categories, result.strings, result.bytes, (System.nanoTime() - start) / 1e6));
+        return result;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.quizapp.db;
+
+import com.example.quizapp.models.Question;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streams questions out of an import file one record at a time, never holding the whole file in memory.
+ */
+interface QuestionRecordReader extends Closeable {
+
+    // Read the next record into the given Question and return true, or return false at end of input.
+    // Throws MalformedRecordException for a record that cannot be parsed; the reader stays usable.
+    boolean next(Question into) throws IOException;
+
+    // Thrown for a single bad record; the importer counts it as skipped and carries on
+    class MalformedRecordException extends IOException {
+        MalformedRecordException(String message) {
+            super(message);
+        }
+    }
+}
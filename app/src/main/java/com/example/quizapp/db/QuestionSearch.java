@@ -0,0 +1,190 @@
+package com.example.quizapp.db;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Locale;
+
+/**
+ * QuestionSearch turns what the user typed into an FTS4 MATCH expression and ranks the matches.
+ * FTS4 has no built-in ranking, so every match is scored in Java with BM25 from its
+ * matchinfo(..., 'pcnalx') blob, and TopHits keeps only the best offset + limit of them.
+ */
+final class QuestionSearch {
+    // matchinfo format: phrases, columns, rows, average and row length per column, hit counts
+    static final String MATCHINFO_FORMAT = "pcnalx";
+
+    // Terms shorter than this are ignored: a one-letter prefix matches most of the bank
+    static final int MIN_TERM_LENGTH = 2;
+    static final int MAX_TERMS = 8;
+
+    // Column weights in table order: a hit in the question text counts twice as much as one in an option
+    private static final double[] COLUMN_WEIGHTS = {2.0, 1.0, 1.0, 1.0, 1.0};
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private QuestionSearch() {
+    }
+
+    // e.g. "Moon land" -> "moon* land*", or null if nothing searchable was typed.
+    // Terms are split like the simple tokenizer does (on ASCII punctuation and spaces) and lowercased,
+    // so query operators (AND, OR, NOT, NEAR) and syntax characters typed by the user are never interpreted.
+    static String toMatchQuery(String input) {
+        if (input == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        int terms = 0;
+        int i = 0;
+        int length = input.length();
+        while (i < length && terms < MAX_TERMS) {
+            while (i < length && !isTokenChar(input.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && isTokenChar(input.charAt(i))) {
+                i++;
+            }
+            if (i - start >= MIN_TERM_LENGTH) {
+                if (terms > 0) {
+                    match.append(' ');
+                }
+                match.append(input.substring(start, i).toLowerCase(Locale.ROOT)).append('*');
+                terms++;
+            }
+        }
+        return terms == 0 ? null : match.toString();
+    }
+
+    private static boolean isTokenChar(char c) {
+        return c >= 128 || (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    // BM25 score of one row from its matchinfo blob (native byte order, 32-bit unsigned ints)
+    static double score(byte[] matchinfo) {
+        ByteBuffer buffer = ByteBuffer.wrap(matchinfo).order(ByteOrder.nativeOrder());
+        int phrases = buffer.getInt(0);
+        int columns = buffer.getInt(4);
+        long rows = buffer.getInt(8) & 0xFFFFFFFFL;
+        int averageBase = 3;
+        int lengthBase = averageBase + columns;
+        int hitsBase = lengthBase + columns;
+
+        double score = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                int hits = hitsBase + 3 * (phrase * columns + column);
+                long termFrequency = buffer.getInt(4 * hits) & 0xFFFFFFFFL;
+                if (termFrequency == 0) {
+                    continue;
+                }
+                long documentFrequency = buffer.getInt(4 * (hits + 2)) & 0xFFFFFFFFL;
+                double averageLength = Math.max(1, buffer.getInt(4 * (averageBase + column)));
+                double rowLength = buffer.getInt(4 * (lengthBase + column));
+
+                double idf = Math.log(1 + (rows - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                double tf = termFrequency * (K1 + 1)
+                        / (termFrequency + K1 * (1 - B + B * rowLength / averageLength));
+                double weight = column < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[column] : 1.0;
+                score += weight * idf * tf;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * The best N (score, id) pairs offered so far: a min-heap on parallel arrays, so offering a match
+     * that does not make the cut is a single comparison and nothing is boxed.
+     * Equal scores rank the lower (older) id first, so pages are stable between queries.
+     */
+    static final class TopHits {
+        private final long[] ids;
+        private final double[] scores;
+        private int size;
+
+        TopHits(int capacity) {
+            ids = new long[capacity];
+            scores = new double[capacity];
+        }
+
+        void offer(long id, double score) {
+            if (ids.length == 0) {
+                return;
+            }
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (better(id, score, 0)) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        // Ids ranked from..size(), best first; empties the heap
+        long[] drainRanked(int from) {
+            long[] ranked = new long[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ranked[i] = ids[0];
+                size--;
+                ids[0] = ids[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            if (from <= 0) {
+                return ranked;
+            }
+            long[] page = new long[Math.max(0, ranked.length - from)];
+            System.arraycopy(ranked, Math.min(from, ranked.length), page, 0, page.length);
+            return page;
+        }
+
+        // True if (id, score) ranks above the entry at index
+        private boolean better(long id, double score, int index) {
+            return score > scores[index] || (score == scores[index] && id < ids[index]);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!better(ids[parent], scores[parent], index)) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int worst = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && better(ids[worst], scores[worst], left)) {
+                    worst = left;
+                }
+                if (right < size && better(ids[worst], scores[worst], right)) {
+                    worst = right;
+                }
+                if (worst == index) {
+                    return;
+                }
+                swap(index, worst);
+                index = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
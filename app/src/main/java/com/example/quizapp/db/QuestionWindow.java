@@ -0,0 +1,128 @@
+package com.example.quizapp.db;
+
+import android.util.LongSparseArray;
+
+import com.example.quizapp.models.Question;
+
+import java.util.List;
+
+/**
+ * QuestionWindow streams the bodies of a sampled quiz (a list of question ids) in small windows.
+ * Only the window around the current position is kept in memory: the next window is fetched in the
+ * background while the user works through the current one, and questions already answered are released.
+ * All methods must be called on the main thread.
+ */
+public class QuestionWindow {
+    public static final int WINDOW_SIZE = 5;
+
+    private final AsyncRepository repository;
+    private final int categoryId;
+    private final long[] ids;
+    private final LongSparseArray<Question> loaded = new LongSparseArray<>(WINDOW_SIZE * 2);
+
+    private int loadedUntil;     // every index below this has been fetched
+    private int requestedUntil;  // every index below this has been fetched or is being fetched
+    private boolean inFlight;
+
+    private int waitingIndex = -1;
+    private AsyncRepository.Callback<Question> waitingCallback;
+
+    public QuestionWindow(AsyncRepository repository, int categoryId, long[] ids) {
+        this(repository, categoryId, ids, 0);
+    }
+
+    // Start at startIndex (e.g. a resumed quiz): nothing before it is ever loaded
+    public QuestionWindow(AsyncRepository repository, int categoryId, long[] ids, int startIndex) {
+        this.repository = repository;
+        this.categoryId = categoryId;
+        this.ids = ids;
+        this.loadedUntil = startIndex;
+        this.requestedUntil = startIndex;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long[] getIds() {
+        return ids;
+    }
+
+    // Deliver the question at index once its window has been loaded. The result is null if the
+    // question was deleted after the quiz was sampled.
+    public void get(int index, AsyncRepository.Callback<Question> callback) {
+        if (index < loadedUntil) {
+            moveTo(index);
+            callback.onResult(loaded.get(ids[index]));
+            return;
+        }
+        waitingIndex = index;
+        waitingCallback = callback;
+        requestNextWindow();
+    }
+
+    // The question at index if it is already in memory, otherwise null
+    public Question peek(int index) {
+        return index < loadedUntil ? loaded.get(ids[index]) : null;
+    }
+
+    // Release everything before index and prefetch the next window once we are half-way through this one
+    private void moveTo(int index) {
+        for (int i = Math.max(0, index - WINDOW_SIZE); i < index; i++) {
+            loaded.remove(ids[i]);
+        }
+        if (index + WINDOW_SIZE / 2 >= requestedUntil) {
+            requestNextWindow();
+        }
+    }
+
+    private void requestNextWindow() {
+        if (inFlight || requestedUntil >= ids.length) {
+            return;
+        }
+        final int from = requestedUntil;
+        final int to = Math.min(from + WINDOW_SIZE, ids.length);
+        requestedUntil = to;
+        inFlight = true;
+
+        repository.getQuestionsByIds(categoryId, ids, from, to, new AsyncRepository.Callback<List<Question>>() {
+            @Override
+            public void onResult(List<Question> questions) {
+                inFlight = false;
+                for (Question question : questions) {
+                    loaded.put(question.getId(), question);
+                }
+                loadedUntil = to;
+                deliverWaiting();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                inFlight = false;
+                requestedUntil = from;
+                AsyncRepository.Callback<Question> callback = waitingCallback;
+                waitingIndex = -1;
+                waitingCallback = null;
+                if (callback != null) {
+                    callback.onError(e);
+                }
+            }
+        });
+    }
+
+    private void deliverWaiting() {
+        if (waitingCallback == null) {
+            return;
+        }
+        if (waitingIndex < loadedUntil) {
+            int index = waitingIndex;
+            AsyncRepository.Callback<Question> callback = waitingCallback;
+            waitingIndex = -1;
+            waitingCallback = null;
+            moveTo(index);
+            callback.onResult(loaded.get(ids[index]));
+        } else {
+            requestNextWindow();
+        }
+    }
+}
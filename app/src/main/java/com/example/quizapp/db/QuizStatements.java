@@ -0,0 +1,483 @@
+package com.example.quizapp.db;
+
+import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteStatement;
+
+import com.example.quizapp.models.Question;
+
+import static com.example.quizapp.db.DatabaseHelper.KEY_ANSWER_AT;
+import static com.example.quizapp.db.DatabaseHelper.KEY_ANSWER_ATTEMPT_ID;
+import static com.example.quizapp.db.DatabaseHelper.KEY_ANSWER_CORRECT;
+import static com.example.quizapp.db.DatabaseHelper.KEY_ANSWER_NUMBER;
+import static com.example.quizapp.db.DatabaseHelper.KEY_ANSWER_QUESTION_ID;
+import static com.example.quizapp.db.DatabaseHelper.KEY_ANSWER_RESPONSE_MS;
+import static com.example.quizapp.db.DatabaseHelper.KEY_ANSWER_SELECTED;
+import static com.example.quizapp.db.DatabaseHelper.KEY_ATTEMPT_CAT_ID;
+import static com.example.quizapp.db.DatabaseHelper.KEY_ATTEMPT_FINISHED;
+import static com.example.quizapp.db.DatabaseHelper.KEY_ATTEMPT_ID;
+import static com.example.quizapp.db.DatabaseHelper.KEY_ATTEMPT_SCORE;
+import static com.example.quizapp.db.DatabaseHelper.KEY_ATTEMPT_SEED;
+import static com.example.quizapp.db.DatabaseHelper.KEY_ATTEMPT_STARTED;
+import static com.example.quizapp.db.DatabaseHelper.KEY_ATTEMPT_TOTAL;
+import static com.example.quizapp.db.DatabaseHelper.KEY_ATTEMPT_USER_ID;
+import static com.example.quizapp.db.DatabaseHelper.KEY_CAT_IMAGE;
+import static com.example.quizapp.db.DatabaseHelper.KEY_CAT_NAME;
+import static com.example.quizapp.db.DatabaseHelper.KEY_QUES_ANS;
+import static com.example.quizapp.db.DatabaseHelper.KEY_QUES_CAT_ID;
+import static com.example.quizapp.db.DatabaseHelper.KEY_QUES_DIFFICULTY;
+import static com.example.quizapp.db.DatabaseHelper.KEY_QUES_ID;
+import static com.example.quizapp.db.DatabaseHelper.KEY_QUES_OP1;
+import static com.example.quizapp.db.DatabaseHelper.KEY_QUES_OP2;
+import static com.example.quizapp.db.DatabaseHelper.KEY_QUES_OP3;
+import static com.example.quizapp.db.DatabaseHelper.KEY_QUES_OP4;
+import static com.example.quizapp.db.DatabaseHelper.KEY_QUES_RATED_ANSWERS;
+import static com.example.quizapp.db.DatabaseHelper.KEY_QUES_TEXT;
+import static com.example.quizapp.db.DatabaseHelper.KEY_REVIEW_DUE_AT;
+import static com.example.quizapp.db.DatabaseHelper.KEY_REVIEW_EASE;
+import static com.example.quizapp.db.DatabaseHelper.KEY_REVIEW_INTERVAL_MS;
+import static com.example.quizapp.db.DatabaseHelper.KEY_REVIEW_LAPSES;
+import static com.example.quizapp.db.DatabaseHelper.KEY_REVIEW_QUESTION_ID;
+import static com.example.quizapp.db.DatabaseHelper.KEY_REVIEW_REPETITIONS;
+import static com.example.quizapp.db.DatabaseHelper.KEY_REVIEW_USER_ID;
+import static com.example.quizapp.db.DatabaseHelper.KEY_STATS_ATTEMPTS;
+import static com.example.quizapp.db.DatabaseHelper.KEY_STATS_BEST_SCORE;
+import static com.example.quizapp.db.DatabaseHelper.KEY_STATS_BEST_TOTAL;
+import static com.example.quizapp.db.DatabaseHelper.KEY_STATS_CAT_ID;
+import static com.example.quizapp.db.DatabaseHelper.KEY_STATS_LAST_PLAYED;
+import static com.example.quizapp.db.DatabaseHelper.KEY_STATS_USER_ID;
+import static com.example.quizapp.db.DatabaseHelper.KEY_USER_ID;
+import static com.example.quizapp.db.DatabaseHelper.KEY_USER_NAME;
+import static com.example.quizapp.db.DatabaseHelper.KEY_USER_PASSWORD;
+import static com.example.quizapp.db.DatabaseHelper.KEY_USER_PASSWORD_ALGORITHM;
+import static com.example.quizapp.db.DatabaseHelper.KEY_USER_PASSWORD_HASH;
+import static com.example.quizapp.db.DatabaseHelper.KEY_USER_PASSWORD_ITERATIONS;
+import static com.example.quizapp.db.DatabaseHelper.KEY_USER_PASSWORD_SALT;
+import static com.example.quizapp.db.DatabaseHelper.KEY_USER_RATED_ANSWERS;
+import static com.example.quizapp.db.DatabaseHelper.KEY_USER_RATING;
+import static com.example.quizapp.db.DatabaseHelper.TABLE_CATEGORIES;
+import static com.example.quizapp.db.DatabaseHelper.TABLE_QUESTIONS;
+import static com.example.quizapp.db.DatabaseHelper.TABLE_QUIZ_ANSWERS;
+import static com.example.quizapp.db.DatabaseHelper.TABLE_QUIZ_ATTEMPTS;
+import static com.example.quizapp.db.DatabaseHelper.TABLE_REVIEW_STATE;
+import static com.example.quizapp.db.DatabaseHelper.TABLE_USER_CATEGORY_STATS;
+import static com.example.quizapp.db.DatabaseHelper.TABLE_USERS;
+
+/**
+ * QuizStatements holds the precompiled SQLiteStatements for DatabaseHelper's hot paths.
+ * Each statement is compiled on first use and then re-bound for every call, so the SQL is parsed once
+ * per connection instead of once per call. A statement can only be used by one thread at a time,
+ * so every method is synchronized.
+ */
+final class QuizStatements {
+    private static final String SQL_USER_EXISTS = "SELECT EXISTS(SELECT 1 FROM " + TABLE_USERS
+            + " WHERE " + KEY_USER_NAME + " = ? COLLATE NOCASE)";
+    private static final String SQL_INSERT_USER = "INSERT INTO " + TABLE_USERS + "(" + KEY_USER_NAME + ", "
+            + KEY_USER_PASSWORD_ALGORITHM + ", " + KEY_USER_PASSWORD_ITERATIONS + ", " + KEY_USER_PASSWORD_SALT + ", "
+            + KEY_USER_PASSWORD_HASH + ") VALUES (?, ?, ?, ?, ?)";
+    // Setting a hash always clears the legacy plaintext column; ?1-?4 are bound by bindCredentials
+    private static final String SQL_SET_CREDENTIALS = KEY_USER_PASSWORD + " = NULL, "
+            + KEY_USER_PASSWORD_ALGORITHM + " = ?1, " + KEY_USER_PASSWORD_ITERATIONS + " = ?2, "
+            + KEY_USER_PASSWORD_SALT + " = ?3, " + KEY_USER_PASSWORD_HASH + " = ?4";
+    private static final String SQL_UPDATE_PASSWORD = "UPDATE " + TABLE_USERS + " SET " + SQL_SET_CREDENTIALS
+            + " WHERE " + KEY_USER_NAME + " = ?5 COLLATE NOCASE";
+    // Upgrade of a verified login; a password reset or another upgrade that got there first is kept
+    private static final String SQL_REHASH_USER = "UPDATE " + TABLE_USERS + " SET " + SQL_SET_CREDENTIALS
+            + " WHERE " + KEY_USER_ID + " = ?5 AND IFNULL(" + KEY_USER_PASSWORD_ITERATIONS + ", 0) < ?2";
+    private static final String SQL_INSERT_CATEGORY = "INSERT INTO " + TABLE_CATEGORIES
+            + "(" + KEY_CAT_NAME + ", " + KEY_CAT_IMAGE + ") VALUES (?, ?)";
+    private static final String SQL_INSERT_QUESTION = "INSERT INTO " + TABLE_QUESTIONS + "("
+            + KEY_QUES_TEXT + ", " + KEY_QUES_OP1 + ", " + KEY_QUES_OP2 + ", " + KEY_QUES_OP3 + ", "
+            + KEY_QUES_OP4 + ", " + KEY_QUES_ANS + ", " + KEY_QUES_CAT_ID + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+    // UPSERT needs SQLite 3.24 (API 30), so the stats row is updated and only inserted if it was missing.
+    // The best score is compared as a fraction so quizzes of different lengths rank correctly.
+    private static final String SQL_UPDATE_CATEGORY_STATS = "UPDATE " + TABLE_USER_CATEGORY_STATS + " SET "
+            + KEY_STATS_ATTEMPTS + " = " + KEY_STATS_ATTEMPTS + " + 1, "
+            + KEY_STATS_LAST_PLAYED + " = MAX(" + KEY_STATS_LAST_PLAYED + ", ?3), "
+            + KEY_STATS_BEST_SCORE + " = CASE WHEN ?1 * " + KEY_STATS_BEST_TOTAL + " > " + KEY_STATS_BEST_SCORE
+            + " * ?2 THEN ?1 ELSE " + KEY_STATS_BEST_SCORE + " END, "
+            + KEY_STATS_BEST_TOTAL + " = CASE WHEN ?1 * " + KEY_STATS_BEST_TOTAL + " > " + KEY_STATS_BEST_SCORE
+            + " * ?2 THEN ?2 ELSE " + KEY_STATS_BEST_TOTAL + " END"
+            + " WHERE " + KEY_STATS_USER_ID + " = ?4 AND " + KEY_STATS_CAT_ID + " = ?5";
+    private static final String SQL_INSERT_CATEGORY_STATS = "INSERT INTO " + TABLE_USER_CATEGORY_STATS + "("
+            + KEY_STATS_USER_ID + ", " + KEY_STATS_CAT_ID + ", " + KEY_STATS_BEST_SCORE + ", " + KEY_STATS_BEST_TOTAL
+            + ", " + KEY_STATS_ATTEMPTS + ", " + KEY_STATS_LAST_PLAYED + ") VALUES (?, ?, ?, ?, 1, ?)";
+    // An attempt whose process died before it finished is continued, found again by its seed
+    private static final String SQL_FIND_OPEN_ATTEMPT = "SELECT IFNULL((SELECT MAX(" + KEY_ATTEMPT_ID + ") FROM "
+            + TABLE_QUIZ_ATTEMPTS + " WHERE " + KEY_ATTEMPT_SEED + " = ? AND " + KEY_ATTEMPT_CAT_ID + " = ?"
+            + " AND " + KEY_ATTEMPT_USER_ID + " IS ? AND " + KEY_ATTEMPT_FINISHED + " IS NULL), -1)";
+    private static final String SQL_INSERT_ATTEMPT = "INSERT INTO " + TABLE_QUIZ_ATTEMPTS + "("
+            + KEY_ATTEMPT_USER_ID + ", " + KEY_ATTEMPT_CAT_ID + ", " + KEY_ATTEMPT_SEED + ", " + KEY_ATTEMPT_STARTED
+            + ") VALUES (?, ?, ?, ?)";
+    private static final String SQL_FINISH_ATTEMPT = "UPDATE " + TABLE_QUIZ_ATTEMPTS + " SET "
+            + KEY_ATTEMPT_FINISHED + " = ?, " + KEY_ATTEMPT_SCORE + " = ?, " + KEY_ATTEMPT_TOTAL + " = ?"
+            + " WHERE " + KEY_ATTEMPT_ID + " = ?";
+    private static final String SQL_INSERT_ANSWER = "INSERT OR REPLACE INTO " + TABLE_QUIZ_ANSWERS + "("
+            + KEY_ANSWER_ATTEMPT_ID + ", " + KEY_ANSWER_NUMBER + ", " + KEY_ANSWER_QUESTION_ID + ", "
+            + KEY_ANSWER_SELECTED + ", " + KEY_ANSWER_CORRECT + ", " + KEY_ANSWER_RESPONSE_MS + ", " + KEY_ANSWER_AT
+            + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+    // Nothing references review_state rows, so REPLACE is a safe stand-in for UPSERT before API 30
+    private static final String SQL_PUT_REVIEW_STATE = "INSERT OR REPLACE INTO " + TABLE_REVIEW_STATE + "("
+            + KEY_REVIEW_USER_ID + ", " + KEY_REVIEW_QUESTION_ID + ", " + KEY_REVIEW_EASE + ", "
+            + KEY_REVIEW_INTERVAL_MS + ", " + KEY_REVIEW_DUE_AT + ", " + KEY_REVIEW_REPETITIONS + ", "
+            + KEY_REVIEW_LAPSES + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+    // Elo ratings (see EloRating): a rating and its count are read, then written back after one answer
+    private static final String SQL_USER_RATING = "SELECT " + KEY_USER_RATING + " FROM " + TABLE_USERS
+            + " WHERE " + KEY_USER_ID + " = ?";
+    private static final String SQL_USER_RATED_ANSWERS = "SELECT " + KEY_USER_RATED_ANSWERS + " FROM " + TABLE_USERS
+            + " WHERE " + KEY_USER_ID + " = ?";
+    private static final String SQL_UPDATE_USER_RATING = "UPDATE " + TABLE_USERS + " SET " + KEY_USER_RATING
+            + " = ?, " + KEY_USER_RATED_ANSWERS + " = " + KEY_USER_RATED_ANSWERS + " + 1 WHERE " + KEY_USER_ID + " = ?";
+    private static final String SQL_QUESTION_DIFFICULTY = "SELECT " + KEY_QUES_DIFFICULTY + " FROM "
+            + TABLE_QUESTIONS + " WHERE " + KEY_QUES_ID + " = ?";
+    private static final String SQL_QUESTION_RATED_ANSWERS = "SELECT " + KEY_QUES_RATED_ANSWERS + " FROM "
+            + TABLE_QUESTIONS + " WHERE " + KEY_QUES_ID + " = ?";
+    private static final String SQL_UPDATE_QUESTION_DIFFICULTY = "UPDATE " + TABLE_QUESTIONS + " SET "
+            + KEY_QUES_DIFFICULTY + " = ?, " + KEY_QUES_RATED_ANSWERS + " = " + KEY_QUES_RATED_ANSWERS + " + 1"
+            + " WHERE " + KEY_QUES_ID + " = ?";
+
+    private final SQLiteDatabase db;
+
+    private SQLiteStatement userExists;
+    private SQLiteStatement insertUser;
+    private SQLiteStatement updatePassword;
+    private SQLiteStatement rehashUser;
+    private SQLiteStatement insertCategory;
+    private SQLiteStatement insertQuestion;
+    private SQLiteStatement updateCategoryStats;
+    private SQLiteStatement insertCategoryStats;
+    private SQLiteStatement findOpenAttempt;
+    private SQLiteStatement insertAttempt;
+    private SQLiteStatement finishAttempt;
+    private SQLiteStatement insertAnswer;
+    private SQLiteStatement putReviewState;
+    private SQLiteStatement userRating;
+    private SQLiteStatement userRatedAnswers;
+    private SQLiteStatement updateUserRating;
+    private SQLiteStatement questionDifficulty;
+    private SQLiteStatement questionRatedAnswers;
+    private SQLiteStatement updateQuestionDifficulty;
+
+    QuizStatements(SQLiteDatabase db) {
+        this.db = db;
+    }
+
+    boolean isBoundTo(SQLiteDatabase database) {
+        return db == database && db.isOpen();
+    }
+
+    synchronized boolean userExists(String username) {
+        if (userExists == null) {
+            userExists = db.compileStatement(SQL_USER_EXISTS);
+        }
+        userExists.bindString(1, username);
+        try {
+            return userExists.simpleQueryForLong() != 0;
+        } finally {
+            userExists.clearBindings();
+        }
+    }
+
+    // Returns the new row id, or -1 if the insert violated a constraint (same contract as SQLiteDatabase.insert)
+    synchronized long insertUser(String username, PasswordHasher.Credentials credentials) {
+        if (insertUser == null) {
+            insertUser = db.compileStatement(SQL_INSERT_USER);
+        }
+        insertUser.bindString(1, username);
+        bindCredentials(insertUser, 2, credentials);
+        try {
+            return insertUser.executeInsert();
+        } catch (SQLiteConstraintException e) {
+            return -1;
+        } finally {
+            insertUser.clearBindings();
+        }
+    }
+
+    synchronized int updatePassword(String username, PasswordHasher.Credentials credentials) {
+        if (updatePassword == null) {
+            updatePassword = db.compileStatement(SQL_UPDATE_PASSWORD);
+        }
+        bindCredentials(updatePassword, 1, credentials);
+        updatePassword.bindString(5, username);
+        try {
+            return updatePassword.executeUpdateDelete();
+        } finally {
+            updatePassword.clearBindings();
+        }
+    }
+
+    // Replace the stored hash of a user with a stronger one; no-op if it already is at least as strong
+    synchronized int rehashUser(long userId, PasswordHasher.Credentials credentials) {
+        if (rehashUser == null) {
+            rehashUser = db.compileStatement(SQL_REHASH_USER);
+        }
+        bindCredentials(rehashUser, 1, credentials);
+        rehashUser.bindLong(5, userId);
+        try {
+            return rehashUser.executeUpdateDelete();
+        } finally {
+            rehashUser.clearBindings();
+        }
+    }
+
+    synchronized long insertCategory(String name, int imageResId) {
+        if (insertCategory == null) {
+            insertCategory = db.compileStatement(SQL_INSERT_CATEGORY);
+        }
+        bindNullable(insertCategory, 1, name);
+        insertCategory.bindLong(2, imageResId);
+        try {
+            return insertCategory.executeInsert();
+        } finally {
+            insertCategory.clearBindings();
+        }
+    }
+
+    synchronized long insertQuestion(Question question) {
+        if (insertQuestion == null) {
+            insertQuestion = db.compileStatement(SQL_INSERT_QUESTION);
+        }
+        bindNullable(insertQuestion, 1, question.getQuestion());
+        bindNullable(insertQuestion, 2, question.getOption1());
+        bindNullable(insertQuestion, 3, question.getOption2());
+        bindNullable(insertQuestion, 4, question.getOption3());
+        bindNullable(insertQuestion, 5, question.getOption4());
+        insertQuestion.bindLong(6, question.getAnswerNr());
+        insertQuestion.bindLong(7, question.getCategoryId());
+        try {
+            return insertQuestion.executeInsert();
+        } finally {
+            insertQuestion.clearBindings();
+        }
+    }
+
+    // Count one more attempt and keep the better of the stored and the new score; call inside a transaction
+    synchronized void upsertCategoryStats(long userId, int categoryId, int score, int total, long playedAt) {
+        if (updateCategoryStats == null) {
+            updateCategoryStats = db.compileStatement(SQL_UPDATE_CATEGORY_STATS);
+            insertCategoryStats = db.compileStatement(SQL_INSERT_CATEGORY_STATS);
+        }
+        updateCategoryStats.bindLong(1, score);
+        updateCategoryStats.bindLong(2, total);
+        updateCategoryStats.bindLong(3, playedAt);
+        updateCategoryStats.bindLong(4, userId);
+        updateCategoryStats.bindLong(5, categoryId);
+        try {
+            if (updateCategoryStats.executeUpdateDelete() > 0) {
+                return;
+            }
+        } finally {
+            updateCategoryStats.clearBindings();
+        }
+        insertCategoryStats.bindLong(1, userId);
+        insertCategoryStats.bindLong(2, categoryId);
+        insertCategoryStats.bindLong(3, score);
+        insertCategoryStats.bindLong(4, total);
+        insertCategoryStats.bindLong(5, playedAt);
+        try {
+            insertCategoryStats.executeInsert();
+        } finally {
+            insertCategoryStats.clearBindings();
+        }
+    }
+
+    // Id of the unfinished attempt with this seed, or a new attempt row if there is none
+    synchronized long openAttempt(long userId, int categoryId, long seed, long startedAt) {
+        if (findOpenAttempt == null) {
+            findOpenAttempt = db.compileStatement(SQL_FIND_OPEN_ATTEMPT);
+            insertAttempt = db.compileStatement(SQL_INSERT_ATTEMPT);
+        }
+        findOpenAttempt.bindLong(1, seed);
+        findOpenAttempt.bindLong(2, categoryId);
+        // Only this user's (or, for a guest, a guest's) attempt: seeds can repeat across users
+        if (userId >= 0) {
+            findOpenAttempt.bindLong(3, userId);
+        } else {
+            findOpenAttempt.bindNull(3);
+        }
+        try {
+            long existing = findOpenAttempt.simpleQueryForLong();
+            if (existing >= 0) {
+                return existing;
+            }
+        } finally {
+            findOpenAttempt.clearBindings();
+        }
+        if (userId >= 0) {
+            insertAttempt.bindLong(1, userId);
+        } else {
+            insertAttempt.bindNull(1);
+        }
+        insertAttempt.bindLong(2, categoryId);
+        insertAttempt.bindLong(3, seed);
+        insertAttempt.bindLong(4, startedAt);
+        try {
+            return insertAttempt.executeInsert();
+        } finally {
+            insertAttempt.clearBindings();
+        }
+    }
+
+    synchronized void finishAttempt(long attemptId, int score, int total, long finishedAt) {
+        if (finishAttempt == null) {
+            finishAttempt = db.compileStatement(SQL_FINISH_ATTEMPT);
+        }
+        finishAttempt.bindLong(1, finishedAt);
+        finishAttempt.bindLong(2, score);
+        finishAttempt.bindLong(3, total);
+        finishAttempt.bindLong(4, attemptId);
+        try {
+            finishAttempt.executeUpdateDelete();
+        } finally {
+            finishAttempt.clearBindings();
+        }
+    }
+
+    synchronized void insertAnswer(long attemptId, int questionNumber, long questionId, int selectedOption,
+                                   boolean correct, long responseTimeMs, long answeredAt) {
+        if (insertAnswer == null) {
+            insertAnswer = db.compileStatement(SQL_INSERT_ANSWER);
+        }
+        insertAnswer.bindLong(1, attemptId);
+        insertAnswer.bindLong(2, questionNumber);
+        insertAnswer.bindLong(3, questionId);
+        insertAnswer.bindLong(4, selectedOption);
+        insertAnswer.bindLong(5, correct ? 1 : 0);
+        insertAnswer.bindLong(6, responseTimeMs);
+        insertAnswer.bindLong(7, answeredAt);
+        try {
+            insertAnswer.executeInsert();
+        } finally {
+            insertAnswer.clearBindings();
+        }
+    }
+
+    // Store a question's spaced-repetition state for a user; call inside a transaction
+    synchronized void putReviewState(long userId, long questionId, double ease, long intervalMs, long dueAt,
+                                     int repetitions, int lapses) {
+        if (putReviewState == null) {
+            putReviewState = db.compileStatement(SQL_PUT_REVIEW_STATE);
+        }
+        putReviewState.bindLong(1, userId);
+        putReviewState.bindLong(2, questionId);
+        putReviewState.bindDouble(3, ease);
+        putReviewState.bindLong(4, intervalMs);
+        putReviewState.bindLong(5, dueAt);
+        putReviewState.bindLong(6, repetitions);
+        putReviewState.bindLong(7, lapses);
+        try {
+            putReviewState.executeInsert();
+        } finally {
+            putReviewState.clearBindings();
+        }
+    }
+
+    // The user's rating into out[0] and their number of rated answers into out[1]; false if the user is gone
+    synchronized boolean readUserRating(long userId, double[] out) {
+        if (userRating == null) {
+            userRating = db.compileStatement(SQL_USER_RATING);
+            userRatedAnswers = db.compileStatement(SQL_USER_RATED_ANSWERS);
+        }
+        return readRating(userRating, userRatedAnswers, userId, out);
+    }
+
+    // The question's difficulty into out[0] and its number of rated answers into out[1]; false if it is gone
+    synchronized boolean readQuestionDifficulty(long questionId, double[] out) {
+        if (questionDifficulty == null) {
+            questionDifficulty = db.compileStatement(SQL_QUESTION_DIFFICULTY);
+            questionRatedAnswers = db.compileStatement(SQL_QUESTION_RATED_ANSWERS);
+        }
+        return readRating(questionDifficulty, questionRatedAnswers, questionId, out);
+    }
+
+    // Store a user's rating after one more rated answer; call inside a transaction
+    synchronized void updateUserRating(long userId, double rating) {
+        if (updateUserRating == null) {
+            updateUserRating = db.compileStatement(SQL_UPDATE_USER_RATING);
+        }
+        executeRatingUpdate(updateUserRating, userId, rating);
+    }
+
+    // Store a question's difficulty after one more rated answer; call inside a transaction
+    synchronized void updateQuestionDifficulty(long questionId, double difficulty) {
+        if (updateQuestionDifficulty == null) {
+            updateQuestionDifficulty = db.compileStatement(SQL_UPDATE_QUESTION_DIFFICULTY);
+        }
+        executeRatingUpdate(updateQuestionDifficulty, questionId, difficulty);
+    }
+
+    // Release every compiled statement
+    synchronized void close() {
+        userExists = closeQuietly(userExists);
+        insertUser = closeQuietly(insertUser);
+        updatePassword = closeQuietly(updatePassword);
+        rehashUser = closeQuietly(rehashUser);
+        insertCategory = closeQuietly(insertCategory);
+        insertQuestion = closeQuietly(insertQuestion);
+        updateCategoryStats = closeQuietly(updateCategoryStats);
+        insertCategoryStats = closeQuietly(insertCategoryStats);
+        findOpenAttempt = closeQuietly(findOpenAttempt);
+        insertAttempt = closeQuietly(insertAttempt);
+        finishAttempt = closeQuietly(finishAttempt);
+        insertAnswer = closeQuietly(insertAnswer);
+        putReviewState = closeQuietly(putReviewState);
+        userRating = closeQuietly(userRating);
+        userRatedAnswers = closeQuietly(userRatedAnswers);
+        updateUserRating = closeQuietly(updateUserRating);
+        questionDifficulty = closeQuietly(questionDifficulty);
+        questionRatedAnswers = closeQuietly(questionRatedAnswers);
+        updateQuestionDifficulty = closeQuietly(updateQuestionDifficulty);
+    }
+
+    // SQLiteStatement.bindString rejects null, unlike ContentValues
+    private static void bindNullable(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
+    // Binds algorithm, iterations, salt and hash to four consecutive parameters starting at index
+    private static void bindCredentials(SQLiteStatement statement, int index, PasswordHasher.Credentials credentials) {
+        statement.bindString(index, credentials.algorithm);
+        statement.bindLong(index + 1, credentials.iterations);
+        statement.bindBlob(index + 2, credentials.salt);
+        statement.bindBlob(index + 3, credentials.hash);
+    }
+
+    // A REAL column comes back from simpleQueryForString as text with 15 significant digits
+    private static boolean readRating(SQLiteStatement rating, SQLiteStatement ratedAnswers, long id, double[] out) {
+        rating.bindLong(1, id);
+        ratedAnswers.bindLong(1, id);
+        try {
+            out[0] = Double.parseDouble(rating.simpleQueryForString());
+            out[1] = ratedAnswers.simpleQueryForLong();
+            return true;
+        } catch (SQLiteDoneException e) {
+            return false;
+        } finally {
+            rating.clearBindings();
+            ratedAnswers.clearBindings();
+        }
+    }
+
+    private static void executeRatingUpdate(SQLiteStatement update, long id, double rating) {
+        update.bindDouble(1, rating);
+        update.bindLong(2, id);
+        try {
+            update.executeUpdateDelete();
+        } finally {
+            update.clearBindings();
+        }
+    }
+
+    private static SQLiteStatement closeQuietly(SQLiteStatement statement) {
+        if (statement != null) {
+            statement.close();
+        }
+        return null;
+    }
+}
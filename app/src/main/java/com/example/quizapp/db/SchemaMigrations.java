@@ -0,0 +1,306 @@
+package com.example.quizapp.db;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SchemaMigrations lists every schema step in order and applies them one version at a time.
+ * The SQL inside each step is frozen to the schema of that version; never edit a shipped step,
+ * add a new one and bump DatabaseHelper.DATABASE_VERSION instead.
+ */
+final class SchemaMigrations {
+    private static final String TAG = "SchemaMigrations";
+
+    // v2 -> v3: indexes on questions.category_id and users.username, real foreign keys
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            // Usernames become unique ignoring case. Keep every account, but rename later duplicates
+            // (and accounts without a name) so the unique index can be built.
+            renameDuplicateUsernames(db);
+
+            // SQLite cannot add a foreign key to an existing table, so rebuild users and questions.
+            db.execSQL("CREATE TABLE users_new("
+                    + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                    + "username TEXT NOT NULL,"
+                    + "password TEXT)");
+            db.execSQL("INSERT INTO users_new(id, username, password) SELECT id, username, password FROM users");
+            db.execSQL("DROP TABLE users");
+            db.execSQL("ALTER TABLE users_new RENAME TO users");
+
+            db.execSQL("CREATE TABLE questions_new("
+                    + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                    + "question TEXT,"
+                    + "option1 TEXT,"
+                    + "option2 TEXT,"
+                    + "option3 TEXT,"
+                    + "option4 TEXT,"
+                    + "answer_nr INTEGER,"
+                    + "category_id INTEGER NOT NULL REFERENCES categories(id) ON DELETE CASCADE)");
+            // Questions pointing at a missing category were never reachable from the UI; they cannot
+            // satisfy the new foreign key, so they are the only rows this step drops.
+            db.execSQL("INSERT INTO questions_new"
+                    + " SELECT id, question, option1, option2, option3, option4, answer_nr, category_id"
+                    + " FROM questions WHERE category_id IN (SELECT id FROM categories)");
+            db.execSQL("DROP TABLE questions");
+            db.execSQL("ALTER TABLE questions_new RENAME TO questions");
+
+            db.execSQL("CREATE UNIQUE INDEX " + DatabaseHelper.INDEX_USERS_USERNAME
+                    + " ON users(username COLLATE NOCASE)");
+            db.execSQL("CREATE INDEX " + DatabaseHelper.INDEX_QUESTIONS_CATEGORY + " ON questions(category_id)");
+        }
+
+        // name_id, or user_id without a name; a suffix _2, _3... is added while that is taken by any other
+        // account ignoring case (e.g. an existing "bob_7"), including names given earlier in this loop
+        private void renameDuplicateUsernames(SQLiteDatabase db) {
+            // Read them all first: the cursor must not see its own table change under it
+            List<Long> ids = new ArrayList<>();
+            List<String> bases = new ArrayList<>();
+            try (Cursor duplicates = db.rawQuery("SELECT id, username FROM users WHERE username IS NULL"
+                    + " OR id NOT IN (SELECT MIN(id) FROM users WHERE username IS NOT NULL"
+                    + " GROUP BY username COLLATE NOCASE) ORDER BY id", null)) {
+                while (duplicates.moveToNext()) {
+                    long id = duplicates.getLong(0);
+                    ids.add(id);
+                    bases.add(duplicates.isNull(1) ? "user_" + id : duplicates.getString(1) + "_" + id);
+                }
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                String name = bases.get(i);
+                for (int suffix = 2; isTaken(db, name, ids.get(i)); suffix++) {
+                    name = bases.get(i) + "_" + suffix;
+                }
+                db.execSQL("UPDATE users SET username = ? WHERE id = ?", new Object[]{name, ids.get(i)});
+            }
+        }
+
+        private boolean isTaken(SQLiteDatabase db, String name, long id) {
+            try (Cursor cursor = db.rawQuery("SELECT 1 FROM users WHERE username = ? COLLATE NOCASE AND id <> ?",
+                    new String[]{name, String.valueOf(id)})) {
+                return cursor.moveToFirst();
+            }
+        }
+    };
+
+    // v3 -> v4: checkpoint table that lets QuestionImporter resume an interrupted import
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS import_progress("
+                    + "source_id TEXT PRIMARY KEY,"
+                    + "records_done INTEGER NOT NULL DEFAULT 0,"
+                    + "completed INTEGER NOT NULL DEFAULT 0)");
+        }
+    };
+
+    // v4 -> v5: summary tables behind the categories dashboard. Question counts are kept current by
+    // triggers, per-user stats by DatabaseHelper.recordQuizResult, so the dashboard never aggregates.
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE category_summary("
+                    + "category_id INTEGER PRIMARY KEY REFERENCES categories(id) ON DELETE CASCADE,"
+                    + "question_count INTEGER NOT NULL DEFAULT 0)");
+            // One-time backfill; from here on the triggers below keep the counts current
+            db.execSQL("INSERT INTO category_summary(category_id, question_count)"
+                    + " SELECT c.id, (SELECT COUNT(*) FROM questions q WHERE q.category_id = c.id) FROM categories c");
+
+            db.execSQL("CREATE TRIGGER trg_categories_summary_insert AFTER INSERT ON categories BEGIN"
+                    + " INSERT OR IGNORE INTO category_summary(category_id, question_count) VALUES (NEW.id, 0);"
+                    + " END");
+            db.execSQL("CREATE TRIGGER trg_questions_summary_insert AFTER INSERT ON questions BEGIN"
+                    + " UPDATE category_summary SET question_count = question_count + 1"
+                    + " WHERE category_id = NEW.category_id;"
+                    + " END");
+            db.execSQL("CREATE TRIGGER trg_questions_summary_delete AFTER DELETE ON questions BEGIN"
+                    + " UPDATE category_summary SET question_count = question_count - 1"
+                    + " WHERE category_id = OLD.category_id;"
+                    + " END");
+            db.execSQL("CREATE TRIGGER trg_questions_summary_move AFTER UPDATE OF category_id ON questions"
+                    + " WHEN OLD.category_id <> NEW.category_id BEGIN"
+                    + " UPDATE category_summary SET question_count = question_count - 1"
+                    + " WHERE category_id = OLD.category_id;"
+                    + " UPDATE category_summary SET question_count = question_count + 1"
+                    + " WHERE category_id = NEW.category_id;"
+                    + " END");
+
+            db.execSQL("CREATE TABLE user_category_stats("
+                    + "user_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE,"
+                    + "category_id INTEGER NOT NULL REFERENCES categories(id) ON DELETE CASCADE,"
+                    + "best_score INTEGER NOT NULL,"
+                    + "best_total INTEGER NOT NULL,"
+                    + "attempts INTEGER NOT NULL,"
+                    + "last_played_at INTEGER NOT NULL,"
+                    + "PRIMARY KEY(user_id, category_id)) WITHOUT ROWID");
+            // Lets ON DELETE CASCADE from categories find the rows without a full scan
+            db.execSQL("CREATE INDEX idx_user_category_stats_category ON user_category_stats(category_id)");
+        }
+    };
+
+    // v5 -> v6: history of quiz attempts and every answer given, written in batches by AnswerLog
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE quiz_attempts("
+                    + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                    + "user_id INTEGER REFERENCES users(id) ON DELETE CASCADE,"
+                    + "category_id INTEGER NOT NULL REFERENCES categories(id) ON DELETE CASCADE,"
+                    + "seed INTEGER NOT NULL,"
+                    + "started_at INTEGER NOT NULL,"
+                    + "finished_at INTEGER,"
+                    + "score INTEGER,"
+                    + "total INTEGER)");
+            db.execSQL("CREATE INDEX idx_quiz_attempts_user_category ON quiz_attempts(user_id, category_id)");
+            db.execSQL("CREATE INDEX idx_quiz_attempts_category ON quiz_attempts(category_id)");
+            db.execSQL("CREATE INDEX idx_quiz_attempts_seed ON quiz_attempts(seed)");
+            // question_id is deliberately not a foreign key: history outlives deleted questions
+            db.execSQL("CREATE TABLE quiz_answers("
+                    + "attempt_id INTEGER NOT NULL REFERENCES quiz_attempts(id) ON DELETE CASCADE,"
+                    + "question_number INTEGER NOT NULL,"
+                    + "question_id INTEGER NOT NULL,"
+                    + "selected_option INTEGER NOT NULL,"
+                    + "correct INTEGER NOT NULL,"
+                    + "response_time_ms INTEGER NOT NULL,"
+                    + "answered_at INTEGER NOT NULL,"
+                    + "PRIMARY KEY(attempt_id, question_number)) WITHOUT ROWID");
+        }
+    };
+
+    // v6 -> v7: full-text index over the question text and all four options. The FTS4 table only
+    // stores the index (content= points back at questions); triggers keep it in step with every write.
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            // Prefix indexes make "moo*" as cheap as a whole-word lookup for the partial words typed so far
+            db.execSQL("CREATE VIRTUAL TABLE questions_fts USING fts4("
+                    + "content=\"questions\", question, option1, option2, option3, option4, prefix=\"2,3\")");
+            db.execSQL("INSERT INTO questions_fts(questions_fts) VALUES ('rebuild')");
+
+            // External content: the old terms must be removed while the old row is still readable
+            db.execSQL("CREATE TRIGGER trg_questions_fts_insert AFTER INSERT ON questions BEGIN"
+                    + " INSERT INTO questions_fts(docid, question, option1, option2, option3, option4)"
+                    + " VALUES (NEW.id, NEW.question, NEW.option1, NEW.option2, NEW.option3, NEW.option4);"
+                    + " END");
+            db.execSQL("CREATE TRIGGER trg_questions_fts_delete BEFORE DELETE ON questions BEGIN"
+                    + " DELETE FROM questions_fts WHERE docid = OLD.id;"
+                    + " END");
+            db.execSQL("CREATE TRIGGER trg_questions_fts_before_update"
+                    + " BEFORE UPDATE OF question, option1, option2, option3, option4 ON questions BEGIN"
+                    + " DELETE FROM questions_fts WHERE docid = OLD.id;"
+                    + " END");
+            db.execSQL("CREATE TRIGGER trg_questions_fts_after_update"
+                    + " AFTER UPDATE OF question, option1, option2, option3, option4 ON questions BEGIN"
+                    + " INSERT INTO questions_fts(docid, question, option1, option2, option3, option4)"
+                    + " VALUES (NEW.id, NEW.question, NEW.option1, NEW.option2, NEW.option3, NEW.option4);"
+                    + " END");
+        }
+    };
+
+    // v7 -> v8: salted password hashes with their parameters. Existing plaintext passwords stay in the
+    // password column until DatabaseHelper hashes them (on the next login or the startup migration
+    // stage), since hashing every row here would hold up the upgrade for seconds.
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("ALTER TABLE users ADD COLUMN password_algorithm TEXT");
+            db.execSQL("ALTER TABLE users ADD COLUMN password_iterations INTEGER");
+            db.execSQL("ALTER TABLE users ADD COLUMN password_salt BLOB");
+            db.execSQL("ALTER TABLE users ADD COLUMN password_hash BLOB");
+        }
+    };
+
+    // v8 -> v9: spaced-repetition memory of every question a user has answered (see ReviewScheduler).
+    // question_id is not a foreign key, so a batch of answers never fails on a question deleted since;
+    // a trigger removes the state of deleted questions instead.
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE review_state("
+                    + "user_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE,"
+                    + "question_id INTEGER NOT NULL,"
+                    + "ease REAL NOT NULL,"
+                    + "interval_ms INTEGER NOT NULL,"
+                    + "due_at INTEGER NOT NULL,"
+                    + "repetitions INTEGER NOT NULL,"
+                    + "lapses INTEGER NOT NULL,"
+                    + "PRIMARY KEY(user_id, question_id)) WITHOUT ROWID");
+            // Due reviews of a user in due order, and the delete trigger's lookup by question
+            db.execSQL("CREATE INDEX idx_review_state_user_due ON review_state(user_id, due_at)");
+            db.execSQL("CREATE INDEX idx_review_state_question ON review_state(question_id)");
+            db.execSQL("CREATE TRIGGER trg_questions_review_delete AFTER DELETE ON questions BEGIN"
+                    + " DELETE FROM review_state WHERE question_id = OLD.id;"
+                    + " END");
+        }
+    };
+
+    // v10: Elo ratings (see EloRating). Every user has a skill rating and every question a difficulty on
+    // the same scale, both starting at 1500 and updated by each rated answer. The leaderboard reads the
+    // partial index from the top; difficulty-targeted sampling seeks into a category's difficulty range.
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("ALTER TABLE users ADD COLUMN rating REAL NOT NULL DEFAULT 1500");
+            db.execSQL("ALTER TABLE users ADD COLUMN rated_answers INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE questions ADD COLUMN difficulty REAL NOT NULL DEFAULT 1500");
+            db.execSQL("ALTER TABLE questions ADD COLUMN rated_answers INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("CREATE INDEX idx_users_rating ON users(rating) WHERE rated_answers > 0");
+            db.execSQL("CREATE INDEX idx_questions_category_difficulty ON questions(category_id, difficulty)");
+        }
+    };
+
+    // Every step, ordered by startVersion
+    private static final Migration[] MIGRATIONS = {
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10,
+    };
+
+    private SchemaMigrations() {
+    }
+
+    // True if there is an unbroken chain of steps from oldVersion to newVersion
+    static boolean canMigrate(int oldVersion, int newVersion) {
+        int version = oldVersion;
+        while (version < newVersion) {
+            Migration step = find(version);
+            if (step == null) {
+                return false;
+            }
+            version = step.endVersion;
+        }
+        return version == newVersion;
+    }
+
+    // Apply each step from oldVersion to newVersion, then refresh planner statistics
+    static void migrate(SQLiteDatabase db, int oldVersion, int newVersion) {
+        int version = oldVersion;
+        while (version < newVersion) {
+            Migration step = find(version);
+            if (step == null) {
+                throw new IllegalStateException("No migration from version " + version);
+            }
+            Log.i(TAG, "Migrating database v" + step.startVersion + " -> v" + step.endVersion);
+            step.migrate(db);
+            version = step.endVersion;
+        }
+        db.execSQL("ANALYZE");
+    }
+
+    private static Migration find(int startVersion) {
+        for (Migration migration : MIGRATIONS) {
+            if (migration.startVersion == startVersion) {
+                return migration;
+            }
+        }
+        return null;
+    }
+}
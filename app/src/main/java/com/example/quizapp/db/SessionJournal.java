@@ -0,0 +1,270 @@
+package com.example.quizapp.db;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * SessionJournal is an append-only log of the running quiz so it can be restored after the process
+ * is killed in the background. A quiz writes one START record (category, seed and the sampled question
+ * order) followed by one small ANSWER record per answered question; replay() rebuilds the session from
+ * them. Every record is framed as [type:1][length:2][payload][crc32:4] and a torn or corrupt tail is
+ * dropped on replay.
+ * Records are written to the file as they happen (so a killed process loses nothing) and fsynced in
+ * groups of GROUP_SIZE, plus on sync() when the quiz goes to the background. finish() compacts the
+ * journal away once the quiz is over, so it never holds more than one session.
+ * Writes happen in order on a single background thread; replay() must be called off the main thread.
+ */
+public final class SessionJournal {
+    private static final String TAG = "SessionJournal";
+
+    public static final String FILE_NAME = "quiz_session.journal";
+
+    // Answers written between two fsyncs
+    static final int GROUP_SIZE = 4;
+
+    private static final byte TYPE_START = 1;
+    private static final byte TYPE_ANSWER = 2;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 3;
+    private static final int CRC_SIZE = 4;
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "quiz-journal");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private final File file;
+    private final Executor writer;
+    private RandomAccessFile output;
+    private int unsynced;
+
+    // The quiz state recovered by replay()
+    public static final class Session {
+        public final int categoryId;
+        public final long seed;
+        public final long[] questionIds;
+        // Number of questions answered so far (the quiz resumes at the next one) and the score
+        public final int answeredCount;
+        public final int score;
+
+        Session(int categoryId, long seed, long[] questionIds, int answeredCount, int score) {
+            this.categoryId = categoryId;
+            this.seed = seed;
+            this.questionIds = questionIds;
+            this.answeredCount = answeredCount;
+            this.score = score;
+        }
+    }
+
+    public SessionJournal(File file) {
+        this(file, WRITER);
+    }
+
+    // Tests pass a direct executor so every write has happened when the call returns
+    SessionJournal(File file, Executor writer) {
+        this.file = file;
+        this.writer = writer;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // WRITING
+    // ---------------------------------------------------------------------------------------------
+
+    // Start a new session, replacing whatever the journal held; synced immediately
+    public void begin(int categoryId, long seed, long[] questionIds) {
+        ByteBuffer payload = ByteBuffer.allocate(1 + 4 + 8 + 2 + 8 * questionIds.length);
+        payload.put((byte) FORMAT_VERSION).putInt(categoryId).putLong(seed).putShort((short) questionIds.length);
+        for (long id : questionIds) {
+            payload.putLong(id);
+        }
+        byte[] record = frame(TYPE_START, payload);
+        writer.execute(() -> {
+            synchronized (this) {
+                try {
+                    RandomAccessFile out = output();
+                    out.setLength(0);
+                    out.write(record);
+                    out.getFD().sync();
+                    unsynced = 0;
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not start session journal", e);
+                }
+            }
+        });
+    }
+
+    // Append one answer event; 1-based questionNumber, answerNr 0 when the time ran out
+    public void recordAnswer(int questionNumber, long questionId, int answerNr, boolean correct) {
+        ByteBuffer payload = ByteBuffer.allocate(2 + 8 + 1 + 1);
+        payload.putShort((short) questionNumber).putLong(questionId).put((byte) answerNr).put((byte) (correct ? 1 : 0));
+        byte[] record = frame(TYPE_ANSWER, payload);
+        writer.execute(() -> {
+            synchronized (this) {
+                try {
+                    output().write(record);
+                    if (++unsynced >= GROUP_SIZE) {
+                        syncLocked();
+                    }
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not append to session journal", e);
+                }
+            }
+        });
+    }
+
+    // Flush the records written since the last group sync, e.g. when the quiz goes to the background
+    public void sync() {
+        writer.execute(() -> {
+            synchronized (this) {
+                try {
+                    syncLocked();
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not sync session journal", e);
+                }
+            }
+        });
+    }
+
+    // The quiz is over (finished or abandoned): compact the journal away
+    public void finish() {
+        writer.execute(() -> {
+            synchronized (this) {
+                closeOutput();
+                if (file.exists() && !file.delete()) {
+                    Log.w(TAG, "Could not delete session journal " + file);
+                }
+            }
+        });
+    }
+
+    private void syncLocked() throws IOException {
+        if (output != null && unsynced > 0) {
+            output.getFD().sync();
+            unsynced = 0;
+        }
+    }
+
+    private RandomAccessFile output() throws IOException {
+        if (output == null) {
+            output = new RandomAccessFile(file, "rw");
+            output.seek(output.length());
+        }
+        return output;
+    }
+
+    private void closeOutput() {
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Could not close session journal", e);
+            }
+            output = null;
+            unsynced = 0;
+        }
+    }
+
+    private static byte[] frame(byte type, ByteBuffer payload) {
+        int length = payload.position();
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + length + CRC_SIZE);
+        record.put(type).putShort((short) length).put(payload.array(), 0, length);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, HEADER_SIZE + length);
+        record.putInt((int) crc.getValue());
+        return record.array();
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // REPLAY
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Rebuild the unfinished session, or return null if there is none.
+     * Anything after the last intact record (a write torn by the kill) is truncated so later appends
+     * follow valid data.
+     */
+    public synchronized Session replay() throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return null;
+        }
+        byte[] data = new byte[(int) file.length()];
+        try (FileInputStream input = new FileInputStream(file)) {
+            int read = 0;
+            while (read < data.length) {
+                int n = input.read(data, read, data.length - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        Session session = null;
+        int answered = 0;
+        int score = 0;
+        int validLength = 0;
+        while (buffer.remaining() >= HEADER_SIZE + CRC_SIZE) {
+            int start = buffer.position();
+            byte type = buffer.get();
+            int length = buffer.getShort() & 0xFFFF;
+            if (buffer.remaining() < length + CRC_SIZE) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data, start, HEADER_SIZE + length);
+            ByteBuffer payload = ByteBuffer.wrap(data, start + HEADER_SIZE, length).slice();
+            buffer.position(start + HEADER_SIZE + length);
+            if (buffer.getInt() != (int) crc.getValue()) {
+                break;
+            }
+
+            if (type == TYPE_START) {
+                if (payload.get() != FORMAT_VERSION) {
+                    break;
+                }
+                int categoryId = payload.getInt();
+                long seed = payload.getLong();
+                long[] ids = new long[payload.getShort() & 0xFFFF];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = payload.getLong();
+                }
+                session = new Session(categoryId, seed, ids, 0, 0);
+                answered = 0;
+                score = 0;
+            } else if (type == TYPE_ANSWER && session != null) {
+                answered = Math.max(answered, payload.getShort() & 0xFFFF);
+                payload.getLong();
+                payload.get();
+                if (payload.get() != 0) {
+                    score++;
+                }
+            } else {
+                break;
+            }
+            validLength = buffer.position();
+        }
+
+        if (validLength < data.length) {
+            Log.w(TAG, "Dropping " + (data.length - validLength) + " bytes of torn session journal");
+            closeOutput();
+            try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+                out.setLength(validLength);
+            }
+        }
+        if (session == null) {
+            return null;
+        }
+        return new Session(session.categoryId, session.seed, session.questionIds, answered, score);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.quizapp.metrics;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Build;
+import android.os.Bundle;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * ActivityStartupTracker records, for every activity, the time from the start of its creation to the
+ * first time its window is about to draw, in AppMetrics.startup(<activity class>). Each creation
+ * counts, including recreation after a configuration change.
+ * It also exports the metrics whenever the last started activity stops, i.e. the app goes to the
+ * background. Register it once, from Application.onCreate. All callbacks run on the main thread.
+ */
+public final class ActivityStartupTracker implements Application.ActivityLifecycleCallbacks {
+    private final Map<Activity, Long> createdAt = new WeakHashMap<>();
+    private int startedActivities;
+
+    // API 29+: called before Activity.onCreate, so the measurement includes setContentView and co.
+    @Override
+    public void onActivityPreCreated(Activity activity, Bundle savedInstanceState) {
+        createdAt.put(activity, System.nanoTime());
+    }
+
+    // Before API 29 this runs after Activity.onCreate, so onCreate itself is not part of the measurement
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            createdAt.put(activity, System.nanoTime());
+        }
+        View decorView = activity.getWindow().getDecorView();
+        String name = activity.getClass().getSimpleName();
+        decorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                // The observer may have been replaced since it was registered, so look it up again
+                decorView.getViewTreeObserver().removeOnPreDrawListener(this);
+                Long started = createdAt.remove(activity);
+                if (started != null) {
+                    AppMetrics.startup(name).recordSince(started);
+                }
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+        startedActivities++;
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+        startedActivities--;
+        if (startedActivities == 0 && !activity.isChangingConfigurations()) {
+            AppMetrics.export(activity);
+        }
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+        createdAt.remove(activity);
+    }
+}
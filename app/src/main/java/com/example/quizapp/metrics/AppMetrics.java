@@ -0,0 +1,158 @@
+package com.example.quizapp.metrics;
+
+import android.content.Context;
+import android.os.Build;
+import android.util.Log;
+
+import com.example.quizapp.BuildConfig;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AppMetrics holds the app's metrics registry and one Probe per instrumented path: every
+ * DatabaseHelper operation, the quiz screen's question rendering and answer checking, and the time
+ * from activity creation to first frame.
+ * Whenever the app goes to the background the registry is written to files/metrics/latest.json
+ * (pull it with `adb shell run-as com.example.quizapp cat files/metrics/latest.json`) and its
+ * summary is logged under the QuizMetrics tag, so two builds can be compared after the same scripted
+ * run. Times are cumulative since the process started. Debug builds also write the
+ * MainThreadIoGuard report next to it, as strictmode.txt, when it has found anything.
+ */
+public final class AppMetrics {
+    private static final String TAG = "QuizMetrics";
+    static final String EXPORT_DIR = "metrics";
+    static final String EXPORT_FILE = "latest.json";
+    static final String STRICT_MODE_FILE = "strictmode.txt";
+    private static final long EXPORT_THREAD_IDLE_SECONDS = 5;
+
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
+    private static final List<Probe> databaseProbes = new ArrayList<>();
+
+    // DatabaseHelper: these also count calls made on the main thread
+    public static final Probe DB_ADD_USER = dbProbe("addUser");
+    public static final Probe DB_CHECK_USER = dbProbe("checkUser");
+    public static final Probe DB_AUTHENTICATE = dbProbe("authenticate");
+    public static final Probe DB_CHECK_USER_EXISTS = dbProbe("checkUserExists");
+    public static final Probe DB_UPDATE_PASSWORD = dbProbe("updatePassword");
+    public static final Probe DB_MIGRATE_PLAINTEXT_PASSWORDS = dbProbe("migratePlaintextPasswords");
+    public static final Probe DB_GET_ALL_CATEGORIES = dbProbe("getAllCategories");
+    public static final Probe DB_GET_CATEGORY_DASHBOARD = dbProbe("getCategoryDashboard");
+    public static final Probe DB_RECORD_QUIZ_RESULT = dbProbe("recordQuizResult");
+    public static final Probe DB_GET_LEADERBOARD = dbProbe("getLeaderboard");
+    public static final Probe DB_GET_USER_STANDING = dbProbe("getUserStanding");
+    public static final Probe DB_GET_QUESTIONS_BY_CATEGORY = dbProbe("getQuestionsByCategory");
+    public static final Probe DB_SAMPLE_QUESTION_IDS = dbProbe("sampleQuestionIds");
+    public static final Probe DB_SAMPLE_QUESTION_IDS_NEAR = dbProbe("sampleQuestionIdsNear");
+    public static final Probe DB_LOAD_REVIEW_SCHEDULER = dbProbe("loadReviewScheduler");
+    public static final Probe DB_COUNT_DUE_REVIEWS = dbProbe("countDueReviews");
+    public static final Probe DB_WARM_QUESTION_CACHE = dbProbe("warmQuestionCache");
+    public static final Probe DB_GET_QUESTIONS_BY_IDS = dbProbe("getQuestionsByIds");
+    public static final Probe DB_SEARCH_QUESTIONS = dbProbe("searchQuestions");
+    public static final Probe DB_ON_CREATE = dbProbe("onCreate");
+    public static final Probe DB_ON_UPGRADE = dbProbe("onUpgrade");
+
+    // QuizActivity: always on the main thread, so only their latency is of interest
+    public static final Probe QUIZ_SHOW_NEXT_QUESTION = new Probe(REGISTRY, "quiz.showNextQuestion", false);
+    public static final Probe QUIZ_DISPLAY_QUESTION = new Probe(REGISTRY, "quiz.displayQuestion", false);
+    public static final Probe QUIZ_CHECK_ANSWER = new Probe(REGISTRY, "quiz.checkAnswer", false);
+
+    private static final ThreadPoolExecutor exporter = createExporter();
+
+    private AppMetrics() {
+    }
+
+    private static Probe dbProbe(String method) {
+        Probe probe = new Probe(REGISTRY, "db." + method, true);
+        databaseProbes.add(probe);
+        return probe;
+    }
+
+    // DatabaseHelper operations that ran on the main thread so far, by probe name, with their call
+    // counts; empty when the main thread never touched the database
+    public static Map<String, Long> getMainThreadDatabaseCalls() {
+        Map<String, Long> calls = new TreeMap<>();
+        for (Probe probe : databaseProbes) {
+            if (probe.getMainThreadCalls() > 0) {
+                calls.put(probe.getHistogram().getName(), probe.getMainThreadCalls());
+            }
+        }
+        return calls;
+    }
+
+    // Time from an activity's creation to its first frame, one histogram per activity class
+    public static LatencyHistogram startup(String activityName) {
+        return REGISTRY.histogram("startup." + activityName + ".first_frame");
+    }
+
+    public static File exportFile(Context context) {
+        return new File(new File(context.getFilesDir(), EXPORT_DIR), EXPORT_FILE);
+    }
+
+    // Write the registry to exportFile() and log its summary, off the calling thread. The file is
+    // replaced atomically, so a reader never sees a half-written export.
+    public static void export(Context context) {
+        Context appContext = context.getApplicationContext();
+        exporter.execute(() -> {
+            try {
+                writeExport(exportFile(appContext));
+                if (!MainThreadIoGuard.REPORT.isEmpty()) {
+                    writeAtomically(new File(exportFile(appContext).getParentFile(), STRICT_MODE_FILE),
+                            MainThreadIoGuard.REPORT::writeTo);
+                }
+                Log.i(TAG, "Metrics written to " + exportFile(appContext) + "\n" + REGISTRY.summary());
+            } catch (IOException e) {
+                Log.w(TAG, "Could not write metrics", e);
+            }
+        });
+    }
+
+    private static void writeExport(File target) throws IOException {
+        Map<String, String> info = new HashMap<>();
+        info.put("version", BuildConfig.VERSION_NAME + " (" + BuildConfig.VERSION_CODE + ")");
+        info.put("build_type", BuildConfig.BUILD_TYPE);
+        info.put("device", Build.MODEL);
+        info.put("sdk", Integer.toString(Build.VERSION.SDK_INT));
+        info.put("written_at_ms", Long.toString(System.currentTimeMillis()));
+        writeAtomically(target, out -> REGISTRY.writeJson(out, info));
+    }
+
+    private static void writeAtomically(File target, Content content) throws IOException {
+        File dir = target.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+        File tmp = new File(dir, target.getName() + ".tmp");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+            content.writeTo(out);
+        }
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            throw new IOException("Could not replace " + target);
+        }
+    }
+
+    // One thread that exits when idle: exports only happen when the app goes to the background
+    private static ThreadPoolExecutor createExporter() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, EXPORT_THREAD_IDLE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> new Thread(runnable, "metrics-export"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private interface Content {
+        void writeTo(Appendable out) throws IOException;
+    }
+}
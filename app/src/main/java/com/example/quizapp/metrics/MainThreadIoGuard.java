@@ -0,0 +1,64 @@
+package com.example.quizapp.metrics;
+
+import android.os.Build;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+import android.util.Log;
+
+import com.example.quizapp.db.DatabaseHelper;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MainThreadIoGuard turns on StrictMode for debug builds: disk reads and writes on the main thread,
+ * and leaked cursors, statements and databases anywhere. Every violation is logged; from API 28 on it
+ * is also collected in REPORT, attributed to the DatabaseHelper method that caused it, and exported
+ * with the metrics (see AppMetrics.export). Before API 28 StrictMode has no listener, so violations
+ * are only logged.
+ */
+public final class MainThreadIoGuard {
+    private static final String TAG = "MainThreadIoGuard";
+    private static final long LISTENER_THREAD_IDLE_SECONDS = 5;
+
+    public static final StrictModeReport REPORT = new StrictModeReport(AppMetrics.REGISTRY,
+            DatabaseHelper.class.getName(), "com.example.quizapp");
+
+    private MainThreadIoGuard() {
+    }
+
+    // Call once, from Application.onCreate on the main thread: the thread policy applies to the
+    // calling thread only
+    public static void install() {
+        StrictMode.ThreadPolicy.Builder threadPolicy = new StrictMode.ThreadPolicy.Builder()
+                .detectDiskReads()
+                .detectDiskWrites()
+                .penaltyLog();
+        // Leaked Cursors are reported as leaked closables, leaked statements and databases as SQLite objects
+        StrictMode.VmPolicy.Builder vmPolicy = new StrictMode.VmPolicy.Builder()
+                .detectLeakedSqlLiteObjects()
+                .detectLeakedClosableObjects()
+                .penaltyLog();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            ThreadPoolExecutor listenerExecutor = new ThreadPoolExecutor(1, 1, LISTENER_THREAD_IDLE_SECONDS,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> new Thread(runnable, "strict-mode"));
+            listenerExecutor.allowCoreThreadTimeOut(true);
+            threadPolicy.penaltyListener(listenerExecutor, MainThreadIoGuard::record);
+            vmPolicy.penaltyListener(listenerExecutor, MainThreadIoGuard::record);
+        }
+        StrictMode.setThreadPolicy(threadPolicy.build());
+        StrictMode.setVmPolicy(vmPolicy.build());
+    }
+
+    private static void record(Violation violation) {
+        String kind = kindOf(violation);
+        Log.w(TAG, kind + " at " + REPORT.record(kind, violation.getStackTrace()));
+    }
+
+    // DiskReadViolation -> DiskRead
+    static String kindOf(Violation violation) {
+        String name = violation.getClass().getSimpleName();
+        return name.endsWith("Violation") ? name.substring(0, name.length() - "Violation".length()) : name;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.quizapp.metrics;
+
+import android.os.Looper;
+import android.os.Trace;
+
+/**
+ * Probe times one instrumented code path: begin() opens a system trace section (visible in Perfetto
+ * and systrace) and returns the start time, end() closes the section and records the duration in the
+ * path's LatencyHistogram. Neither allocates. Probes that watch for main-thread disk access also
+ * count the calls made on the main thread.
+ * begin() and end() must be called on the same thread, the way try/finally naturally does:
+ *
+ *   long start = AppMetrics.DB_GET_ALL_CATEGORIES.begin();
+ *   try { ... } finally { AppMetrics.DB_GET_ALL_CATEGORIES.end(start); }
+ */
+public final class Probe {
+    private static final int MAX_SECTION_LENGTH = 127; // Trace.beginSection limit
+
+    private final String section;
+    private final LatencyHistogram histogram;
+    private final Counter mainThreadCalls; // null unless main-thread calls are counted
+
+    Probe(MetricsRegistry registry, String name, boolean countMainThread) {
+        section = name.length() > MAX_SECTION_LENGTH ? name.substring(0, MAX_SECTION_LENGTH) : name;
+        histogram = registry.histogram(name);
+        mainThreadCalls = countMainThread ? registry.counter(name + ".main_thread") : null;
+    }
+
+    public long begin() {
+        Trace.beginSection(section);
+        if (mainThreadCalls != null && Looper.myLooper() == Looper.getMainLooper()) {
+            mainThreadCalls.increment();
+        }
+        return System.nanoTime();
+    }
+
+    public void end(long start) {
+        histogram.recordSince(start);
+        Trace.endSection();
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    // Number of calls made on the main thread, or 0 if this probe does not count them
+    public long getMainThreadCalls() {
+        return mainThreadCalls == null ? 0 : mainThreadCalls.get();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.quizapp.metrics;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * StrictModeReport collects StrictMode violations by kind and by the code that caused them. A
+ * violation is attributed to the innermost frame of the given owner class (the DatabaseHelper method
+ * that did the disk access or opened the leaked cursor); failing that, to the innermost frame of the
+ * app's own code. Each distinct kind and site keeps a count and the first stack trace seen, and is
+ * also counted in the metrics registry as strictmode.<kind>.<site>, so it shows up in the export.
+ * Thread-safe.
+ */
+public final class StrictModeReport {
+    static final String UNATTRIBUTED = "unattributed";
+    private static final String METRICS_PACKAGE =
+            StrictModeReport.class.getName().substring(0, StrictModeReport.class.getName().lastIndexOf('.') + 1);
+
+    private final MetricsRegistry registry;
+    private final String ownerClass;
+    private final String appPackage;
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    public StrictModeReport(MetricsRegistry registry, String ownerClass, String appPackage) {
+        this.registry = registry;
+        this.ownerClass = ownerClass;
+        this.appPackage = appPackage + ".";
+    }
+
+    // Record one violation; kind is e.g. "DiskRead" or "LeakedClosable". Returns the attributed site.
+    public String record(String kind, StackTraceElement[] stack) {
+        String site = attribute(stack);
+        String key = kind + "." + site;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(kind, site, stack);
+                entries.put(key, entry);
+            }
+            entry.count++;
+        }
+        registry.counter("strictmode." + key).increment();
+        return site;
+    }
+
+    // "DatabaseHelper.<method>" for the owner class, "<Class>.<method>" for other app code
+    String attribute(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            if (frame.getClassName().equals(ownerClass) || frame.getClassName().startsWith(ownerClass + "$")) {
+                return simpleName(frame.getClassName()) + "." + frame.getMethodName();
+            }
+        }
+        for (StackTraceElement frame : stack) {
+            // Skip this package, so the guard itself is never blamed
+            if (frame.getClassName().startsWith(appPackage) && !frame.getClassName().startsWith(METRICS_PACKAGE)) {
+                return simpleName(frame.getClassName()) + "." + frame.getMethodName();
+            }
+        }
+        return UNATTRIBUTED;
+    }
+
+    public boolean isEmpty() {
+        synchronized (entries) {
+            return entries.isEmpty();
+        }
+    }
+
+    public int getCount(String kind, String site) {
+        synchronized (entries) {
+            Entry entry = entries.get(kind + "." + site);
+            return entry == null ? 0 : entry.count;
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    // One block per kind and site, sorted by both: the count, then the first stack trace seen for it
+    public void writeTo(Appendable out) throws IOException {
+        synchronized (entries) {
+            for (Entry entry : entries.values()) {
+                out.append(entry.kind).append(" at ").append(entry.site).append(": ")
+                        .append(Integer.toString(entry.count)).append('\n');
+                for (StackTraceElement frame : entry.firstStack) {
+                    out.append("    at ").append(frame.toString()).append('\n');
+                }
+                out.append('\n');
+            }
+        }
+    }
+
+    private static String simpleName(String className) {
+        String name = className.substring(className.lastIndexOf('.') + 1);
+        int nested = name.indexOf('$');
+        return nested < 0 ? name : name.substring(0, nested);
+    }
+
+    private static final class Entry {
+        final String kind;
+        final String site;
+        final StackTraceElement[] firstStack;
+        int count;
+
+        Entry(String kind, String site, StackTraceElement[] firstStack) {
+            this.kind = kind;
+            this.site = site;
+            this.firstStack = firstStack;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+-- Indexes of the prebuilt QuizApp.db, created after the seed rows are loaded (see schema.sql).
+
+CREATE UNIQUE INDEX idx_users_username ON users(username COLLATE NOCASE);
+CREATE INDEX idx_questions_category ON questions(category_id);
+CREATE INDEX idx_user_category_stats_category ON user_category_stats(category_id);
+CREATE INDEX idx_quiz_attempts_user_category ON quiz_attempts(user_id, category_id);
+CREATE INDEX idx_quiz_attempts_category ON quiz_attempts(category_id);
+CREATE INDEX idx_quiz_attempts_seed ON quiz_attempts(seed);
+CREATE INDEX idx_review_state_user_due ON review_state(user_id, due_at);
+CREATE INDEX idx_review_state_question ON review_state(question_id);
+CREATE INDEX idx_users_rating ON users(rating) WHERE rated_answers > 0;
+CREATE INDEX idx_questions_category_difficulty ON questions(category_id, difficulty);
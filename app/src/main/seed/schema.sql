@@ -0,0 +1,132 @@
+-- Schema of the prebuilt QuizApp.db packaged in assets by the buildSeedDatabase Gradle task.
+-- Must match what DatabaseHelper.onCreate produces for the user_version set at the bottom, statement for
+-- statement up to case and whitespace (PrebuiltDatabaseTest compares the stored CREATE text of every table,
+-- index and trigger), and that version must be DatabaseHelper.DATABASE_VERSION:
+-- an older asset would run the SchemaMigrations steps (FTS rebuild, ANALYZE) on every first launch.
+-- When adding a migration, apply it here too; columns added by ALTER TABLE go at the end of their table.
+-- Triggers are created before the seed rows are loaded, so they fill category_summary and questions_fts.
+
+CREATE TABLE users(
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    username TEXT NOT NULL,
+    password TEXT,
+    password_algorithm TEXT,
+    password_iterations INTEGER,
+    password_salt BLOB,
+    password_hash BLOB,
+    rating REAL NOT NULL DEFAULT 1500,
+    rated_answers INTEGER NOT NULL DEFAULT 0);
+
+CREATE TABLE categories(
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    name TEXT,
+    image_res_id INTEGER);
+
+CREATE TABLE questions(
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    question TEXT,
+    option1 TEXT,
+    option2 TEXT,
+    option3 TEXT,
+    option4 TEXT,
+    answer_nr INTEGER,
+    category_id INTEGER NOT NULL REFERENCES categories(id) ON DELETE CASCADE,
+    difficulty REAL NOT NULL DEFAULT 1500,
+    rated_answers INTEGER NOT NULL DEFAULT 0);
+
+CREATE TABLE import_progress(
+    source_id TEXT PRIMARY KEY,
+    records_done INTEGER NOT NULL DEFAULT 0,
+    completed INTEGER NOT NULL DEFAULT 0);
+
+CREATE TABLE category_summary(
+    category_id INTEGER PRIMARY KEY REFERENCES categories(id) ON DELETE CASCADE,
+    question_count INTEGER NOT NULL DEFAULT 0);
+
+CREATE TRIGGER trg_categories_summary_insert AFTER INSERT ON categories BEGIN
+    INSERT OR IGNORE INTO category_summary(category_id, question_count) VALUES (NEW.id, 0);
+END;
+
+CREATE TRIGGER trg_questions_summary_insert AFTER INSERT ON questions BEGIN
+    UPDATE category_summary SET question_count = question_count + 1 WHERE category_id = NEW.category_id;
+END;
+
+CREATE TRIGGER trg_questions_summary_delete AFTER DELETE ON questions BEGIN
+    UPDATE category_summary SET question_count = question_count - 1 WHERE category_id = OLD.category_id;
+END;
+
+CREATE TRIGGER trg_questions_summary_move AFTER UPDATE OF category_id ON questions
+    WHEN OLD.category_id <> NEW.category_id BEGIN
+    UPDATE category_summary SET question_count = question_count - 1 WHERE category_id = OLD.category_id;
+    UPDATE category_summary SET question_count = question_count + 1 WHERE category_id = NEW.category_id;
+END;
+
+CREATE TABLE user_category_stats(
+    user_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    category_id INTEGER NOT NULL REFERENCES categories(id) ON DELETE CASCADE,
+    best_score INTEGER NOT NULL,
+    best_total INTEGER NOT NULL,
+    attempts INTEGER NOT NULL,
+    last_played_at INTEGER NOT NULL,
+    PRIMARY KEY(user_id, category_id)) WITHOUT ROWID;
+
+CREATE TABLE quiz_attempts(
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    user_id INTEGER REFERENCES users(id) ON DELETE CASCADE,
+    category_id INTEGER NOT NULL REFERENCES categories(id) ON DELETE CASCADE,
+    seed INTEGER NOT NULL,
+    started_at INTEGER NOT NULL,
+    finished_at INTEGER,
+    score INTEGER,
+    total INTEGER);
+
+CREATE TABLE quiz_answers(
+    attempt_id INTEGER NOT NULL REFERENCES quiz_attempts(id) ON DELETE CASCADE,
+    question_number INTEGER NOT NULL,
+    question_id INTEGER NOT NULL,
+    selected_option INTEGER NOT NULL,
+    correct INTEGER NOT NULL,
+    response_time_ms INTEGER NOT NULL,
+    answered_at INTEGER NOT NULL,
+    PRIMARY KEY(attempt_id, question_number)) WITHOUT ROWID;
+
+CREATE VIRTUAL TABLE questions_fts USING fts4(
+    content="questions", question, option1, option2, option3, option4, prefix="2,3");
+
+CREATE TRIGGER trg_questions_fts_insert AFTER INSERT ON questions BEGIN
+    INSERT INTO questions_fts(docid, question, option1, option2, option3, option4)
+    VALUES (NEW.id, NEW.question, NEW.option1, NEW.option2, NEW.option3, NEW.option4);
+END;
+
+CREATE TRIGGER trg_questions_fts_delete BEFORE DELETE ON questions BEGIN
+    DELETE FROM questions_fts WHERE docid = OLD.id;
+END;
+
+CREATE TRIGGER trg_questions_fts_before_update
+    BEFORE UPDATE OF question, option1, option2, option3, option4 ON questions BEGIN
+    DELETE FROM questions_fts WHERE docid = OLD.id;
+END;
+
+CREATE TRIGGER trg_questions_fts_after_update
+    AFTER UPDATE OF question, option1, option2, option3, option4 ON questions BEGIN
+    INSERT INTO questions_fts(docid, question, option1, option2, option3, option4)
+    VALUES (NEW.id, NEW.question, NEW.option1, NEW.option2, NEW.option3, NEW.option4);
+END;
+
+CREATE TABLE review_state(
+    user_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    question_id INTEGER NOT NULL,
+    ease REAL NOT NULL,
+    interval_ms INTEGER NOT NULL,
+    due_at INTEGER NOT NULL,
+    repetitions INTEGER NOT NULL,
+    lapses INTEGER NOT NULL,
+    PRIMARY KEY(user_id, question_id)) WITHOUT ROWID;
+
+CREATE TRIGGER trg_questions_review_delete AFTER DELETE ON questions BEGIN
+    DELETE FROM review_state WHERE question_id = OLD.id;
+END;
+
+-- Indexes live in indexes.sql; the build task creates them after the seed rows are loaded.
+
+PRAGMA user_version = 10;
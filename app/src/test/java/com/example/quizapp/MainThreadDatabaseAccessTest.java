@@ -0,0 +1,186 @@
+package com.example.quizapp;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Looper;
+import android.widget.EditText;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.quizapp.db.DatabaseProvider;
+import com.example.quizapp.metrics.AppMetrics;
+import com.example.quizapp.models.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Drives the Signup, Login, Categories and Quiz screens on the JVM (Robolectric) and fails if any
+ * DatabaseHelper operation ran on the main thread while they did. The DatabaseHelper probes in
+ * AppMetrics count main-thread calls, so a screen that queries the database synchronously (say, in
+ * onCreate) is caught here, named by the offending method, without a device.
+ * The test thread is the main thread, so test setup that needs the database runs it on another thread.
+ */
+@RunWith(AndroidJUnit4.class)
+@Config(sdk = 34)
+public class MainThreadDatabaseAccessTest {
+    private static final long TIMEOUT_MILLIS = 10_000;
+    private static final String USERNAME = "strict_user";
+    private static final String PASSWORD = "strict_password";
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        // Anything the startup pipeline did so far happened off the main thread; start counting afresh
+        AppMetrics.REGISTRY.reset();
+    }
+
+    @After
+    public void tearDown() {
+        // Every test gets a new application and data directory, so drop the helper bound to the old one
+        DatabaseProvider.close();
+    }
+
+    @Test
+    public void signupDoesNotTouchTheDatabaseOnTheMainThread() {
+        try (ActivityScenario<SignupActivity> scenario = ActivityScenario.launch(SignupActivity.class)) {
+            SignupActivity activity = activityOf(scenario);
+            setText(activity, R.id.et_signup_username, USERNAME);
+            setText(activity, R.id.et_signup_password, PASSWORD);
+            setText(activity, R.id.et_signup_confirm_password, PASSWORD);
+            activity.findViewById(R.id.btn_signup).performClick();
+
+            Intent next = awaitStartedActivity(activity);
+            assertEquals(LoginActivity.class.getName(), next.getComponent().getClassName());
+        }
+        assertNoMainThreadDatabaseCalls();
+    }
+
+    @Test
+    public void loginDoesNotTouchTheDatabaseOnTheMainThread() {
+        long userId = offMainThread(() -> DatabaseProvider.get(context).addUser(new User(USERNAME, PASSWORD)));
+        assertTrue(userId > 0);
+
+        try (ActivityScenario<LoginActivity> scenario = ActivityScenario.launch(LoginActivity.class)) {
+            LoginActivity activity = activityOf(scenario);
+            setText(activity, R.id.et_login_username, USERNAME);
+            setText(activity, R.id.et_login_password, PASSWORD);
+            activity.findViewById(R.id.btn_login).performClick();
+
+            Intent next = awaitStartedActivity(activity);
+            assertEquals(CategoriesActivity.class.getName(), next.getComponent().getClassName());
+            assertEquals(userId, next.getLongExtra("USER_ID", -1));
+        }
+        assertNoMainThreadDatabaseCalls();
+    }
+
+    @Test
+    public void categoriesDoNotTouchTheDatabaseOnTheMainThread() {
+        Intent intent = new Intent(context, CategoriesActivity.class).putExtra("USER_ID", -1L);
+        try (ActivityScenario<CategoriesActivity> scenario = ActivityScenario.launch(intent)) {
+            CategoriesActivity activity = activityOf(scenario);
+            awaitOnMainThread("categories to load", () -> activity.getCategoryAdapter().getItemCount() > 0);
+        }
+        assertNoMainThreadDatabaseCalls();
+    }
+
+    @Test
+    public void aWholeQuizDoesNotTouchTheDatabaseOnTheMainThread() {
+        Intent intent = new Intent(context, QuizActivity.class)
+                .putExtra("CATEGORY_ID", 1)
+                .putExtra("QUIZ_SEED", 42L);
+        try (ActivityScenario<QuizActivity> scenario = ActivityScenario.launch(intent)) {
+            QuizActivity activity = activityOf(scenario);
+            QuizViewModel viewModel = activity.getViewModel();
+            int answered = 0;
+            while (shadowOf(activity).peekNextStartedActivity() == null) {
+                awaitOnMainThread("the next question", () -> viewModel.getStatus() == QuizViewModel.Status.QUESTION
+                        || shadowOf(activity).peekNextStartedActivity() != null);
+                if (shadowOf(activity).peekNextStartedActivity() != null) {
+                    break;
+                }
+                // Pick an option and confirm it (checkAnswer), then move on (showNextQuestion)
+                activity.findViewById(R.id.rb_option1).performClick();
+                activity.findViewById(R.id.btn_confirm_next).performClick();
+                assertTrue(viewModel.isAnswered());
+                activity.findViewById(R.id.btn_confirm_next).performClick();
+                answered++;
+                assertTrue("quiz never finished", answered <= viewModel.getQuestionCountTotal());
+            }
+            assertEquals(viewModel.getQuestionCountTotal(), answered);
+            Intent result = shadowOf(activity).getNextStartedActivity();
+            assertEquals(ResultActivity.class.getName(), result.getComponent().getClassName());
+        }
+        assertNoMainThreadDatabaseCalls();
+    }
+
+    private static void assertNoMainThreadDatabaseCalls() {
+        assertEquals("DatabaseHelper calls on the main thread", "{}",
+                AppMetrics.getMainThreadDatabaseCalls().toString());
+    }
+
+    private static <A extends Activity> A activityOf(ActivityScenario<A> scenario) {
+        AtomicReference<A> activity = new AtomicReference<>();
+        scenario.onActivity(activity::set);
+        return activity.get();
+    }
+
+    private static void setText(Activity activity, int id, String text) {
+        EditText field = activity.findViewById(id);
+        field.setText(text);
+    }
+
+    private static Intent awaitStartedActivity(Activity activity) {
+        awaitOnMainThread("the next screen", () -> shadowOf(activity).peekNextStartedActivity() != null);
+        return shadowOf(activity).getNextStartedActivity();
+    }
+
+    // Run the main looper until the condition holds; the background database work runs on its own
+    // threads in the meantime and posts its results back to the looper
+    private static void awaitOnMainThread(String what, BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for " + what);
+            }
+            shadowOf(Looper.getMainLooper()).idle();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private interface LongTask {
+        long run();
+    }
+
+    private static long offMainThread(LongTask task) {
+        long[] result = new long[1];
+        Thread thread = new Thread(() -> result[0] = task.run(), "test-setup");
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+        return result[0];
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.quizapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for QuizTimer on a fake clock: tick times, drift, pause/resume and time-out.
+ */
+public class QuizTimerTest {
+
+    // Clock and scheduler in one: time only moves when the test advances it
+    static final class FakeTime implements QuizTimer.Clock, QuizTimer.Scheduler {
+        long now;
+        Runnable task;
+        long taskTime;
+        int wakeUps;
+
+        @Override
+        public long now() {
+            return now;
+        }
+
+        @Override
+        public void scheduleAt(Runnable task, long time) {
+            this.task = task;
+            this.taskTime = time;
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            if (this.task == task) {
+                this.task = null;
+            }
+        }
+
+        // Move time forward, running the scheduled task whenever it comes due (possibly late by lateBy)
+        void advance(long millis, long lateBy) {
+            long end = now + millis;
+            while (task != null && taskTime + lateBy <= end) {
+                now = taskTime + lateBy;
+                Runnable due = task;
+                task = null;
+                wakeUps++;
+                due.run();
+            }
+            now = end;
+        }
+
+        void advance(long millis) {
+            advance(millis, 0);
+        }
+    }
+
+    private FakeTime time;
+    private QuizTimer timer;
+    private final List<Integer> seconds = new ArrayList<>();
+    private int finishes;
+
+    @Before
+    public void setUp() {
+        time = new FakeTime();
+        time.now = 1_000_000;
+        timer = new QuizTimer(time, time);
+        timer.setListener(new QuizTimer.Listener() {
+            @Override
+            public void onSecondsLeftChanged(int secondsLeft) {
+                seconds.add(secondsLeft);
+            }
+
+            @Override
+            public void onFinish() {
+                finishes++;
+            }
+        });
+    }
+
+    @Test
+    public void countsDownOncePerSecondAndFinishesOnce() {
+        timer.start(3000);
+        assertEquals(List.of(3), seconds);
+        time.advance(999);
+        assertEquals(List.of(3), seconds);
+        time.advance(1);
+        assertEquals(List.of(3, 2), seconds);
+        time.advance(2000);
+        assertEquals(List.of(3, 2, 1, 0), seconds);
+        assertEquals(1, finishes);
+        assertTrue(timer.isFinished());
+        assertEquals(3, time.wakeUps);
+
+        time.advance(10_000);
+        assertEquals(1, finishes);
+    }
+
+    @Test
+    public void lateWakeUpsDoNotDrift() {
+        timer.start(30_000);
+        // Every wake-up is 40 ms late, yet the countdown still ends exactly 30 s after the start
+        time.advance(29_999, 40);
+        assertEquals(0, finishes);
+        time.advance(1 + 40, 40);
+        assertEquals(1, finishes);
+        assertEquals(31, seconds.size());
+    }
+
+    @Test
+    public void pauseFreezesTimeLeftUntilResume() {
+        timer.start(10_000);
+        time.advance(4_500);
+        timer.pause();
+        assertEquals(5_500, timer.getTimeLeftMillis());
+        assertFalse(timer.isRunning());
+
+        time.advance(60_000);
+        assertEquals(0, finishes);
+        assertEquals(5_500, timer.getTimeLeftMillis());
+
+        timer.resume();
+        time.advance(5_499);
+        assertEquals(0, finishes);
+        time.advance(1);
+        assertEquals(1, finishes);
+    }
+
+    @Test
+    public void questionStartedWhilePausedWaitsForResume() {
+        timer.pause();
+        timer.start(5_000);
+        assertEquals(List.of(5), seconds);
+        time.advance(20_000);
+        assertEquals(5_000, timer.getTimeLeftMillis());
+        timer.resume();
+        time.advance(5_000);
+        assertEquals(1, finishes);
+    }
+
+    @Test
+    public void stopKeepsTimeLeftAndNeverTimesOut() {
+        timer.start(30_000);
+        time.advance(12_345);
+        timer.stop();
+        assertEquals(17_655, timer.getTimeLeftMillis());
+        time.advance(60_000);
+        assertEquals(0, finishes);
+        assertFalse(timer.isFinished());
+    }
+
+    @Test
+    public void finishWithoutListenerIsDeliveredOnAttach() {
+        timer.start(1_000);
+        timer.setListener(null);
+        time.advance(1_000);
+        assertEquals(0, finishes);
+
+        seconds.clear();
+        timer.setListener(new QuizTimer.Listener() {
+            @Override
+            public void onSecondsLeftChanged(int secondsLeft) {
+                seconds.add(secondsLeft);
+            }
+
+            @Override
+            public void onFinish() {
+                finishes++;
+            }
+        });
+        assertEquals(List.of(0), seconds);
+        assertEquals(1, finishes);
+    }
+
+    @Test
+    public void restartReplacesTheRunningCountdown() {
+        timer.start(2_000);
+        time.advance(1_500);
+        timer.start(2_000);
+        time.advance(1_999);
+        assertEquals(0, finishes);
+        time.advance(1);
+        assertEquals(1, finishes);
+    }
+}
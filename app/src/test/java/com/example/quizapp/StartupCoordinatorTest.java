@@ -0,0 +1,120 @@
+package com.example.quizapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for StartupCoordinator with hand-driven executors: dependency order, the
+ * critical path callback and skipping the dependents of a failed stage.
+ */
+public class StartupCoordinatorTest {
+    private final Queue<Runnable> workerQueue = new ArrayDeque<>();
+    private final Queue<Runnable> callbackQueue = new ArrayDeque<>();
+    private final List<String> ran = new ArrayList<>();
+    private StartupCoordinator startup;
+
+    @Before
+    public void setUp() {
+        startup = new StartupCoordinator(workerQueue::add, callbackQueue::add);
+    }
+
+    @Test
+    public void stagesStartOnlyAfterTheirDependencies() {
+        startup.addStage("open", true, record("open"), "install")
+                .addStage("install", true, record("install"))
+                .addStage("categories", false, record("categories"), "open")
+                .addStage("cache", false, record("cache"), "open");
+        startup.start(0);
+        assertEquals(1, workerQueue.size());
+
+        runWorkers();
+        assertEquals(List.of("install", "open", "categories", "cache"), ran);
+        assertTrue(startup.isDone());
+        assertEquals(4, startup.getTimeline().size());
+    }
+
+    @Test
+    public void criticalPathCallbackDoesNotWaitForOtherStages() {
+        startup.addStage("install", true, record("install"))
+                .addStage("open", true, record("open"), "install")
+                .addStage("cache", false, record("cache"), "open");
+        List<String> callbacks = new ArrayList<>();
+        startup.whenCriticalPathDone(() -> callbacks.add("critical"));
+        startup.start(0);
+
+        workerQueue.poll().run();
+        workerQueue.poll().run();
+        assertTrue(startup.isCriticalPathDone());
+        assertFalse(startup.isDone());
+        runCallbacks();
+        assertEquals(List.of("critical"), callbacks);
+
+        // A late subscriber is called at once
+        startup.whenCriticalPathDone(() -> callbacks.add("late"));
+        runCallbacks();
+        assertEquals(List.of("critical", "late"), callbacks);
+
+        runWorkers();
+        assertTrue(startup.isDone());
+    }
+
+    @Test
+    public void failedStageSkipsItsDependents() {
+        startup.addStage("install", true, () -> {
+            throw new IllegalStateException("no space left");
+        }).addStage("open", true, record("open"), "install")
+                .addStage("cache", false, record("cache"), "open")
+                .addStage("fonts", false, record("fonts"));
+        List<String> callbacks = new ArrayList<>();
+        startup.whenCriticalPathDone(() -> callbacks.add("critical"));
+        startup.start(0);
+        runWorkers();
+        runCallbacks();
+
+        assertEquals(List.of("fonts"), ran);
+        // The splash still moves on; the screens report the database error themselves
+        assertEquals(List.of("critical"), callbacks);
+        assertTrue(startup.isDone());
+        List<String> outcomes = new ArrayList<>();
+        for (StartupCoordinator.StageTiming timing : startup.getTimeline()) {
+            outcomes.add(timing.name + ":" + timing.outcome);
+        }
+        assertEquals(List.of("install:failed", "open:skipped", "cache:skipped", "fonts:ok"), outcomes);
+    }
+
+    @Test
+    public void unknownDependencyIsRejected() {
+        startup.addStage("open", true, record("open"), "install");
+        try {
+            startup.start(0);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(workerQueue.isEmpty());
+        }
+    }
+
+    private Runnable record(String name) {
+        return () -> ran.add(name);
+    }
+
+    private void runWorkers() {
+        Runnable task;
+        while ((task = workerQueue.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void runCallbacks() {
+        Runnable task;
+        while ((task = callbackQueue.poll()) != null) {
+            task.run();
+        }
+    }
+}
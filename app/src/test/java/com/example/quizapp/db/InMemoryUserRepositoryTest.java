@@ -0,0 +1,15 @@
+package com.example.quizapp.db;
+
+import com.example.quizapp.data.UserRepository;
+import com.example.quizapp.data.UserRepositoryContract;
+
+/**
+ * Runs the UserRepository contract against InMemoryUserRepository.
+ */
+public class InMemoryUserRepositoryTest extends UserRepositoryContract {
+
+    @Override
+    protected UserRepository createRepository() {
+        return new InMemoryUserRepository();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.quizapp.db;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for PasswordHasher: PBKDF2 output, verification, rehash decisions and calibration math.
+ */
+public class PasswordHasherTest {
+
+    private static String hex(byte[] bytes) {
+        StringBuilder out = new StringBuilder();
+        for (byte b : bytes) {
+            out.append(String.format("%02x", b));
+        }
+        return out.toString();
+    }
+
+    @Test
+    public void pbkdf2MatchesPublishedVectors() throws Exception {
+        byte[] salt = "salt".getBytes(StandardCharsets.UTF_8);
+        byte[] password = "password".getBytes(StandardCharsets.UTF_8);
+        assertEquals("120fb6cffcf8b32c43e7225256c4f837a86548c92ccc35480805987cb70be17b",
+                hex(PasswordHasher.pbkdf2WithMac(password, salt, 1, 32)));
+        assertEquals("ae4d0c95af6b46d32d0adff928f06dd02a303f8ef3c251dfd6e2d85a95474c43",
+                hex(PasswordHasher.pbkdf2WithMac(password, salt, 2, 32)));
+        assertEquals("c5e478d59288c841aa530db6845c4c8d962893a001ce4e11a4963873aa98134a",
+                hex(PasswordHasher.pbkdf2WithMac(password, salt, 4096, 32)));
+    }
+
+    @Test
+    public void macFallbackMatchesPlatformImplementation() throws Exception {
+        byte[] salt = new byte[PasswordHasher.SALT_BYTES];
+        for (int i = 0; i < salt.length; i++) {
+            salt[i] = (byte) (i * 31);
+        }
+        // More than one output block, and a non-ASCII password
+        for (String password : new String[]{"secret", "p\u00e4ssw\u00f6rd \u2713"}) {
+            assertArrayEquals(PasswordHasher.pbkdf2(password, salt, 1000, 48),
+                    PasswordHasher.pbkdf2WithMac(password.getBytes(StandardCharsets.UTF_8), salt, 1000, 48));
+        }
+    }
+
+    @Test
+    public void verifiesOnlyTheRightPassword() {
+        PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+        PasswordHasher.Credentials credentials = hasher.hash("secret");
+        assertEquals(PasswordHasher.ALGORITHM, credentials.algorithm);
+        assertEquals(PasswordHasher.SALT_BYTES, credentials.salt.length);
+        assertEquals(PasswordHasher.HASH_BYTES, credentials.hash.length);
+        assertTrue(hasher.verify("secret", credentials));
+        assertFalse(hasher.verify("Secret", credentials));
+        assertFalse(hasher.verify("", credentials));
+
+        // Same password, fresh salt, different hash
+        assertFalse(java.util.Arrays.equals(credentials.hash, hasher.hash("secret").hash));
+    }
+
+    @Test
+    public void weakerParametersNeedRehash() {
+        PasswordHasher old = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+        PasswordHasher current = new PasswordHasher(PasswordHasher.MIN_ITERATIONS * 2);
+        PasswordHasher.Credentials stored = old.hash("secret");
+        assertTrue(current.needsRehash(stored));
+        assertFalse(old.needsRehash(stored));
+        assertFalse(current.needsRehash(current.hash("secret")));
+        // A stronger stored hash is kept, and still verifies under the weaker policy
+        assertFalse(old.needsRehash(current.hash("secret")));
+        assertTrue(old.verify("secret", current.hash("secret")));
+        assertTrue(current.needsRehash(new PasswordHasher.Credentials("sha1", 1_000_000, stored.salt, stored.hash)));
+    }
+
+    @Test
+    public void calibrationScalesToTargetWithinBounds() {
+        // 5000 iterations in 10 ms: 2 us each, so 250 ms buys 125000
+        assertEquals(125_000, PasswordHasher.iterationsFor(5_000, 10_000_000L, 250));
+        // Rounded down to a thousand
+        assertEquals(83_000, PasswordHasher.iterationsFor(5_000, 15_000_000L, 250));
+        assertEquals(PasswordHasher.MIN_ITERATIONS, PasswordHasher.iterationsFor(5_000, 1_000_000_000L, 250));
+        assertEquals(PasswordHasher.MAX_ITERATIONS, PasswordHasher.iterationsFor(5_000, 1L, 250));
+        assertEquals(PasswordHasher.MIN_ITERATIONS, new PasswordHasher(5).getIterations());
+    }
+}
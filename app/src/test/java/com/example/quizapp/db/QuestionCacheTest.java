@@ -0,0 +1,120 @@
+package com.example.quizapp.db;
+
+import com.example.quizapp.models.Question;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for QuestionCache: byte-bounded LRU eviction, counters and invalidation.
+ */
+public class QuestionCacheTest {
+
+    private static Question question(int id, int categoryId) {
+        Question question = new Question("Question " + id, "A", "B", "C", "D", 1, categoryId);
+        question.setId(id);
+        return question;
+    }
+
+    private static long sizeOfCategory(int categoryId, int questions) {
+        QuestionCache probe = new QuestionCache(Long.MAX_VALUE);
+        fill(probe, categoryId, questions);
+        return probe.sizeBytes();
+    }
+
+    private static void fill(QuestionCache cache, int categoryId, int questions) {
+        long[] ids = new long[questions];
+        Question[] loaded = new Question[questions];
+        for (int i = 0; i < questions; i++) {
+            ids[i] = categoryId * 1000 + i;
+            loaded[i] = question((int) ids[i], categoryId);
+        }
+        cache.putIds(categoryId, ids, cache.generation());
+        cache.putQuestions(categoryId, Arrays.asList(loaded), cache.generation());
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        QuestionCache cache = new QuestionCache(Long.MAX_VALUE);
+        assertNull(cache.getIds(1));
+        fill(cache, 1, 3);
+
+        assertArrayEquals(new long[]{1000, 1001, 1002}, cache.getIds(1));
+        assertEquals("Question 1001", cache.getQuestion(1, 1001).getQuestion());
+        assertNull(cache.getQuestion(1, 4242));
+
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedCategoryWhenOverBudget() {
+        long perCategory = sizeOfCategory(1, 10);
+        QuestionCache cache = new QuestionCache(perCategory * 2 + perCategory / 2);
+        fill(cache, 1, 10);
+        fill(cache, 2, 10);
+
+        // Touch category 1 so category 2 becomes the eldest
+        assertNotNull(cache.getIds(1));
+        fill(cache, 3, 10);
+
+        assertNotNull(cache.getIds(1));
+        assertNull(cache.getIds(2));
+        assertNotNull(cache.getIds(3));
+        assertEquals(1, cache.evictionCount());
+        assertTrue(cache.sizeBytes() <= cache.maxBytes());
+    }
+
+    @Test
+    public void sizeTracksReplacedQuestions() {
+        QuestionCache cache = new QuestionCache(Long.MAX_VALUE);
+        fill(cache, 1, 5);
+        long size = cache.sizeBytes();
+        fill(cache, 1, 5);
+        assertEquals(size, cache.sizeBytes());
+    }
+
+    @Test
+    public void invalidationDropsEntriesAndRejectsStaleResults() {
+        QuestionCache cache = new QuestionCache(Long.MAX_VALUE);
+        fill(cache, 1, 5);
+        fill(cache, 2, 5);
+
+        // A query that started before the write must not put its result back afterwards
+        long generation = cache.generation();
+        cache.invalidate(1);
+        cache.putIds(1, new long[]{1000}, generation);
+        cache.putQuestions(1, Collections.singletonList(question(1000, 1)), generation);
+
+        assertNull(cache.getIds(1));
+        assertNull(cache.getQuestion(1, 1000));
+        assertNotNull(cache.getIds(2));
+
+        cache.invalidateAll();
+        assertNull(cache.getIds(2));
+        assertEquals(0, cache.sizeBytes());
+    }
+
+    @Test
+    public void trimKeepsMostRecentCategories() {
+        QuestionCache cache = new QuestionCache(Long.MAX_VALUE);
+        List<Integer> categories = Arrays.asList(1, 2, 3, 4);
+        for (int categoryId : categories) {
+            fill(cache, categoryId, 10);
+        }
+
+        cache.trimToSize(cache.sizeBytes() / 2);
+        assertNull(cache.getIds(1));
+        assertNull(cache.getIds(2));
+        assertNotNull(cache.getIds(4));
+
+        cache.evictAll();
+        assertEquals(0, cache.sizeBytes());
+        assertNull(cache.getIds(4));
+    }
+}
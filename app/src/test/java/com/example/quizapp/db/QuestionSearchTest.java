@@ -0,0 +1,84 @@
+package com.example.quizapp.db;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for QuestionSearch: MATCH expressions, BM25 scoring and paged top-N ranking.
+ */
+public class QuestionSearchTest {
+
+    @Test
+    public void termsBecomeLowercasePrefixes() {
+        assertEquals("moon*", QuestionSearch.toMatchQuery("Moon"));
+        assertEquals("wwii* end*", QuestionSearch.toMatchQuery("  WWII, end?"));
+    }
+
+    @Test
+    public void operatorsAndSyntaxAreNotInterpreted() {
+        assertEquals("moon* not* sun*", QuestionSearch.toMatchQuery("moon NOT \"sun*\""));
+        assertEquals("near* ab*", QuestionSearch.toMatchQuery("NEAR/3 -ab ^"));
+    }
+
+    @Test
+    public void nothingSearchableGivesNull() {
+        assertNull(QuestionSearch.toMatchQuery(null));
+        assertNull(QuestionSearch.toMatchQuery(""));
+        assertNull(QuestionSearch.toMatchQuery("a * ?"));
+    }
+
+    @Test
+    public void termCountIsCapped() {
+        String match = QuestionSearch.toMatchQuery("aa bb cc dd ee ff gg hh ii jj");
+        assertEquals(QuestionSearch.MAX_TERMS, match.split(" ").length);
+    }
+
+    @Test
+    public void questionTextHitOutranksOptionHit() {
+        double inQuestion = QuestionSearch.score(matchinfo(0, 1));
+        double inOption = QuestionSearch.score(matchinfo(2, 1));
+        assertTrue(inQuestion > inOption);
+        assertTrue(QuestionSearch.score(matchinfo(0, 3)) > inQuestion);
+        assertEquals(0.0, QuestionSearch.score(matchinfo(0, 0)), 0.0);
+    }
+
+    @Test
+    public void topHitsRanksBestFirstAndPages() {
+        QuestionSearch.TopHits top = new QuestionSearch.TopHits(4);
+        double[] scores = {0.5, 3.0, 1.0, 3.0, 0.1, 2.0, 9.0};
+        for (int i = 0; i < scores.length; i++) {
+            top.offer(i + 1, scores[i]);
+        }
+        assertEquals(4, top.size());
+        // Ties rank the lower id first
+        assertArrayEquals(new long[]{7, 2, 4, 6}, top.drainRanked(0));
+
+        top = new QuestionSearch.TopHits(4);
+        for (int i = 0; i < scores.length; i++) {
+            top.offer(i + 1, scores[i]);
+        }
+        assertArrayEquals(new long[]{4, 6}, top.drainRanked(2));
+        assertArrayEquals(new long[0], new QuestionSearch.TopHits(3).drainRanked(5));
+    }
+
+    // 'pcnalx' blob for one phrase over five columns of length 10, with hits only in the given column
+    private static byte[] matchinfo(int column, int hits) {
+        int columns = 5;
+        ByteBuffer buffer = ByteBuffer.allocate(4 * (3 + 2 * columns + 3 * columns)).order(ByteOrder.nativeOrder());
+        buffer.putInt(1).putInt(columns).putInt(1000);
+        for (int c = 0; c < columns; c++) {
+            buffer.putInt(10);
+        }
+        for (int c = 0; c < columns; c++) {
+            buffer.putInt(10);
+        }
+        for (int c = 0; c < columns; c++) {
+            buffer.putInt(c == column ? hits : 0).putInt(50).putInt(c == column ? 40 : 0);
+        }
+        return buffer.array();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.quizapp.db;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for SessionJournal: replay, torn-tail recovery and compaction.
+ */
+public class SessionJournalTest {
+    private static final long[] IDS = {42, 7, 19, 3, 88, 61, 5, 14, 30, 2};
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("quiz_session", ".journal");
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    private SessionJournal journal() {
+        // Direct executor: every write has happened when the call returns
+        return new SessionJournal(file, Runnable::run);
+    }
+
+    @Test
+    public void emptyJournalHasNoSession() throws IOException {
+        assertNull(journal().replay());
+    }
+
+    @Test
+    public void replayRestoresOrderProgressAndScore() throws IOException {
+        SessionJournal journal = journal();
+        journal.begin(2, 1234L, IDS);
+        journal.recordAnswer(1, 42, 3, true);
+        journal.recordAnswer(2, 7, 1, false);
+        journal.recordAnswer(3, 19, 0, false);
+        journal.recordAnswer(4, 3, 2, true);
+        journal.recordAnswer(5, 88, 4, true);
+
+        // A fresh instance, as after process death
+        SessionJournal.Session session = journal().replay();
+        assertNotNull(session);
+        assertEquals(2, session.categoryId);
+        assertEquals(1234L, session.seed);
+        assertArrayEquals(IDS, session.questionIds);
+        assertEquals(5, session.answeredCount);
+        assertEquals(3, session.score);
+    }
+
+    @Test
+    public void tornTailIsDroppedAndAppendingContinues() throws IOException {
+        SessionJournal journal = journal();
+        journal.begin(1, 1L, IDS);
+        journal.recordAnswer(1, 42, 1, true);
+        long intact = file.length();
+        journal.recordAnswer(2, 7, 1, true);
+
+        // Cut the last record in half, as a kill in the middle of a write would
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(intact + 5);
+        }
+
+        SessionJournal restored = journal();
+        SessionJournal.Session session = restored.replay();
+        assertEquals(1, session.answeredCount);
+        assertEquals(1, session.score);
+        assertEquals(intact, file.length());
+
+        restored.recordAnswer(2, 7, 2, false);
+        session = journal().replay();
+        assertEquals(2, session.answeredCount);
+        assertEquals(1, session.score);
+    }
+
+    @Test
+    public void corruptRecordStopsReplay() throws IOException {
+        SessionJournal journal = journal();
+        journal.begin(1, 1L, IDS);
+        long intact = file.length();
+        journal.recordAnswer(1, 42, 1, true);
+
+        byte[] data = Files.readAllBytes(file.toPath());
+        data[(int) intact + 4] ^= 0x55;
+        Files.write(file.toPath(), data);
+
+        SessionJournal.Session session = journal().replay();
+        assertEquals(0, session.answeredCount);
+        assertEquals(intact, file.length());
+    }
+
+    @Test
+    public void beginReplacesThePreviousSession() throws IOException {
+        SessionJournal journal = journal();
+        journal.begin(1, 1L, IDS);
+        journal.recordAnswer(1, 42, 1, true);
+        journal.begin(3, 2L, new long[]{9, 8});
+
+        SessionJournal.Session session = journal().replay();
+        assertEquals(3, session.categoryId);
+        assertArrayEquals(new long[]{9, 8}, session.questionIds);
+        assertEquals(0, session.answeredCount);
+    }
+
+    @Test
+    public void finishCompactsTheJournalAway() throws IOException {
+        SessionJournal journal = journal();
+        journal.begin(1, 1L, IDS);
+        for (int i = 0; i < IDS.length; i++) {
+            journal.recordAnswer(i + 1, IDS[i], 1, false);
+        }
+        journal.sync();
+        journal.finish();
+
+        assertFalse(file.exists());
+        assertNull(journal().replay());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.quizapp.metrics;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for StrictModeReport's attribution of violations to the code that caused them.
+ */
+public class StrictModeReportTest {
+    private static final String HELPER = "com.example.quizapp.db.DatabaseHelper";
+
+    private static StackTraceElement frame(String className, String method) {
+        return new StackTraceElement(className, method, null, -1);
+    }
+
+    @Test
+    public void violationsAreAttributedToTheInnermostHelperMethod() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        StrictModeReport report = new StrictModeReport(registry, HELPER, "com.example.quizapp");
+        StackTraceElement[] stack = {
+                frame("android.database.sqlite.SQLiteConnection", "executeForCursorWindow"),
+                frame(HELPER, "authenticate"),
+                frame(HELPER, "checkUser"),
+                frame("com.example.quizapp.LoginActivity", "onCreate"),
+        };
+
+        assertTrue(report.isEmpty());
+        assertEquals("DatabaseHelper.authenticate", report.record("DiskRead", stack));
+        report.record("DiskRead", stack);
+        assertEquals(2, report.getCount("DiskRead", "DatabaseHelper.authenticate"));
+        assertEquals(0, report.getCount("DiskWrite", "DatabaseHelper.authenticate"));
+        assertEquals(2, registry.counter("strictmode.DiskRead.DatabaseHelper.authenticate").get());
+
+        StringBuilder text = new StringBuilder();
+        report.writeTo(text);
+        assertTrue(text.toString().startsWith("DiskRead at DatabaseHelper.authenticate: 2\n"));
+        assertTrue(text.toString().contains("    at com.example.quizapp.LoginActivity.onCreate"));
+    }
+
+    @Test
+    public void otherViolationsFallBackToAppCodeOutsideTheGuard() {
+        StrictModeReport report = new StrictModeReport(new MetricsRegistry(), HELPER, "com.example.quizapp");
+        StackTraceElement[] anonymousHelperClass = {
+                frame(HELPER + "$2", "run"),
+        };
+        StackTraceElement[] appCode = {
+                frame("java.io.FileInputStream", "open"),
+                frame("com.example.quizapp.metrics.AppMetrics", "export"),
+                frame("com.example.quizapp.db.SessionJournal$Writer", "append"),
+                frame("com.example.quizapp.QuizViewModel", "persistProgress"),
+        };
+        StackTraceElement[] frameworkOnly = {
+                frame("android.app.ActivityThread", "main"),
+        };
+
+        assertEquals("DatabaseHelper.run", report.record("DiskRead", anonymousHelperClass));
+        assertEquals("SessionJournal.append", report.record("DiskWrite", appCode));
+        assertEquals(StrictModeReport.UNATTRIBUTED, report.record("LeakedClosable", frameworkOnly));
+        report.clear();
+        assertTrue(report.isEmpty());
+    }
+}
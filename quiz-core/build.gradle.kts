@@ -0,0 +1,25 @@
+// Quiz rules and the Question model in plain Java, so they can be unit tested and benchmarked on any
+// JVM. Run the benchmarks with ./gradlew :quiz-core:jmh (results in build/results/jmh).
+// The repository contracts in src/testFixtures are shared with the app's backends (testFixtures(...)).
+plugins {
+    `java-library`
+    `java-test-fixtures`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    testFixturesApi(libs.junit)
+    testImplementation(libs.junit)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    resultFormat.set("JSON")
+    // e.g. ./gradlew :quiz-core:jmh -PjmhIncludes=shuffle
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+}
@@ -0,0 +1,107 @@
+package com.example.quizapp.core;
+
+import com.example.quizapp.models.Question;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the quiz rules against the size of a category, from 1k to 1M questions: drawing a quiz,
+ * shuffling a whole id list, grading every question once, summing up that many answers and playing
+ * a session through all of them.
+ * Run with ./gradlew :quiz-core:jmh; each result is the time for one operation over questionCount items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuizEngineBenchmark {
+    private static final int QUIZ_SIZE = 10;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int questionCount;
+
+    private long[] ids;
+    private long[] shuffled;
+    private Question[] questions;
+    private int[] answers;
+    private long[] responseMillis;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void createCategory() {
+        Random random = new Random(42);
+        ids = new long[questionCount];
+        questions = new Question[questionCount];
+        answers = new int[questionCount];
+        responseMillis = new long[questionCount];
+        for (int i = 0; i < questionCount; i++) {
+            ids[i] = i + 1;
+            questions[i] = new Question("Question " + i, "A", "B", "C", "D", 1 + random.nextInt(4), 1);
+            questions[i].setId(i + 1);
+            // Nothing selected (time ran out) now and then, like real answers
+            answers[i] = QuizEngine.answerNrForOption(random.nextInt(QuizEngine.OPTION_COUNT + 1) - 1);
+            responseMillis[i] = 500 + random.nextInt(29_500);
+        }
+        shuffled = ids.clone();
+    }
+
+    // A new seed every call, as every play draws a different quiz
+    @Benchmark
+    public long[] sample() {
+        return QuizEngine.sample(ids, QUIZ_SIZE, ++seed);
+    }
+
+    // Shuffles the previous order again: still a uniform permutation, without a copy in the measurement
+    @Benchmark
+    public long[] shuffle() {
+        QuizEngine.shuffle(shuffled, ++seed);
+        return shuffled;
+    }
+
+    @Benchmark
+    public int grade() {
+        int correct = 0;
+        for (int i = 0; i < questionCount; i++) {
+            if (QuizEngine.isCorrect(questions[i], answers[i])) {
+                correct++;
+            }
+        }
+        return correct;
+    }
+
+    @Benchmark
+    public QuizStats aggregate() {
+        QuizStats.Accumulator stats = new QuizStats.Accumulator(questionCount);
+        for (int i = 0; i < questionCount; i++) {
+            stats.add(answers[i] == questions[i].getAnswerNr(), responseMillis[i]);
+        }
+        return stats.build();
+    }
+
+    // One session through every question: present, grade, score, and the stats summary at the end
+    @Benchmark
+    public QuizStats playSession() {
+        QuizSession session = new QuizSession(ids);
+        for (int i = 0; i < questionCount; i++) {
+            session.present(questions[i]);
+            session.answer(answers[i], responseMillis[i]);
+        }
+        return session.getStats();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.quizapp.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of spaced-repetition scheduling against the number of question-user pairs held, up to 1M:
+ * picking the next quiz, recording one answer, counting due reviews, playing a whole quiz (pick ten,
+ * answer ten) and loading every pair from stored state. A fifth of the pairs were never answered;
+ * the rest are due anywhere from a month ago to a month ahead, so there is always a backlog.
+ * playQuizCaughtUp plays a user with no backlog: every stored review is a month further out, reloaded
+ * each iteration, so quizzes mix the misses falling due again, new questions and the soonest upcoming reviews.
+ * Run with ./gradlew :quiz-core:jmh -PjmhIncludes=ReviewScheduler; each result is the time for one operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReviewSchedulerBenchmark {
+    private static final int QUIZ_SIZE = 10;
+    private static final long QUIZ_TIME_LIMIT_MILLIS = 30_000;
+    private static final long MONTH_MILLIS = 30 * ReviewScheduler.DAY_MILLIS;
+
+    @Param({"10000", "100000", "1000000"})
+    public int pairCount;
+
+    private long[] dueTimes;
+    private long[] intervals;
+    private ReviewScheduler scheduler;
+    private ReviewScheduler caughtUp;
+    private long caughtUpNow;
+    private Random random;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void createPairs() {
+        Random setup = new Random(42);
+        now = 2 * MONTH_MILLIS;
+        dueTimes = new long[pairCount];
+        intervals = new long[pairCount];
+        for (int i = 0; i < pairCount; i++) {
+            // 0 marks a pair that was never answered
+            if (setup.nextInt(5) != 0) {
+                intervals[i] = (1 + setup.nextInt(60)) * ReviewScheduler.DAY_MILLIS;
+                dueTimes[i] = now - MONTH_MILLIS + (long) (setup.nextDouble() * 2 * MONTH_MILLIS);
+            }
+        }
+        scheduler = load();
+        random = new Random(7);
+    }
+
+    @Setup(Level.Iteration)
+    public void catchUp() {
+        caughtUp = load(MONTH_MILLIS);
+        caughtUpNow = 2 * MONTH_MILLIS;
+    }
+
+    @Benchmark
+    public ReviewScheduler load() {
+        return load(0);
+    }
+
+    // Every stored due time moved on by shiftMillis
+    private ReviewScheduler load(long shiftMillis) {
+        ReviewScheduler loaded = new ReviewScheduler(pairCount);
+        for (int i = 0; i < pairCount; i++) {
+            if (dueTimes[i] == 0) {
+                loaded.addNew(i + 1);
+            } else {
+                loaded.add(i + 1, ReviewScheduler.INITIAL_EASE, intervals[i], dueTimes[i] + shiftMillis, 2, 0);
+            }
+        }
+        return loaded;
+    }
+
+    @Benchmark
+    public long[] nextQuiz() {
+        return scheduler.next(QUIZ_SIZE, now);
+    }
+
+    // The clock moves on a little with every answer, as it does in a real session
+    @Benchmark
+    public long recordAnswer() {
+        long id = 1 + random.nextInt(pairCount);
+        now += 1000;
+        scheduler.record(id, random.nextInt(ReviewScheduler.MAX_GRADE + 1), now);
+        return scheduler.getDueAt(id);
+    }
+
+    @Benchmark
+    public int countDue() {
+        return scheduler.countDue(now);
+    }
+
+    @Benchmark
+    public long playQuiz() {
+        now = play(scheduler, now);
+        return now;
+    }
+
+    @Benchmark
+    public long playQuizCaughtUp() {
+        caughtUpNow = play(caughtUp, caughtUpNow);
+        return caughtUpNow;
+    }
+
+    // Pick a quiz at time now, then answer each question in turn, mostly correctly; returns the time after
+    private long play(ReviewScheduler scheduler, long now) {
+        long[] quiz = scheduler.next(QUIZ_SIZE, now);
+        for (long id : quiz) {
+            now += 5000;
+            boolean correct = random.nextInt(4) != 0;
+            int grade = ReviewScheduler.grade(correct, random.nextInt((int) QUIZ_TIME_LIMIT_MILLIS),
+                    QUIZ_TIME_LIMIT_MILLIS);
+            scheduler.record(id, grade, now);
+        }
+        return now;
+    }
+}
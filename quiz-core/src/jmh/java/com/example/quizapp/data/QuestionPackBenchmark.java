@@ -0,0 +1,100 @@
+package com.example.quizapp.data;
+
+import com.example.quizapp.core.QuizEngine;
+import com.example.quizapp.models.Category;
+import com.example.quizapp.models.Question;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QuestionPack against the heap-resident InMemoryQuizRepository, from 10k to 1M questions in ten
+ * categories: opening a pack, decoding a whole category, and decoding one ten-question quiz by id.
+ * Run with ./gradlew :quiz-core:jmh -PjmhIncludes=QuestionPack; the SQLite side of the comparison is
+ * QuestionPackBenchmarkTest, which needs a device.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestionPackBenchmark {
+    private static final int CATEGORY_COUNT = 10;
+    private static final int QUIZ_SIZE = 10;
+
+    @Param({"10000", "100000", "1000000"})
+    public int questionCount;
+
+    private File file;
+    private QuestionPack pack;
+    private InMemoryQuizRepository memory;
+    private long[] categoryIds;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void writePack() throws IOException {
+        List<Category> categories = new ArrayList<>();
+        for (int c = 1; c <= CATEGORY_COUNT; c++) {
+            Category category = new Category("Category " + c, c);
+            category.setId(c);
+            categories.add(category);
+        }
+        List<Question> questions = new ArrayList<>(questionCount);
+        for (int i = 0; i < questionCount; i++) {
+            Question question = new Question("Question " + i + " of the benchmark bank?", "True", "False",
+                    "Option " + (i % 50), "Option " + (i % 70), 1 + i % 4, 1 + i % CATEGORY_COUNT);
+            question.setId(i + 1);
+            questions.add(question);
+        }
+        file = File.createTempFile("benchmark", ".qpak");
+        QuestionPack.write(file, categories, questions);
+        pack = QuestionPack.open(file);
+        memory = new InMemoryQuizRepository(categories, questions);
+        categoryIds = pack.getQuestionIds(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void deletePack() {
+        file.delete();
+    }
+
+    @Benchmark
+    public QuestionPack open() throws IOException {
+        return QuestionPack.open(file);
+    }
+
+    @Benchmark
+    public List<Question> packCategory() {
+        return pack.getQuestionsByCategory(1);
+    }
+
+    @Benchmark
+    public List<Question> memoryCategory() {
+        return memory.getQuestionsByCategory(1);
+    }
+
+    // A new quiz every call, decoded in sample order
+    @Benchmark
+    public List<Question> packQuiz() {
+        long[] sample = QuizEngine.sample(categoryIds, QUIZ_SIZE, ++seed);
+        return pack.getQuestionsByIds(1, sample, 0, sample.length);
+    }
+}
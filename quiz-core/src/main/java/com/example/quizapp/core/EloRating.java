@@ -0,0 +1,43 @@
+package com.example.quizapp.core;
+
+/**
+ * EloRating holds the rules that rate users and questions on one scale: every answer is a match between
+ * a user's skill rating and the question's difficulty rating. A correct answer moves the user up and
+ * the question down by how unexpected it was, a miss the other way, so each answer is an O(1) update of
+ * two numbers and nothing is ever recomputed from the answer history.
+ * A new user or question starts at INITIAL_RATING and moves fast; the step (the K factor) shrinks as
+ * more answers are rated, so settled ratings stay stable.
+ */
+public final class EloRating {
+    public static final double INITIAL_RATING = 1500;
+
+    // A rating SCALE points above the other wins ten times as often as it loses
+    static final double SCALE = 400;
+    static final double MAX_K = 64;
+    static final double MIN_K = 16;
+    // After this many rated answers the K factor is half of MAX_K
+    static final int SETTLING_ANSWERS = 20;
+
+    private EloRating() {
+    }
+
+    // Probability that a user of this rating answers a question of this difficulty correctly
+    public static double expectedScore(double rating, double difficulty) {
+        return 1 / (1 + Math.pow(10, (difficulty - rating) / SCALE));
+    }
+
+    // Step size for a rating that already has ratedAnswers answers behind it
+    public static double kFactor(long ratedAnswers) {
+        return Math.max(MIN_K, MAX_K * SETTLING_ANSWERS / (SETTLING_ANSWERS + Math.max(0, ratedAnswers)));
+    }
+
+    // The user's rating after one answer; rating, ratedAnswers and difficulty are the values before it
+    public static double nextRating(double rating, long ratedAnswers, double difficulty, boolean correct) {
+        return rating + kFactor(ratedAnswers) * ((correct ? 1 : 0) - expectedScore(rating, difficulty));
+    }
+
+    // The question's difficulty after one answer, the mirror image of nextRating
+    public static double nextDifficulty(double difficulty, long ratedAnswers, double rating, boolean correct) {
+        return difficulty + kFactor(ratedAnswers) * (expectedScore(rating, difficulty) - (correct ? 1 : 0));
+    }
+}
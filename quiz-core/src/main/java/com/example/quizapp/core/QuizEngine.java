@@ -0,0 +1,48 @@
+package com.example.quizapp.core;
+
+import com.example.quizapp.models.Question;
+
+import java.util.Random;
+
+/**
+ * QuizEngine holds the quiz rules that do not depend on Android: how a quiz is drawn from a category,
+ * how an option is graded and how answers add up. QuizSession applies them to one run of a quiz.
+ */
+public final class QuizEngine {
+    // Every question has exactly this many options, shown in order; answerNr counts them from 1
+    public static final int OPTION_COUNT = 4;
+
+    private QuizEngine() {
+    }
+
+    // A uniform random sample of the ids in random order; the same seed over the same ids gives the same quiz
+    public static long[] sample(long[] ids, int sampleSize, long seed) {
+        ReservoirSampler sampler = new ReservoirSampler(sampleSize, seed);
+        for (long id : ids) {
+            sampler.offer(id);
+        }
+        return sampler.result();
+    }
+
+    // Fisher-Yates shuffle of ids in place; the same seed always gives the same order
+    public static void shuffle(long[] ids, long seed) {
+        Random random = new Random(seed);
+        for (int i = ids.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+    }
+
+    // The answerNr (1-4) of the option at a 0-based position, e.g. a RadioGroup child index;
+    // 0 (no answer) for a position outside the options
+    public static int answerNrForOption(int optionIndex) {
+        return optionIndex >= 0 && optionIndex < OPTION_COUNT ? optionIndex + 1 : 0;
+    }
+
+    // True if answerNr is the question's right answer; 0 (no answer, e.g. time ran out) never is
+    public static boolean isCorrect(Question question, int answerNr) {
+        return answerNr != 0 && answerNr == question.getAnswerNr();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.quizapp.core;
+
+import com.example.quizapp.models.Question;
+
+/**
+ * QuizSession is one run through a drawn list of questions: which question comes next, the one being
+ * shown, whether it has been answered, the score and the answer stats. It knows nothing about where
+ * question bodies come from or how they are shown; the caller fetches the body for getNextIndex() and
+ * hands it to present(), or calls skip() if it no longer exists.
+ * Not thread-safe: use it from one thread (the main thread in the app).
+ */
+public final class QuizSession {
+    private final long[] questionIds;
+    private final QuizStats.Accumulator stats;
+    private int position; // questions presented or skipped so far
+    private int score;
+    private Question current;
+    private boolean answered;
+
+    public QuizSession(long[] questionIds) {
+        this(questionIds, 0, 0);
+    }
+
+    // Continue after answeredCount questions with the given score, e.g. restored from a journal.
+    // Stats only cover the answers given in this session.
+    public QuizSession(long[] questionIds, int answeredCount, int score) {
+        if (answeredCount < 0 || answeredCount > questionIds.length) {
+            throw new IllegalArgumentException("answeredCount " + answeredCount + " of " + questionIds.length);
+        }
+        this.questionIds = questionIds;
+        this.position = answeredCount;
+        this.score = score;
+        this.stats = new QuizStats.Accumulator(questionIds.length);
+    }
+
+    // False once every question has been presented or skipped: the quiz is over
+    public boolean hasMoreQuestions() {
+        return position < questionIds.length;
+    }
+
+    // Index into the question ids of the question to present next
+    public int getNextIndex() {
+        return position;
+    }
+
+    public long getNextQuestionId() {
+        if (!hasMoreQuestions()) {
+            throw new IllegalStateException("No more questions");
+        }
+        return questionIds[position];
+    }
+
+    // Show the next question; it stays current until the next present()
+    public void present(Question question) {
+        if (!hasMoreQuestions()) {
+            throw new IllegalStateException("No more questions");
+        }
+        position++;
+        current = question;
+        answered = false;
+    }
+
+    // Drop the next question, e.g. because it was deleted after the quiz was drawn
+    public void skip() {
+        if (!hasMoreQuestions()) {
+            throw new IllegalStateException("No more questions");
+        }
+        position++;
+    }
+
+    // Lock in an answer for the current question (0 when the time ran out); only the first one counts.
+    // Returns true if it was correct.
+    public boolean answer(int answerNr, long responseMillis) {
+        if (answered || current == null) {
+            return false;
+        }
+        answered = true;
+        boolean correct = QuizEngine.isCorrect(current, answerNr);
+        if (correct) {
+            score++;
+        }
+        stats.add(correct, responseMillis);
+        return correct;
+    }
+
+    public Question getCurrentQuestion() {
+        return current;
+    }
+
+    // 1-based number of the current question
+    public int getQuestionNumber() {
+        return position;
+    }
+
+    public int getQuestionCount() {
+        return questionIds.length;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isAnswered() {
+        return answered;
+    }
+
+    public QuizStats getStats() {
+        return stats.build();
+    }
+}
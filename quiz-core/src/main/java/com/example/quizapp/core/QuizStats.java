@@ -0,0 +1,89 @@
+package com.example.quizapp.core;
+
+import java.util.Arrays;
+
+/**
+ * QuizStats sums up a set of answers: how many were right and how long they took.
+ * Build one with an Accumulator, which only stores the response times, so adding an answer is O(1)
+ * and a summary of n answers costs one sort of n longs.
+ */
+public final class QuizStats {
+    private final int answered;
+    private final int correct;
+    private final long totalResponseMillis;
+    private final long medianResponseMillis;
+    private final long slowestResponseMillis;
+
+    private QuizStats(int answered, int correct, long totalResponseMillis, long medianResponseMillis,
+                      long slowestResponseMillis) {
+        this.answered = answered;
+        this.correct = correct;
+        this.totalResponseMillis = totalResponseMillis;
+        this.medianResponseMillis = medianResponseMillis;
+        this.slowestResponseMillis = slowestResponseMillis;
+    }
+
+    public int getAnswered() {
+        return answered;
+    }
+
+    public int getCorrect() {
+        return correct;
+    }
+
+    // Fraction of the answers that were right, 0 when nothing was answered
+    public double getAccuracy() {
+        return answered == 0 ? 0 : (double) correct / answered;
+    }
+
+    public long getMeanResponseMillis() {
+        return answered == 0 ? 0 : totalResponseMillis / answered;
+    }
+
+    public long getMedianResponseMillis() {
+        return medianResponseMillis;
+    }
+
+    public long getSlowestResponseMillis() {
+        return slowestResponseMillis;
+    }
+
+    /**
+     * Collects answers one at a time; build() can be called any number of times.
+     */
+    public static final class Accumulator {
+        private long[] responseMillis;
+        private int answered;
+        private int correct;
+        private long totalResponseMillis;
+
+        public Accumulator() {
+            this(16);
+        }
+
+        public Accumulator(int expectedAnswers) {
+            responseMillis = new long[Math.max(1, expectedAnswers)];
+        }
+
+        public void add(boolean isCorrect, long responseMillis) {
+            if (answered == this.responseMillis.length) {
+                this.responseMillis = Arrays.copyOf(this.responseMillis, answered * 2);
+            }
+            this.responseMillis[answered++] = responseMillis;
+            totalResponseMillis += responseMillis;
+            if (isCorrect) {
+                correct++;
+            }
+        }
+
+        public QuizStats build() {
+            if (answered == 0) {
+                return new QuizStats(0, 0, 0, 0, 0);
+            }
+            long[] sorted = Arrays.copyOf(responseMillis, answered);
+            Arrays.sort(sorted);
+            return new QuizStats(answered, correct, totalResponseMillis, sorted[(answered - 1) / 2],
+                    sorted[answered - 1]);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.quizapp.core;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * ReservoirSampler picks a uniform random sample of k ids from a stream of unknown length
+ * (Algorithm R) using O(k) memory. The same seed over the same stream always yields the same
+ * sample in the same order, so a quiz can be reproduced from its seed.
+ */
+public final class ReservoirSampler {
+    private final long[] reservoir;
+    private final Random random;
+    private long seen;
+
+    public ReservoirSampler(int sampleSize, long seed) {
+        if (sampleSize < 0) {
+            throw new IllegalArgumentException("sampleSize < 0");
+        }
+        this.reservoir = new long[sampleSize];
+        this.random = new Random(seed);
+    }
+
+    // Feed the next id of the stream
+    public void offer(long id) {
+        if (seen < reservoir.length) {
+            reservoir[(int) seen] = id;
+        } else {
+            long j = nextLong(seen + 1);
+            if (j < reservoir.length) {
+                reservoir[(int) j] = id;
+            }
+        }
+        seen++;
+    }
+
+    // The sampled ids in random order (a reservoir's slot order is biased, so it is shuffled once)
+    public long[] result() {
+        int size = (int) Math.min(seen, reservoir.length);
+        long[] sample = Arrays.copyOf(reservoir, size);
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long tmp = sample[i];
+            sample[i] = sample[j];
+            sample[j] = tmp;
+        }
+        return sample;
+    }
+
+    // Uniform long in [0, bound)
+    private long nextLong(long bound) {
+        if (bound <= Integer.MAX_VALUE) {
+            return random.nextInt((int) bound);
+        }
+        long bits;
+        long value;
+        do {
+            bits = random.nextLong() >>> 1;
+            value = bits % bound;
+        } while (bits - value + (bound - 1) < 0);
+        return value;
+    }
+}
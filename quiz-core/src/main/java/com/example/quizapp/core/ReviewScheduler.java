@@ -0,0 +1,395 @@
+package com.example.quizapp.core;
+
+import java.util.Arrays;
+
+/**
+ * ReviewScheduler decides which questions one user should see next, by spaced repetition (the SM-2
+ * rules): every question the user has answered has an ease, an interval and a due time, updated from
+ * each answer. Questions that keep getting missed come back within minutes, known ones after days,
+ * then weeks.
+ * next() serves, in this order: reviews that are due (most overdue first), questions the user has
+ * never seen (in the order they were added), then the reviews that fall due soonest.
+ * Reviewed questions sit in an indexed binary min-heap on their due time: picking k questions costs
+ * O(k log n) and updating one after an answer O(log n), with no per-question objects. Not thread-safe.
+ */
+public final class ReviewScheduler {
+    public static final double INITIAL_EASE = 2.5;
+    public static final double MIN_EASE = 1.3;
+    public static final int MAX_GRADE = 5;
+    // Grades below this count as a lapse: the question starts over
+    public static final int PASSING_GRADE = 3;
+
+    static final long MINUTE_MILLIS = 60_000L;
+    static final long DAY_MILLIS = 24 * 60 * MINUTE_MILLIS;
+    static final long RELEARN_INTERVAL_MILLIS = 10 * MINUTE_MILLIS;
+    static final long FIRST_INTERVAL_MILLIS = DAY_MILLIS;
+    static final long SECOND_INTERVAL_MILLIS = 6 * DAY_MILLIS;
+    static final long MAX_INTERVAL_MILLIS = 3650 * DAY_MILLIS;
+
+    private static final int NOT_IN_HEAP = -1;
+
+    // Per-question state, one array per field, indexed by slot
+    private long[] ids;
+    private double[] ease;
+    private long[] intervals;
+    private long[] dueAt;
+    private int[] repetitions;
+    private int[] lapses;
+    // True once the question has been answered (or was added with its memory state); heapPosition cannot
+    // tell, as next() takes reviews off the heap for a while
+    private boolean[] reviewed;
+    private int[] heapPosition;
+    private int size;
+    private final SlotIndex index;
+
+    // Min-heap of the slots of reviewed questions, ordered by due time
+    private int[] heap;
+    private int heapSize;
+
+    // Slots of unseen questions in the order they were added; slots answered since are skipped lazily
+    private int[] unseen;
+    private int unseenHead;
+    private int unseenTail;
+
+    public ReviewScheduler(int expectedQuestions) {
+        int capacity = Math.max(16, expectedQuestions);
+        ids = new long[capacity];
+        ease = new double[capacity];
+        intervals = new long[capacity];
+        dueAt = new long[capacity];
+        repetitions = new int[capacity];
+        lapses = new int[capacity];
+        reviewed = new boolean[capacity];
+        heapPosition = new int[capacity];
+        heap = new int[capacity];
+        unseen = new int[capacity];
+        index = new SlotIndex(capacity);
+    }
+
+    // Add a question the user has never answered; returns false if it is already scheduled
+    public boolean addNew(long questionId) {
+        if (index.get(questionId) >= 0) {
+            return false;
+        }
+        int slot = newSlot(questionId, INITIAL_EASE, 0, 0, 0, 0, false);
+        if (unseenTail == unseen.length) {
+            compactUnseen();
+        }
+        unseen[unseenTail++] = slot;
+        return true;
+    }
+
+    // Add a question with its stored memory state, e.g. when loading from the database
+    public boolean add(long questionId, double questionEase, long intervalMillis, long due, int repetitionCount,
+                       int lapseCount) {
+        if (index.get(questionId) >= 0) {
+            return false;
+        }
+        int slot = newSlot(questionId, questionEase, intervalMillis, due, repetitionCount, lapseCount, true);
+        heapInsert(slot);
+        return true;
+    }
+
+    // Grade 0-5 for an answer: a miss or time-out is 1, a correct answer 3 to 5 depending on how much
+    // of the time limit it took
+    public static int grade(boolean correct, long responseMillis, long timeLimitMillis) {
+        if (!correct) {
+            return 1;
+        }
+        if (responseMillis * 3 <= timeLimitMillis) {
+            return MAX_GRADE;
+        }
+        return responseMillis * 3 <= timeLimitMillis * 2 ? 4 : PASSING_GRADE;
+    }
+
+    // Update a question's memory state from an answer with the given grade (0-5) at time now, and
+    // move it to its new place in the schedule
+    public void record(long questionId, int grade, long now) {
+        int slot = slotOf(questionId);
+        int quality = Math.max(0, Math.min(MAX_GRADE, grade));
+        if (quality < PASSING_GRADE) {
+            repetitions[slot] = 0;
+            if (reviewed[slot]) {
+                lapses[slot]++;
+            }
+            intervals[slot] = RELEARN_INTERVAL_MILLIS;
+        } else {
+            repetitions[slot]++;
+            if (repetitions[slot] == 1) {
+                intervals[slot] = FIRST_INTERVAL_MILLIS;
+            } else if (repetitions[slot] == 2) {
+                intervals[slot] = SECOND_INTERVAL_MILLIS;
+            } else {
+                intervals[slot] = Math.min(MAX_INTERVAL_MILLIS, Math.round(intervals[slot] * ease[slot]));
+            }
+        }
+        int miss = MAX_GRADE - quality;
+        ease[slot] = Math.max(MIN_EASE, ease[slot] + 0.1 - miss * (0.08 + miss * 0.02));
+        dueAt[slot] = now + intervals[slot];
+
+        if (reviewed[slot]) {
+            siftDown(siftUp(heapPosition[slot]));
+        } else {
+            reviewed[slot] = true;
+            heapInsert(slot);
+        }
+    }
+
+    // Up to count question ids to ask next at time now; the schedule itself is left unchanged
+    public long[] next(int count, long now) {
+        long[] result = new long[Math.min(count, size)];
+        int n = 0;
+        // Pop the due reviews (and later the upcoming ones) off the heap, then put them back
+        int[] popped = new int[result.length];
+        int poppedCount = 0;
+        while (n < result.length && heapSize > 0 && dueAt[heap[0]] <= now) {
+            popped[poppedCount++] = heap[0];
+            result[n++] = ids[heapRemoveFirst()];
+        }
+        skipAnsweredUnseen();
+        for (int i = unseenHead; i < unseenTail && n < result.length; i++) {
+            if (!reviewed[unseen[i]]) {
+                result[n++] = ids[unseen[i]];
+            }
+        }
+        while (n < result.length && heapSize > 0) {
+            popped[poppedCount++] = heap[0];
+            result[n++] = ids[heapRemoveFirst()];
+        }
+        for (int i = 0; i < poppedCount; i++) {
+            heapInsert(popped[i]);
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    // Number of reviews due at time now; visits only the due part of the heap
+    public int countDue(long now) {
+        return countDue(0, now);
+    }
+
+    private int countDue(int position, long now) {
+        if (position >= heapSize || dueAt[heap[position]] > now) {
+            return 0;
+        }
+        return 1 + countDue(2 * position + 1, now) + countDue(2 * position + 2, now);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(long questionId) {
+        return index.get(questionId) >= 0;
+    }
+
+    // True until the question's first answer
+    public boolean isNew(long questionId) {
+        return !reviewed[slotOf(questionId)];
+    }
+
+    public double getEase(long questionId) {
+        return ease[slotOf(questionId)];
+    }
+
+    public long getIntervalMillis(long questionId) {
+        return intervals[slotOf(questionId)];
+    }
+
+    // 0 for a question that was never answered
+    public long getDueAt(long questionId) {
+        return dueAt[slotOf(questionId)];
+    }
+
+    public int getRepetitions(long questionId) {
+        return repetitions[slotOf(questionId)];
+    }
+
+    public int getLapses(long questionId) {
+        return lapses[slotOf(questionId)];
+    }
+
+    private int slotOf(long questionId) {
+        int slot = index.get(questionId);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Question " + questionId + " is not scheduled");
+        }
+        return slot;
+    }
+
+    private int newSlot(long questionId, double questionEase, long intervalMillis, long due, int repetitionCount,
+                        int lapseCount, boolean hasReviews) {
+        if (size == ids.length) {
+            grow();
+        }
+        int slot = size++;
+        ids[slot] = questionId;
+        ease[slot] = questionEase;
+        intervals[slot] = intervalMillis;
+        dueAt[slot] = due;
+        repetitions[slot] = repetitionCount;
+        lapses[slot] = lapseCount;
+        reviewed[slot] = hasReviews;
+        heapPosition[slot] = NOT_IN_HEAP;
+        index.put(questionId, slot);
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        ease = Arrays.copyOf(ease, capacity);
+        intervals = Arrays.copyOf(intervals, capacity);
+        dueAt = Arrays.copyOf(dueAt, capacity);
+        repetitions = Arrays.copyOf(repetitions, capacity);
+        lapses = Arrays.copyOf(lapses, capacity);
+        reviewed = Arrays.copyOf(reviewed, capacity);
+        heapPosition = Arrays.copyOf(heapPosition, capacity);
+        heap = Arrays.copyOf(heap, capacity);
+    }
+
+    // Drop answered slots from the front of the unseen queue
+    private void skipAnsweredUnseen() {
+        while (unseenHead < unseenTail && reviewed[unseen[unseenHead]]) {
+            unseenHead++;
+        }
+    }
+
+    // Make room at the end of the unseen queue: drop answered slots, then grow if it is still full
+    private void compactUnseen() {
+        int n = 0;
+        for (int i = unseenHead; i < unseenTail; i++) {
+            if (!reviewed[unseen[i]]) {
+                unseen[n++] = unseen[i];
+            }
+        }
+        unseenHead = 0;
+        unseenTail = n;
+        if (unseenTail == unseen.length) {
+            unseen = Arrays.copyOf(unseen, unseen.length * 2);
+        }
+    }
+
+    // Heap order: earlier due time first, then the earlier added question, so ties are deterministic
+    private boolean before(int slotA, int slotB) {
+        return dueAt[slotA] < dueAt[slotB] || (dueAt[slotA] == dueAt[slotB] && slotA < slotB);
+    }
+
+    private void heapInsert(int slot) {
+        heap[heapSize] = slot;
+        heapPosition[slot] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int heapRemoveFirst() {
+        int first = heap[0];
+        heapPosition[first] = NOT_IN_HEAP;
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapPosition[heap[0]] = 0;
+            siftDown(0);
+        }
+        return first;
+    }
+
+    // Returns the final position
+    private int siftUp(int position) {
+        int slot = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!before(slot, heap[parent])) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heapPosition[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = slot;
+        heapPosition[slot] = position;
+        return position;
+    }
+
+    private void siftDown(int position) {
+        int slot = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], slot)) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapPosition[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = slot;
+        heapPosition[slot] = position;
+    }
+
+    // Open-addressing map from question id to slot, so a million questions cost no boxed entries
+    private static final class SlotIndex {
+        private long[] keys;
+        private int[] slots; // -1 marks an empty cell
+        private int count;
+
+        SlotIndex(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) * 2;
+            keys = new long[capacity];
+            slots = new int[capacity];
+            Arrays.fill(slots, -1);
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                if (slots[i] < 0) {
+                    return -1;
+                }
+                if (keys[i] == key) {
+                    return slots[i];
+                }
+            }
+        }
+
+        // The key must not be present yet
+        void put(long key, int slot) {
+            if ((count + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+            insert(key, slot);
+            count++;
+        }
+
+        private void insert(long key, int slot) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (slots[i] >= 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            slots[i] = slot;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldSlots = slots;
+            keys = new long[capacity];
+            slots = new int[capacity];
+            Arrays.fill(slots, -1);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldSlots[i] >= 0) {
+                    insert(oldKeys[i], oldSlots[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.quizapp.data;
+
+import com.example.quizapp.models.Category;
+import com.example.quizapp.models.Question;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * InMemoryQuizRepository serves a fixed question bank from the heap, for tests and benchmarks and as
+ * the baseline the other backends are compared with. Questions are indexed by category once, at
+ * construction, so a lookup is one hash probe and a copy of the matching list.
+ * The bank never changes afterwards, so any number of threads may read it at once.
+ * Returned Question objects are shared between calls: treat them as read-only.
+ */
+public final class InMemoryQuizRepository implements QuizRepository {
+    private final List<Category> categories;
+    private final Map<Integer, List<Question>> questionsByCategory = new HashMap<>();
+
+    public InMemoryQuizRepository(List<Category> categories, List<Question> questions) {
+        List<Category> sorted = new ArrayList<>(categories);
+        sorted.sort(Comparator.comparingInt(Category::getId));
+        this.categories = Collections.unmodifiableList(sorted);
+
+        for (Question question : questions) {
+            questionsByCategory.computeIfAbsent(question.getCategoryId(), id -> new ArrayList<>()).add(question);
+        }
+        for (List<Question> list : questionsByCategory.values()) {
+            list.sort(Comparator.comparingInt(Question::getId));
+        }
+    }
+
+    // Fresh Category objects on every call, like a query would return, so callers may fill in stats
+    @Override
+    public List<Category> getAllCategories() {
+        List<Category> result = new ArrayList<>(categories.size());
+        for (Category source : categories) {
+            Category category = new Category(source.getName(), source.getImageResId());
+            category.setId(source.getId());
+            result.add(category);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Question> getQuestionsByCategory(int categoryId) {
+        List<Question> questions = questionsByCategory.get(categoryId);
+        return questions == null ? new ArrayList<>() : new ArrayList<>(questions);
+    }
+}
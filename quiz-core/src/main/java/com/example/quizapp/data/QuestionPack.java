@@ -0,0 +1,256 @@
+package com.example.quizapp.data;
+
+import com.example.quizapp.models.Category;
+import com.example.quizapp.models.Question;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * QuestionPack is a read-only question bank in a single file, read through a memory-mapped buffer.
+ * Opening one reads nothing but the header; a question is decoded from its fixed-width record only
+ * when it is asked for, so the heap never holds more of the bank than the caller keeps.
+ * Packs are written by QuestionPackWriter (QuestionPackExporter converts the app database).
+ *
+ * Layout (version 2, big-endian, every section 4-byte aligned):
+ *   header    32 bytes: magic "QPAK", u16 version, u16 reserved, i32 category count, i32 question
+ *             count, i32 string count, then the offsets of the records, string offsets and string data
+ *   index     one 20-byte entry per category in id order:
+ *             i32 id, i32 image, i32 name string, i32 first record, i32 record count
+ *   records   one 32-byte record per question, grouped by category and in id order within each:
+ *             i32 id, i32 category id, i32 question string, 4 x i32 option strings, u8 answerNr, 3 reserved
+ *   strings   (string count + 1) i32 offsets into the string data, then the UTF-8 bytes of every
+ *             distinct string once; string i spans offsets[i] to offsets[i + 1], and -1 means null
+ * Offsets are from the start of the file, which limits a pack to 2 GB.
+ */
+public final class QuestionPack implements QuizRepository {
+    static final int MAGIC = 0x5150414B; // "QPAK"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 32;
+    static final int INDEX_ENTRY_BYTES = 20;
+    static final int RECORD_BYTES = 32;
+
+    // Field offsets within a record
+    private static final int RECORD_ID = 0;
+    private static final int RECORD_CATEGORY = 4;
+    private static final int RECORD_QUESTION = 8;
+    private static final int RECORD_OPTIONS = 12;
+    private static final int RECORD_ANSWER = 28;
+
+    private final ByteBuffer buffer;
+    private final int categoryCount;
+    private final int questionCount;
+    private final int stringCount;
+    private final int recordsOffset;
+    private final int stringOffsetsOffset;
+    private final int stringDataOffset;
+
+    private QuestionPack(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        int capacity = buffer.capacity();
+        if (capacity < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a question pack");
+        }
+        int version = buffer.getShort(4) & 0xFFFF;
+        if (version != VERSION) {
+            throw new IOException("Unsupported question pack version " + version);
+        }
+        categoryCount = buffer.getInt(8);
+        questionCount = buffer.getInt(12);
+        stringCount = buffer.getInt(16);
+        recordsOffset = buffer.getInt(20);
+        stringOffsetsOffset = buffer.getInt(24);
+        stringDataOffset = buffer.getInt(28);
+        if (categoryCount < 0 || questionCount < 0 || stringCount < 0
+                || HEADER_BYTES + (long) categoryCount * INDEX_ENTRY_BYTES > recordsOffset
+                || recordsOffset + (long) questionCount * RECORD_BYTES > stringOffsetsOffset
+                || stringOffsetsOffset + (stringCount + 1L) * 4 > stringDataOffset || stringDataOffset > capacity
+                || stringDataOffset + (long) buffer.getInt(stringOffsetsOffset + stringCount * 4) > capacity) {
+            throw new IOException("Truncated question pack");
+        }
+        for (int i = 0; i < categoryCount; i++) {
+            int entry = HEADER_BYTES + i * INDEX_ENTRY_BYTES;
+            int first = buffer.getInt(entry + 12);
+            int count = buffer.getInt(entry + 16);
+            if (first < 0 || count < 0 || (long) first + count > questionCount) {
+                throw new IOException("Corrupt question pack index");
+            }
+        }
+    }
+
+    // Map a pack file; the mapping stays valid after the channel is closed
+    public static QuestionPack open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new QuestionPack(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // A pack held in memory, e.g. one read from an asset
+    public static QuestionPack wrap(ByteBuffer buffer) throws IOException {
+        return new QuestionPack(buffer.slice());
+    }
+
+    // Write a whole bank as a pack file; every question must belong to one of the categories
+    public static void write(File file, List<Category> categories, List<Question> questions) throws IOException {
+        QuestionPackWriter writer = new QuestionPackWriter();
+        for (Category category : categories) {
+            writer.addCategory(category);
+        }
+        for (Question question : questions) {
+            writer.addQuestion(question);
+        }
+        writer.writeTo(file);
+    }
+
+    public int getCategoryCount() {
+        return categoryCount;
+    }
+
+    public int getQuestionCount() {
+        return questionCount;
+    }
+
+    // Number of distinct strings; at most five per question plus one per category
+    public int getStringCount() {
+        return stringCount;
+    }
+
+    @Override
+    public List<Category> getAllCategories() {
+        ByteBuffer in = buffer.duplicate();
+        List<Category> categories = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            int entry = HEADER_BYTES + i * INDEX_ENTRY_BYTES;
+            Category category = new Category();
+            category.setId(in.getInt(entry));
+            category.setImageResId(in.getInt(entry + 4));
+            category.setName(readString(in, in.getInt(entry + 8)));
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    @Override
+    public List<Question> getQuestionsByCategory(int categoryId) {
+        int entry = findEntry(categoryId);
+        if (entry < 0) {
+            return new ArrayList<>();
+        }
+        ByteBuffer in = buffer.duplicate();
+        int first = in.getInt(entry + 12);
+        int count = in.getInt(entry + 16);
+        List<Question> questions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            questions.add(readQuestion(in, first + i));
+        }
+        return questions;
+    }
+
+    // The question ids of a category in id order, read from the records without decoding any text
+    public long[] getQuestionIds(int categoryId) {
+        int entry = findEntry(categoryId);
+        if (entry < 0) {
+            return new long[0];
+        }
+        int first = buffer.getInt(entry + 12);
+        long[] ids = new long[buffer.getInt(entry + 16)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = buffer.getInt(recordsOffset + (first + i) * RECORD_BYTES + RECORD_ID);
+        }
+        return ids;
+    }
+
+    // The questions of a category for ids[from..to), in the same order as the ids; like
+    // DatabaseHelper.getQuestionsByIds, an id that is not in the category is left out.
+    // Each id is a binary search over the category's records; only the matches are decoded.
+    public List<Question> getQuestionsByIds(int categoryId, long[] ids, int from, int to) {
+        List<Question> questions = new ArrayList<>(Math.max(0, to - from));
+        int entry = findEntry(categoryId);
+        if (entry < 0) {
+            return questions;
+        }
+        ByteBuffer in = buffer.duplicate();
+        int first = in.getInt(entry + 12);
+        int count = in.getInt(entry + 16);
+        for (int i = from; i < to; i++) {
+            int record = findRecord(first, count, ids[i]);
+            if (record >= 0) {
+                questions.add(readQuestion(in, record));
+            }
+        }
+        return questions;
+    }
+
+    // Offset of the index entry of the category, or -1
+    private int findEntry(int categoryId) {
+        int low = 0;
+        int high = categoryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = HEADER_BYTES + mid * INDEX_ENTRY_BYTES;
+            int id = buffer.getInt(entry);
+            if (id < categoryId) {
+                low = mid + 1;
+            } else if (id > categoryId) {
+                high = mid - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    // Number of the record with this question id among records [first, first + count), or -1
+    private int findRecord(int first, int count, long questionId) {
+        int low = first;
+        int high = first + count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = buffer.getInt(recordsOffset + mid * RECORD_BYTES + RECORD_ID);
+            if (id < questionId) {
+                low = mid + 1;
+            } else if (id > questionId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private Question readQuestion(ByteBuffer in, int record) {
+        int offset = recordsOffset + record * RECORD_BYTES;
+        Question question = new Question();
+        question.setId(in.getInt(offset + RECORD_ID));
+        question.setCategoryId(in.getInt(offset + RECORD_CATEGORY));
+        question.setQuestion(readString(in, in.getInt(offset + RECORD_QUESTION)));
+        question.setOption1(readString(in, in.getInt(offset + RECORD_OPTIONS)));
+        question.setOption2(readString(in, in.getInt(offset + RECORD_OPTIONS + 4)));
+        question.setOption3(readString(in, in.getInt(offset + RECORD_OPTIONS + 8)));
+        question.setOption4(readString(in, in.getInt(offset + RECORD_OPTIONS + 12)));
+        question.setAnswerNr(in.get(offset + RECORD_ANSWER) & 0xFF);
+        return question;
+    }
+
+    // Decode string number index; in is a duplicate of the buffer whose position may be moved
+    private String readString(ByteBuffer in, int index) {
+        if (index < 0) {
+            return null;
+        }
+        if (index >= stringCount) {
+            throw new IllegalStateException("Corrupt question pack: string " + index + " of " + stringCount);
+        }
+        int start = in.getInt(stringOffsetsOffset + index * 4);
+        int end = in.getInt(stringOffsetsOffset + index * 4 + 4);
+        byte[] bytes = new byte[end - start];
+        in.position(stringDataOffset + start);
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
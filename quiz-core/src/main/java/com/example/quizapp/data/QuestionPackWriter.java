@@ -0,0 +1,211 @@
+package com.example.quizapp.data;
+
+import com.example.quizapp.models.Category;
+import com.example.quizapp.models.Question;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * QuestionPackWriter collects a question bank and writes it in the QuestionPack format.
+ * Every distinct string (question text, option, category name) is stored once, however often it
+ * occurs, and questions are kept as rows of ints until writeTo(), so a bank of a million questions
+ * costs the writer about the size of its distinct text plus 33 bytes per question.
+ * Questions may be added in any order and before their category; adding them in category and id
+ * order (as QuestionPackExporter does) skips the sort at the end.
+ */
+public final class QuestionPackWriter {
+    // Ints per question row: id, category id, question string, four option strings
+    private static final int ROW_INTS = 7;
+
+    private final TreeMap<Integer, int[]> categories = new TreeMap<>(); // id -> {image, name string}
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+    private final ByteArrayOutputStream stringData = new ByteArrayOutputStream();
+    private int[] stringEnds = new int[256];
+    private int stringCount;
+
+    private int[] rows = new int[ROW_INTS * 256];
+    private byte[] answers = new byte[256];
+    private int questionCount;
+    private boolean sorted = true;
+
+    public QuestionPackWriter addCategory(Category category) {
+        if (categories.containsKey(category.getId())) {
+            throw new IllegalArgumentException("Duplicate category " + category.getId());
+        }
+        categories.put(category.getId(), new int[]{category.getImageResId(), intern(category.getName())});
+        return this;
+    }
+
+    public QuestionPackWriter addQuestion(Question question) {
+        if (question.getAnswerNr() < 0 || question.getAnswerNr() > 255) {
+            throw new IllegalArgumentException("Question " + question.getId() + " has answer "
+                    + question.getAnswerNr());
+        }
+        if (questionCount == answers.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+            answers = Arrays.copyOf(answers, answers.length * 2);
+        }
+        int row = questionCount * ROW_INTS;
+        rows[row] = question.getId();
+        rows[row + 1] = question.getCategoryId();
+        rows[row + 2] = intern(question.getQuestion());
+        rows[row + 3] = intern(question.getOption1());
+        rows[row + 4] = intern(question.getOption2());
+        rows[row + 5] = intern(question.getOption3());
+        rows[row + 6] = intern(question.getOption4());
+        answers[questionCount] = (byte) question.getAnswerNr();
+        if (questionCount > 0 && compare(questionCount - 1, questionCount) > 0) {
+            sorted = false;
+        }
+        questionCount++;
+        return this;
+    }
+
+    public int getQuestionCount() {
+        return questionCount;
+    }
+
+    public int getStringCount() {
+        return stringCount;
+    }
+
+    public void writeTo(File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            writeTo(out);
+        }
+    }
+
+    // Write the pack. Fails, before writing anything, if a question's category was never added or
+    // the pack would exceed 2 GB.
+    public void writeTo(OutputStream stream) throws IOException {
+        int[] order = recordOrder();
+
+        // Records are grouped by category in id order, so each category is one contiguous range
+        int[] firstRecords = new int[categories.size()];
+        int[] recordCounts = new int[categories.size()];
+        int record = 0;
+        int c = 0;
+        for (int categoryId : categories.keySet()) {
+            firstRecords[c] = record;
+            while (record < questionCount && rows[order[record] * ROW_INTS + 1] == categoryId) {
+                record++;
+            }
+            recordCounts[c] = record - firstRecords[c];
+            c++;
+        }
+        if (record < questionCount) {
+            int row = order[record] * ROW_INTS;
+            throw new IllegalArgumentException("Question " + rows[row] + " has unknown category "
+                    + rows[row + 1]);
+        }
+
+        long recordsOffset = QuestionPack.HEADER_BYTES + (long) categories.size() * QuestionPack.INDEX_ENTRY_BYTES;
+        long stringOffsetsOffset = recordsOffset + (long) questionCount * QuestionPack.RECORD_BYTES;
+        long stringDataOffset = stringOffsetsOffset + (stringCount + 1L) * 4;
+        if (stringDataOffset + stringData.size() > Integer.MAX_VALUE) {
+            throw new IOException("Question pack exceeds 2 GB");
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+        out.writeInt(QuestionPack.MAGIC);
+        out.writeShort(QuestionPack.VERSION);
+        out.writeShort(0);
+        out.writeInt(categories.size());
+        out.writeInt(questionCount);
+        out.writeInt(stringCount);
+        out.writeInt((int) recordsOffset);
+        out.writeInt((int) stringOffsetsOffset);
+        out.writeInt((int) stringDataOffset);
+
+        c = 0;
+        for (Map.Entry<Integer, int[]> category : categories.entrySet()) {
+            out.writeInt(category.getKey());
+            out.writeInt(category.getValue()[0]);
+            out.writeInt(category.getValue()[1]);
+            out.writeInt(firstRecords[c]);
+            out.writeInt(recordCounts[c]);
+            c++;
+        }
+
+        for (int i = 0; i < questionCount; i++) {
+            int row = order[i] * ROW_INTS;
+            for (int field = 0; field < ROW_INTS; field++) {
+                out.writeInt(rows[row + field]);
+            }
+            out.writeByte(answers[order[i]]);
+            out.writeByte(0);
+            out.writeShort(0);
+        }
+
+        out.writeInt(0);
+        for (int i = 0; i < stringCount; i++) {
+            out.writeInt(stringEnds[i]);
+        }
+        stringData.writeTo(out);
+        out.flush();
+    }
+
+    // Row numbers in category and id order; the identity when the questions came in that order
+    private int[] recordOrder() {
+        int[] order = new int[questionCount];
+        for (int i = 0; i < questionCount; i++) {
+            order[i] = i;
+        }
+        if (sorted) {
+            return order;
+        }
+        long[] keys = new long[questionCount];
+        for (int i = 0; i < questionCount; i++) {
+            keys[i] = key(i);
+        }
+        Integer[] boxed = new Integer[questionCount];
+        for (int i = 0; i < questionCount; i++) {
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed, (a, b) -> Long.compare(keys[a], keys[b]));
+        for (int i = 0; i < questionCount; i++) {
+            order[i] = boxed[i];
+        }
+        return order;
+    }
+
+    private int compare(int a, int b) {
+        return Long.compare(key(a), key(b));
+    }
+
+    // Category and id in one long that sorts like the pair of signed ints
+    private long key(int rowNumber) {
+        int row = rowNumber * ROW_INTS;
+        return ((long) rows[row + 1] << 32) | ((rows[row] ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    // Index of the string in the table, adding it the first time it is seen; -1 for null
+    private int intern(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer index = stringIndex.get(value);
+        if (index != null) {
+            return index;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        stringData.write(bytes, 0, bytes.length);
+        if (stringCount == stringEnds.length) {
+            stringEnds = Arrays.copyOf(stringEnds, stringEnds.length * 2);
+        }
+        stringEnds[stringCount] = stringData.size();
+        stringIndex.put(value, stringCount);
+        return stringCount++;
+    }
+}
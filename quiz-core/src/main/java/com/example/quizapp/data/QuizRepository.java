@@ -0,0 +1,21 @@
+package com.example.quizapp.data;
+
+import com.example.quizapp.models.Category;
+import com.example.quizapp.models.Question;
+
+import java.util.List;
+
+/**
+ * QuizRepository is the read side of the question bank: the categories and the questions in each.
+ * DatabaseHelper serves it from SQLite, InMemoryQuizRepository from indexed maps and QuestionPack
+ * from a read-only memory-mapped file. QuizRepositoryContract is the behaviour every backend shares.
+ * Implementations may block on I/O: call them off the main thread (AsyncRepository does).
+ */
+public interface QuizRepository {
+
+    // Every category in id order, with id, name and image set
+    List<Category> getAllCategories();
+
+    // The questions of one category in id order; empty for an unknown category
+    List<Question> getQuestionsByCategory(int categoryId);
+}
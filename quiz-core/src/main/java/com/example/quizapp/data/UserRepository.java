@@ -0,0 +1,25 @@
+package com.example.quizapp.data;
+
+import com.example.quizapp.models.User;
+
+/**
+ * UserRepository holds the accounts behind Login, Signup and the password reset screens.
+ * Usernames are unique and compared case-insensitively (ASCII only, like SQLite's NOCASE);
+ * passwords are never kept as given. UserRepositoryContract is the behaviour every backend shares.
+ * addUser, checkUser and updatePassword hash a password and are slow on purpose: call them off the
+ * main thread (AsyncRepository runs them on its credential executor).
+ */
+public interface UserRepository {
+
+    // Add a new user; returns the new user's id, or -1 if the username is taken
+    long addUser(User user);
+
+    // True if a user with this username has this password
+    boolean checkUser(String username, String password);
+
+    // True if the username is taken
+    boolean checkUserExists(String username);
+
+    // Replace the password of an existing user; false if there is no such user
+    boolean updatePassword(String username, String newPassword);
+}
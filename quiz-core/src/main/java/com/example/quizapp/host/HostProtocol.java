@@ -0,0 +1,174 @@
+package com.example.quizapp.host;
+
+import com.example.quizapp.core.QuizEngine;
+import com.example.quizapp.models.Question;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HostProtocol is the wire format between a quiz host and its participants: length-prefixed binary
+ * frames, big-endian, so a frame can be parsed straight out of a socket buffer without copying.
+ * <pre>
+ * frame    := length:u16 (bytes after this field) type:u8 payload
+ * string   := length:u16 utf-8 bytes
+ * JOIN     participant to host: name:string
+ * WELCOME  host to participant: participantId:i32
+ * QUESTION host to all: number:u16 count:u16 timeLimitMs:i32 text:string option1..option4:string
+ * TIMER    host to all: number:u16 remainingMs:i32
+ * ANSWER   participant to host: number:u16 answerNr:u8 (1-4, as in Question.getAnswerNr)
+ * ACK      host to participant: number:u16 status:u8 (ACK_*)
+ * REVEAL   host to all: number:u16 answerNr:u8 then, per option, the answers it got:u16
+ * RESULT   host to participant: score:u16 total:u16
+ * </pre>
+ * The right answer only goes out with REVEAL, after the host has closed the question.
+ */
+public final class HostProtocol {
+    public static final byte JOIN = 1;
+    public static final byte WELCOME = 2;
+    public static final byte QUESTION = 3;
+    public static final byte TIMER = 4;
+    public static final byte ANSWER = 5;
+    public static final byte ACK = 6;
+    public static final byte REVEAL = 7;
+    public static final byte RESULT = 8;
+
+    // ACK status: counted, too late (or not the open question), already answered, not an option
+    public static final int ACK_ACCEPTED = 0;
+    public static final int ACK_LATE = 1;
+    public static final int ACK_DUPLICATE = 2;
+    public static final int ACK_INVALID = 3;
+
+    static final int LENGTH_BYTES = 2;
+    // Largest length field accepted; a question with its four options must fit
+    public static final int MAX_FRAME_BYTES = 16 * 1024;
+    private static final int MAX_U16 = 0xFFFF;
+
+    private HostProtocol() {
+    }
+
+    // Length of the complete frame at in's position (type and payload), or -1 if it has not fully
+    // arrived yet; throws if the length field is out of range
+    public static int frameLength(ByteBuffer in) throws ProtocolException {
+        if (in.remaining() < LENGTH_BYTES) {
+            return -1;
+        }
+        int length = in.getShort(in.position()) & MAX_U16;
+        if (length == 0 || length > MAX_FRAME_BYTES) {
+            throw new ProtocolException("Bad frame length " + length);
+        }
+        return in.remaining() < LENGTH_BYTES + length ? -1 : length;
+    }
+
+    public static ByteBuffer join(String name) {
+        byte[] bytes = utf8(name);
+        ByteBuffer frame = start(JOIN, LENGTH_BYTES + bytes.length);
+        putString(frame, bytes);
+        return frame.flip();
+    }
+
+    public static ByteBuffer welcome(int participantId) {
+        return start(WELCOME, 4).putInt(participantId).flip();
+    }
+
+    // The question without its answer; text and options are truncated to fit one frame
+    public static ByteBuffer question(int number, int count, long timeLimitMillis, Question question) {
+        byte[][] strings = {utf8(question.getQuestion()), utf8(question.getOption1()), utf8(question.getOption2()),
+                utf8(question.getOption3()), utf8(question.getOption4())};
+        int budget = MAX_FRAME_BYTES - 1 - 8 - strings.length * LENGTH_BYTES;
+        int length = 8;
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = truncate(strings[i], budget / strings.length);
+            length += LENGTH_BYTES + strings[i].length;
+        }
+        ByteBuffer frame = start(QUESTION, length)
+                .putShort((short) number)
+                .putShort((short) count)
+                .putInt((int) Math.min(Integer.MAX_VALUE, timeLimitMillis));
+        for (byte[] string : strings) {
+            putString(frame, string);
+        }
+        return frame.flip();
+    }
+
+    public static ByteBuffer timer(int number, long remainingMillis) {
+        return start(TIMER, 6).putShort((short) number).putInt((int) Math.max(0, remainingMillis)).flip();
+    }
+
+    public static ByteBuffer answer(int number, int answerNr) {
+        return start(ANSWER, 3).putShort((short) number).put((byte) answerNr).flip();
+    }
+
+    public static ByteBuffer ack(int number, int status) {
+        return start(ACK, 3).putShort((short) number).put((byte) status).flip();
+    }
+
+    // optionCounts[i] is the number of participants who picked answerNr i + 1
+    public static ByteBuffer reveal(int number, int answerNr, int[] optionCounts) {
+        ByteBuffer frame = start(REVEAL, 3 + QuizEngine.OPTION_COUNT * 2)
+                .putShort((short) number)
+                .put((byte) answerNr);
+        for (int i = 0; i < QuizEngine.OPTION_COUNT; i++) {
+            frame.putShort((short) Math.min(MAX_U16, optionCounts[i]));
+        }
+        return frame.flip();
+    }
+
+    public static ByteBuffer result(int score, int total) {
+        return start(RESULT, 4).putShort((short) score).putShort((short) total).flip();
+    }
+
+    // Read a string field at in's position; throws if the frame ends before it does
+    public static String getString(ByteBuffer in) throws ProtocolException {
+        byte[] bytes = new byte[getU16(in)];
+        require(in, bytes.length);
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Read an unsigned 16-bit field at in's position; throws if the frame ends before it does
+    public static int getU16(ByteBuffer in) throws ProtocolException {
+        require(in, 2);
+        return in.getShort() & MAX_U16;
+    }
+
+    // Read an unsigned byte at in's position; throws if the frame ends before it
+    public static int getU8(ByteBuffer in) throws ProtocolException {
+        require(in, 1);
+        return in.get() & 0xFF;
+    }
+
+    private static void require(ByteBuffer in, int bytes) throws ProtocolException {
+        if (in.remaining() < bytes) {
+            throw new ProtocolException("Frame ends " + (bytes - in.remaining()) + " bytes short of its field");
+        }
+    }
+
+    private static ByteBuffer start(byte type, int payloadBytes) {
+        ByteBuffer frame = ByteBuffer.allocate(LENGTH_BYTES + 1 + payloadBytes);
+        return frame.putShort((short) (1 + payloadBytes)).put(type);
+    }
+
+    private static void putString(ByteBuffer frame, byte[] bytes) {
+        frame.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // At most max bytes, cut before a UTF-8 continuation byte so no character is split
+    private static byte[] truncate(byte[] bytes, int max) {
+        if (bytes.length <= max) {
+            return bytes;
+        }
+        int end = max;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        byte[] cut = new byte[end];
+        System.arraycopy(bytes, 0, cut, 0, end);
+        return cut;
+    }
+}
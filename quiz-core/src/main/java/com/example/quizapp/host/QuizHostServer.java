@@ -0,0 +1,433 @@
+package com.example.quizapp.host;
+
+import com.example.quizapp.core.QuizEngine;
+import com.example.quizapp.models.Question;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * QuizHostServer runs host mode: one device pushes its quiz, question by question, to every participant
+ * on the local network and collects their answers (frames as in HostProtocol). One thread serves every
+ * connection through a non-blocking Selector.
+ * A broadcast (question, timer tick, reveal) is encoded once and every connection sends a read-only view
+ * of the same bytes. Each connection has its own output queue, and that is where backpressure applies:
+ * a timer tick is skipped for a participant that still has output queued, nothing more is read from a
+ * participant while its queue is above HIGH_WATER_BYTES (a flood of answers is paced by its own ACKs),
+ * and a participant whose queue would pass MAX_QUEUED_BYTES is disconnected instead of holding the
+ * rest up.
+ * Answers are graded with QuizEngine.isCorrect against the open question: a participant's first answer
+ * counts, until the question is revealed. Public methods may be called from any thread; they run on
+ * the server thread in call order, which is also where the Listener is called.
+ */
+public final class QuizHostServer implements Closeable {
+    public static final int DEFAULT_PORT = 47123;
+
+    static final int HIGH_WATER_BYTES = 16 * 1024;
+    static final int MAX_QUEUED_BYTES = 256 * 1024;
+    private static final int BACKLOG = 1024;
+
+    // Called on the server thread
+    public interface Listener {
+        default void onJoin(int participantId, String name) {
+        }
+
+        default void onAnswer(int participantId, int questionNumber, int answerNr, boolean correct) {
+        }
+
+        default void onLeave(int participantId) {
+        }
+    }
+
+    private final InetSocketAddress address;
+    private final Listener listener;
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private volatile boolean running;
+    private boolean closed; // guarded by this
+    private volatile int participantCount;
+
+    // Server thread only
+    private final List<Participant> participants = new ArrayList<>();
+    private int nextParticipantId = 1;
+    private Question question; // the open or last revealed question, null before the first
+    private int questionNumber;
+    private int questionCount;
+    private boolean answersOpen;
+    private ByteBuffer questionFrame;
+    private ByteBuffer revealFrame;
+    private final int[] optionCounts = new int[QuizEngine.OPTION_COUNT];
+
+    // One connection; joined once its JOIN frame has arrived
+    private static final class Participant {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ByteBuffer in = ByteBuffer.allocate(HostProtocol.LENGTH_BYTES + HostProtocol.MAX_FRAME_BYTES);
+        final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+        int queuedBytes;
+        int id; // 0 until joined
+        int index = -1; // position in participants while joined
+        int answeredNumber; // number of the last question answered
+        int score;
+        boolean processing;
+        boolean closed;
+
+        Participant(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+    }
+
+    public QuizHostServer(InetSocketAddress address, Listener listener) {
+        this.address = address;
+        this.listener = listener != null ? listener : new Listener() {
+        };
+    }
+
+    // Bind the listening socket and start the server thread; fails once closed, so a close() that comes
+    // before a start() still running on another thread wins
+    public synchronized void start() throws IOException {
+        if (thread != null) {
+            throw new IllegalStateException("Already started");
+        }
+        if (closed) {
+            throw new IOException("Closed");
+        }
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.configureBlocking(false);
+            serverChannel.socket().setReuseAddress(true);
+            serverChannel.bind(address, BACKLOG);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            // e.g. the port is taken
+            closeQuietly(serverChannel);
+            closeQuietly(selector);
+            throw e;
+        }
+        running = true;
+        thread = new Thread(this::run, "quiz-host");
+        thread.start();
+    }
+
+    // The port participants connect to, e.g. when the server was bound to port 0
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    // Participants that have joined and are still connected
+    public int getParticipantCount() {
+        return participantCount;
+    }
+
+    // Open question number (1-based) of count and send it to everyone, including anyone who joins later
+    public void broadcastQuestion(int number, int count, Question next, long timeLimitMillis) {
+        post(() -> {
+            question = next;
+            questionNumber = number;
+            questionCount = count;
+            answersOpen = true;
+            revealFrame = null;
+            Arrays.fill(optionCounts, 0);
+            questionFrame = HostProtocol.question(number, count, timeLimitMillis, next).asReadOnlyBuffer();
+            broadcast(questionFrame, false);
+        });
+    }
+
+    // Time left on the open question; dropped for participants that are behind
+    public void broadcastTimer(int number, long remainingMillis) {
+        post(() -> {
+            if (number == questionNumber && answersOpen) {
+                broadcast(HostProtocol.timer(number, remainingMillis).asReadOnlyBuffer(), true);
+            }
+        });
+    }
+
+    // Close the question to answers and send everyone its answer and how the answers were spread
+    public void reveal(int number) {
+        post(() -> {
+            if (number != questionNumber || !answersOpen) {
+                return;
+            }
+            answersOpen = false;
+            revealFrame = HostProtocol.reveal(number, question.getAnswerNr(), optionCounts).asReadOnlyBuffer();
+            broadcast(revealFrame, false);
+        });
+    }
+
+    // End of the quiz: close any open question and send each participant their own score
+    public void finish() {
+        post(() -> {
+            answersOpen = false;
+            for (int i = participants.size() - 1; i >= 0; i--) {
+                Participant participant = participants.get(i);
+                send(participant, HostProtocol.result(participant.score, questionCount), false);
+            }
+        });
+    }
+
+    // Disconnect everyone and stop; returns at once, the server thread closes the sockets
+    @Override
+    public synchronized void close() {
+        closed = true;
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    // The server thread, e.g. to measure its CPU time or wait for it to end
+    Thread getThread() {
+        return thread;
+    }
+
+    private void post(Runnable command) {
+        commands.add(command);
+        selector.wakeup();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Runnable command;
+                while ((command = commands.poll()) != null) {
+                    command.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Participant participant = (Participant) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(participant);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(participant);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        // Whatever one participant sends, or whatever handling it throws, costs only that
+                        // participant its connection
+                        disconnect(participant);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // The selector itself failed: nothing more can be served
+            running = false;
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            closeQuietly(selector);
+            participants.clear();
+            participantCount = 0;
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Participant(channel, key));
+        }
+    }
+
+    private void read(Participant participant) throws IOException {
+        if (participant.channel.read(participant.in) < 0) {
+            disconnect(participant);
+            return;
+        }
+        processFrames(participant);
+    }
+
+    // Handle every complete frame buffered for the participant, unless its output is backed up
+    private void processFrames(Participant participant) throws IOException {
+        ByteBuffer in = participant.in;
+        participant.processing = true;
+        in.flip();
+        try {
+            int length;
+            while (!participant.closed && participant.queuedBytes <= HIGH_WATER_BYTES
+                    && (length = HostProtocol.frameLength(in)) > 0) {
+                int end = in.position() + HostProtocol.LENGTH_BYTES + length;
+                in.position(in.position() + HostProtocol.LENGTH_BYTES);
+                ByteBuffer frame = in.slice();
+                frame.limit(length);
+                in.position(end);
+                handleFrame(participant, frame);
+            }
+        } finally {
+            in.compact();
+            participant.processing = false;
+        }
+        updateInterest(participant);
+    }
+
+    private void handleFrame(Participant participant, ByteBuffer frame) throws IOException {
+        byte type = frame.get();
+        if (type == HostProtocol.JOIN && participant.id == 0) {
+            join(participant, HostProtocol.getString(frame));
+        } else if (type == HostProtocol.ANSWER && participant.id != 0) {
+            int number = HostProtocol.getU16(frame);
+            int answerNr = HostProtocol.getU8(frame);
+            send(participant, HostProtocol.ack(number, answer(participant, number, answerNr)), false);
+        } else {
+            throw new ProtocolException("Unexpected frame type " + type);
+        }
+    }
+
+    private void join(Participant participant, String name) {
+        participant.id = nextParticipantId++;
+        participant.index = participants.size();
+        participants.add(participant);
+        participantCount = participants.size();
+        send(participant, HostProtocol.welcome(participant.id), false);
+        // A late joiner catches up on the current question (and its reveal)
+        if (questionFrame != null) {
+            send(participant, questionFrame.duplicate(), false);
+        }
+        if (revealFrame != null) {
+            send(participant, revealFrame.duplicate(), false);
+        }
+        listener.onJoin(participant.id, name);
+    }
+
+    // Grade one answer; returns its ACK status
+    private int answer(Participant participant, int number, int answerNr) {
+        if (!answersOpen || number != questionNumber) {
+            return HostProtocol.ACK_LATE;
+        }
+        if (participant.answeredNumber == number) {
+            return HostProtocol.ACK_DUPLICATE;
+        }
+        if (answerNr < 1 || answerNr > QuizEngine.OPTION_COUNT) {
+            return HostProtocol.ACK_INVALID;
+        }
+        participant.answeredNumber = number;
+        optionCounts[answerNr - 1]++;
+        boolean correct = QuizEngine.isCorrect(question, answerNr);
+        if (correct) {
+            participant.score++;
+        }
+        listener.onAnswer(participant.id, number, answerNr, correct);
+        return HostProtocol.ACK_ACCEPTED;
+    }
+
+    // Iterating backwards keeps the loop valid when a slow participant is disconnected on the way
+    private void broadcast(ByteBuffer frame, boolean droppable) {
+        for (int i = participants.size() - 1; i >= 0; i--) {
+            send(participants.get(i), frame.duplicate(), droppable);
+        }
+    }
+
+    // Queue a frame and try to write it straight away; false if the participant is gone
+    private boolean send(Participant participant, ByteBuffer frame, boolean droppable) {
+        if (participant.closed) {
+            return false;
+        }
+        if (droppable && !participant.out.isEmpty()) {
+            return true;
+        }
+        if (participant.queuedBytes + frame.remaining() > MAX_QUEUED_BYTES) {
+            disconnect(participant);
+            return false;
+        }
+        participant.out.add(frame);
+        participant.queuedBytes += frame.remaining();
+        try {
+            write(participant);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // write() may handle frames held back while the queue was full, which can fail like read() can
+            disconnect(participant);
+            return false;
+        }
+    }
+
+    private void write(Participant participant) throws IOException {
+        boolean wasBackedUp = participant.queuedBytes > HIGH_WATER_BYTES;
+        ByteBuffer head;
+        while ((head = participant.out.peek()) != null) {
+            participant.queuedBytes -= participant.channel.write(head);
+            if (head.hasRemaining()) {
+                break;
+            }
+            participant.out.poll();
+        }
+        if (wasBackedUp && participant.queuedBytes <= HIGH_WATER_BYTES && !participant.processing) {
+            // Frames that arrived while the queue was full are still buffered: handle them now
+            processFrames(participant);
+        } else {
+            updateInterest(participant);
+        }
+    }
+
+    private void updateInterest(Participant participant) {
+        if (participant.closed) {
+            return;
+        }
+        int ops = participant.queuedBytes <= HIGH_WATER_BYTES ? SelectionKey.OP_READ : 0;
+        if (!participant.out.isEmpty()) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        if (participant.key.interestOps() != ops) {
+            participant.key.interestOps(ops);
+        }
+    }
+
+    private void disconnect(Participant participant) {
+        if (participant.closed) {
+            return;
+        }
+        participant.closed = true;
+        participant.key.cancel();
+        closeQuietly(participant.channel);
+        participant.out.clear();
+        if (participant.index >= 0) {
+            // Swap-remove: the last participant takes this one's place
+            Participant last = participants.remove(participants.size() - 1);
+            if (last != participant) {
+                participants.set(participant.index, last);
+                last.index = participant.index;
+            }
+            participant.index = -1;
+            participantCount = participants.size();
+            listener.onLeave(participant.id);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing to do: it is being discarded
+        }
+    }
+}
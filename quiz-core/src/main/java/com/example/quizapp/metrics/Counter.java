@@ -0,0 +1,35 @@
+package com.example.quizapp.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A named event count, safe to bump from any thread without allocating.
+ */
+public final class Counter {
+    private final String name;
+    private final AtomicLong value = new AtomicLong();
+
+    public Counter(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void increment() {
+        value.incrementAndGet();
+    }
+
+    public void add(long delta) {
+        value.addAndGet(delta);
+    }
+
+    public long get() {
+        return value.get();
+    }
+
+    public void reset() {
+        value.set(0);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.quizapp.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram counts durations in log-linear buckets, in the manner of HdrHistogram: every
+ * power of two is split into SUB_BUCKETS / 2 equal buckets, so any recorded value is reported
+ * within about 3% of its true value, from 1 ns up to MAX_VALUE (about 18 minutes).
+ * record() only does a few bit operations and atomic adds on preallocated arrays: no allocation and
+ * no lock, so it is safe on hot paths and from any thread. Readers see a consistent enough view for
+ * reporting; counts recorded during a read may or may not be included.
+ */
+public final class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 6;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int MAX_BITS = 40;
+    public static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray((MAX_BITS - SUB_BUCKET_BITS + 2) * HALF);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Record one duration in nanoseconds; negative values count as 0, larger ones as MAX_VALUE
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(MAX_VALUE, nanos));
+        counts.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    // Record the time since a System.nanoTime() reading
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return total.get();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    public double getMeanNanos() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) total.get() / n;
+    }
+
+    // The value at or below which the given percentage (0-100) of the recorded values fall, to
+    // within the bucket precision; 0 if nothing was recorded
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[counts.length()];
+        long n = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    // Values below SUB_BUCKETS get a bucket each; above that, a power of two [2^k, 2^(k+1)) is cut
+    // into HALF buckets of width 2^(k + 1 - SUB_BUCKET_BITS)
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    // The largest value that falls into the bucket
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long subBucket = index - (long) shift * HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
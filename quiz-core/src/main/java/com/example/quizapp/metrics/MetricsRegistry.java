@@ -0,0 +1,111 @@
+package com.example.quizapp.metrics;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * MetricsRegistry owns the process's histograms and counters by name and writes them out as JSON or
+ * as a plain-text table. Look a metric up once and keep the reference: the lookup is a map access,
+ * recording on the returned object is not.
+ */
+public final class MetricsRegistry {
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        for (Counter counter : counters.values()) {
+            counter.reset();
+        }
+    }
+
+    // One JSON object: the given info strings (e.g. build and device), then every histogram that has
+    // recorded something (times in microseconds) and every counter, each sorted by name
+    public void writeJson(Appendable out, Map<String, String> info) throws IOException {
+        out.append("{\n  \"info\": {");
+        String separator = "\n";
+        for (Map.Entry<String, String> entry : new TreeMap<>(info).entrySet()) {
+            out.append(separator).append("    ").append(quote(entry.getKey())).append(": ")
+                    .append(quote(entry.getValue()));
+            separator = ",\n";
+        }
+        out.append("\n  },\n  \"histograms\": {");
+        separator = "\n";
+        for (LatencyHistogram histogram : new TreeMap<>(histograms).values()) {
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            out.append(separator).append("    ").append(quote(histogram.getName())).append(": {\"count\": ")
+                    .append(Long.toString(histogram.getCount()))
+                    .append(", \"mean_us\": ").append(micros(histogram.getMeanNanos()));
+            for (double percentile : PERCENTILES) {
+                out.append(", \"p").append(Integer.toString((int) percentile)).append("_us\": ")
+                        .append(micros(histogram.getValueAtPercentile(percentile)));
+            }
+            out.append(", \"max_us\": ").append(micros(histogram.getMaxNanos())).append('}');
+            separator = ",\n";
+        }
+        out.append("\n  },\n  \"counters\": {");
+        separator = "\n";
+        for (Counter counter : new TreeMap<>(counters).values()) {
+            out.append(separator).append("    ").append(quote(counter.getName())).append(": ")
+                    .append(Long.toString(counter.get()));
+            separator = ",\n";
+        }
+        out.append("\n  }\n}\n");
+    }
+
+    // One line per histogram that has recorded something, then one per non-zero counter
+    public String summary() {
+        StringBuilder out = new StringBuilder();
+        for (LatencyHistogram histogram : new TreeMap<>(histograms).values()) {
+            if (histogram.getCount() > 0) {
+                out.append(String.format(Locale.ROOT, "%-40s n=%-7d p50=%9.1fus p90=%9.1fus p99=%9.1fus max=%9.1fus%n",
+                        histogram.getName(), histogram.getCount(), histogram.getValueAtPercentile(50) / 1e3,
+                        histogram.getValueAtPercentile(90) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+                        histogram.getMaxNanos() / 1e3));
+            }
+        }
+        for (Counter counter : new TreeMap<>(counters).values()) {
+            if (counter.get() != 0) {
+                out.append(String.format(Locale.ROOT, "%-40s %d%n", counter.getName(), counter.get()));
+            }
+        }
+        return out.toString();
+    }
+
+    private static String micros(double nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e3);
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
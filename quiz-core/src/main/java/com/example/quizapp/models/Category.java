@@ -0,0 +1,36 @@
+package com.example.quizapp.models;
+
+public class Category {
+    private int id;
+    private String name;
+    private int imageResId; // To store drawable resource ID
+
+    // Dashboard statistics, filled in by DatabaseHelper.getCategoryDashboard
+    private int questionCount;
+    private int bestScore;
+    private int bestTotal; // 0 if the user has never finished a quiz in this category
+    private long lastPlayedAt; // epoch millis, 0 if never played
+
+    public Category() {}
+
+    public Category(String name, int imageResId) {
+        this.name = name;
+        this.imageResId = imageResId;
+    }
+
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public int getImageResId() { return imageResId; }
+    public void setImageResId(int imageResId) { this.imageResId = imageResId; }
+    public int getQuestionCount() { return questionCount; }
+    public void setQuestionCount(int questionCount) { this.questionCount = questionCount; }
+    public int getBestScore() { return bestScore; }
+    public void setBestScore(int bestScore) { this.bestScore = bestScore; }
+    public int getBestTotal() { return bestTotal; }
+    public void setBestTotal(int bestTotal) { this.bestTotal = bestTotal; }
+    public long getLastPlayedAt() { return lastPlayedAt; }
+    public void setLastPlayedAt(long lastPlayedAt) { this.lastPlayedAt = lastPlayedAt; }
+    public boolean hasBeenPlayed() { return bestTotal > 0; }
+}
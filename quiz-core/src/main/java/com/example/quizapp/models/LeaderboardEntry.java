@@ -0,0 +1,29 @@
+package com.example.quizapp.models;
+
+// One user's place on the leaderboard; rank is 1 + the number of users rated strictly higher,
+// or 0 for a user who has no rated answers yet
+public class LeaderboardEntry {
+    private final int rank;
+    private final long userId;
+    private final String username;
+    private final double rating;
+    private final int ratedAnswers;
+
+    public LeaderboardEntry(int rank, long userId, String username, double rating, int ratedAnswers) {
+        this.rank = rank;
+        this.userId = userId;
+        this.username = username;
+        this.rating = rating;
+        this.ratedAnswers = ratedAnswers;
+    }
+
+    public int getRank() { return rank; }
+    public long getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public double getRating() { return rating; }
+    public int getRatedAnswers() { return ratedAnswers; }
+
+    public boolean isRanked() {
+        return rank > 0;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.quizapp.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for EloRating's update rules and their convergence on a simulated answer stream.
+ */
+public class EloRatingTest {
+    private static final double START = EloRating.INITIAL_RATING;
+
+    @Test
+    public void evenMatchMovesBothSidesByHalfTheStep() {
+        assertEquals(0.5, EloRating.expectedScore(START, START), 1e-12);
+        assertEquals(10.0 / 11, EloRating.expectedScore(START + 400, START), 1e-12);
+
+        double k = EloRating.kFactor(0);
+        assertEquals(EloRating.MAX_K, k, 1e-12);
+        assertEquals(START + k / 2, EloRating.nextRating(START, 0, START, true), 1e-9);
+        assertEquals(START - k / 2, EloRating.nextDifficulty(START, 0, START, true), 1e-9);
+        assertEquals(START - k / 2, EloRating.nextRating(START, 0, START, false), 1e-9);
+        assertEquals(START + k / 2, EloRating.nextDifficulty(START, 0, START, false), 1e-9);
+    }
+
+    @Test
+    public void stepShrinksWithRatedAnswers() {
+        assertEquals(EloRating.MAX_K / 2, EloRating.kFactor(EloRating.SETTLING_ANSWERS), 1e-12);
+        assertTrue(EloRating.kFactor(5) < EloRating.kFactor(4));
+        assertEquals(EloRating.MIN_K, EloRating.kFactor(1_000_000), 1e-12);
+
+        // An expected win barely moves a settled rating, an upset moves it a lot
+        double settled = EloRating.kFactor(1000);
+        assertEquals(settled * (1 - 10.0 / 11), EloRating.nextRating(1900, 1000, 1500, true) - 1900, 1e-9);
+        assertEquals(settled * (1 - 1.0 / 11), EloRating.nextRating(1500, 1000, 1900, true) - 1500, 1e-9);
+    }
+
+    @Test
+    public void ratingsConvergeTowardsTheTrueSkillGap() {
+        // One user answers questions whose true difficulty is spread around their true skill
+        Random random = new Random(5);
+        int questions = 50;
+        double skill = 1800;
+        double[] trueDifficulty = new double[questions];
+        double[] difficulty = new double[questions];
+        long[] questionAnswers = new long[questions];
+        for (int i = 0; i < questions; i++) {
+            trueDifficulty[i] = 1400 + 800.0 * i / questions;
+            difficulty[i] = START;
+        }
+        double rating = START;
+        for (long answers = 0; answers < 20_000; answers++) {
+            int q = random.nextInt(questions);
+            boolean correct = random.nextDouble() < EloRating.expectedScore(skill, trueDifficulty[q]);
+            double newRating = EloRating.nextRating(rating, answers, difficulty[q], correct);
+            difficulty[q] = EloRating.nextDifficulty(difficulty[q], questionAnswers[q]++, rating, correct);
+            rating = newRating;
+        }
+
+        // Only differences are meaningful. Averaged over the easiest and the hardest fifth, the questions
+        // end up as far apart as their true difficulties, and the user's rating about as far from each
+        int fifth = questions / 5;
+        double easy = 0;
+        double hard = 0;
+        double trueEasy = 0;
+        double trueHard = 0;
+        for (int i = 0; i < fifth; i++) {
+            easy += difficulty[i] / fifth;
+            hard += difficulty[questions - 1 - i] / fifth;
+            trueEasy += trueDifficulty[i] / fifth;
+            trueHard += trueDifficulty[questions - 1 - i] / fifth;
+        }
+        assertEquals(trueHard - trueEasy, hard - easy, 50);
+        assertEquals(skill - trueEasy, rating - easy, 100);
+        assertEquals(skill - trueHard, rating - hard, 100);
+    }
+}
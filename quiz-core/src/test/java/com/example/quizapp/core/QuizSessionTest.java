@@ -0,0 +1,95 @@
+package com.example.quizapp.core;
+
+import com.example.quizapp.models.Question;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for QuizSession and the grading rules in QuizEngine.
+ */
+public class QuizSessionTest {
+
+    private static Question question(long id, int answerNr) {
+        Question question = new Question("Q" + id, "A", "B", "C", "D", answerNr, 1);
+        question.setId((int) id);
+        return question;
+    }
+
+    @Test
+    public void optionIndexMapsToAnswerNr() {
+        assertEquals(1, QuizEngine.answerNrForOption(0));
+        assertEquals(4, QuizEngine.answerNrForOption(3));
+        // Nothing selected: RadioGroup.indexOfChild(null) is -1
+        assertEquals(0, QuizEngine.answerNrForOption(-1));
+        assertEquals(0, QuizEngine.answerNrForOption(4));
+        assertFalse(QuizEngine.isCorrect(question(1, 0), 0));
+    }
+
+    @Test
+    public void scoresFirstAnswerOnlyAndEndsAfterLastQuestion() {
+        QuizSession session = new QuizSession(new long[]{7, 8, 9});
+        assertEquals(7, session.getNextQuestionId());
+
+        session.present(question(7, 2));
+        assertEquals(1, session.getQuestionNumber());
+        assertTrue(session.answer(2, 1000));
+        assertFalse(session.answer(3, 1500));
+        assertTrue(session.isAnswered());
+        assertEquals(1, session.getScore());
+
+        session.present(question(8, 1));
+        assertFalse(session.isAnswered());
+        assertFalse(session.answer(0, 30_000));
+
+        // A question deleted since the draw is skipped but still counts towards the end
+        session.skip();
+        assertFalse(session.hasMoreQuestions());
+        assertEquals(3, session.getQuestionNumber());
+        assertEquals(1, session.getScore());
+
+        QuizStats stats = session.getStats();
+        assertEquals(2, stats.getAnswered());
+        assertEquals(1, stats.getCorrect());
+        assertEquals(0.5, stats.getAccuracy(), 1e-9);
+        assertEquals(15_500, stats.getMeanResponseMillis());
+        assertEquals(1000, stats.getMedianResponseMillis());
+        assertEquals(30_000, stats.getSlowestResponseMillis());
+    }
+
+    @Test
+    public void resumedSessionContinuesWhereItStopped() {
+        QuizSession session = new QuizSession(new long[]{1, 2, 3}, 2, 2);
+        assertEquals(2, session.getNextIndex());
+        assertEquals(3, session.getNextQuestionId());
+        session.present(question(3, 4));
+        assertTrue(session.answer(4, 2000));
+        assertEquals(3, session.getScore());
+        assertEquals(3, session.getQuestionNumber());
+        assertFalse(session.hasMoreQuestions());
+        try {
+            session.present(question(4, 1));
+            fail("Presented past the end of the quiz");
+        } catch (IllegalStateException expected) {
+            assertEquals(3, session.getQuestionNumber());
+        }
+    }
+
+    @Test
+    public void shuffleIsASeededPermutation() {
+        long[] ids = new long[100];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        long[] a = ids.clone();
+        long[] b = ids.clone();
+        QuizEngine.shuffle(a, 5L);
+        QuizEngine.shuffle(b, 5L);
+        assertArrayEquals(a, b);
+        assertFalse(java.util.Arrays.equals(ids, a));
+        long[] sorted = a.clone();
+        java.util.Arrays.sort(sorted);
+        assertArrayEquals(ids, sorted);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.quizapp.core;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the reservoir sampling behind QuizEngine.sample (and DatabaseHelper.sampleQuestionIds).
+ */
+public class ReservoirSamplerTest {
+
+    private static long[] sample(int sampleSize, long seed, int streamLength) {
+        ReservoirSampler sampler = new ReservoirSampler(sampleSize, seed);
+        for (long id = 1; id <= streamLength; id++) {
+            sampler.offer(id);
+        }
+        return sampler.result();
+    }
+
+    @Test
+    public void sameSeedGivesSameSampleAndOrder() {
+        assertArrayEquals(sample(10, 42L, 5000), sample(10, 42L, 5000));
+    }
+
+    @Test
+    public void differentSeedsGiveDifferentSamples() {
+        assertFalse(java.util.Arrays.equals(sample(10, 1L, 5000), sample(10, 2L, 5000)));
+    }
+
+    @Test
+    public void sampleHasDistinctIdsFromTheStream() {
+        long[] ids = sample(25, 7L, 1000);
+        assertEquals(25, ids.length);
+        Set<Long> distinct = new HashSet<>();
+        for (long id : ids) {
+            assertTrue(id >= 1 && id <= 1000);
+            distinct.add(id);
+        }
+        assertEquals(25, distinct.size());
+    }
+
+    @Test
+    public void shortStreamReturnsEverythingShuffled() {
+        long[] ids = sample(10, 3L, 4);
+        assertEquals(4, ids.length);
+        Set<Long> distinct = new HashSet<>();
+        for (long id : ids) {
+            distinct.add(id);
+        }
+        assertEquals(4, distinct.size());
+    }
+
+    @Test
+    public void everyIdIsRoughlyEquallyLikely() {
+        int streamLength = 20;
+        int[] hits = new int[streamLength + 1];
+        int runs = 20_000;
+        for (int seed = 0; seed < runs; seed++) {
+            for (long id : sample(5, seed, streamLength)) {
+                hits[(int) id]++;
+            }
+        }
+        double expected = runs * 5.0 / streamLength;
+        for (int id = 1; id <= streamLength; id++) {
+            assertEquals("id " + id, expected, hits[id], expected * 0.1);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.quizapp.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for ReviewScheduler's memory model and its selection order, including a
+ * randomized comparison of the indexed heap against a plain priority queue.
+ */
+public class ReviewSchedulerTest {
+    private static final long DAY = ReviewScheduler.DAY_MILLIS;
+
+    @Test
+    public void intervalsGrowWithCorrectAnswersAndResetOnAMiss() {
+        ReviewScheduler scheduler = new ReviewScheduler(4);
+        scheduler.addNew(7);
+        assertTrue(scheduler.isNew(7));
+
+        scheduler.record(7, 4, 0);
+        assertFalse(scheduler.isNew(7));
+        assertEquals(DAY, scheduler.getIntervalMillis(7));
+        assertEquals(DAY, scheduler.getDueAt(7));
+        scheduler.record(7, 4, DAY);
+        assertEquals(6 * DAY, scheduler.getIntervalMillis(7));
+        scheduler.record(7, 5, 7 * DAY);
+        // 6 days times the ease before this answer
+        assertEquals(15 * DAY, scheduler.getIntervalMillis(7));
+        assertEquals(3, scheduler.getRepetitions(7));
+        assertEquals(2.6, scheduler.getEase(7), 1e-9);
+
+        scheduler.record(7, 1, 30 * DAY);
+        assertEquals(0, scheduler.getRepetitions(7));
+        assertEquals(1, scheduler.getLapses(7));
+        assertEquals(ReviewScheduler.RELEARN_INTERVAL_MILLIS, scheduler.getIntervalMillis(7));
+        assertEquals(30 * DAY + ReviewScheduler.RELEARN_INTERVAL_MILLIS, scheduler.getDueAt(7));
+        assertEquals(2.6 - 0.54, scheduler.getEase(7), 1e-9);
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.record(7, 0, 31 * DAY);
+        }
+        assertEquals(ReviewScheduler.MIN_EASE, scheduler.getEase(7), 1e-9);
+    }
+
+    @Test
+    public void gradesFollowCorrectnessAndSpeed() {
+        assertEquals(1, ReviewScheduler.grade(false, 1000, 30_000));
+        assertEquals(5, ReviewScheduler.grade(true, 10_000, 30_000));
+        assertEquals(4, ReviewScheduler.grade(true, 20_000, 30_000));
+        assertEquals(3, ReviewScheduler.grade(true, 29_000, 30_000));
+    }
+
+    @Test
+    public void dueReviewsComeFirstThenNewThenUpcoming() {
+        ReviewScheduler scheduler = new ReviewScheduler(8);
+        scheduler.add(1, 2.5, DAY, 5 * DAY, 1, 0);   // upcoming
+        scheduler.add(2, 2.5, DAY, 2 * DAY, 1, 0);   // due
+        scheduler.add(3, 2.5, DAY, DAY, 1, 0);       // most overdue
+        scheduler.addNew(10);
+        scheduler.addNew(11);
+        assertFalse(scheduler.addNew(10));
+        assertFalse(scheduler.add(3, 2.5, DAY, DAY, 1, 0));
+
+        long now = 3 * DAY;
+        assertEquals(2, scheduler.countDue(now));
+        assertArrayEquals(new long[]{3, 2, 10, 11, 1}, scheduler.next(10, now));
+        // Selection does not change the schedule
+        assertArrayEquals(new long[]{3, 2, 10}, scheduler.next(3, now));
+
+        // Answering the overdue one well pushes it out; answering a new one puts it into the schedule
+        scheduler.record(3, 5, now);
+        scheduler.record(10, 1, now);
+        assertEquals(1, scheduler.countDue(now));
+        assertArrayEquals(new long[]{2, 11, 10, 1, 3}, scheduler.next(10, now));
+        // 10 is due again after its miss; 2 and 10 are taken off the heap while new questions are picked
+        assertArrayEquals(new long[]{2, 10, 11, 1, 3}, scheduler.next(10, now + DAY));
+    }
+
+    @Test
+    public void reviewTakenForThisRoundIsNotAlsoServedAsNew() {
+        ReviewScheduler scheduler = new ReviewScheduler(4);
+        scheduler.addNew(1);
+        scheduler.addNew(2);
+        scheduler.addNew(3);
+        scheduler.record(1, 1, 0);
+        long now = 11 * ReviewScheduler.MINUTE_MILLIS;
+        assertArrayEquals(new long[]{1, 2, 3}, scheduler.next(3, now));
+        assertFalse(scheduler.isNew(1));
+        assertTrue(scheduler.isNew(3));
+    }
+
+    @Test
+    public void matchesAPriorityQueueUnderRandomAnswers() {
+        int questions = 5000;
+        ReviewScheduler scheduler = new ReviewScheduler(16);
+        Random random = new Random(3);
+        for (long id = 1; id <= questions; id++) {
+            scheduler.addNew(id);
+        }
+        long now = 0;
+        for (int round = 0; round < 20_000; round++) {
+            now += random.nextInt(60) * ReviewScheduler.MINUTE_MILLIS;
+            long[] next = scheduler.next(3, now);
+            assertEquals(3, next.length);
+            assertDistinct(next);
+            scheduler.record(next[random.nextInt(3)], random.nextInt(6), now);
+        }
+
+        // Same due order as a priority queue over every answered question, then the unseen ones
+        PriorityQueue<Long> expected = new PriorityQueue<>();
+        int due = 0;
+        for (long id = 1; id <= questions; id++) {
+            if (!scheduler.isNew(id)) {
+                expected.add(scheduler.getDueAt(id));
+                if (scheduler.getDueAt(id) <= now) {
+                    due++;
+                }
+            }
+        }
+        assertEquals(due, scheduler.countDue(now));
+        long[] order = scheduler.next(questions, Long.MAX_VALUE);
+        assertEquals(questions, order.length);
+        assertDistinct(order);
+        int reviewed = expected.size();
+        for (int i = 0; i < reviewed; i++) {
+            assertEquals((long) expected.poll(), scheduler.getDueAt(order[i]));
+        }
+        for (int i = reviewed; i < questions; i++) {
+            assertTrue(scheduler.isNew(order[i]));
+        }
+    }
+
+    private static void assertDistinct(long[] ids) {
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            assertNotEquals("Question " + sorted[i] + " served twice", sorted[i - 1], sorted[i]);
+        }
+    }
+}
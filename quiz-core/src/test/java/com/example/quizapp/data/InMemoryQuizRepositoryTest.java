@@ -0,0 +1,17 @@
+package com.example.quizapp.data;
+
+import com.example.quizapp.models.Category;
+import com.example.quizapp.models.Question;
+
+import java.util.List;
+
+/**
+ * Runs the QuizRepository contract against InMemoryQuizRepository.
+ */
+public class InMemoryQuizRepositoryTest extends QuizRepositoryContract {
+
+    @Override
+    protected QuizRepository createRepository(List<Category> categories, List<Question> questions) {
+        return new InMemoryQuizRepository(categories, questions);
+    }
+}
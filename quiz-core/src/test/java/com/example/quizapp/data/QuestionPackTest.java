@@ -0,0 +1,148 @@
+package com.example.quizapp.data;
+
+import com.example.quizapp.models.Category;
+import com.example.quizapp.models.Question;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the QuizRepository contract against a QuestionPack written to and mapped from a temporary file,
+ * plus the checks on malformed packs.
+ */
+public class QuestionPackTest extends QuizRepositoryContract {
+    private final List<File> files = new ArrayList<>();
+
+    @Override
+    protected QuizRepository createRepository(List<Category> categories, List<Question> questions)
+            throws IOException {
+        return pack(categories, questions);
+    }
+
+    private QuestionPack pack(List<Category> categories, List<Question> questions) throws IOException {
+        File file = newFile();
+        QuestionPack.write(file, categories, questions);
+        QuestionPack pack = QuestionPack.open(file);
+        assertEquals(categories.size(), pack.getCategoryCount());
+        assertEquals(questions.size(), pack.getQuestionCount());
+        return pack;
+    }
+
+    @After
+    public void deleteFiles() {
+        for (File file : files) {
+            // A mapped file cannot be deleted on every platform; leave that one to the JVM
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    @Test
+    public void repeatedStringsAreStoredOnce() throws IOException {
+        List<Question> questions = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            Question question = new Question("Statement " + i, "True", "False", null, null, 1 + i % 2, 1);
+            question.setId(i);
+            questions.add(question);
+        }
+        QuestionPack pack = pack(Collections.singletonList(category(1, "True", 10)), questions);
+
+        // 100 statements plus "True" (shared with the category name) and "False"
+        assertEquals(102, pack.getStringCount());
+        Question question = pack.getQuestionsByCategory(1).get(41);
+        assertEquals("Statement 42", question.getQuestion());
+        assertEquals("True", question.getOption1());
+        assertEquals("False", question.getOption2());
+        assertNull(question.getOption3());
+        assertEquals(1, question.getAnswerNr());
+    }
+
+    @Test
+    public void questionsAreDecodedByIdOnDemand() throws IOException {
+        List<Question> questions = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            questions.add(question(i * 2, 1 + i % 3, "Q" + i, 1 + i % 4));
+        }
+        Collections.shuffle(questions, new Random(7));
+        QuestionPack pack = pack(Arrays.asList(category(1, "A", 1), category(2, "B", 2), category(3, "C", 3)),
+                questions);
+
+        long[] ids = pack.getQuestionIds(2);
+        assertEquals(17, ids.length);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i - 1] < ids[i]);
+        }
+        assertEquals(0, pack.getQuestionIds(4).length);
+
+        // In the order asked for; ids of other categories or of no question are left out
+        long[] wanted = {ids[5], 3, ids[0], ids[16], pack.getQuestionIds(1)[0]};
+        List<Question> window = pack.getQuestionsByIds(2, wanted, 0, wanted.length);
+        assertEquals(3, window.size());
+        assertEquals(ids[5], window.get(0).getId());
+        assertEquals(ids[0], window.get(1).getId());
+        assertEquals(ids[16], window.get(2).getId());
+        assertEquals(2, window.get(2).getCategoryId());
+        assertEquals(1, pack.getQuestionsByIds(2, wanted, 2, 3).size());
+    }
+
+    @Test
+    public void rejectsTruncatedPacks() throws IOException {
+        File file = newFile();
+        QuestionPack.write(file, Collections.singletonList(category(1, "Science", 10)),
+                Arrays.asList(question(1, 1, "Q1", 1), question(2, 1, "Q2", 2)));
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        try {
+            QuestionPack.wrap(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 3)));
+            fail("opened a truncated pack");
+        } catch (IOException expected) {
+            // expected
+        }
+        assertEquals(2, QuestionPack.wrap(ByteBuffer.wrap(bytes)).getQuestionsByCategory(1).size());
+    }
+
+    @Test
+    public void rejectsFilesThatAreNotPacks() throws IOException {
+        File file = newFile();
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write("SQLite format 3\u0000".getBytes("US-ASCII"));
+        }
+        try {
+            QuestionPack.open(file);
+            fail("opened a file that is not a pack");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void rejectsQuestionsOutsideTheCategories() throws IOException {
+        try {
+            QuestionPack.write(newFile(), Collections.singletonList(category(1, "Science", 10)),
+                    Collections.singletonList(question(1, 2, "Q", 1)));
+            fail("wrote a question without its category");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    private File newFile() throws IOException {
+        File file = File.createTempFile("questions", ".qpak");
+        files.add(file);
+        return file;
+    }
+}
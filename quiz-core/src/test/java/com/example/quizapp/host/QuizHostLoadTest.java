@@ -0,0 +1,262 @@
+package com.example.quizapp.host;
+
+import com.example.quizapp.metrics.LatencyHistogram;
+import com.example.quizapp.models.Question;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Host mode under a classroom-sized load: CLIENTS participants on loopback, simulated on one thread with
+ * their own Selector, play a quiz of QUESTIONS questions. Every participant answers as soon as a question
+ * arrives, at random. Reports the end-to-end answer latency (ANSWER sent until its ACK is back), how long
+ * a question takes to reach everyone, and the server thread's CPU time (through report(), stdout by default).
+ */
+public class QuizHostLoadTest {
+    private static final int CLIENTS = 500;
+    private static final int QUESTIONS = 20;
+    private static final long TIME_LIMIT = 30_000;
+    private static final long TIMEOUT_MILLIS = 20_000;
+
+    private QuizHostServer server;
+    private final AtomicInteger answersGraded = new AtomicInteger();
+    private Simulation simulation;
+
+    protected void report(String line) {
+        System.out.println(line);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new QuizHostServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                new QuizHostServer.Listener() {
+                    @Override
+                    public void onAnswer(int participantId, int questionNumber, int answerNr, boolean correct) {
+                        answersGraded.incrementAndGet();
+                    }
+                });
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (simulation != null) {
+            simulation.close();
+        }
+        server.close();
+        server.getThread().join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Test
+    public void everyParticipantAnswersEveryQuestion() throws Exception {
+        simulation = new Simulation(server.getPort());
+        await("joins", server::getParticipantCount, CLIENTS);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long serverThreadId = server.getThread().getId();
+        long cpuStart = threads.getThreadCpuTime(serverThreadId);
+        long wallStart = System.nanoTime();
+        for (int number = 1; number <= QUESTIONS; number++) {
+            simulation.questionSentAt = System.nanoTime();
+            server.broadcastQuestion(number, QUESTIONS, question(number), TIME_LIMIT);
+            await("answers to question " + number, simulation.acks::get, number * CLIENTS);
+            server.broadcastTimer(number, TIME_LIMIT / 2);
+            server.reveal(number);
+            await("reveals of question " + number, simulation.reveals::get, number * CLIENTS);
+        }
+        server.finish();
+        await("results", simulation.results::get, CLIENTS);
+        long wallNanos = System.nanoTime() - wallStart;
+        long cpuNanos = threads.getThreadCpuTime(serverThreadId) - cpuStart;
+
+        assertEquals(0, simulation.rejected.get());
+        assertEquals(CLIENTS * QUESTIONS, answersGraded.get());
+        assertEquals(CLIENTS, server.getParticipantCount());
+        for (Client client : simulation.clients) {
+            assertEquals(client.expectedScore, client.score);
+        }
+
+        LatencyHistogram latency = simulation.answerLatency;
+        LatencyHistogram fanOut = simulation.questionFanOut;
+        report(String.format(Locale.US, "QuizHostLoadTest: %d clients, %d questions; answer latency p50 %.3f ms,"
+                        + " p99 %.3f ms, max %.3f ms; question reaches everyone within p99 %.3f ms, max %.3f ms;"
+                        + " server CPU %.1f ms (%.1f us per answer, %.0f%% of %.1f ms wall)",
+                CLIENTS, QUESTIONS, millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                millis(latency.getMaxNanos()), millis(fanOut.getValueAtPercentile(99)), millis(fanOut.getMaxNanos()),
+                millis(cpuNanos), cpuNanos / 1000.0 / (CLIENTS * QUESTIONS), 100.0 * cpuNanos / wallNanos,
+                millis(wallNanos)));
+    }
+
+    private static Question question(int number) {
+        Question question = new Question("Question " + number + ": which option is right?", "First", "Second",
+                "Third", "Fourth", 1 + number % 4, 1);
+        question.setId(number);
+        return question;
+    }
+
+    private void await(String what, IntSupplier count, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (count.getAsInt() < expected) {
+            assertNull(simulation.failure);
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for " + what + ": " + count.getAsInt() + " of " + expected);
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    // One simulated participant
+    private static final class Client {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(2 + HostProtocol.MAX_FRAME_BYTES);
+        final int[] answers = new int[QUESTIONS + 1];
+        long answerSentAt;
+        int expectedScore;
+        int score = -1;
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    // Every participant on one thread and one Selector, answering each question as soon as it arrives
+    private static final class Simulation implements Runnable {
+        final Client[] clients = new Client[CLIENTS];
+        final LatencyHistogram answerLatency = new LatencyHistogram("answer");
+        final LatencyHistogram questionFanOut = new LatencyHistogram("question");
+        final AtomicInteger acks = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final AtomicInteger reveals = new AtomicInteger();
+        final AtomicInteger results = new AtomicInteger();
+        volatile long questionSentAt;
+        volatile Throwable failure;
+        private final Selector selector = Selector.open();
+        private final Random random = new Random(11);
+        private final Thread thread = new Thread(this, "participants");
+        private volatile boolean running = true;
+
+        Simulation(int port) throws IOException {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            for (int i = 0; i < CLIENTS; i++) {
+                SocketChannel channel = SocketChannel.open(address);
+                channel.socket().setTcpNoDelay(true);
+                writeFully(channel, HostProtocol.join("participant " + i));
+                channel.configureBlocking(false);
+                clients[i] = new Client(channel);
+                channel.register(selector, SelectionKey.OP_READ, clients[i]);
+            }
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        read((Client) key.attachment());
+                    }
+                }
+            } catch (Throwable t) {
+                failure = t;
+            }
+        }
+
+        private void read(Client client) throws IOException {
+            if (client.channel.read(client.in) < 0) {
+                throw new IOException("Disconnected by the host");
+            }
+            client.in.flip();
+            int length;
+            while ((length = HostProtocol.frameLength(client.in)) > 0) {
+                int end = client.in.position() + 2 + length;
+                client.in.position(client.in.position() + 2);
+                handle(client, client.in.get(), client.in);
+                client.in.position(end);
+            }
+            client.in.compact();
+        }
+
+        private void handle(Client client, byte type, ByteBuffer frame) throws IOException {
+            long now = System.nanoTime();
+            switch (type) {
+                case HostProtocol.QUESTION: {
+                    questionFanOut.record(now - questionSentAt);
+                    int number = HostProtocol.getU16(frame);
+                    client.answers[number] = 1 + random.nextInt(4);
+                    client.answerSentAt = System.nanoTime();
+                    // Tiny and the socket is drained by the host: a blocking-style write loop is enough here
+                    writeFully(client.channel, HostProtocol.answer(number, client.answers[number]));
+                    break;
+                }
+                case HostProtocol.ACK:
+                    answerLatency.record(now - client.answerSentAt);
+                    HostProtocol.getU16(frame);
+                    if (frame.get() != HostProtocol.ACK_ACCEPTED) {
+                        rejected.incrementAndGet();
+                    }
+                    acks.incrementAndGet();
+                    break;
+                case HostProtocol.REVEAL: {
+                    int number = HostProtocol.getU16(frame);
+                    if (client.answers[number] == frame.get()) {
+                        client.expectedScore++;
+                    }
+                    reveals.incrementAndGet();
+                    break;
+                }
+                case HostProtocol.RESULT:
+                    client.score = HostProtocol.getU16(frame);
+                    results.incrementAndGet();
+                    break;
+                default:
+                    // WELCOME and TIMER need no reply
+                    break;
+            }
+        }
+
+        private static void writeFully(SocketChannel channel, ByteBuffer frame) throws IOException {
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+        }
+
+        void close() throws Exception {
+            running = false;
+            selector.wakeup();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+            for (Client client : clients) {
+                if (client != null) {
+                    client.channel.close();
+                }
+            }
+            selector.close();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.quizapp.host;
+
+import com.example.quizapp.models.Question;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests of QuizHostServer over loopback: the frame sequence a participant sees, grading, and
+ * backpressure against participants that send faster than they read or do not read at all.
+ */
+public class QuizHostServerTest {
+    private static final long TIME_LIMIT = 30_000;
+
+    private QuizHostServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new QuizHostServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), null);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        server.close();
+        server.getThread().join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Test
+    public void participantsAreGradedAndSeeTheRevealAndTheirScore() throws Exception {
+        try (Participant alice = join("alice"); Participant bob = join("bob")) {
+            Question question = question("Capital of France?", "Berlin", "Paris", "Rome", "Madrid", 2);
+            server.broadcastQuestion(1, 3, question, TIME_LIMIT);
+            for (Participant participant : new Participant[]{alice, bob}) {
+                ByteBuffer frame = participant.expect(HostProtocol.QUESTION);
+                assertEquals(1, HostProtocol.getU16(frame));
+                assertEquals(3, HostProtocol.getU16(frame));
+                assertEquals(TIME_LIMIT, frame.getInt());
+                assertEquals("Capital of France?", HostProtocol.getString(frame));
+                assertEquals("Berlin", HostProtocol.getString(frame));
+                assertEquals("Paris", HostProtocol.getString(frame));
+                assertEquals("Rome", HostProtocol.getString(frame));
+                assertEquals("Madrid", HostProtocol.getString(frame));
+                // The answer is not part of the question
+                assertFalse(frame.hasRemaining());
+            }
+
+            assertEquals(HostProtocol.ACK_ACCEPTED, alice.answer(1, 2));
+            assertEquals(HostProtocol.ACK_DUPLICATE, alice.answer(1, 3));
+            assertEquals(HostProtocol.ACK_INVALID, bob.answer(1, 5));
+            assertEquals(HostProtocol.ACK_LATE, bob.answer(2, 1));
+            assertEquals(HostProtocol.ACK_ACCEPTED, bob.answer(1, 4));
+
+            server.broadcastTimer(1, 12_000);
+            ByteBuffer timer = alice.expect(HostProtocol.TIMER);
+            assertEquals(1, HostProtocol.getU16(timer));
+            assertEquals(12_000, timer.getInt());
+            bob.expect(HostProtocol.TIMER);
+
+            server.reveal(1);
+            for (Participant participant : new Participant[]{alice, bob}) {
+                ByteBuffer reveal = participant.expect(HostProtocol.REVEAL);
+                assertEquals(1, HostProtocol.getU16(reveal));
+                assertEquals(2, reveal.get());
+                int[] counts = {HostProtocol.getU16(reveal), HostProtocol.getU16(reveal),
+                        HostProtocol.getU16(reveal), HostProtocol.getU16(reveal)};
+                assertArrayEquals(new int[]{0, 1, 0, 1}, counts);
+            }
+            assertEquals(HostProtocol.ACK_LATE, bob.answer(1, 2));
+
+            // Someone joining now catches up on the question and its reveal
+            try (Participant carol = join("carol")) {
+                carol.expect(HostProtocol.QUESTION);
+                carol.expect(HostProtocol.REVEAL);
+                assertEquals(3, server.getParticipantCount());
+            }
+
+            server.finish();
+            ByteBuffer result = alice.expect(HostProtocol.RESULT);
+            assertEquals(1, HostProtocol.getU16(result));
+            assertEquals(3, HostProtocol.getU16(result));
+            result = bob.expect(HostProtocol.RESULT);
+            assertEquals(0, HostProtocol.getU16(result));
+        }
+    }
+
+    @Test
+    public void answerFloodIsPacedByItsOwnAcknowledgements() throws Exception {
+        // Megabytes of ACKs, far more than MAX_QUEUED_BYTES and the socket buffers together: the flooder is
+        // only kept because the server stops reading from it while its ACKs back up
+        int batch = 1000;
+        int answers = 1000 * batch;
+        try (Participant flooder = join("flooder", 4096)) {
+            server.broadcastQuestion(1, 1, question("Q", "A", "B", "C", "D", 1), TIME_LIMIT);
+            flooder.expect(HostProtocol.QUESTION);
+
+            Thread writer = new Thread(() -> {
+                ByteBuffer frame = HostProtocol.answer(1, 1);
+                byte[] frames = new byte[frame.remaining() * batch];
+                for (int i = 0; i < batch; i++) {
+                    frame.get(frames, i * frame.capacity(), frame.capacity());
+                    frame.rewind();
+                }
+                try {
+                    for (int sent = 0; sent < answers; sent += batch) {
+                        flooder.out.write(frames);
+                    }
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            writer.start();
+            Thread.sleep(200);
+
+            int accepted = 0;
+            int duplicates = 0;
+            for (int i = 0; i < answers; i++) {
+                ByteBuffer ack = flooder.expect(HostProtocol.ACK);
+                assertEquals(1, HostProtocol.getU16(ack));
+                if (ack.get() == HostProtocol.ACK_ACCEPTED) {
+                    accepted++;
+                } else {
+                    duplicates++;
+                }
+            }
+            writer.join();
+            assertEquals(1, accepted);
+            assertEquals(answers - 1, duplicates);
+            assertEquals(1, server.getParticipantCount());
+        }
+    }
+
+    @Test
+    public void participantThatStopsReadingIsDroppedWithoutHoldingUpTheRest() throws Exception {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 3000) {
+            text.append("A long question to fill the send queues. ");
+        }
+        Question big = question(text.toString(), "A", "B", "C", "D", 1);
+        try (Participant stuck = join("stuck", 4096); Participant reader = join("reader")) {
+            int sent = 0;
+            while (server.getParticipantCount() == 2 && sent < 10_000) {
+                sent++;
+                server.broadcastQuestion(sent, 10_000, big, TIME_LIMIT);
+                assertEquals(sent, HostProtocol.getU16(reader.expect(HostProtocol.QUESTION)));
+            }
+            assertEquals(1, server.getParticipantCount());
+
+            // The reader is unaffected
+            server.broadcastQuestion(sent + 1, 10_000, big, TIME_LIMIT);
+            assertEquals(sent + 1, HostProtocol.getU16(reader.expect(HostProtocol.QUESTION)));
+
+            // and the host hung up on the stuck one, which only finds what was already in flight
+            assertTrue(stuck.disconnectedAfterReadingAtMost(sent));
+        }
+    }
+
+    @Test
+    public void malformedFramesCostOnlyTheirSender() throws Exception {
+        try (Participant alice = join("alice")) {
+            server.broadcastQuestion(1, 1, question("Q", "A", "B", "C", "D", 1), TIME_LIMIT);
+            alice.expect(HostProtocol.QUESTION);
+            // A JOIN whose name claims 256 bytes of a 2-byte payload, and an ANSWER without its answerNr
+            try (Participant sender = new Participant(server.getPort(), 0)) {
+                sender.send(ByteBuffer.wrap(new byte[]{0, 3, HostProtocol.JOIN, 1, 0}));
+                assertTrue(sender.disconnectedAfterReadingAtMost(0));
+            }
+            try (Participant sender = join("truncated answer")) {
+                sender.expect(HostProtocol.QUESTION);
+                sender.send(ByteBuffer.wrap(new byte[]{0, 3, HostProtocol.ANSWER, 0, 1}));
+                assertTrue(sender.disconnectedAfterReadingAtMost(0));
+            }
+
+            // The others are still served and newcomers still get in
+            assertEquals(HostProtocol.ACK_ACCEPTED, alice.answer(1, 1));
+            try (Participant bob = join("bob")) {
+                bob.expect(HostProtocol.QUESTION);
+                assertEquals(2, server.getParticipantCount());
+            }
+        }
+    }
+
+    private Participant join(String name) throws IOException {
+        return join(name, 0);
+    }
+
+    // receiveBufferBytes 0 keeps the default socket buffer
+    private Participant join(String name, int receiveBufferBytes) throws IOException {
+        Participant participant = new Participant(server.getPort(), receiveBufferBytes);
+        participant.send(HostProtocol.join(name));
+        participant.expect(HostProtocol.WELCOME);
+        return participant;
+    }
+
+    private static Question question(String text, String option1, String option2, String option3, String option4,
+                                     int answerNr) {
+        return new Question(text, option1, option2, option3, option4, answerNr, 1);
+    }
+
+    // A participant on a blocking socket: reads one frame at a time
+    private static final class Participant implements AutoCloseable {
+        final Socket socket = new Socket();
+        final DataInputStream in;
+        final OutputStream out;
+
+        Participant(int port, int receiveBufferBytes) throws IOException {
+            if (receiveBufferBytes > 0) {
+                socket.setReceiveBufferSize(receiveBufferBytes);
+            }
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            socket.setSoTimeout(5000);
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(socket.getInputStream());
+            out = socket.getOutputStream();
+        }
+
+        void send(ByteBuffer frame) throws IOException {
+            out.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+        }
+
+        // Send an answer and return the status of its ACK
+        int answer(int number, int answerNr) throws IOException {
+            send(HostProtocol.answer(number, answerNr));
+            ByteBuffer ack = expect(HostProtocol.ACK);
+            assertEquals(number, HostProtocol.getU16(ack));
+            return ack.get();
+        }
+
+        // The next frame, which must be of this type; positioned after its type byte
+        ByteBuffer expect(byte type) throws IOException {
+            ByteBuffer frame = readFrame();
+            assertEquals(type, frame.get());
+            return frame;
+        }
+
+        // Read and discard frames until the host closes the connection; false if more than maxFrames arrive
+        boolean disconnectedAfterReadingAtMost(int maxFrames) throws IOException {
+            try {
+                for (int i = 0; i <= maxFrames; i++) {
+                    readFrame();
+                }
+                return false;
+            } catch (SocketTimeoutException e) {
+                throw e;
+            } catch (IOException e) {
+                // End of stream, or a reset from a host that closed with our data unread
+                return true;
+            }
+        }
+
+        private ByteBuffer readFrame() throws IOException {
+            byte[] frame = new byte[in.readUnsignedShort()];
+            in.readFully(frame);
+            return ByteBuffer.wrap(frame);
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.quizapp.metrics;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for LatencyHistogram's buckets and percentiles and MetricsRegistry's output.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsAreContiguousAndPrecise() {
+        int previous = -1;
+        for (long value = 0; value < 1 << 20; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index == previous || index == previous + 1);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+            previous = index;
+        }
+        Random random = new Random(1);
+        for (int i = 0; i < 10_000; i++) {
+            long value = 1 + (random.nextLong() & LatencyHistogram.MAX_VALUE);
+            long high = LatencyHistogram.highestEquivalentValue(LatencyHistogram.bucketIndex(value));
+            assertTrue(high >= value);
+            assertTrue((double) (high - value) / value < 2.0 / LatencyHistogram.SUB_BUCKETS);
+        }
+        LatencyHistogram.highestEquivalentValue(LatencyHistogram.bucketIndex(LatencyHistogram.MAX_VALUE));
+    }
+
+    @Test
+    public void percentilesOfAUniformSpread() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMaxNanos());
+        assertEquals(500_500, histogram.getMeanNanos(), 0.5);
+        assertEquals(500_000, histogram.getValueAtPercentile(50), 500_000 * 0.04);
+        assertEquals(990_000, histogram.getValueAtPercentile(99), 990_000 * 0.04);
+        assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+        assertEquals(1000, histogram.getValueAtPercentile(0), 40);
+    }
+
+    @Test
+    public void outOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(2, histogram.getCount());
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMaxNanos());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+    }
+
+    @Test
+    public void registryWritesRecordedMetrics() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        assertSame(registry.histogram("db.query"), registry.histogram("db.query"));
+        registry.histogram("db.query").record(2_000);
+        registry.histogram("unused");
+        registry.counter("db.query.main_thread").add(3);
+
+        StringBuilder json = new StringBuilder();
+        registry.writeJson(json, Collections.singletonMap("build", "1.0 \"debug\""));
+        String text = json.toString();
+        assertTrue(text.contains("\"build\": \"1.0 \\\"debug\\\"\""));
+        assertTrue(text.contains("\"db.query\": {\"count\": 1, \"mean_us\": 2.0"));
+        assertFalse(text.contains("unused"));
+        assertTrue(text.contains("\"db.query.main_thread\": 3"));
+        assertTrue(registry.summary().contains("db.query.main_thread"));
+    }
+}
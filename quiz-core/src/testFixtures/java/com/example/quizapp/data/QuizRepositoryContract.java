@@ -0,0 +1,189 @@
+package com.example.quizapp.data;
+
+import com.example.quizapp.models.Category;
+import com.example.quizapp.models.Question;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * The behaviour every QuizRepository backend shares. A backend's test extends this class and builds
+ * a repository holding exactly the given bank; the same checks then run against each backend, and
+ * loadAndLatency reports comparable numbers for all of them (through report(), stdout by default).
+ */
+public abstract class QuizRepositoryContract {
+    // Load test: this many categories of this many questions, read by THREADS threads at once
+    protected static final int LOAD_CATEGORIES = 20;
+    protected static final int LOAD_QUESTIONS_PER_CATEGORY = 250;
+    protected static final int THREADS = 4;
+    protected static final int READS_PER_THREAD = 200;
+
+    // A repository holding exactly these categories and questions (ids as given)
+    protected abstract QuizRepository createRepository(List<Category> categories, List<Question> questions)
+            throws Exception;
+
+    protected void report(String line) {
+        System.out.println(line);
+    }
+
+    @Test
+    public void categoriesComeBackInIdOrder() throws Exception {
+        List<Category> categories = Arrays.asList(category(3, "History", 30), category(1, "Science", 10),
+                category(2, "Fran\u00e7ais \u00e9t\u00e9", 20));
+        QuizRepository repository = createRepository(categories, Collections.emptyList());
+
+        List<Category> result = repository.getAllCategories();
+        assertEquals(3, result.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i + 1, result.get(i).getId());
+            assertEquals((i + 1) * 10, result.get(i).getImageResId());
+        }
+        assertEquals("Science", result.get(0).getName());
+        assertEquals("Fran\u00e7ais \u00e9t\u00e9", result.get(1).getName());
+    }
+
+    @Test
+    public void questionsOfACategoryComeBackInIdOrder() throws Exception {
+        List<Category> categories = Arrays.asList(category(1, "Science", 10), category(2, "History", 20));
+        List<Question> questions = Arrays.asList(
+                question(7, 2, "Who built the pyramids?", 3),
+                question(2, 1, "H\u2082O is?", 1),
+                question(5, 1, "Speed of light?", 4),
+                question(3, 2, "Year of the moon landing?", 2));
+        QuizRepository repository = createRepository(categories, questions);
+
+        List<Question> science = repository.getQuestionsByCategory(1);
+        assertEquals(2, science.size());
+        assertQuestionEquals(questions.get(1), science.get(0));
+        assertQuestionEquals(questions.get(2), science.get(1));
+
+        List<Question> history = repository.getQuestionsByCategory(2);
+        assertEquals(2, history.size());
+        assertQuestionEquals(questions.get(3), history.get(0));
+        assertQuestionEquals(questions.get(0), history.get(1));
+    }
+
+    @Test
+    public void emptyAndUnknownCategoriesHaveNoQuestions() throws Exception {
+        QuizRepository repository = createRepository(
+                Arrays.asList(category(1, "Science", 10), category(2, "Empty", 20)),
+                Collections.singletonList(question(1, 1, "Q", 1)));
+
+        assertTrue(repository.getQuestionsByCategory(2).isEmpty());
+        assertTrue(repository.getQuestionsByCategory(99).isEmpty());
+        assertTrue(repository.getQuestionsByCategory(-1).isEmpty());
+    }
+
+    @Test
+    public void resultsAreIndependentOfEachOther() throws Exception {
+        QuizRepository repository = createRepository(
+                Collections.singletonList(category(1, "Science", 10)),
+                Arrays.asList(question(1, 1, "Q1", 1), question(2, 1, "Q2", 2)));
+
+        List<Question> first = repository.getQuestionsByCategory(1);
+        first.clear();
+        assertEquals(2, repository.getQuestionsByCategory(1).size());
+
+        List<Category> categories = repository.getAllCategories();
+        categories.get(0).setQuestionCount(42);
+        categories.clear();
+        assertEquals(0, repository.getAllCategories().get(0).getQuestionCount());
+    }
+
+    // Several threads read random categories at once; every read must be complete and the latency
+    // distribution is reported so backends can be compared
+    @Test
+    public void loadAndLatency() throws Exception {
+        List<Category> categories = new ArrayList<>();
+        List<Question> questions = new ArrayList<>();
+        int nextId = 1;
+        for (int c = 1; c <= LOAD_CATEGORIES; c++) {
+            categories.add(category(c, "Category " + c, c));
+        }
+        for (int i = 0; i < LOAD_QUESTIONS_PER_CATEGORY; i++) {
+            for (int c = 1; c <= LOAD_CATEGORIES; c++) {
+                int id = nextId++;
+                questions.add(question(id, c, "Question " + id + " of a fairly typical length?", 1 + i % 4));
+            }
+        }
+
+        long buildStart = System.nanoTime();
+        QuizRepository repository = createRepository(categories, questions);
+        double buildMillis = (System.nanoTime() - buildStart) / 1e6;
+        repository.getQuestionsByCategory(1); // warm-up
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<long[]>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                long seed = t;
+                results.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    long[] nanos = new long[READS_PER_THREAD];
+                    for (int i = 0; i < READS_PER_THREAD; i++) {
+                        int categoryId = 1 + random.nextInt(LOAD_CATEGORIES);
+                        long t0 = System.nanoTime();
+                        List<Question> result = repository.getQuestionsByCategory(categoryId);
+                        nanos[i] = System.nanoTime() - t0;
+                        assertEquals(LOAD_QUESTIONS_PER_CATEGORY, result.size());
+                        assertEquals(categoryId, result.get(0).getCategoryId());
+                    }
+                    return nanos;
+                }));
+            }
+            long[] all = new long[THREADS * READS_PER_THREAD];
+            for (int t = 0; t < THREADS; t++) {
+                System.arraycopy(results.get(t).get(), 0, all, t * READS_PER_THREAD, READS_PER_THREAD);
+            }
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            Arrays.sort(all);
+            report(String.format("%s: built %d questions in %.1f ms; getQuestionsByCategory (%d rows) p50 %.3f ms,"
+                            + " p99 %.3f ms, max %.3f ms, %.0f reads/s on %d threads",
+                    getClass().getSimpleName(), questions.size(), buildMillis, LOAD_QUESTIONS_PER_CATEGORY,
+                    percentile(all, 50) / 1e6, percentile(all, 99) / 1e6, all[all.length - 1] / 1e6,
+                    all.length / elapsedSeconds, THREADS));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(LOAD_CATEGORIES, repository.getAllCategories().size());
+    }
+
+    protected static long percentile(long[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+
+    protected static Category category(int id, String name, int imageResId) {
+        Category category = new Category(name, imageResId);
+        category.setId(id);
+        return category;
+    }
+
+    protected static Question question(int id, int categoryId, String text, int answerNr) {
+        Question question = new Question(text, text + " A", text + " B", text + " C", text + " D", answerNr,
+                categoryId);
+        question.setId(id);
+        return question;
+    }
+
+    protected static void assertQuestionEquals(Question expected, Question actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getCategoryId(), actual.getCategoryId());
+        assertEquals(expected.getQuestion(), actual.getQuestion());
+        assertEquals(expected.getOption1(), actual.getOption1());
+        assertEquals(expected.getOption2(), actual.getOption2());
+        assertEquals(expected.getOption3(), actual.getOption3());
+        assertEquals(expected.getOption4(), actual.getOption4());
+        assertEquals(expected.getAnswerNr(), actual.getAnswerNr());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.quizapp.data;
+
+import com.example.quizapp.models.User;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * The behaviour every UserRepository backend shares. A backend's test extends this class and returns
+ * an empty repository; the same checks then run against each backend, and lookupLatency reports
+ * comparable numbers for all of them (through report(), stdout by default).
+ * Backends should use their cheapest password policy here: every addUser hashes.
+ */
+public abstract class UserRepositoryContract {
+    protected static final int LOAD_USERS = 50;
+    protected static final int LOOKUPS = 2000;
+
+    private UserRepository repository;
+
+    // A repository without any users
+    protected abstract UserRepository createRepository() throws Exception;
+
+    protected void report(String line) {
+        System.out.println(line);
+    }
+
+    @Before
+    public void createEmptyRepository() throws Exception {
+        repository = createRepository();
+    }
+
+    @Test
+    public void addedUserCanLogIn() {
+        assertTrue(repository.addUser(new User("alice", "secret")) > 0);
+        assertTrue(repository.checkUser("alice", "secret"));
+        assertFalse(repository.checkUser("alice", "Secret"));
+        assertFalse(repository.checkUser("alice", ""));
+        assertFalse(repository.checkUser("bob", "secret"));
+    }
+
+    @Test
+    public void usernamesAreUniqueIgnoringCase() {
+        long id = repository.addUser(new User("Alice", "one"));
+        assertTrue(id > 0);
+        assertEquals(-1, repository.addUser(new User("ALICE", "two")));
+        assertTrue(repository.checkUser("aLiCe", "one"));
+        assertFalse(repository.checkUser("alice", "two"));
+
+        long other = repository.addUser(new User("bob", "one"));
+        assertTrue(other > 0);
+        assertNotEquals(id, other);
+    }
+
+    @Test
+    public void existenceIgnoresCase() {
+        assertFalse(repository.checkUserExists("carol"));
+        repository.addUser(new User("Carol", "pw"));
+        assertTrue(repository.checkUserExists("carol"));
+        assertTrue(repository.checkUserExists("CAROL"));
+        assertFalse(repository.checkUserExists("caro"));
+    }
+
+    @Test
+    public void updatedPasswordReplacesTheOldOne() {
+        repository.addUser(new User("dave", "old"));
+        assertTrue(repository.updatePassword("DAVE", "new"));
+        assertFalse(repository.checkUser("dave", "old"));
+        assertTrue(repository.checkUser("dave", "new"));
+        assertFalse(repository.updatePassword("nobody", "new"));
+        assertFalse(repository.checkUserExists("nobody"));
+    }
+
+    // Signup validation is the user lookup that does not hash, so it is the one worth comparing
+    @Test
+    public void lookupLatency() {
+        for (int i = 0; i < LOAD_USERS; i++) {
+            assertTrue(repository.addUser(new User("user" + i, "pw")) > 0);
+        }
+        long[] nanos = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String username = i % 2 == 0 ? "USER" + (i % LOAD_USERS) : "missing" + i;
+            long start = System.nanoTime();
+            boolean exists = repository.checkUserExists(username);
+            nanos[i] = System.nanoTime() - start;
+            assertEquals(i % 2 == 0, exists);
+        }
+        Arrays.sort(nanos);
+        report(String.format("%s: checkUserExists over %d users p50 %.4f ms, p99 %.4f ms, max %.4f ms",
+                getClass().getSimpleName(), LOAD_USERS, nanos[LOOKUPS / 2] / 1e6, nanos[LOOKUPS * 99 / 100] / 1e6,
+                nanos[LOOKUPS - 1] / 1e6));
+    }
+}
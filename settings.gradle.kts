@@ -21,4 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "quizapp"
 include(":app")
+include(":quiz-core")
  
\ No newline at end of file